@@ -17,16 +17,22 @@
 package org.springframework.context.annotation;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.reflect.Method;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.asm.ClassReader;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Lookup;
@@ -48,6 +54,7 @@ import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.classreading.SimpleMetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
@@ -59,6 +66,8 @@ import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * A component provider that provides candidate components from a base package. Can
@@ -88,6 +97,13 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 
 	static final String DEFAULT_RESOURCE_PATTERN = "**/*.class";
 
+	/** Number of class files that a single parallel scanning task reads sequentially. */
+	private static final int PARALLEL_SCAN_THRESHOLD = 32;
+
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+	private static final String OBJECT_INTERNAL_NAME = "java/lang/Object";
+
 
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -112,6 +128,9 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	@Nullable
 	private CandidateComponentsIndex componentsIndex;
 
+	@Nullable
+	private ForkJoinPool forkJoinPool;
+
 
 	/**
 	 * Protected constructor for flexible subclass initialization.
@@ -302,6 +321,34 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 	}
 
 
+	/**
+	 * Specify a {@link ForkJoinPool} to read candidate class files with,
+	 * e.g. {@link ForkJoinPool#commonPool()}.
+	 * <p>Default is none, reading all class files sequentially on the calling
+	 * thread. If a pool is specified, class files are split into chunks which
+	 * are read and parsed in parallel; filters and conditions are still applied
+	 * sequentially, in the order of the resolved resources. If all include filters
+	 * are plain {@link AnnotationTypeFilter AnnotationTypeFilters}, class files
+	 * without any runtime-visible annotations are furthermore rejected through a
+	 * constant pool check, skipping the full ASM visit for them, unless a subclass
+	 * overrides {@link #isCandidateComponent(MetadataReader)}.
+	 * @param forkJoinPool the pool to use, or {@code null} for sequential scanning
+	 * @since 5.2.12
+	 */
+	public void setForkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Return the {@link ForkJoinPool} used for parallel scanning, if any.
+	 * @since 5.2.12
+	 */
+	@Nullable
+	public ForkJoinPool getForkJoinPool() {
+		return this.forkJoinPool;
+	}
+
+
 	/**
 	 * Scan the class path for candidate components.
 	 * @param basePackage the package to check for annotated classes
@@ -424,8 +471,10 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 			 * 从这里获取到包含对应包下的一个个.class文件的决定路径
 			 */
 			Resource[] resources = getResourcePatternResolver().getResources(packageSearchPath);
+			if (this.forkJoinPool != null) {
+				return scanCandidateComponentsInParallel(this.forkJoinPool, resources);
+			}
 			boolean traceEnabled = logger.isTraceEnabled();
-			boolean debugEnabled = logger.isDebugEnabled();
 			for (Resource resource : resources) {
 				if (traceEnabled) {
 					logger.trace("Scanning " + resource);
@@ -433,35 +482,7 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 				if (resource.isReadable()) {
 					try {
 						MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(resource);
-						/**
-						 * 根据MetadataReader判断一个类是不是可以作为Component
-						 */
-						if (isCandidateComponent(metadataReader)) {
-							ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
-							sbd.setSource(resource);
-							/**
-							 * 根据ScannedGenericBeanDefinition，判断一个类是不是可以作为Component
-							 */
-							if (isCandidateComponent(sbd)) {
-								if (debugEnabled) {
-									logger.debug("Identified candidate component class: " + resource);
-								}
-								/**
-								 * 条件都满足则加入候选列表
-								 */
-								candidates.add(sbd);
-							}
-							else {
-								if (debugEnabled) {
-									logger.debug("Ignored because not a concrete top-level class: " + resource);
-								}
-							}
-						}
-						else {
-							if (traceEnabled) {
-								logger.trace("Ignored because not matching any filter: " + resource);
-							}
-						}
+						addCandidateComponent(candidates, resource, metadataReader);
 					}
 					catch (Throwable ex) {
 						throw new BeanDefinitionStoreException(
@@ -481,6 +502,142 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		return candidates;
 	}
 
+	/**
+	 * Read the given class files in parallel, then apply filters and conditions
+	 * sequentially in the original resource order.
+	 * @see #setForkJoinPool
+	 */
+	private Set<BeanDefinition> scanCandidateComponentsInParallel(ForkJoinPool pool, Resource[] resources) {
+		MetadataReader[] metadataReaders = new MetadataReader[resources.length];
+		// Initialize the MetadataReaderFactory upfront, before any concurrent access
+		getMetadataReaderFactory();
+		pool.invoke(new MetadataReadingTask(resources, metadataReaders, 0, resources.length,
+				isAnnotationPreFilterApplicable()));
+		Set<BeanDefinition> candidates = new LinkedHashSet<>();
+		for (int i = 0; i < resources.length; i++) {
+			MetadataReader metadataReader = metadataReaders[i];
+			if (metadataReader != null) {
+				try {
+					addCandidateComponent(candidates, resources[i], metadataReader);
+				}
+				catch (Throwable ex) {
+					throw new BeanDefinitionStoreException(
+							"Failed to read candidate component class: " + resources[i], ex);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private void addCandidateComponent(Set<BeanDefinition> candidates, Resource resource,
+			MetadataReader metadataReader) throws IOException {
+
+		/**
+		 * 根据MetadataReader判断一个类是不是可以作为Component
+		 */
+		if (isCandidateComponent(metadataReader)) {
+			ScannedGenericBeanDefinition sbd = new ScannedGenericBeanDefinition(metadataReader);
+			sbd.setSource(resource);
+			/**
+			 * 根据ScannedGenericBeanDefinition，判断一个类是不是可以作为Component
+			 */
+			if (isCandidateComponent(sbd)) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Identified candidate component class: " + resource);
+				}
+				/**
+				 * 条件都满足则加入候选列表
+				 */
+				candidates.add(sbd);
+			}
+			else {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignored because not a concrete top-level class: " + resource);
+				}
+			}
+		}
+		else {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Ignored because not matching any filter: " + resource);
+			}
+		}
+	}
+
+	/**
+	 * Determine whether class files can be rejected upfront through a constant pool
+	 * check, i.e. whether all include filters are plain {@link AnnotationTypeFilter
+	 * AnnotationTypeFilters} which cannot match a class without annotations, and
+	 * {@link #isCandidateComponent(MetadataReader)} has not been overridden to
+	 * accept other classes as well.
+	 * @return {@code true} if the pre-filter can be applied, {@code false} otherwise
+	 */
+	private boolean isAnnotationPreFilterApplicable() {
+		if (this.includeFilters.isEmpty()) {
+			return false;
+		}
+		Method candidateMethod = ReflectionUtils.findMethod(getClass(), "isCandidateComponent", MetadataReader.class);
+		if (candidateMethod == null ||
+				candidateMethod.getDeclaringClass() != ClassPathScanningCandidateComponentProvider.class) {
+			return false;
+		}
+		for (TypeFilter filter : this.includeFilters) {
+			if (filter.getClass() != AnnotationTypeFilter.class ||
+					((AnnotationTypeFilter) filter).getAnnotationType().isAnnotationPresent(Inherited.class)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether the given class file may carry a matching annotation,
+	 * based on its constant pool and header only: a class file without a
+	 * {@code RuntimeVisibleAnnotations} attribute name in its constant pool
+	 * cannot declare any runtime-visible annotation, and only qualifies if
+	 * its hierarchy needs to be checked.
+	 */
+	private static boolean mayDeclareAnnotations(byte[] classFile) {
+		ClassReader classReader = new ClassReader(classFile);
+		String superName = classReader.getSuperName();
+		if ((superName != null && !OBJECT_INTERNAL_NAME.equals(superName)) || classReader.getInterfaces().length > 0) {
+			return true;
+		}
+		for (int i = 1; i < classReader.getItemCount(); i++) {
+			int offset = classReader.getItem(i);
+			// CONSTANT_Utf8 entries have tag 1, followed by their length
+			if (offset > 0 && classReader.readByte(offset - 1) == 1 &&
+					isUtf8Constant(classFile, offset, RUNTIME_VISIBLE_ANNOTATIONS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Obtain a MetadataReader for the given class file, from the content that
+	 * has been read already if the MetadataReaderFactory supports it.
+	 */
+	private MetadataReader getMetadataReader(Resource resource, byte[] classFile) throws IOException {
+		MetadataReaderFactory factory = getMetadataReaderFactory();
+		if (factory instanceof SimpleMetadataReaderFactory) {
+			return ((SimpleMetadataReaderFactory) factory).getMetadataReader(resource, classFile);
+		}
+		return factory.getMetadataReader(resource);
+	}
+
+	private static boolean isUtf8Constant(byte[] classFile, int offset, String value) {
+		int length = ((classFile[offset] & 0xFF) << 8) | (classFile[offset + 1] & 0xFF);
+		if (length != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (classFile[offset + 2 + i] != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 
 	/**
 	 * Resolve the specified base package into a pattern specification for
@@ -554,4 +711,81 @@ public class ClassPathScanningCandidateComponentProvider implements EnvironmentC
 		}
 	}
 
+
+	/**
+	 * {@link RecursiveAction} reading a range of class files into
+	 * {@link MetadataReader} instances, splitting the range in halves
+	 * until it falls below {@link #PARALLEL_SCAN_THRESHOLD}.
+	 */
+	@SuppressWarnings("serial")
+	private class MetadataReadingTask extends RecursiveAction {
+
+		private final Resource[] resources;
+
+		private final MetadataReader[] metadataReaders;
+
+		private final int from;
+
+		private final int to;
+
+		private final boolean annotationPreFilter;
+
+		MetadataReadingTask(Resource[] resources, MetadataReader[] metadataReaders,
+				int from, int to, boolean annotationPreFilter) {
+
+			this.resources = resources;
+			this.metadataReaders = metadataReaders;
+			this.from = from;
+			this.to = to;
+			this.annotationPreFilter = annotationPreFilter;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > PARALLEL_SCAN_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(new MetadataReadingTask(this.resources, this.metadataReaders,
+								this.from, middle, this.annotationPreFilter),
+						new MetadataReadingTask(this.resources, this.metadataReaders,
+								middle, this.to, this.annotationPreFilter));
+				return;
+			}
+			boolean traceEnabled = logger.isTraceEnabled();
+			for (int i = this.from; i < this.to; i++) {
+				Resource resource = this.resources[i];
+				if (traceEnabled) {
+					logger.trace("Scanning " + resource);
+				}
+				if (!resource.isReadable()) {
+					if (traceEnabled) {
+						logger.trace("Ignored because not readable: " + resource);
+					}
+					continue;
+				}
+				try {
+					if (this.annotationPreFilter) {
+						byte[] classFile;
+						try (InputStream is = resource.getInputStream()) {
+							classFile = StreamUtils.copyToByteArray(is);
+						}
+						if (!mayDeclareAnnotations(classFile)) {
+							if (traceEnabled) {
+								logger.trace("Ignored because not declaring any annotations: " + resource);
+							}
+							continue;
+						}
+						this.metadataReaders[i] = getMetadataReader(resource, classFile);
+					}
+					else {
+						this.metadataReaders[i] = getMetadataReaderFactory().getMetadataReader(resource);
+					}
+				}
+				catch (Throwable ex) {
+					throw new BeanDefinitionStoreException(
+							"Failed to read candidate component class: " + resource, ex);
+				}
+			}
+		}
+	}
+
 }
@@ -16,9 +16,11 @@
 
 package org.springframework.context.annotation;
 
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 import example.gh24375.AnnotatedComponent;
@@ -34,6 +36,7 @@ import example.scannable.FooServiceImpl;
 import example.scannable.MessageBean;
 import example.scannable.NamedComponent;
 import example.scannable.NamedStubDao;
+import example.scannable.PackageMarker;
 import example.scannable.ScopedProxyTestBean;
 import example.scannable.ServiceInvocationCounter;
 import example.scannable.StubFooDao;
@@ -47,6 +50,7 @@ import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
 import org.springframework.core.type.filter.RegexPatternTypeFilter;
@@ -102,6 +106,33 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		assertBeanDefinitionType(candidates);
 	}
 
+	@Test
+	public void defaultsWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setForkJoinPool(ForkJoinPool.commonPool());
+		testDefault(provider);
+	}
+
+	@Test
+	public void overriddenCandidateCheckWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false) {
+			@Override
+			protected boolean isCandidateComponent(MetadataReader metadataReader) throws IOException {
+				return (super.isCandidateComponent(metadataReader) ||
+						metadataReader.getClassMetadata().getClassName().equals(PackageMarker.class.getName()));
+			}
+		};
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		provider.setForkJoinPool(ForkJoinPool.commonPool());
+		provider.addIncludeFilter(new AnnotationTypeFilter(Component.class));
+		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
+		assertThat(containsBeanClass(candidates, PackageMarker.class)).isTrue();
+		assertThat(containsBeanClass(candidates, NamedComponent.class)).isTrue();
+	}
+
 	@Test
 	public void antStylePackageWithScan() {
 		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(true);
@@ -186,6 +217,21 @@ public class ClassPathScanningCandidateComponentProviderTests {
 		testCustomAssignableTypeIncludeFilter(provider);
 	}
 
+	@Test
+	public void customAssignableTypeIncludeFilterWithParallelScan() {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.setResourceLoader(new DefaultResourceLoader(
+				CandidateComponentsTestClassLoader.disableIndex(getClass().getClassLoader())));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			provider.setForkJoinPool(pool);
+			testCustomAssignableTypeIncludeFilter(provider);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
 	private void testCustomAssignableTypeIncludeFilter(ClassPathScanningCandidateComponentProvider provider) {
 		provider.addIncludeFilter(new AssignableTypeFilter(FooService.class));
 		Set<BeanDefinition> candidates = provider.findCandidateComponents(TEST_BASE_PACKAGE);
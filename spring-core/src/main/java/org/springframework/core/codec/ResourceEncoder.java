@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.core.codec;
 
+import java.io.IOException;
 import java.util.Map;
 
 import reactor.core.publisher.Flux;
@@ -46,6 +47,8 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 
 	private final int bufferSize;
 
+	private long memoryMappedThreshold = -1;
+
 
 	public ResourceEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -58,6 +61,27 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	}
 
 
+	/**
+	 * Set the minimum content length of a file-based {@code Resource} to be
+	 * read through memory mapping rather than copied into allocated buffers.
+	 * <p>By default this is set to -1, never using memory mapping.
+	 * @param memoryMappedThreshold the threshold in bytes, or -1 to disable
+	 * @since 5.2.12
+	 * @see DataBufferUtils#readMapped(Resource, long, DataBufferFactory, int)
+	 */
+	public void setMemoryMappedThreshold(long memoryMappedThreshold) {
+		this.memoryMappedThreshold = memoryMappedThreshold;
+	}
+
+	/**
+	 * Return the {@link #setMemoryMappedThreshold configured} threshold for memory mapping.
+	 * @since 5.2.12
+	 */
+	public long getMemoryMappedThreshold() {
+		return this.memoryMappedThreshold;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		Class<?> clazz = elementType.toClass();
@@ -72,7 +96,26 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 			String logPrefix = Hints.getLogPrefix(hints);
 			logger.debug(logPrefix + "Writing [" + resource + "]");
 		}
+		if (useMemoryMapping(resource, this.memoryMappedThreshold)) {
+			return DataBufferUtils.readMapped(resource, 0, bufferFactory, this.bufferSize);
+		}
 		return DataBufferUtils.read(resource, bufferFactory, this.bufferSize);
 	}
 
+	/**
+	 * Determine whether the given resource is a file which is at least as
+	 * large as the given threshold, and should be read through memory mapping.
+	 */
+	static boolean useMemoryMapping(Resource resource, long memoryMappedThreshold) {
+		if (memoryMappedThreshold < 0 || !resource.isFile()) {
+			return false;
+		}
+		try {
+			return (resource.contentLength() >= memoryMappedThreshold);
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,13 +17,18 @@
 package org.springframework.core.codec;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.OptionalLong;
+import java.util.function.BiFunction;
 
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.InputStreamResource;
@@ -41,6 +46,10 @@ import org.springframework.util.StreamUtils;
 /**
  * Encoder for {@link ResourceRegion ResourceRegions}.
  *
+ * <p>Multiple regions of the same file-based resource are read from a single
+ * {@link FileChannel} with positional reads, rather than opening the file
+ * again for each region.
+ *
  * @author Brian Clozel
  * @since 5.0
  */
@@ -58,6 +67,8 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 
 	private final int bufferSize;
 
+	private long memoryMappedThreshold = -1;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -69,6 +80,26 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+	/**
+	 * Set the minimum content length of a file-based {@code Resource} to be
+	 * read through memory mapping rather than copied into allocated buffers.
+	 * <p>By default this is set to -1, never using memory mapping.
+	 * @param memoryMappedThreshold the threshold in bytes, or -1 to disable
+	 * @since 5.2.12
+	 * @see ResourceEncoder#setMemoryMappedThreshold
+	 */
+	public void setMemoryMappedThreshold(long memoryMappedThreshold) {
+		this.memoryMappedThreshold = memoryMappedThreshold;
+	}
+
+	/**
+	 * Return the {@link #setMemoryMappedThreshold configured} threshold for memory mapping.
+	 * @since 5.2.12
+	 */
+	public long getMemoryMappedThreshold() {
+		return this.memoryMappedThreshold;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -91,7 +122,7 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 							return Flux.error(new EncodingException(
 									"Resource " + region.getResource() + " is not readable"));
 						}
-						return writeResourceRegion(region, bufferFactory, hints);
+						return writeResourceRegion(region, bufferFactory, hints, null);
 					});
 		}
 		else {
@@ -99,26 +130,30 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 			byte[] startBoundary = toAsciiBytes("\r\n--" + boundaryString + "\r\n");
 			byte[] contentType = mimeType != null ? toAsciiBytes("Content-Type: " + mimeType + "\r\n") : new byte[0];
 
-			return Flux.from(input)
-					.concatMap(region -> {
-						if (!region.getResource().isReadable()) {
-							return Flux.error(new EncodingException(
-									"Resource " + region.getResource() + " is not readable"));
-						}
-						Flux<DataBuffer> prefix = Flux.just(
-								bufferFactory.wrap(startBoundary),
-								bufferFactory.wrap(contentType),
-								bufferFactory.wrap(getContentRangeHeader(region))); // only wrapping, no allocation
-
-						return prefix.concatWith(writeResourceRegion(region, bufferFactory, hints));
-					})
-					.concatWithValues(getRegionSuffix(bufferFactory, boundaryString));
+			return Flux.defer(() -> {
+				SharedFileChannel channel = new SharedFileChannel();
+				return Flux.from(input)
+						.concatMap(region -> {
+							if (!region.getResource().isReadable()) {
+								return Flux.error(new EncodingException(
+										"Resource " + region.getResource() + " is not readable"));
+							}
+							Flux<DataBuffer> prefix = Flux.just(
+									bufferFactory.wrap(startBoundary),
+									bufferFactory.wrap(contentType),
+									bufferFactory.wrap(getContentRangeHeader(region))); // only wrapping, no allocation
+
+							return prefix.concatWith(writeResourceRegion(region, bufferFactory, hints, channel));
+						})
+						.concatWithValues(getRegionSuffix(bufferFactory, boundaryString))
+						.doFinally(signal -> channel.close());
+			});
 		}
 		// No doOnDiscard (no caching after DataBufferUtils#read)
 	}
 
-	private Flux<DataBuffer> writeResourceRegion(
-			ResourceRegion region, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints) {
+	private Flux<DataBuffer> writeResourceRegion(ResourceRegion region, DataBufferFactory bufferFactory,
+			@Nullable Map<String, Object> hints, @Nullable SharedFileChannel sharedChannel) {
 
 		Resource resource = region.getResource();
 		long position = region.getPosition();
@@ -129,6 +164,22 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
+		if (ResourceEncoder.useMemoryMapping(resource, this.memoryMappedThreshold)) {
+			Flux<DataBuffer> in = DataBufferUtils.readMapped(resource, position, bufferFactory, this.bufferSize);
+			return DataBufferUtils.takeUntilByteCount(in, count);
+		}
+		if (sharedChannel != null && resource.isFile()) {
+			return Flux.defer(() -> {
+				try {
+					FileChannel channel = sharedChannel.get(resource);
+					return Flux.generate(() -> position,
+							new FileChannelRegionGenerator(channel, position + count, bufferFactory, this.bufferSize));
+				}
+				catch (IOException ex) {
+					return Flux.error(ex);
+				}
+			});
+		}
 		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
@@ -173,4 +224,98 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		return OptionalLong.empty();
 	}
 
+
+	/**
+	 * Holder for the {@link FileChannel} of the resource currently being
+	 * written, shared by consecutive regions of the same resource.
+	 */
+	private static final class SharedFileChannel {
+
+		@Nullable
+		private Resource resource;
+
+		@Nullable
+		private FileChannel channel;
+
+		synchronized FileChannel get(Resource resource) throws IOException {
+			FileChannel channel = this.channel;
+			if (channel == null || this.resource != resource) {
+				close();
+				channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+				this.resource = resource;
+				this.channel = channel;
+			}
+			return channel;
+		}
+
+		synchronized void close() {
+			FileChannel channel = this.channel;
+			if (channel != null) {
+				this.channel = null;
+				this.resource = null;
+				try {
+					channel.close();
+				}
+				catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Generator of {@link DataBuffer DataBuffers} with positional reads from
+	 * a {@link FileChannel}, up to the end of a region.
+	 */
+	private static final class FileChannelRegionGenerator
+			implements BiFunction<Long, SynchronousSink<DataBuffer>, Long> {
+
+		private final FileChannel channel;
+
+		private final long end;
+
+		private final DataBufferFactory bufferFactory;
+
+		private final int bufferSize;
+
+		FileChannelRegionGenerator(FileChannel channel, long end, DataBufferFactory bufferFactory, int bufferSize) {
+			this.channel = channel;
+			this.end = end;
+			this.bufferFactory = bufferFactory;
+			this.bufferSize = bufferSize;
+		}
+
+		@Override
+		public Long apply(Long position, SynchronousSink<DataBuffer> sink) {
+			long remaining = this.end - position;
+			if (remaining <= 0) {
+				sink.complete();
+				return position;
+			}
+			int size = (int) Math.min(this.bufferSize, remaining);
+			boolean release = true;
+			DataBuffer dataBuffer = this.bufferFactory.allocateBuffer(size);
+			try {
+				ByteBuffer byteBuffer = dataBuffer.asByteBuffer(0, size);
+				int read = this.channel.read(byteBuffer, position);
+				if (read >= 0) {
+					dataBuffer.writePosition(read);
+					release = false;
+					sink.next(dataBuffer);
+					return position + read;
+				}
+				sink.complete();
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+			finally {
+				if (release) {
+					DataBufferUtils.release(dataBuffer);
+				}
+			}
+			return position;
+		}
+	}
+
 }
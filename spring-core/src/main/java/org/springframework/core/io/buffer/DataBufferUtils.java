@@ -25,6 +25,7 @@ import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.OpenOption;
@@ -65,6 +66,9 @@ public abstract class DataBufferUtils {
 
 	private static final Consumer<DataBuffer> RELEASE_CONSUMER = DataBufferUtils::release;
 
+	/** Maximum size of a single region of a file that is memory-mapped at once: 64 MB. */
+	private static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
 
 	//---------------------------------------------------------------------
 	// Reading
@@ -232,6 +236,69 @@ public abstract class DataBufferUtils {
 		return position == 0 ? result : skipUntilByteCount(result, position);
 	}
 
+	/**
+	 * Read the given file {@code Path} into a {@code Flux} of read-only
+	 * {@code DataBuffer}s through memory mapping, starting at the given position.
+	 * <p>Every data buffer wraps a slice of a {@link java.nio.MappedByteBuffer}
+	 * as obtained from {@link FileChannel#map}, so file contents are not copied
+	 * into buffers allocated by the given factory. The file is mapped in regions
+	 * of up to 64 MB, lazily as the data buffers are requested. The file channel
+	 * is closed and the current region is dropped when the flux is terminated or
+	 * cancelled, and data buffers discarded by the flux are released. Mappings
+	 * remain valid until the data buffers are released and garbage collected.
+	 * @param path the path to read bytes from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to wrap the mapped byte buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of read-only data buffers backed by the mapped file
+	 * @since 5.2.12
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Path path, long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		Assert.notNull(path, "Path must not be null");
+		Assert.notNull(bufferFactory, "'dataBufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		Flux<DataBuffer> flux = Flux.using(() -> FileChannel.open(path, StandardOpenOption.READ),
+				channel -> {
+					MappedFileChannelGenerator generator =
+							new MappedFileChannelGenerator(channel, position, bufferFactory, bufferSize);
+					return Flux.generate(generator).doFinally(signal -> generator.dispose());
+				},
+				DataBufferUtils::closeChannel);
+
+		return flux.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
+	/**
+	 * Read the given {@code Resource} into a {@code Flux} of read-only
+	 * {@code DataBuffer}s through memory mapping, starting at the given position.
+	 * <p>If the resource is a file, it is read via
+	 * {@link #readMapped(Path, long, DataBufferFactory, int)}, or else falls back
+	 * on {@link #read(Resource, long, DataBufferFactory, int)}.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to create data buffers with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given resource
+	 * @since 5.2.12
+	 */
+	public static Flux<DataBuffer> readMapped(
+			Resource resource, long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		try {
+			if (resource.isFile()) {
+				return readMapped(resource.getFile().toPath(), position, bufferFactory, bufferSize);
+			}
+		}
+		catch (IOException ignore) {
+			// fallback to read(Resource...), below
+		}
+		return read(resource, position, bufferFactory, bufferSize);
+	}
+
 
 	//---------------------------------------------------------------------
 	// Writing
@@ -895,6 +962,60 @@ public abstract class DataBufferUtils {
 	}
 
 
+	private static class MappedFileChannelGenerator implements Consumer<SynchronousSink<DataBuffer>> {
+
+		private final FileChannel channel;
+
+		private final DataBufferFactory dataBufferFactory;
+
+		private final int bufferSize;
+
+		private long position;
+
+		@Nullable
+		private ByteBuffer region;
+
+		public MappedFileChannelGenerator(
+				FileChannel channel, long position, DataBufferFactory dataBufferFactory, int bufferSize) {
+
+			this.channel = channel;
+			this.position = position;
+			this.dataBufferFactory = dataBufferFactory;
+			this.bufferSize = bufferSize;
+		}
+
+		@Override
+		public void accept(SynchronousSink<DataBuffer> sink) {
+			try {
+				ByteBuffer region = this.region;
+				if (region == null || !region.hasRemaining()) {
+					long remaining = this.channel.size() - this.position;
+					if (remaining <= 0) {
+						sink.complete();
+						return;
+					}
+					long size = Math.min(remaining, MAPPED_REGION_SIZE);
+					region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+					this.position += size;
+					this.region = region;
+				}
+				ByteBuffer slice = region.slice();
+				int length = Math.min(this.bufferSize, region.remaining());
+				slice.limit(length);
+				region.position(region.position() + length);
+				sink.next(this.dataBufferFactory.wrap(slice));
+			}
+			catch (IOException ex) {
+				sink.error(ex);
+			}
+		}
+
+		public void dispose() {
+			this.region = null;
+		}
+	}
+
+
 	private static class ReadCompletionHandler implements CompletionHandler<Integer, DataBuffer> {
 
 		private final AsynchronousFileChannel channel;
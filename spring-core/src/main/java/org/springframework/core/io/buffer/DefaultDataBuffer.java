@@ -61,7 +61,7 @@ public class DefaultDataBuffer implements DataBuffer {
 	private int writePosition;
 
 
-	private DefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer) {
+	DefaultDataBuffer(DefaultDataBufferFactory dataBufferFactory, ByteBuffer byteBuffer) {
 		Assert.notNull(dataBufferFactory, "DefaultDataBufferFactory must not be null");
 		Assert.notNull(byteBuffer, "ByteBuffer must not be null");
 		this.dataBufferFactory = dataBufferFactory;
@@ -196,6 +196,7 @@ public class DefaultDataBuffer implements DataBuffer {
 			newBuffer.put(oldBuffer);
 			newBuffer.clear();
 			setNativeBuffer(newBuffer);
+			deallocate(oldBuffer);
 		}
 		else if (newCapacity < oldCapacity) {
 			ByteBuffer oldBuffer = this.byteBuffer;
@@ -215,6 +216,7 @@ public class DefaultDataBuffer implements DataBuffer {
 				writePosition(newCapacity);
 			}
 			setNativeBuffer(newBuffer);
+			deallocate(oldBuffer);
 		}
 		return this;
 	}
@@ -228,10 +230,23 @@ public class DefaultDataBuffer implements DataBuffer {
 		return this;
 	}
 
-	private static ByteBuffer allocate(int capacity, boolean direct) {
+	/**
+	 * Allocate a native buffer of the given capacity when changing the capacity.
+	 * <p>The default implementation allocates a new {@code ByteBuffer}.
+	 * @since 5.2.12
+	 */
+	ByteBuffer allocate(int capacity, boolean direct) {
 		return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
 	}
 
+	/**
+	 * Callback for a native buffer that has been replaced when changing the capacity.
+	 * <p>The default implementation is empty, leaving the buffer to the garbage collector.
+	 * @since 5.2.12
+	 */
+	void deallocate(ByteBuffer byteBuffer) {
+	}
+
 	@Override
 	public byte getByte(int index) {
 		assertIndex(index >= 0, "index %d must be >= 0", index);
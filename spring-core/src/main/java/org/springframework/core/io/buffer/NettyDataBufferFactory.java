@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -116,12 +116,14 @@ public class NettyDataBufferFactory implements DataBufferFactory {
 	/**
 	 * Return the given Netty {@link DataBuffer} as a {@link ByteBuf}.
 	 * <p>Returns the {@linkplain NettyDataBuffer#getNativeBuffer() native buffer}
-	 * if {@code buffer} is a {@link NettyDataBuffer}; returns
+	 * if {@code buffer} is a {@link NettyDataBuffer}, also if decorated by a
+	 * {@link TrackingDataBufferFactory}; returns
 	 * {@link Unpooled#wrappedBuffer(ByteBuffer)} otherwise.
 	 * @param buffer the {@code DataBuffer} to return a {@code ByteBuf} for
 	 * @return the netty {@code ByteBuf}
 	 */
 	public static ByteBuf toByteBuf(DataBuffer buffer) {
+		buffer = TrackingDataBufferFactory.unwrap(buffer);
 		if (buffer instanceof NettyDataBuffer) {
 			return ((NettyDataBuffer) buffer).getNativeBuffer();
 		}
@@ -0,0 +1,529 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Pooling variant of {@link DefaultDataBufferFactory}, for runtimes that do not
+ * have Netty's {@code PooledByteBufAllocator} at their disposal, i.e. the Servlet
+ * and Undertow adapters.
+ *
+ * <p>Allocated buffers implement {@link PooledDataBuffer}: once their reference
+ * count drops to zero through {@link DataBufferUtils#release}, the underlying
+ * {@code ByteBuffer} is recycled for subsequent allocations. Native buffers
+ * are pooled in power-of-two size classes, starting at 256 bytes, up to a
+ * maximum pooled capacity; larger buffers are allocated and released without
+ * pooling. Data buffers still report the capacity that was requested.
+ * Released buffers are kept in a small cache per thread first, and in a
+ * bounded pool per size class shared by all threads otherwise.
+ *
+ * <p>A buffer that is not released is not a memory leak as such, since it is
+ * reclaimed by the garbage collector like any other object, but it does not
+ * make it back into the pool. The {@link #setLeakDetection leak detection}
+ * mode reports such buffers, along with the stack trace of their allocation.
+ *
+ * <p>Note that slices of a pooled buffer share the reference count of that
+ * buffer, and that a pooled buffer must not be used anymore after its final
+ * release, since its memory may have been handed out to a different buffer.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see org.springframework.http.server.reactive.ServletHttpHandlerAdapter#setDataBufferFactory
+ * @see org.springframework.http.server.reactive.UndertowHttpHandlerAdapter#setDataBufferFactory
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers: 64 KB.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default maximum number of buffers per size class in the shared pool.
+	 */
+	public static final int DEFAULT_MAX_POOLED_BUFFERS = 256;
+
+	/**
+	 * The default maximum number of buffers per size class in each thread's cache.
+	 */
+	public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+
+	private static final int MIN_CAPACITY_SHIFT = 8;
+
+	private static final Log logger = LogFactory.getLog(PooledDataBufferFactory.class);
+
+
+	private final boolean preferDirect;
+
+	private final int maxPooledCapacity;
+
+	private final SizeClass[] sizeClasses;
+
+	private final int threadCacheSize;
+
+	private final ThreadLocal<ThreadCache> threadCache;
+
+	private volatile boolean leakDetection;
+
+	private final ReferenceQueue<Object> leakQueue = new ReferenceQueue<>();
+
+	private final Set<LeakTracker> leakTrackers = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong leakCount = new AtomicLong();
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} for heap buffers, with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_POOLED_BUFFERS, DEFAULT_THREAD_CACHE_SIZE);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the maximum capacity of pooled buffers, rounded
+	 * up to the next power of two
+	 * @param maxPooledBuffers the maximum number of buffers per size class
+	 * in the pool shared by all threads
+	 * @param threadCacheSize the maximum number of buffers per size class in
+	 * each thread's cache, or 0 to not use thread-local caches
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity,
+			int maxPooledBuffers, int threadCacheSize) {
+
+		super(preferDirect);
+		Assert.isTrue(maxPooledCapacity > 0, "'maxPooledCapacity' must be larger than 0");
+		Assert.isTrue(maxPooledBuffers >= 0, "'maxPooledBuffers' must not be negative");
+		Assert.isTrue(threadCacheSize >= 0, "'threadCacheSize' must not be negative");
+		this.preferDirect = preferDirect;
+		int sizeClassCount = sizeClassIndex(maxPooledCapacity) + 1;
+		this.maxPooledCapacity = sizeClassCapacity(sizeClassCount - 1);
+		this.sizeClasses = new SizeClass[sizeClassCount];
+		for (int i = 0; i < sizeClassCount; i++) {
+			this.sizeClasses[i] = new SizeClass(maxPooledBuffers);
+		}
+		this.threadCacheSize = threadCacheSize;
+		this.threadCache = ThreadLocal.withInitial(() -> new ThreadCache(sizeClassCount, threadCacheSize));
+	}
+
+
+	/**
+	 * Enable or disable leak detection. If enabled, the allocation site of every
+	 * buffer is recorded, and buffers which are garbage collected without having
+	 * been released are logged at error level along with their allocation site.
+	 * <p>By default this is set to "false". Recording allocation sites is
+	 * expensive; this mode is meant for debugging and testing.
+	 * @see #getLeakCount()
+	 */
+	public void setLeakDetection(boolean leakDetection) {
+		this.leakDetection = leakDetection;
+	}
+
+	/**
+	 * Return whether leak detection is enabled.
+	 */
+	public boolean isLeakDetection() {
+		return this.leakDetection;
+	}
+
+	/**
+	 * Return the number of leaked buffers detected so far, i.e. buffers that
+	 * were garbage collected without having been released, while leak detection
+	 * was enabled.
+	 * <p>Leaks are detected lazily on allocation; call {@link #detectLeaks()}
+	 * after a garbage collection for an up-to-date count.
+	 */
+	public long getLeakCount() {
+		return this.leakCount.get();
+	}
+
+	/**
+	 * Return the maximum capacity of pooled buffers.
+	 */
+	public int getMaxPooledCapacity() {
+		return this.maxPooledCapacity;
+	}
+
+	/**
+	 * Return the number of buffers currently held in the pool shared by all threads.
+	 */
+	public int getPooledBufferCount() {
+		int count = 0;
+		for (SizeClass sizeClass : this.sizeClasses) {
+			count += sizeClass.size.get();
+		}
+		return count;
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		Assert.isTrue(initialCapacity >= 0, "'initialCapacity' must not be negative");
+		PooledDefaultDataBuffer dataBuffer =
+				new PooledDefaultDataBuffer(this, acquire(initialCapacity), initialCapacity);
+		if (this.leakDetection) {
+			detectLeaks();
+			LeakTracker leakTracker = new LeakTracker(dataBuffer, this.leakQueue);
+			this.leakTrackers.add(leakTracker);
+			dataBuffer.leakTracker = leakTracker;
+		}
+		return dataBuffer;
+	}
+
+	/**
+	 * Report buffers which have been garbage collected since the last check
+	 * without having been released.
+	 * @return the number of leaks detected by this call
+	 */
+	public int detectLeaks() {
+		int count = 0;
+		Reference<?> reference;
+		while ((reference = this.leakQueue.poll()) != null) {
+			LeakTracker leakTracker = (LeakTracker) reference;
+			if (this.leakTrackers.remove(leakTracker)) {
+				count++;
+				this.leakCount.incrementAndGet();
+				logger.error("DataBuffer was garbage collected without having been released",
+						leakTracker.allocationSite);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Obtain a native buffer of at least the given capacity, either from the
+	 * pool or newly allocated.
+	 */
+	ByteBuffer acquire(int capacity) {
+		if (capacity > this.maxPooledCapacity) {
+			return allocateNative(capacity);
+		}
+		int index = sizeClassIndex(capacity);
+		ByteBuffer byteBuffer = null;
+		if (this.threadCacheSize > 0) {
+			byteBuffer = this.threadCache.get().poll(index);
+		}
+		if (byteBuffer == null) {
+			byteBuffer = this.sizeClasses[index].poll();
+		}
+		return (byteBuffer != null ? byteBuffer : allocateNative(sizeClassCapacity(index)));
+	}
+
+	/**
+	 * Return the given native buffer to the pool, if it matches a size class.
+	 */
+	void recycle(ByteBuffer byteBuffer) {
+		int capacity = byteBuffer.capacity();
+		if (capacity > this.maxPooledCapacity || Integer.bitCount(capacity) != 1 ||
+				capacity < sizeClassCapacity(0) || byteBuffer.isDirect() != this.preferDirect ||
+				byteBuffer.isReadOnly()) {
+			return;
+		}
+		byteBuffer.clear();
+		int index = sizeClassIndex(capacity);
+		if (this.threadCacheSize > 0 && this.threadCache.get().offer(index, byteBuffer)) {
+			return;
+		}
+		this.sizeClasses[index].offer(byteBuffer);
+	}
+
+	/**
+	 * Return a view of the given pooled buffer, limited to the given capacity.
+	 */
+	private static ByteBuffer limit(ByteBuffer pooledBuffer, int capacity) {
+		Buffer buffer = pooledBuffer.duplicate();
+		buffer.limit(capacity);
+		return ((ByteBuffer) buffer).slice();
+	}
+
+	private ByteBuffer allocateNative(int capacity) {
+		return (this.preferDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+	}
+
+	private void releaseLeakTracker(@Nullable LeakTracker leakTracker) {
+		if (leakTracker != null) {
+			this.leakTrackers.remove(leakTracker);
+			leakTracker.clear();
+		}
+	}
+
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect +
+				", maxPooledCapacity=" + this.maxPooledCapacity + ")";
+	}
+
+
+	private static int sizeClassIndex(int capacity) {
+		if (capacity <= (1 << MIN_CAPACITY_SHIFT)) {
+			return 0;
+		}
+		return (32 - Integer.numberOfLeadingZeros(capacity - 1)) - MIN_CAPACITY_SHIFT;
+	}
+
+	private static int sizeClassCapacity(int index) {
+		return 1 << (index + MIN_CAPACITY_SHIFT);
+	}
+
+
+	/**
+	 * Bounded pool of native buffers of the same capacity, shared by all threads.
+	 */
+	private static class SizeClass {
+
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		private final int maxSize;
+
+		SizeClass(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Nullable
+		ByteBuffer poll() {
+			ByteBuffer byteBuffer = this.buffers.poll();
+			if (byteBuffer != null) {
+				this.size.decrementAndGet();
+			}
+			return byteBuffer;
+		}
+
+		void offer(ByteBuffer byteBuffer) {
+			if (this.size.incrementAndGet() <= this.maxSize) {
+				this.buffers.offer(byteBuffer);
+			}
+			else {
+				this.size.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Per-thread stacks of native buffers, one for each size class.
+	 */
+	private static class ThreadCache {
+
+		private final ByteBuffer[][] buffers;
+
+		private final int[] counts;
+
+		ThreadCache(int sizeClassCount, int cacheSize) {
+			this.buffers = new ByteBuffer[sizeClassCount][cacheSize];
+			this.counts = new int[sizeClassCount];
+		}
+
+		@Nullable
+		ByteBuffer poll(int index) {
+			int count = this.counts[index];
+			if (count == 0) {
+				return null;
+			}
+			count--;
+			ByteBuffer byteBuffer = this.buffers[index][count];
+			this.buffers[index][count] = null;
+			this.counts[index] = count;
+			return byteBuffer;
+		}
+
+		boolean offer(int index, ByteBuffer byteBuffer) {
+			int count = this.counts[index];
+			ByteBuffer[] stack = this.buffers[index];
+			if (count == stack.length) {
+				return false;
+			}
+			stack[count] = byteBuffer;
+			this.counts[index] = count + 1;
+			return true;
+		}
+	}
+
+
+	/**
+	 * Phantom reference to an allocated buffer, holding on to its allocation site.
+	 */
+	private static class LeakTracker extends PhantomReference<Object> {
+
+		final Throwable allocationSite;
+
+		LeakTracker(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.allocationSite = new Throwable("DataBuffer allocation site");
+		}
+	}
+
+
+	/**
+	 * {@link DefaultDataBuffer} with a reference count, returning its native
+	 * buffer to the pool on final release.
+	 */
+	private static final class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDataBufferFactory pool;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		/**
+		 * The buffer as obtained from the pool, possibly with a larger capacity
+		 * than the view this data buffer is based on.
+		 */
+		private ByteBuffer pooledBuffer;
+
+		@Nullable
+		private ByteBuffer pendingBuffer;
+
+		@Nullable
+		private LeakTracker leakTracker;
+
+		PooledDefaultDataBuffer(PooledDataBufferFactory pool, ByteBuffer pooledBuffer, int capacity) {
+			super(pool, limit(pooledBuffer, capacity));
+			this.pool = pool;
+			this.pooledBuffer = pooledBuffer;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.refCount.get() > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			for (;;) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot retain released " + this);
+				}
+				if (this.refCount.compareAndSet(count, count + 1)) {
+					return this;
+				}
+			}
+		}
+
+		@Override
+		public boolean release() {
+			for (;;) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot release already released " + this);
+				}
+				if (this.refCount.compareAndSet(count, count - 1)) {
+					if (count == 1) {
+						this.pool.releaseLeakTracker(this.leakTracker);
+						this.pool.recycle(this.pooledBuffer);
+						return true;
+					}
+					return false;
+				}
+			}
+		}
+
+		@Override
+		ByteBuffer allocate(int capacity, boolean direct) {
+			ByteBuffer pooledBuffer = this.pool.acquire(capacity);
+			this.pendingBuffer = pooledBuffer;
+			return limit(pooledBuffer, capacity);
+		}
+
+		@Override
+		void deallocate(ByteBuffer byteBuffer) {
+			// The given buffer is a view: recycle the pooled buffer behind it instead
+			Assert.state(this.pendingBuffer != null, "No pending buffer");
+			this.pool.recycle(this.pooledBuffer);
+			this.pooledBuffer = this.pendingBuffer;
+			this.pendingBuffer = null;
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			return new PooledSlicedDataBuffer(this, asByteBuffer(index, length), length);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PooledDataBuffer (r: %d, w: %d, c: %d, refCnt: %d)",
+					readPosition(), writePosition(), capacity(), this.refCount.get());
+		}
+	}
+
+
+	/**
+	 * Slice of a {@link PooledDefaultDataBuffer}, sharing its reference count.
+	 */
+	private static final class PooledSlicedDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlicedDataBuffer(PooledDefaultDataBuffer parent, ByteBuffer byteBuffer, int length) {
+			super(parent.pool, byteBuffer);
+			this.parent = parent;
+			writePosition(length);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+	}
+
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataBufferFactory} decorator that keeps track of the buffers allocated
+ * through it until they are released, for diagnosing buffer leaks.
+ *
+ * <p>Each allocation is recorded along with an optional tag, e.g. the id of
+ * the request it was allocated for (see {@link #withTag}), the class that
+ * allocated it, e.g. an {@code Encoder}, and the stack trace of its allocation.
+ * Live allocations can be inspected through {@link #getLiveAllocations()},
+ * and summarized per tag or per allocating class.
+ *
+ * <p>Allocated buffers are always {@link PooledDataBuffer} instances, even if
+ * the delegate factory does not pool its buffers, so that unreleased buffers
+ * can be detected in tests running against a {@link DefaultDataBufferFactory}.
+ * Buffers created through {@code wrap} are not tracked, since they are based on
+ * memory owned by the caller.
+ *
+ * <p>Note that recording allocation sites is expensive, and that buffers which
+ * are never released are retained by this factory. This decorator is therefore
+ * meant for tests and for targeted diagnostics rather than for regular use.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class TrackingDataBufferFactory implements DataBufferFactory {
+
+	private static final String UNKNOWN = "unknown";
+
+	private static final int PURGE_INTERVAL = 1024;
+
+
+	private final DataBufferFactory delegate;
+
+	private final Set<Allocation> allocations = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong allocationCount = new AtomicLong();
+
+	private volatile boolean recordAllocationSites = true;
+
+
+	/**
+	 * Create a new {@code TrackingDataBufferFactory} for the given delegate.
+	 * @param delegate the factory to allocate buffers with
+	 */
+	public TrackingDataBufferFactory(DataBufferFactory delegate) {
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.delegate = delegate;
+	}
+
+
+	/**
+	 * Return the factory that buffers are allocated with.
+	 */
+	public DataBufferFactory getDelegate() {
+		return this.delegate;
+	}
+
+	/**
+	 * Whether to record the stack trace, and thereby the allocating class,
+	 * of each allocation.
+	 * <p>By default this is set to "true". Switch this off to only keep track
+	 * of counts and tags at a lower cost.
+	 */
+	public void setRecordAllocationSites(boolean recordAllocationSites) {
+		this.recordAllocationSites = recordAllocationSites;
+	}
+
+	/**
+	 * Return whether allocation sites are recorded.
+	 */
+	public boolean isRecordAllocationSites() {
+		return this.recordAllocationSites;
+	}
+
+	/**
+	 * Return a view of this factory that tags all buffers allocated through
+	 * it with the given tag, e.g. a request id or a log prefix.
+	 * @param tag the tag to apply
+	 * @return the tagging factory, sharing the allocations of this factory
+	 */
+	public DataBufferFactory withTag(String tag) {
+		Assert.notNull(tag, "Tag must not be null");
+		return new TaggedDataBufferFactory(tag);
+	}
+
+
+	@Override
+	public DataBuffer allocateBuffer() {
+		return track(this.delegate.allocateBuffer(), null, this);
+	}
+
+	@Override
+	public DataBuffer allocateBuffer(int initialCapacity) {
+		return track(this.delegate.allocateBuffer(initialCapacity), null, this);
+	}
+
+	@Override
+	public DataBuffer wrap(ByteBuffer byteBuffer) {
+		return this.delegate.wrap(byteBuffer);
+	}
+
+	@Override
+	public DataBuffer wrap(byte[] bytes) {
+		return this.delegate.wrap(bytes);
+	}
+
+	@Override
+	public DataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		return track(joinDelegates(dataBuffers), null, this);
+	}
+
+	private DataBuffer joinDelegates(List<? extends DataBuffer> dataBuffers) {
+		// Remove TrackedDataBuffer wrappers so that the delegate can find native buffers,
+		// releasing the wrappers themselves once joined
+		List<DataBuffer> delegates = dataBuffers.stream()
+				.map(buffer -> buffer instanceof TrackedDataBuffer ? ((TrackedDataBuffer) buffer).dataBuffer() : buffer)
+				.collect(Collectors.toList());
+		DataBuffer result = this.delegate.join(delegates);
+		for (DataBuffer dataBuffer : dataBuffers) {
+			if (dataBuffer instanceof TrackedDataBuffer) {
+				((TrackedDataBuffer) dataBuffer).allocation.released();
+			}
+		}
+		return result;
+	}
+
+	private DataBuffer track(DataBuffer dataBuffer, @Nullable String tag, DataBufferFactory factory) {
+		Throwable allocationSite = null;
+		String allocator = null;
+		if (this.recordAllocationSites) {
+			allocationSite = new Throwable("DataBuffer allocation site");
+			allocator = determineAllocator(allocationSite);
+		}
+		Allocation allocation = new Allocation(this, dataBuffer, tag, allocator, allocationSite);
+		this.allocations.add(allocation);
+		if (this.allocationCount.incrementAndGet() % PURGE_INTERVAL == 0) {
+			purge();
+		}
+		return new TrackedDataBuffer(dataBuffer, allocation, factory);
+	}
+
+	@Nullable
+	private static String determineAllocator(Throwable allocationSite) {
+		StackTraceElement[] stackTrace = allocationSite.getStackTrace();
+		int start = 0;
+		while (start < stackTrace.length && isInternal(stackTrace[start].getClassName())) {
+			start++;
+		}
+		if (start > 0 && start < stackTrace.length) {
+			StackTraceElement[] trimmed = new StackTraceElement[stackTrace.length - start];
+			System.arraycopy(stackTrace, start, trimmed, 0, trimmed.length);
+			allocationSite.setStackTrace(trimmed);
+			return trimmed[0].getClassName();
+		}
+		return null;
+	}
+
+	private static boolean isInternal(String className) {
+		return (className.startsWith(TrackingDataBufferFactory.class.getName()) ||
+				className.startsWith(DataBufferUtils.class.getName()) || className.startsWith("reactor."));
+	}
+
+	/**
+	 * Remove allocations whose buffers were released without going through
+	 * their {@code TrackedDataBuffer}, e.g. after having been unwrapped.
+	 */
+	private void purge() {
+		this.allocations.removeIf(allocation -> !allocation.isLive());
+	}
+
+
+	/**
+	 * Return the total number of buffers allocated through this factory
+	 * since its creation or last {@link #reset()}.
+	 */
+	public long getAllocationCount() {
+		return this.allocationCount.get();
+	}
+
+	/**
+	 * Return the allocations whose buffers have not been released yet.
+	 */
+	public List<Allocation> getLiveAllocations() {
+		List<Allocation> result = new ArrayList<>();
+		for (Iterator<Allocation> it = this.allocations.iterator(); it.hasNext();) {
+			Allocation allocation = it.next();
+			if (allocation.isLive()) {
+				result.add(allocation);
+			}
+			else {
+				it.remove();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return the number of buffers that have not been released yet.
+	 */
+	public int getLiveBufferCount() {
+		return getLiveAllocations().size();
+	}
+
+	/**
+	 * Return the total capacity of the buffers that have not been released yet.
+	 */
+	public long getLiveByteCount() {
+		long byteCount = 0;
+		for (Allocation allocation : getLiveAllocations()) {
+			byteCount += allocation.getCapacity();
+		}
+		return byteCount;
+	}
+
+	/**
+	 * Summarize the live allocations per {@link Allocation#getTag() tag}.
+	 * Untagged allocations are summarized under "unknown".
+	 */
+	public Map<String, Usage> getLiveUsageByTag() {
+		return getLiveUsage(Allocation::getTag);
+	}
+
+	/**
+	 * Summarize the live allocations per {@link Allocation#getAllocator()
+	 * allocating class}. Allocations without a recorded allocation site are
+	 * summarized under "unknown".
+	 */
+	public Map<String, Usage> getLiveUsageByAllocator() {
+		return getLiveUsage(Allocation::getAllocator);
+	}
+
+	private Map<String, Usage> getLiveUsage(Function<Allocation, String> classifier) {
+		Map<String, Usage> result = new TreeMap<>();
+		for (Allocation allocation : getLiveAllocations()) {
+			String key = classifier.apply(allocation);
+			result.computeIfAbsent((key != null ? key : UNKNOWN), k -> new Usage()).add(allocation);
+		}
+		return result;
+	}
+
+	/**
+	 * Stop tracking all current allocations, and reset the allocation count.
+	 * Buffers that are live at this point will not be reported anymore.
+	 */
+	public void reset() {
+		this.allocations.clear();
+		this.allocationCount.set(0);
+	}
+
+
+	@Override
+	public String toString() {
+		return "TrackingDataBufferFactory (" + this.delegate + ")";
+	}
+
+
+	/**
+	 * Return the buffer decorated by the given buffer, if allocated through a
+	 * {@code TrackingDataBufferFactory}, so that it can be handed over to the
+	 * underlying runtime. Once the native buffer is released by the runtime,
+	 * the allocation is not considered live anymore.
+	 */
+	static DataBuffer unwrap(DataBuffer dataBuffer) {
+		if (dataBuffer instanceof TrackedDataBuffer) {
+			DataBuffer delegate = ((TrackedDataBuffer) dataBuffer).dataBuffer();
+			if (delegate instanceof PooledDataBuffer) {
+				return delegate;
+			}
+		}
+		return dataBuffer;
+	}
+
+
+	/**
+	 * View of the enclosing factory that tags the buffers it allocates.
+	 */
+	private class TaggedDataBufferFactory implements DataBufferFactory {
+
+		private final String tag;
+
+		TaggedDataBufferFactory(String tag) {
+			this.tag = tag;
+		}
+
+		@Override
+		public DataBuffer allocateBuffer() {
+			return track(delegate.allocateBuffer(), this.tag, this);
+		}
+
+		@Override
+		public DataBuffer allocateBuffer(int initialCapacity) {
+			return track(delegate.allocateBuffer(initialCapacity), this.tag, this);
+		}
+
+		@Override
+		public DataBuffer wrap(ByteBuffer byteBuffer) {
+			return delegate.wrap(byteBuffer);
+		}
+
+		@Override
+		public DataBuffer wrap(byte[] bytes) {
+			return delegate.wrap(bytes);
+		}
+
+		@Override
+		public DataBuffer join(List<? extends DataBuffer> dataBuffers) {
+			return track(joinDelegates(dataBuffers), this.tag, this);
+		}
+
+		@Override
+		public String toString() {
+			return "TrackingDataBufferFactory (" + delegate + ", tag=" + this.tag + ")";
+		}
+	}
+
+
+	/**
+	 * A buffer allocated through a {@link TrackingDataBufferFactory}.
+	 */
+	public static final class Allocation {
+
+		private final TrackingDataBufferFactory factory;
+
+		private final DataBuffer dataBuffer;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		@Nullable
+		private final String tag;
+
+		@Nullable
+		private final String allocator;
+
+		@Nullable
+		private final Throwable allocationSite;
+
+		private final long timestamp = System.currentTimeMillis();
+
+		Allocation(TrackingDataBufferFactory factory, DataBuffer dataBuffer,
+				@Nullable String tag, @Nullable String allocator, @Nullable Throwable allocationSite) {
+
+			this.factory = factory;
+			this.dataBuffer = dataBuffer;
+			this.tag = tag;
+			this.allocator = allocator;
+			this.allocationSite = allocationSite;
+		}
+
+		/**
+		 * Return the tag of the factory view the buffer was allocated through,
+		 * if any.
+		 * @see TrackingDataBufferFactory#withTag
+		 */
+		@Nullable
+		public String getTag() {
+			return this.tag;
+		}
+
+		/**
+		 * Return the name of the class that allocated the buffer, if allocation
+		 * sites are recorded.
+		 */
+		@Nullable
+		public String getAllocator() {
+			return this.allocator;
+		}
+
+		/**
+		 * Return the stack trace of the allocation, if allocation sites are recorded.
+		 */
+		@Nullable
+		public Throwable getAllocationSite() {
+			return this.allocationSite;
+		}
+
+		/**
+		 * Return the current capacity of the buffer.
+		 */
+		public int getCapacity() {
+			return this.dataBuffer.capacity();
+		}
+
+		/**
+		 * Return the time of the allocation, in milliseconds since the epoch.
+		 */
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		boolean isLive() {
+			if (this.dataBuffer instanceof PooledDataBuffer) {
+				return ((PooledDataBuffer) this.dataBuffer).isAllocated();
+			}
+			return (this.refCount.get() > 0);
+		}
+
+		void retain() {
+			if (this.dataBuffer instanceof PooledDataBuffer) {
+				((PooledDataBuffer) this.dataBuffer).retain();
+				return;
+			}
+			for (;;) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot retain released " + this);
+				}
+				if (this.refCount.compareAndSet(count, count + 1)) {
+					return;
+				}
+			}
+		}
+
+		boolean release() {
+			boolean released;
+			if (this.dataBuffer instanceof PooledDataBuffer) {
+				released = ((PooledDataBuffer) this.dataBuffer).release();
+			}
+			else {
+				released = decrement();
+			}
+			if (released) {
+				released();
+			}
+			return released;
+		}
+
+		private boolean decrement() {
+			for (;;) {
+				int count = this.refCount.get();
+				if (count <= 0) {
+					throw new IllegalStateException("Cannot release already released " + this);
+				}
+				if (this.refCount.compareAndSet(count, count - 1)) {
+					return (count == 1);
+				}
+			}
+		}
+
+		void released() {
+			this.refCount.set(0);
+			this.factory.allocations.remove(this);
+		}
+
+		@Override
+		public String toString() {
+			return "DataBuffer allocation [tag=" + this.tag + ", allocator=" + this.allocator +
+					", capacity=" + getCapacity() + "]";
+		}
+	}
+
+
+	/**
+	 * Summary of live allocations.
+	 */
+	public static final class Usage {
+
+		private int bufferCount;
+
+		private long byteCount;
+
+		void add(Allocation allocation) {
+			this.bufferCount++;
+			this.byteCount += allocation.getCapacity();
+		}
+
+		/**
+		 * Return the number of live buffers.
+		 */
+		public int getBufferCount() {
+			return this.bufferCount;
+		}
+
+		/**
+		 * Return the total capacity of the live buffers.
+		 */
+		public long getByteCount() {
+			return this.byteCount;
+		}
+
+		@Override
+		public String toString() {
+			return this.bufferCount + " buffers, " + this.byteCount + " bytes";
+		}
+	}
+
+
+	/**
+	 * {@link PooledDataBuffer} wrapper that updates its {@link Allocation}.
+	 */
+	private static final class TrackedDataBuffer extends DataBufferWrapper implements PooledDataBuffer {
+
+		private final Allocation allocation;
+
+		private final DataBufferFactory factory;
+
+		TrackedDataBuffer(DataBuffer delegate, Allocation allocation, DataBufferFactory factory) {
+			super(delegate);
+			this.allocation = allocation;
+			this.factory = factory;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.allocation.isLive();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.allocation.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.allocation.release();
+		}
+
+		@Override
+		public DataBufferFactory factory() {
+			return this.factory;
+		}
+
+		@Override
+		public String toString() {
+			return "TrackedDataBuffer (" + dataBuffer() + ")";
+		}
+	}
+
+}
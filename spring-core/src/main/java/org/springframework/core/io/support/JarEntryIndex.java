@@ -0,0 +1,252 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * Index of entry names per jar file, allowing {@link PathMatchingResourcePatternResolver}
+ * to match wildcard patterns against an in-memory listing instead of iterating
+ * over all entries of the same jar file for every pattern resolution.
+ *
+ * <p>Only jar files in the local file system are indexed. Each listing is
+ * validated against the size and last-modified timestamp of its jar file, so a
+ * jar file which got replaced will be re-scanned on next access.
+ *
+ * <p>A shared instance for the entire JVM is available through
+ * {@link #getSharedInstance()}; it is used by default by any
+ * {@code PathMatchingResourcePatternResolver} if the
+ * {@link #SHARED_INDEX_PROPERTY_NAME "spring.jarindex.shared"} property
+ * is set to "true". The contents of an index can be persisted via
+ * {@link #store} and restored via {@link #load}, e.g. across restarts.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see PathMatchingResourcePatternResolver#setJarEntryIndex
+ */
+public class JarEntryIndex {
+
+	/**
+	 * System property that instructs Spring to use the {@link #getSharedInstance()
+	 * shared JarEntryIndex} for all {@link PathMatchingResourcePatternResolver}
+	 * instances by default: "spring.jarindex.shared".
+	 * <p>The default is "false", scanning jar files on every pattern resolution.
+	 * @see org.springframework.core.SpringProperties
+	 */
+	public static final String SHARED_INDEX_PROPERTY_NAME = "spring.jarindex.shared";
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(JarEntryIndex.class);
+
+	private static final JarEntryIndex sharedInstance = new JarEntryIndex();
+
+
+	private final Map<String, IndexedJar> indexedJars = new ConcurrentHashMap<>(64);
+
+	private final AtomicLong scannedJarCount = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+
+	/**
+	 * Return the entry names of the given jar file, either from this index
+	 * or from scanning the jar file (and adding it to the index) if it has
+	 * not been indexed before or has been modified since.
+	 * @param jarFileUrl the URL of the jar file
+	 * @return the entry names, or {@code null} if the given URL does not
+	 * point to a jar file in the file system and cannot be indexed
+	 * @throws IOException if the jar file could not be read
+	 */
+	@Nullable
+	public String[] getEntryNames(URL jarFileUrl) throws IOException {
+		if (!ResourceUtils.isFileURL(jarFileUrl)) {
+			return null;
+		}
+		File file = ResourceUtils.getFile(jarFileUrl);
+		String key = file.getAbsolutePath();
+		long size = file.length();
+		long lastModified = file.lastModified();
+		IndexedJar indexedJar = this.indexedJars.get(key);
+		if (indexedJar != null && indexedJar.size == size && indexedJar.lastModified == lastModified) {
+			this.hitCount.incrementAndGet();
+			return indexedJar.entryNames;
+		}
+		indexedJar = new IndexedJar(size, lastModified, scan(file));
+		this.indexedJars.put(key, indexedJar);
+		this.scannedJarCount.incrementAndGet();
+		return indexedJar.entryNames;
+	}
+
+	private String[] scan(File file) throws IOException {
+		if (logger.isTraceEnabled()) {
+			logger.trace("Indexing entries of jar file [" + file + "]");
+		}
+		try (JarFile jarFile = new JarFile(file)) {
+			List<String> entryNames = new ArrayList<>(jarFile.size());
+			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+				entryNames.add(entries.nextElement().getName());
+			}
+			return entryNames.toArray(new String[0]);
+		}
+	}
+
+	/**
+	 * Return the number of jar files currently held in this index.
+	 */
+	public int size() {
+		return this.indexedJars.size();
+	}
+
+	/**
+	 * Return the number of times a jar file had to be scanned for its entries
+	 * because it was not indexed yet or had been modified.
+	 */
+	public long getScannedJarCount() {
+		return this.scannedJarCount.get();
+	}
+
+	/**
+	 * Return the number of times the entries of a jar file were served from
+	 * this index without scanning the jar file.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Remove all jar files from this index and reset the counters.
+	 */
+	public void clear() {
+		this.indexedJars.clear();
+		this.scannedJarCount.set(0);
+		this.hitCount.set(0);
+	}
+
+	/**
+	 * Write the current contents of this index to the given stream.
+	 * <p>The stream will be flushed but not closed.
+	 * @param out the stream to write to
+	 * @throws IOException in case of I/O errors
+	 * @see #load
+	 */
+	public void store(OutputStream out) throws IOException {
+		DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+		dos.writeInt(FORMAT_VERSION);
+		Map<String, IndexedJar> snapshot = new LinkedHashMap<>(this.indexedJars);
+		dos.writeInt(snapshot.size());
+		for (Map.Entry<String, IndexedJar> entry : snapshot.entrySet()) {
+			IndexedJar indexedJar = entry.getValue();
+			dos.writeUTF(entry.getKey());
+			dos.writeLong(indexedJar.size);
+			dos.writeLong(indexedJar.lastModified);
+			dos.writeInt(indexedJar.entryNames.length);
+			for (String entryName : indexedJar.entryNames) {
+				dos.writeUTF(entryName);
+			}
+		}
+		dos.flush();
+	}
+
+	/**
+	 * Add the contents previously written through {@link #store} to this index.
+	 * <p>Restored listings are validated against their jar files on first
+	 * access, just like listings scanned at runtime. The stream will not be
+	 * closed.
+	 * @param in the stream to read from
+	 * @throws IOException in case of I/O errors or an unsupported format
+	 */
+	public void load(InputStream in) throws IOException {
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+		int version = dis.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported jar entry index format version: " + version);
+		}
+		int jarCount = dis.readInt();
+		for (int i = 0; i < jarCount; i++) {
+			String key = dis.readUTF();
+			long size = dis.readLong();
+			long lastModified = dis.readLong();
+			String[] entryNames = new String[dis.readInt()];
+			for (int j = 0; j < entryNames.length; j++) {
+				entryNames[j] = dis.readUTF();
+			}
+			this.indexedJars.put(key, new IndexedJar(size, lastModified, entryNames));
+		}
+	}
+
+
+	/**
+	 * Return the shared JarEntryIndex instance for the entire JVM.
+	 */
+	public static JarEntryIndex getSharedInstance() {
+		return sharedInstance;
+	}
+
+	/**
+	 * Return the shared JarEntryIndex instance if it has been enabled through
+	 * the {@link #SHARED_INDEX_PROPERTY_NAME} property, or {@code null} otherwise.
+	 */
+	@Nullable
+	static JarEntryIndex getSharedInstanceIfEnabled() {
+		return (SpringProperties.getFlag(SHARED_INDEX_PROPERTY_NAME) ? sharedInstance : null);
+	}
+
+
+	/**
+	 * Entry listing of a jar file, along with the file attributes it was taken from.
+	 */
+	private static class IndexedJar {
+
+		final long size;
+
+		final long lastModified;
+
+		final String[] entryNames;
+
+		IndexedJar(long size, long lastModified, String[] entryNames) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.entryNames = entryNames;
+		}
+	}
+
+}
@@ -205,6 +205,9 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private JarEntryIndex jarEntryIndex = JarEntryIndex.getSharedInstanceIfEnabled();
+
 
 	/**
 	 * Create a new PathMatchingResourcePatternResolver with a DefaultResourceLoader.
@@ -268,6 +271,27 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Set the {@link JarEntryIndex} to match jar file entries against, avoiding
+	 * repeated iteration over the entries of the same jar file for every pattern.
+	 * <p>Default is none, unless the shared index has been enabled through the
+	 * {@link JarEntryIndex#SHARED_INDEX_PROPERTY_NAME "spring.jarindex.shared"}
+	 * property, e.g. {@link JarEntryIndex#getSharedInstance()}.
+	 * @since 5.2.12
+	 */
+	public void setJarEntryIndex(@Nullable JarEntryIndex jarEntryIndex) {
+		this.jarEntryIndex = jarEntryIndex;
+	}
+
+	/**
+	 * Return the {@link JarEntryIndex} that this resource pattern resolver uses, if any.
+	 * @since 5.2.12
+	 */
+	@Nullable
+	public JarEntryIndex getJarEntryIndex() {
+		return this.jarEntryIndex;
+	}
+
 
 	@Override
 	public Resource getResource(String location) {
@@ -589,6 +613,20 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 			throws IOException {
 
 		URLConnection con = rootDirURL.openConnection();
+		if (this.jarEntryIndex != null && con instanceof JarURLConnection) {
+			// Match against the indexed entries instead of iterating over the jar file.
+			JarURLConnection jarCon = (JarURLConnection) con;
+			String[] entryNames = this.jarEntryIndex.getEntryNames(jarCon.getJarFileURL());
+			if (entryNames != null) {
+				String rootEntryPath = jarCon.getEntryName();
+				if (logger.isTraceEnabled()) {
+					logger.trace("Looking for matching resources in indexed jar file [" + jarCon.getJarFileURL() + "]");
+				}
+				return findMatchingJarEntries(rootDirResource, entryNames,
+						(rootEntryPath != null ? rootEntryPath : ""), subPattern);
+			}
+		}
+
 		JarFile jarFile;
 		String jarFileUrl;
 		String rootEntryPath;
@@ -664,6 +702,28 @@ public class PathMatchingResourcePatternResolver implements ResourcePatternResol
 		}
 	}
 
+	/**
+	 * Match the given jar entry names below the given root entry path
+	 * against the given sub pattern.
+	 */
+	private Set<Resource> findMatchingJarEntries(Resource rootDirResource, String[] entryNames,
+			String rootEntryPath, String subPattern) throws IOException {
+
+		if (StringUtils.hasLength(rootEntryPath) && !rootEntryPath.endsWith("/")) {
+			rootEntryPath = rootEntryPath + "/";
+		}
+		Set<Resource> result = new LinkedHashSet<>(8);
+		for (String entryPath : entryNames) {
+			if (entryPath.startsWith(rootEntryPath)) {
+				String relativePath = entryPath.substring(rootEntryPath.length());
+				if (getPathMatcher().match(subPattern, relativePath)) {
+					result.add(rootDirResource.createRelative(relativePath));
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -116,30 +116,49 @@ public class CachingMetadataReaderFactory extends SimpleMetadataReaderFactory {
 
 	@Override
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
+		return getCachedMetadataReader(resource, null);
+	}
+
+	@Override
+	public MetadataReader getMetadataReader(Resource resource, byte[] classFile) throws IOException {
+		return getCachedMetadataReader(resource, classFile);
+	}
+
+	private MetadataReader getCachedMetadataReader(Resource resource, @Nullable byte[] classFile)
+			throws IOException {
+
 		if (this.metadataReaderCache instanceof ConcurrentMap) {
 			// No synchronization necessary...
 			MetadataReader metadataReader = this.metadataReaderCache.get(resource);
 			if (metadataReader == null) {
-				metadataReader = super.getMetadataReader(resource);
+				metadataReader = createMetadataReader(resource, classFile);
 				this.metadataReaderCache.put(resource, metadataReader);
 			}
 			return metadataReader;
 		}
 		else if (this.metadataReaderCache != null) {
+			MetadataReader metadataReader;
 			synchronized (this.metadataReaderCache) {
-				MetadataReader metadataReader = this.metadataReaderCache.get(resource);
-				if (metadataReader == null) {
-					metadataReader = super.getMetadataReader(resource);
+				metadataReader = this.metadataReaderCache.get(resource);
+			}
+			if (metadataReader == null) {
+				// Parse outside of the lock, allowing for concurrent reading of different resources
+				metadataReader = createMetadataReader(resource, classFile);
+				synchronized (this.metadataReaderCache) {
 					this.metadataReaderCache.put(resource, metadataReader);
 				}
-				return metadataReader;
 			}
+			return metadataReader;
 		}
 		else {
-			return super.getMetadataReader(resource);
+			return createMetadataReader(resource, classFile);
 		}
 	}
 
+	private MetadataReader createMetadataReader(Resource resource, @Nullable byte[] classFile) throws IOException {
+		return (classFile != null ? super.getMetadataReader(resource, classFile) : super.getMetadataReader(resource));
+	}
+
 	/**
 	 * Clear the local MetadataReader cache, if any, removing all cached class metadata.
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,8 +45,16 @@ final class SimpleMetadataReader implements MetadataReader {
 
 
 	SimpleMetadataReader(Resource resource, @Nullable ClassLoader classLoader) throws IOException {
+		this(resource, getClassReader(resource), classLoader);
+	}
+
+	SimpleMetadataReader(Resource resource, byte[] classFile, @Nullable ClassLoader classLoader) throws IOException {
+		this(resource, getClassReader(resource, classFile), classLoader);
+	}
+
+	private SimpleMetadataReader(Resource resource, ClassReader classReader, @Nullable ClassLoader classLoader) {
 		SimpleAnnotationMetadataReadingVisitor visitor = new SimpleAnnotationMetadataReadingVisitor(classLoader);
-		getClassReader(resource).accept(visitor, PARSING_OPTIONS);
+		classReader.accept(visitor, PARSING_OPTIONS);
 		this.resource = resource;
 		this.annotationMetadata = visitor.getMetadata();
 	}
@@ -63,6 +71,16 @@ final class SimpleMetadataReader implements MetadataReader {
 		}
 	}
 
+	private static ClassReader getClassReader(Resource resource, byte[] classFile) throws IOException {
+		try {
+			return new ClassReader(classFile);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new NestedIOException("ASM ClassReader failed to parse class file - " +
+					"probably due to a new Java class file version that isn't supported yet: " + resource, ex);
+		}
+	}
+
 
 	@Override
 	public Resource getResource() {
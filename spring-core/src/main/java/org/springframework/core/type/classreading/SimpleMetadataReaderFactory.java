@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -103,4 +103,17 @@ public class SimpleMetadataReaderFactory implements MetadataReaderFactory {
 		return new SimpleMetadataReader(resource, this.resourceLoader.getClassLoader());
 	}
 
+	/**
+	 * Obtain a MetadataReader for the given resource, parsing the given
+	 * content of its class file instead of reading the resource again.
+	 * @param resource the resource (pointing to a ".class" file)
+	 * @param classFile the content of the class file
+	 * @return a holder for the ClassReader instance (never {@code null})
+	 * @throws IOException in case of I/O failure
+	 * @since 5.2.12
+	 */
+	public MetadataReader getMetadataReader(Resource resource, byte[] classFile) throws IOException {
+		return new SimpleMetadataReader(resource, classFile, this.resourceLoader.getClassLoader());
+	}
+
 }
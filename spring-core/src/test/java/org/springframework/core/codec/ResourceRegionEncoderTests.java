@@ -16,7 +16,9 @@
 
 package org.springframework.core.codec;
 
+import java.io.File;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -116,6 +119,45 @@ class ResourceRegionEncoderTests extends AbstractLeakCheckingTests {
 				.verify();
 	}
 
+	@Test
+	void shouldEncodeMultipleResourceRegionsWithSingleChannel() throws Exception {
+		AtomicInteger fileCount = new AtomicInteger();
+		Resource resource = new FileSystemResource(
+				new ClassPathResource("ResourceRegionEncoderTests.txt", getClass()).getFile()) {
+			@Override
+			public File getFile() {
+				fileCount.incrementAndGet();
+				return super.getFile();
+			}
+		};
+		Flux<ResourceRegion> regions = Flux.just(
+				new ResourceRegion(resource, 7, 9),
+				new ResourceRegion(resource, 0, 6)
+		);
+		String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+
+		Flux<DataBuffer> result = this.encoder.encode(regions, this.bufferFactory,
+				ResolvableType.forClass(ResourceRegion.class),
+				MimeType.valueOf("text/plain"),
+				Collections.singletonMap(ResourceRegionEncoder.BOUNDARY_STRING_HINT, boundary)
+		);
+
+		StepVerifier.create(result)
+				.consumeNextWith(stringConsumer("\r\n--" + boundary + "\r\n"))
+				.consumeNextWith(stringConsumer("Content-Type: text/plain\r\n"))
+				.consumeNextWith(stringConsumer("Content-Range: bytes 7-15/39\r\n\r\n"))
+				.consumeNextWith(stringConsumer("Framework"))
+				.consumeNextWith(stringConsumer("\r\n--" + boundary + "\r\n"))
+				.consumeNextWith(stringConsumer("Content-Type: text/plain\r\n"))
+				.consumeNextWith(stringConsumer("Content-Range: bytes 0-5/39\r\n\r\n"))
+				.consumeNextWith(stringConsumer("Spring"))
+				.consumeNextWith(stringConsumer("\r\n--" + boundary + "--"))
+				.expectComplete()
+				.verify();
+
+		assertThat(fileCount.get()).isEqualTo(1);
+	}
+
 	@Test // gh-22107
 	void cancelWithoutDemandForMultipleResourceRegions() {
 		Resource resource = new ClassPathResource("ResourceRegionEncoderTests.txt", getClass());
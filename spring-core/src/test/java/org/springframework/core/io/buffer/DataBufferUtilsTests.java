@@ -251,6 +251,54 @@ class DataBufferUtilsTests extends AbstractDataBufferAllocatingTests {
 				.verify(Duration.ofSeconds(5));
 	}
 
+	@ParameterizedDataBufferAllocatingTest
+	void readMapped(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource, 0, super.bufferFactory, 3);
+
+		verifyReadData(flux);
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedPosition(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), 9, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedCancel(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(this.resource.getFile().toPath(), 0, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("foo"))
+				.thenCancel()
+				.verify();
+	}
+
+	@ParameterizedDataBufferAllocatingTest
+	void readMappedNonFileResource(String displayName, DataBufferFactory bufferFactory) throws Exception {
+		super.bufferFactory = bufferFactory;
+
+		Resource resource = new ByteArrayResource("foobarbazqux".getBytes(StandardCharsets.UTF_8));
+		Flux<DataBuffer> flux = DataBufferUtils.readMapped(resource, 3, super.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("baz"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(5));
+	}
+
 	private void verifyReadData(Flux<DataBuffer> buffers) {
 		StepVerifier.create(buffers)
 				.consumeNextWith(stringConsumer("foo"))
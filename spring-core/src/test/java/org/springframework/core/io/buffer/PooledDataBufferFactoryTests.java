@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ *
+ * @since 5.2.12
+ */
+class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory factory = new PooledDataBufferFactory(false, 4096, 4, 0);
+
+
+	@Test
+	void bufferIsReusedAfterRelease() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		assertThat(buffer.capacity()).isEqualTo(100);
+		byte[] array = buffer.getNativeBuffer().array();
+		DataBufferUtils.release(buffer);
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(1);
+
+		DefaultDataBuffer other = this.factory.allocateBuffer(200);
+		assertThat(other.getNativeBuffer().array()).isSameAs(array);
+		assertThat(other.capacity()).isEqualTo(200);
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(0);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void bufferIsReusedThroughThreadCache() {
+		PooledDataBufferFactory factory = new PooledDataBufferFactory();
+		DefaultDataBuffer buffer = factory.allocateBuffer(1000);
+		byte[] array = buffer.getNativeBuffer().array();
+		DataBufferUtils.release(buffer);
+		assertThat(factory.getPooledBufferCount()).isEqualTo(0);
+
+		DefaultDataBuffer other = factory.allocateBuffer(1000);
+		assertThat(other.getNativeBuffer().array()).isSameAs(array);
+		DataBufferUtils.release(other);
+	}
+
+	@Test
+	void retainedBufferIsNotReused() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		DataBufferUtils.retain(buffer);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isTrue();
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(0);
+
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(((PooledDataBuffer) buffer).isAllocated()).isFalse();
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(1);
+		assertThatIllegalStateException().isThrownBy(((PooledDataBuffer) buffer)::retain);
+	}
+
+	@Test
+	void sliceSharesReferenceCount() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(10);
+		buffer.write("foobar", StandardCharsets.UTF_8);
+		DataBuffer slice = buffer.retainedSlice(3, 3);
+		assertThat(slice.toString(StandardCharsets.UTF_8)).isEqualTo("bar");
+
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(0);
+		assertThat(DataBufferUtils.release(slice)).isTrue();
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(1);
+	}
+
+	@Test
+	void largeBufferIsNotPooled() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(8192);
+		assertThat(buffer.capacity()).isEqualTo(8192);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void capacityIncreaseRecyclesPreviousBuffer() {
+		DefaultDataBuffer buffer = this.factory.allocateBuffer(100);
+		buffer.write("foo", StandardCharsets.UTF_8);
+		buffer.capacity(1000);
+		assertThat(buffer.capacity()).isEqualTo(1000);
+		assertThat(buffer.toString(StandardCharsets.UTF_8)).isEqualTo("foo");
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(1);
+
+		DataBufferUtils.release(buffer);
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(2);
+	}
+
+	@Test
+	void poolIsBounded() {
+		DataBuffer[] buffers = new DataBuffer[6];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = this.factory.allocateBuffer(256);
+		}
+		for (DataBuffer buffer : buffers) {
+			DataBufferUtils.release(buffer);
+		}
+		assertThat(this.factory.getPooledBufferCount()).isEqualTo(4);
+	}
+
+	@Test
+	void wrappedBufferIsNotPooled() {
+		DataBuffer buffer = this.factory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		assertThat(buffer).isNotInstanceOf(PooledDataBuffer.class);
+	}
+
+	@Test
+	void leakDetection() throws InterruptedException {
+		this.factory.setLeakDetection(true);
+		this.factory.allocateBuffer(100);
+		DataBufferUtils.release(this.factory.allocateBuffer(100));
+
+		for (int i = 0; i < 50 && this.factory.getLeakCount() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+			this.factory.detectLeaks();
+		}
+		assertThat(this.factory.getLeakCount()).isEqualTo(1);
+	}
+
+}
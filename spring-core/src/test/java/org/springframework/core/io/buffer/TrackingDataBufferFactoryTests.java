@@ -0,0 +1,142 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.buffer.TrackingDataBufferFactory.Allocation;
+import org.springframework.core.io.buffer.TrackingDataBufferFactory.Usage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests for {@link TrackingDataBufferFactory}.
+ *
+ * @since 5.2.12
+ */
+class TrackingDataBufferFactoryTests {
+
+	private final TrackingDataBufferFactory factory = new TrackingDataBufferFactory(new DefaultDataBufferFactory());
+
+
+	@Test
+	void releasedBufferIsNotLive() {
+		DataBuffer buffer = this.factory.allocateBuffer(10);
+		assertThat(buffer).isInstanceOf(PooledDataBuffer.class);
+		assertThat(buffer.factory()).isSameAs(this.factory);
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(1);
+		assertThat(this.factory.getLiveByteCount()).isEqualTo(10);
+
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(0);
+		assertThat(this.factory.getAllocationCount()).isEqualTo(1);
+		assertThatIllegalStateException().isThrownBy(((PooledDataBuffer) buffer)::release);
+	}
+
+	@Test
+	void retainedBufferIsLive() {
+		DataBuffer buffer = this.factory.allocateBuffer(10);
+		DataBufferUtils.retain(buffer);
+		assertThat(DataBufferUtils.release(buffer)).isFalse();
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(1);
+		assertThat(DataBufferUtils.release(buffer)).isTrue();
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void allocationSite() {
+		this.factory.allocateBuffer(10);
+		Allocation allocation = this.factory.getLiveAllocations().get(0);
+
+		assertThat(allocation.getAllocator()).isEqualTo(getClass().getName());
+		assertThat(allocation.getAllocationSite()).isNotNull();
+		assertThat(allocation.getAllocationSite().getStackTrace()[0].getMethodName()).isEqualTo("allocationSite");
+	}
+
+	@Test
+	void allocationSiteNotRecorded() {
+		this.factory.setRecordAllocationSites(false);
+		this.factory.allocateBuffer(10);
+		Allocation allocation = this.factory.getLiveAllocations().get(0);
+
+		assertThat(allocation.getAllocator()).isNull();
+		assertThat(allocation.getAllocationSite()).isNull();
+		assertThat(this.factory.getLiveUsageByAllocator()).containsOnlyKeys("unknown");
+	}
+
+	@Test
+	void usageByTag() {
+		DataBufferFactory foo = this.factory.withTag("foo");
+		DataBufferFactory bar = this.factory.withTag("bar");
+		DataBuffer buffer = foo.allocateBuffer(10);
+		assertThat(buffer.factory()).isSameAs(foo);
+		foo.allocateBuffer(20);
+		bar.allocateBuffer(30);
+		this.factory.allocateBuffer(40);
+
+		Map<String, Usage> usage = this.factory.getLiveUsageByTag();
+		assertThat(usage).containsOnlyKeys("bar", "foo", "unknown");
+		assertThat(usage.get("foo").getBufferCount()).isEqualTo(2);
+		assertThat(usage.get("foo").getByteCount()).isEqualTo(30);
+		assertThat(usage.get("bar").getBufferCount()).isEqualTo(1);
+
+		DataBufferUtils.release(buffer);
+		assertThat(this.factory.getLiveUsageByTag().get("foo").getBufferCount()).isEqualTo(1);
+	}
+
+	@Test
+	void join() {
+		DataBuffer foo = this.factory.allocateBuffer(3).write("foo", StandardCharsets.UTF_8);
+		DataBuffer bar = this.factory.allocateBuffer(3).write("bar", StandardCharsets.UTF_8);
+		DataBuffer result = this.factory.join(Arrays.asList(foo, bar));
+
+		assertThat(result.toString(StandardCharsets.UTF_8)).isEqualTo("foobar");
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(1);
+		DataBufferUtils.release(result);
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void wrappedBufferIsNotTracked() {
+		this.factory.wrap("foo".getBytes(StandardCharsets.UTF_8));
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void nativeBufferReleasedAfterUnwrapping() {
+		TrackingDataBufferFactory factory =
+				new TrackingDataBufferFactory(new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT));
+		DataBuffer buffer = factory.allocateBuffer(10);
+		NettyDataBufferFactory.toByteBuf(buffer).release();
+		assertThat(factory.getLiveBufferCount()).isEqualTo(0);
+	}
+
+	@Test
+	void reset() {
+		this.factory.allocateBuffer(10);
+		this.factory.reset();
+		assertThat(this.factory.getLiveBufferCount()).isEqualTo(0);
+		assertThat(this.factory.getAllocationCount()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link JarEntryIndex}.
+ *
+ * @since 5.2.12
+ */
+class JarEntryIndexTests {
+
+	@TempDir
+	File tempDir;
+
+
+	@Test
+	void entryNamesAreScannedOnce() throws IOException {
+		File jar = createJar("test.jar", "a/one.xml", "a/two.xml", "b/three.txt");
+		JarEntryIndex index = new JarEntryIndex();
+
+		assertThat(index.getEntryNames(jar.toURI().toURL())).containsExactly("a/one.xml", "a/two.xml", "b/three.txt");
+		assertThat(index.getEntryNames(jar.toURI().toURL())).hasSize(3);
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.getScannedJarCount()).isEqualTo(1);
+		assertThat(index.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void modifiedJarIsRescanned() throws IOException {
+		File jar = createJar("test.jar", "a/one.xml");
+		JarEntryIndex index = new JarEntryIndex();
+		assertThat(index.getEntryNames(jar.toURI().toURL())).containsExactly("a/one.xml");
+
+		createJar("test.jar", "a/one.xml", "a/two.xml");
+		jar.setLastModified(jar.lastModified() + 2000);
+		assertThat(index.getEntryNames(jar.toURI().toURL())).containsExactly("a/one.xml", "a/two.xml");
+		assertThat(index.getScannedJarCount()).isEqualTo(2);
+	}
+
+	@Test
+	void nonFileUrlIsNotIndexed() throws IOException {
+		JarEntryIndex index = new JarEntryIndex();
+		assertThat(index.getEntryNames(new URL("http://localhost/test.jar"))).isNull();
+		assertThat(index.size()).isEqualTo(0);
+	}
+
+	@Test
+	void storeAndLoad() throws IOException {
+		File jar = createJar("test.jar", "a/one.xml", "a/two.xml");
+		JarEntryIndex index = new JarEntryIndex();
+		index.getEntryNames(jar.toURI().toURL());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.store(out);
+
+		JarEntryIndex restored = new JarEntryIndex();
+		restored.load(new ByteArrayInputStream(out.toByteArray()));
+		assertThat(restored.size()).isEqualTo(1);
+		assertThat(restored.getEntryNames(jar.toURI().toURL())).containsExactly("a/one.xml", "a/two.xml");
+		assertThat(restored.getScannedJarCount()).isEqualTo(0);
+		assertThat(restored.getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void patternResolutionThroughIndex() throws IOException {
+		File jar = createJar("test.jar", "mappers/", "mappers/one.xml", "mappers/sub/two.xml", "other/three.xml");
+		JarEntryIndex index = new JarEntryIndex();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)) {
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+			resolver.setJarEntryIndex(index);
+
+			Resource[] resources = resolver.getResources("classpath*:mappers/**/*.xml");
+			assertThat(resources).extracting(Resource::getFilename).containsExactly("one.xml", "two.xml");
+			resources = resolver.getResources("classpath*:mappers/*.xml");
+			assertThat(resources).extracting(Resource::getFilename).containsExactly("one.xml");
+		}
+		assertThat(index.getScannedJarCount()).isEqualTo(1);
+		assertThat(index.getHitCount()).isEqualTo(1);
+	}
+
+
+	private File createJar(String name, String... entryNames) throws IOException {
+		File jar = new File(this.tempDir, name);
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+			for (String entryName : entryNames) {
+				out.putNextEntry(new JarEntry(entryName));
+				if (!entryName.endsWith("/")) {
+					out.write(entryName.getBytes());
+				}
+				out.closeEntry();
+			}
+		}
+		return jar;
+	}
+
+}
@@ -16,25 +16,40 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.NotWritablePropertyException;
-import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.TypeConverter;
 import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
@@ -42,6 +57,7 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -67,6 +83,13 @@ import org.springframework.util.StringUtils;
  * Be aware that if you use the values from the generated bean to update the database the primitive value
  * will have been set to the primitive's default value instead of null.
  *
+ * <p>The setters of the mapped class are resolved once, and the columns of a {@link ResultSet}
+ * are resolved against the bean properties once per distinct set of column names. Rows are then
+ * read by column index, and values that are already of the property type are passed to the
+ * setter directly, without a {@link BeanWrapper}; other values are converted through a
+ * {@code BeanWrapper} as before. Subclasses that override
+ * {@link #initBeanWrapper} have all values applied through their {@code BeanWrapper}.
+ *
  * <p>Please note that this class is designed to provide convenience rather than high performance.
  * For best performance, consider using a custom {@link RowMapper} implementation.
  *
@@ -74,9 +97,14 @@ import org.springframework.util.StringUtils;
  * @author Juergen Hoeller
  * @since 2.5
  * @param <T> the result type
+ * @see DataClassRowMapper
  */
 public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 
+	/** Maximum number of distinct column signatures to keep property mappings for. */
+	private static final int MAPPING_CACHE_LIMIT = 32;
+
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -102,6 +130,20 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Nullable
 	private Set<String> mappedProperties;
 
+	/** Whether a subclass customizes the BeanWrapper, which then has to apply every value. */
+	private final boolean customBeanWrapper = isOverridden("initBeanWrapper", BeanWrapper.class);
+
+	/** Whether a subclass customizes the extraction of column values. */
+	private final boolean customColumnValue =
+			isOverridden("getColumnValue", ResultSet.class, int.class, PropertyDescriptor.class);
+
+	/** Readers and setters for the bean properties we provide mapping for. */
+	@Nullable
+	private Map<String, PropertyHandler> propertyHandlers;
+
+	/** Property mappings per list of column names of the mapped ResultSets. */
+	private final Map<List<String>, PropertyMapping[]> mappingCache = new ConcurrentHashMap<>(4);
+
 
 	/**
 	 * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -220,6 +262,8 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		this.mappedClass = mappedClass;
 		this.mappedFields = new HashMap<>();
 		this.mappedProperties = new HashSet<>();
+		this.propertyHandlers = new HashMap<>();
+		this.mappingCache.clear();
 
 		for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
 			if (pd.getWriteMethod() != null) {
@@ -229,10 +273,30 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 					this.mappedFields.put(underscoredName, pd);
 				}
 				this.mappedProperties.add(pd.getName());
+				this.propertyHandlers.put(pd.getName(), createPropertyHandler(pd));
 			}
 		}
 	}
 
+	/**
+	 * Remove the specified property from the mapped fields.
+	 * @param propertyName the property name (as used by property descriptors)
+	 * @since 5.2.12
+	 */
+	protected void suppressProperty(String propertyName) {
+		if (this.mappedFields != null) {
+			this.mappedFields.remove(lowerCaseName(propertyName));
+			this.mappedFields.remove(underscoreName(propertyName));
+		}
+		if (this.mappedProperties != null) {
+			this.mappedProperties.remove(propertyName);
+		}
+		if (this.propertyHandlers != null) {
+			this.propertyHandlers.remove(propertyName);
+		}
+		this.mappingCache.clear();
+	}
+
 	/**
 	 * Convert a name in camelCase to an underscored name in lower case.
 	 * Any upper case letters are converted to lower case with a preceding underscore.
@@ -281,33 +345,28 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 	@Override
 	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
 		Assert.state(this.mappedClass != null, "Mapped class was not specified");
-		T mappedObject = BeanUtils.instantiateClass(this.mappedClass);
-		BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
-		initBeanWrapper(bw);
-
-		ResultSetMetaData rsmd = rs.getMetaData();
-		int columnCount = rsmd.getColumnCount();
+		List<String> columnNames = getColumnNames(rs.getMetaData());
+		PropertyMapping[] mappings = getPropertyMappings(columnNames);
+		RowBeanWrapper bw = new RowBeanWrapper(columnNames);
+		T mappedObject = constructMappedInstance(rs, bw);
+		bw.setBeanInstance(mappedObject);
 		Set<String> populatedProperties = (isCheckFullyPopulated() ? new HashSet<>() : null);
 
-		for (int index = 1; index <= columnCount; index++) {
-			String column = JdbcUtils.lookupColumnName(rsmd, index);
-			String field = lowerCaseName(StringUtils.delete(column, " "));
-			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
-			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
-					}
+		for (PropertyMapping mapping : mappings) {
+			PropertyHandler handler = mapping.handler;
+			PropertyDescriptor pd = handler.descriptor;
+			try {
+				Object value = (handler.reader != null ?
+						handler.reader.read(rs, mapping.index) : getColumnValue(rs, mapping.index, pd));
+				if (!handler.setValue(mappedObject, value)) {
 					try {
-						bw.setPropertyValue(pd.getName(), value);
+						bw.getBeanWrapper().setPropertyValue(pd.getName(), value);
 					}
 					catch (TypeMismatchException ex) {
 						if (value == null && this.primitivesDefaultedForNullValue) {
 							if (logger.isDebugEnabled()) {
 								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
+										" and column '" + mapping.column + "' with null value when setting property '" +
 										pd.getName() + "' of type '" +
 										ClassUtils.getQualifiedName(pd.getPropertyType()) +
 										"' on object: " + mappedObject, ex);
@@ -317,20 +376,14 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 							throw ex;
 						}
 					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
-			else {
-				// No PropertyDescriptor found
-				if (rowNumber == 0 && logger.isDebugEnabled()) {
-					logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
-				}
+			catch (NotWritablePropertyException ex) {
+				throw new DataRetrievalFailureException(
+						"Unable to map column '" + mapping.column + "' to property '" + pd.getName() + "'", ex);
 			}
 		}
 
@@ -342,6 +395,106 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Construct an instance of the mapped class for the current row.
+	 * <p>The default implementation calls the default constructor of the
+	 * mapped class. Can be overridden in subclasses, e.g. to bind
+	 * constructor arguments from the current row.
+	 * @param rs the ResultSet to map (pre-initialized for the current row)
+	 * @param tc a TypeConverter with this RowMapper's conversion service
+	 * @return a corresponding instance of the mapped class
+	 * @throws SQLException if an SQLException is encountered
+	 * @since 5.2.12
+	 */
+	protected T constructMappedInstance(ResultSet rs, TypeConverter tc) throws SQLException {
+		Assert.state(this.mappedClass != null, "Mapped class was not specified");
+		return BeanUtils.instantiateClass(this.mappedClass);
+	}
+
+	/**
+	 * Return the names of the columns of the current row, as passed to
+	 * {@link #constructMappedInstance} by {@link #mapRow}, or else as
+	 * obtained from the meta-data of the given ResultSet.
+	 */
+	List<String> getColumnNames(ResultSet rs, TypeConverter tc) throws SQLException {
+		if (tc instanceof BeanPropertyRowMapper.RowBeanWrapper) {
+			return ((BeanPropertyRowMapper<?>.RowBeanWrapper) tc).columnNames;
+		}
+		return getColumnNames(rs.getMetaData());
+	}
+
+	/**
+	 * Return the property mappings for the given column names, resolving
+	 * them on first access and reusing them for further rows.
+	 */
+	private PropertyMapping[] getPropertyMappings(List<String> columnNames) {
+		PropertyMapping[] mappings = this.mappingCache.get(columnNames);
+		if (mappings == null) {
+			mappings = createPropertyMappings(columnNames);
+			if (this.mappingCache.size() < MAPPING_CACHE_LIMIT) {
+				this.mappingCache.put(columnNames, mappings);
+			}
+		}
+		return mappings;
+	}
+
+	private PropertyMapping[] createPropertyMappings(List<String> columnNames) {
+		List<PropertyMapping> mappings = new ArrayList<>(columnNames.size());
+		for (int index = 1; index <= columnNames.size(); index++) {
+			String column = columnNames.get(index - 1);
+			String field = lowerCaseName(StringUtils.delete(column, " "));
+			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
+			if (pd != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				PropertyHandler handler = (this.propertyHandlers != null ?
+						this.propertyHandlers.get(pd.getName()) : null);
+				mappings.add(new PropertyMapping(index, column,
+						(handler != null ? handler : createPropertyHandler(pd))));
+			}
+			else {
+				// No PropertyDescriptor found
+				if (logger.isDebugEnabled()) {
+					logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
+				}
+			}
+		}
+		return mappings.toArray(new PropertyMapping[0]);
+	}
+
+	private PropertyHandler createPropertyHandler(PropertyDescriptor pd) {
+		ColumnReader reader = (this.customColumnValue ? null : createColumnReader(pd.getPropertyType()));
+		MethodHandle setter = (this.customBeanWrapper ? null : createSetter(pd));
+		return new PropertyHandler(pd, reader, setter);
+	}
+
+	@Nullable
+	private MethodHandle createSetter(PropertyDescriptor pd) {
+		Method writeMethod = pd.getWriteMethod();
+		if (writeMethod == null) {
+			return null;
+		}
+		try {
+			ReflectionUtils.makeAccessible(writeMethod);
+			return MethodHandles.lookup().unreflect(writeMethod)
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		}
+		catch (IllegalAccessException | RuntimeException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot access write method of property '" + pd.getName() +
+						"' directly: falling back to BeanWrapper", ex);
+			}
+			return null;
+		}
+	}
+
+	private boolean isOverridden(String methodName, Class<?>... paramTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), methodName, paramTypes);
+		return (method != null && method.getDeclaringClass() != BeanPropertyRowMapper.class);
+	}
+
 	/**
 	 * Initialize the given BeanWrapper to be used for row mapping.
 	 * To be called for each row.
@@ -403,4 +556,229 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return rowMapper;
 	}
 
+
+	private static List<String> getColumnNames(ResultSetMetaData rsmd) throws SQLException {
+		String[] columnNames = new String[rsmd.getColumnCount()];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = JdbcUtils.lookupColumnName(rsmd, i + 1);
+		}
+		return Arrays.asList(columnNames);
+	}
+
+	/**
+	 * Create a reader for the given property type, extracting values the same
+	 * way as {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)} but with
+	 * the type-specific {@code ResultSet} getter chosen upfront.
+	 */
+	private static ColumnReader createColumnReader(Class<?> requiredType) {
+		if (String.class == requiredType) {
+			return ResultSet::getString;
+		}
+		else if (boolean.class == requiredType || Boolean.class == requiredType) {
+			return (rs, index) -> {
+				boolean value = rs.getBoolean(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (byte.class == requiredType || Byte.class == requiredType) {
+			return (rs, index) -> {
+				byte value = rs.getByte(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (short.class == requiredType || Short.class == requiredType) {
+			return (rs, index) -> {
+				short value = rs.getShort(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (int.class == requiredType || Integer.class == requiredType) {
+			return (rs, index) -> {
+				int value = rs.getInt(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (long.class == requiredType || Long.class == requiredType) {
+			return (rs, index) -> {
+				long value = rs.getLong(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (float.class == requiredType || Float.class == requiredType) {
+			return (rs, index) -> {
+				float value = rs.getFloat(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (double.class == requiredType || Double.class == requiredType || Number.class == requiredType) {
+			return (rs, index) -> {
+				double value = rs.getDouble(index);
+				return (rs.wasNull() ? null : value);
+			};
+		}
+		else if (BigDecimal.class == requiredType) {
+			return ResultSet::getBigDecimal;
+		}
+		else if (java.sql.Date.class == requiredType) {
+			return ResultSet::getDate;
+		}
+		else if (java.sql.Time.class == requiredType) {
+			return ResultSet::getTime;
+		}
+		else if (java.sql.Timestamp.class == requiredType || java.util.Date.class == requiredType) {
+			return ResultSet::getTimestamp;
+		}
+		else if (byte[].class == requiredType) {
+			return ResultSet::getBytes;
+		}
+		else {
+			return (rs, index) -> JdbcUtils.getResultSetValue(rs, index, requiredType);
+		}
+	}
+
+
+	/**
+	 * Strategy for reading the value of a specific column.
+	 */
+	@FunctionalInterface
+	private interface ColumnReader {
+
+		@Nullable
+		Object read(ResultSet rs, int index) throws SQLException;
+	}
+
+
+	/**
+	 * The resolved mapping of a column to a bean property.
+	 */
+	private static final class PropertyMapping {
+
+		private final int index;
+
+		private final String column;
+
+		private final PropertyHandler handler;
+
+		PropertyMapping(int index, String column, PropertyHandler handler) {
+			this.index = index;
+			this.column = column;
+			this.handler = handler;
+		}
+	}
+
+
+	/**
+	 * The column reader and setter resolved for a bean property.
+	 */
+	private static final class PropertyHandler {
+
+		private final PropertyDescriptor descriptor;
+
+		@Nullable
+		private final ColumnReader reader;
+
+		@Nullable
+		private final MethodHandle setter;
+
+		private final Class<?> valueType;
+
+		private final boolean primitive;
+
+		PropertyHandler(PropertyDescriptor descriptor, @Nullable ColumnReader reader, @Nullable MethodHandle setter) {
+			this.descriptor = descriptor;
+			this.reader = reader;
+			this.setter = setter;
+			this.valueType = ClassUtils.resolvePrimitiveIfNecessary(descriptor.getPropertyType());
+			this.primitive = descriptor.getPropertyType().isPrimitive();
+		}
+
+		/**
+		 * Pass the given value to the setter directly if it does not need
+		 * any conversion.
+		 * @return {@code true} if the value has been set, {@code false} if it
+		 * has to go through a BeanWrapper instead
+		 */
+		boolean setValue(Object bean, @Nullable Object value) {
+			if (this.setter == null || (value != null ? !this.valueType.isInstance(value) : this.primitive)) {
+				return false;
+			}
+			try {
+				this.setter.invokeExact(bean, value);
+			}
+			catch (Throwable ex) {
+				throw new MethodInvocationException(
+						new PropertyChangeEvent(bean, this.descriptor.getName(), null, value), ex);
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * Holder for the BeanWrapper of the current row, created on demand only,
+	 * and acting as the {@link TypeConverter} for constructor arguments.
+	 */
+	private class RowBeanWrapper implements TypeConverter {
+
+		private final List<String> columnNames;
+
+		@Nullable
+		private BeanWrapperImpl beanWrapper;
+
+		@Nullable
+		private Object beanInstance;
+
+		RowBeanWrapper(List<String> columnNames) {
+			this.columnNames = columnNames;
+		}
+
+		void setBeanInstance(Object beanInstance) {
+			this.beanInstance = beanInstance;
+			if (this.beanWrapper != null) {
+				this.beanWrapper.setBeanInstance(beanInstance);
+			}
+		}
+
+		BeanWrapper getBeanWrapper() {
+			if (this.beanWrapper == null) {
+				this.beanWrapper = new BeanWrapperImpl();
+				initBeanWrapper(this.beanWrapper);
+				if (this.beanInstance != null) {
+					this.beanWrapper.setBeanInstance(this.beanInstance);
+				}
+			}
+			return this.beanWrapper;
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType) {
+			return getBeanWrapper().convertIfNecessary(value, requiredType);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable MethodParameter methodParam) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, methodParam);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable Field field) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, field);
+		}
+
+		@Override
+		@Nullable
+		public <V> V convertIfNecessary(@Nullable Object value, @Nullable Class<V> requiredType,
+				@Nullable TypeDescriptor typeDescriptor) {
+
+			return getBeanWrapper().convertIfNecessary(value, requiredType, typeDescriptor);
+		}
+	}
+
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.ConstructorProperties;
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.TypeConverter;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link RowMapper} implementation that converts a row into a new instance
+ * of the specified mapped target class. The mapped target class must be a
+ * top-level class and may either expose a data class constructor with named
+ * parameters corresponding to column names or classic bean property setters
+ * (or even a combination of both).
+ *
+ * <p>Note that this class extends {@link BeanPropertyRowMapper} and can
+ * therefore serve as a common choice for any mapped target class, flexibly
+ * adapting to constructor style versus setter methods in the mapped class.
+ * The columns of a {@link ResultSet} are resolved against the constructor
+ * parameters once per distinct set of column names, just like the columns
+ * for bean properties.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @param <T> the result type
+ */
+public class DataClassRowMapper<T> extends BeanPropertyRowMapper<T> {
+
+	private static final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+	/** Maximum number of distinct column signatures to keep parameter indexes for. */
+	private static final int INDEX_CACHE_LIMIT = 32;
+
+
+	@Nullable
+	private Constructor<T> mappedConstructor;
+
+	@Nullable
+	private String[] constructorParameterNames;
+
+	@Nullable
+	private TypeDescriptor[] constructorParameterTypes;
+
+	/** Column indexes of the constructor parameters per list of column names. */
+	private final Map<List<String>, int[]> parameterIndexCache = new ConcurrentHashMap<>(4);
+
+
+	/**
+	 * Create a new {@code DataClassRowMapper} for bean-style configuration.
+	 * @see #setMappedClass
+	 * @see #setConversionService
+	 */
+	public DataClassRowMapper() {
+	}
+
+	/**
+	 * Create a new {@code DataClassRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public DataClassRowMapper(Class<T> mappedClass) {
+		super(mappedClass);
+	}
+
+
+	@Override
+	protected void initialize(Class<T> mappedClass) {
+		super.initialize(mappedClass);
+
+		this.mappedConstructor = getResolvableConstructor(mappedClass);
+		int paramCount = this.mappedConstructor.getParameterCount();
+		if (paramCount > 0) {
+			this.constructorParameterNames = getParameterNames(this.mappedConstructor);
+			for (String name : this.constructorParameterNames) {
+				suppressProperty(name);
+			}
+			this.constructorParameterTypes = new TypeDescriptor[paramCount];
+			for (int i = 0; i < paramCount; i++) {
+				this.constructorParameterTypes[i] = new TypeDescriptor(new MethodParameter(this.mappedConstructor, i));
+			}
+		}
+		else {
+			this.constructorParameterNames = null;
+			this.constructorParameterTypes = null;
+		}
+	}
+
+	@Override
+	protected T constructMappedInstance(ResultSet rs, TypeConverter tc) throws SQLException {
+		Assert.state(this.mappedConstructor != null, "Mapped constructor was not initialized");
+
+		Object[] args;
+		if (this.constructorParameterNames != null && this.constructorParameterTypes != null) {
+			int[] indexes = getParameterIndexes(getColumnNames(rs, tc), this.constructorParameterNames);
+			args = new Object[this.constructorParameterNames.length];
+			for (int i = 0; i < args.length; i++) {
+				TypeDescriptor td = this.constructorParameterTypes[i];
+				Object value = JdbcUtils.getResultSetValue(rs, indexes[i], td.getType());
+				args[i] = (value == null || td.getObjectType().isInstance(value) ? value :
+						tc.convertIfNecessary(value, td.getType(), td));
+			}
+		}
+		else {
+			args = new Object[0];
+		}
+
+		return BeanUtils.instantiateClass(this.mappedConstructor, args);
+	}
+
+	/**
+	 * Return the column indexes of the constructor parameters for the given
+	 * column names, resolving them on first access.
+	 */
+	private int[] getParameterIndexes(List<String> columnNames, String[] parameterNames) {
+		int[] indexes = this.parameterIndexCache.get(columnNames);
+		if (indexes == null) {
+			Map<String, Integer> columns = new HashMap<>(columnNames.size() * 2);
+			for (int index = 1; index <= columnNames.size(); index++) {
+				String column = columnNames.get(index - 1);
+				columns.putIfAbsent(lowerCaseName(StringUtils.delete(column, " ")), index);
+			}
+			indexes = new int[parameterNames.length];
+			for (int i = 0; i < parameterNames.length; i++) {
+				String name = parameterNames[i];
+				Integer index = columns.get(lowerCaseName(name));
+				if (index == null) {
+					index = columns.get(underscoreName(name));
+				}
+				if (index == null) {
+					throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain a column " +
+							"for constructor parameter '" + name + "' of " + getMappedClass());
+				}
+				indexes[i] = index;
+			}
+			if (this.parameterIndexCache.size() < INDEX_CACHE_LIMIT) {
+				this.parameterIndexCache.put(columnNames, indexes);
+			}
+		}
+		return indexes;
+	}
+
+
+	/**
+	 * Return the primary constructor of the given class: a Kotlin primary
+	 * constructor, a single public or declared constructor, or else the
+	 * default constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> getResolvableConstructor(Class<T> clazz) {
+		Constructor<T> ctor = BeanUtils.findPrimaryConstructor(clazz);
+		if (ctor != null) {
+			return ctor;
+		}
+		Constructor<?>[] ctors = clazz.getConstructors();
+		if (ctors.length == 1) {
+			return (Constructor<T>) ctors[0];
+		}
+		ctors = clazz.getDeclaredConstructors();
+		if (ctors.length == 1) {
+			return (Constructor<T>) ctors[0];
+		}
+		try {
+			return clazz.getDeclaredConstructor();
+		}
+		catch (NoSuchMethodException ex) {
+			throw new IllegalStateException("No primary or single unique constructor found for " + clazz);
+		}
+	}
+
+	private static String[] getParameterNames(Constructor<?> ctor) {
+		ConstructorProperties cp = ctor.getAnnotation(ConstructorProperties.class);
+		String[] paramNames = (cp != null ? cp.value() : parameterNameDiscoverer.getParameterNames(ctor));
+		Assert.state(paramNames != null, () -> "Cannot resolve parameter names for constructor " + ctor);
+		Assert.state(paramNames.length == ctor.getParameterCount(),
+				() -> "Invalid number of parameter names: " + paramNames.length + " for constructor " + ctor);
+		return paramNames;
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code DataClassRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @see #newInstance(Class, ConversionService)
+	 */
+	public static <T> DataClassRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new DataClassRowMapper<>(mappedClass);
+	}
+
+	/**
+	 * Static factory method to create a new {@code DataClassRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param conversionService the {@link ConversionService} for binding
+	 * JDBC values to bean properties, or {@code null} for none
+	 * @see #newInstance(Class)
+	 * @see #setConversionService
+	 */
+	public static <T> DataClassRowMapper<T> newInstance(
+			Class<T> mappedClass, @Nullable ConversionService conversionService) {
+
+		DataClassRowMapper<T> rowMapper = newInstance(mappedClass);
+		rowMapper.setConversionService(conversionService);
+		return rowMapper;
+	}
+
+}
@@ -31,15 +31,24 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.InvalidResultSetAccessException;
 import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.datasource.ConnectionProxy;
@@ -104,6 +113,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	private static final String RETURN_UPDATE_COUNT_PREFIX = "#update-count-";
 
+	private static final int DEFAULT_PREFETCH_BATCH_SIZE = 1000;
+
 
 	/** If this variable is false, we will throw exceptions on SQL warnings. */
 	private boolean ignoreWarnings = true;
@@ -147,6 +158,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/**
+	 * If this variable is set, Streams returned by {@code queryForStream} map the
+	 * next batch of rows on this executor while the current batch is consumed.
+	 */
+	@Nullable
+	private Executor streamPrefetchExecutor;
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -311,6 +329,31 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Set an executor on which Streams returned by {@code queryForStream} map
+	 * the next batch of rows while the current batch is being consumed. Batches
+	 * have the {@link #setFetchSize fetch size} if set, or 1000 rows otherwise.
+	 * <p>The ResultSet is only ever accessed by one thread at a time, but the
+	 * RowMapper is invoked on the executor's threads and must therefore not
+	 * depend on thread-bound state.
+	 * <p>Default is none, mapping each row once the Stream advances to it.
+	 * @since 5.2.12
+	 * @see #queryForStream(String, RowMapper)
+	 */
+	public void setStreamPrefetchExecutor(@Nullable Executor streamPrefetchExecutor) {
+		this.streamPrefetchExecutor = streamPrefetchExecutor;
+	}
+
+	/**
+	 * Return the executor on which Streams returned by {@code queryForStream}
+	 * map the next batch of rows, if any.
+	 * @since 5.2.12
+	 */
+	@Nullable
+	public Executor getStreamPrefetchExecutor() {
+		return this.streamPrefetchExecutor;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -366,15 +409,22 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+		return execute(action, true);
+	}
+
+	@Nullable
+	private <T> T execute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
 		Connection con = DataSourceUtils.getConnection(obtainDataSource());
 		Statement stmt = null;
+		boolean success = false;
 		try {
 			stmt = con.createStatement();
 			applyStatementSettings(stmt);
 			T result = action.doInStatement(stmt);
 			handleWarnings(stmt);
+			success = true;
 			return result;
 		}
 		catch (SQLException ex) {
@@ -388,8 +438,10 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("StatementCallback", sql, ex);
 		}
 		finally {
-			JdbcUtils.closeStatement(stmt);
-			DataSourceUtils.releaseConnection(con, getDataSource());
+			if (closeResources || !success) {
+				JdbcUtils.closeStatement(stmt);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			}
 		}
 	}
 
@@ -462,6 +514,37 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL query [" + sql + "]");
+		}
+
+		/**
+		 * Callback to execute the query, leaving the resources open for the Stream.
+		 */
+		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
+			@Override
+			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				ResultSet rs = stmt.executeQuery(sql);
+				Connection con = stmt.getConnection();
+				return createStream(rs, rowMapper, () -> {
+					JdbcUtils.closeResultSet(rs);
+					JdbcUtils.closeStatement(stmt);
+					DataSourceUtils.releaseConnection(con, getDataSource());
+				});
+			}
+			@Override
+			public String getSql() {
+				return sql;
+			}
+		}
+
+		return result(execute(new StreamStatementCallback(), false));
+	}
+
 	@Override
 	public Map<String, Object> queryForMap(String sql) throws DataAccessException {
 		return result(queryForObject(sql, getColumnMapRowMapper()));
@@ -602,6 +685,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
 			throws DataAccessException {
 
+		return execute(psc, action, true);
+	}
+
+	@Nullable
+	private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
 		Assert.notNull(psc, "PreparedStatementCreator must not be null");
 		Assert.notNull(action, "Callback object must not be null");
 		if (logger.isDebugEnabled()) {
@@ -611,11 +701,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		Connection con = DataSourceUtils.getConnection(obtainDataSource());
 		PreparedStatement ps = null;
+		boolean success = false;
 		try {
 			ps = psc.createPreparedStatement(con);
 			applyStatementSettings(ps);
 			T result = action.doInPreparedStatement(ps);
 			handleWarnings(ps);
+			success = true;
 			return result;
 		}
 		catch (SQLException ex) {
@@ -633,11 +725,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			throw translateException("PreparedStatementCallback", sql, ex);
 		}
 		finally {
-			if (psc instanceof ParameterDisposer) {
-				((ParameterDisposer) psc).cleanupParameters();
+			if (closeResources || !success) {
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
 			}
-			JdbcUtils.closeStatement(ps);
-			DataSourceUtils.releaseConnection(con, getDataSource());
 		}
 	}
 
@@ -768,6 +862,67 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, args, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, mapping each row to a result object via a
+	 * RowMapper, and turning it into an iterable and closeable Stream.
+	 * <p>The Connection, PreparedStatement and ResultSet are kept open until the
+	 * returned Stream is closed.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 5.2.12
+	 * @see #setStreamPrefetchExecutor
+	 */
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+			RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		logger.debug("Executing prepared SQL query");
+
+		return result(execute(psc, ps -> {
+			if (pss != null) {
+				pss.setValues(ps);
+			}
+			ResultSet rs = ps.executeQuery();
+			Connection con = ps.getConnection();
+			return createStream(rs, rowMapper, () -> {
+				JdbcUtils.closeResultSet(rs);
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			});
+		}, false));
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(psc, null, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper)
@@ -1445,6 +1600,28 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Create a Stream over the given ResultSet, mapping the next batch of rows
+	 * on the {@link #setStreamPrefetchExecutor prefetch executor}, if any.
+	 * @param rs the ResultSet to stream
+	 * @param rowMapper a callback that will map one object per row
+	 * @param closeAction the action that closes the JDBC resources
+	 * @return the Stream, closing the JDBC resources when closed
+	 */
+	private <T> Stream<T> createStream(ResultSet rs, RowMapper<T> rowMapper, Runnable closeAction) {
+		ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(rs, rowMapper);
+		Executor executor = this.streamPrefetchExecutor;
+		if (executor == null) {
+			return StreamSupport.stream(spliterator, false).onClose(closeAction);
+		}
+		int batchSize = (this.fetchSize > 0 ? this.fetchSize : DEFAULT_PREFETCH_BATCH_SIZE);
+		PrefetchingSpliterator<T> prefetching = new PrefetchingSpliterator<>(spliterator, batchSize, executor);
+		return StreamSupport.stream(prefetching, false).onClose(() -> {
+			prefetching.awaitPending();
+			closeAction.run();
+		});
+	}
+
 	/**
 	 * Determine SQL from potential provider object.
 	 * @param sqlProvider object which is potentially an SqlProvider
@@ -1610,4 +1787,163 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream.
+	 */
+	private static class ResultSetSpliterator<T> implements Spliterator<T> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		private int rowNum = 0;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				if (this.rs.next()) {
+					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
+					return true;
+				}
+				return false;
+			}
+			catch (SQLException ex) {
+				throw new InvalidResultSetAccessException(ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+	}
+
+
+	/**
+	 * Spliterator that maps the next batch of rows on an executor while
+	 * the current batch is consumed, with at most one batch in flight.
+	 */
+	private static class PrefetchingSpliterator<T> implements Spliterator<T> {
+
+		private final Spliterator<T> source;
+
+		private final int batchSize;
+
+		private final Executor executor;
+
+		@Nullable
+		private CompletableFuture<List<T>> next;
+
+		private Iterator<T> current = Collections.emptyIterator();
+
+		private boolean done;
+
+		public PrefetchingSpliterator(Spliterator<T> source, int batchSize, Executor executor) {
+			this.source = source;
+			this.batchSize = batchSize;
+			this.executor = executor;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			while (!this.current.hasNext()) {
+				if (this.done) {
+					return false;
+				}
+				List<T> batch = awaitBatch();
+				if (batch.size() < this.batchSize) {
+					this.done = true;
+				}
+				else {
+					this.next = CompletableFuture.supplyAsync(this::fetchBatch, this.executor);
+				}
+				this.current = batch.iterator();
+			}
+			action.accept(this.current.next());
+			return true;
+		}
+
+		private List<T> awaitBatch() {
+			CompletableFuture<List<T>> next = this.next;
+			if (next == null) {
+				return fetchBatch();
+			}
+			this.next = null;
+			try {
+				return next.join();
+			}
+			catch (CompletionException ex) {
+				this.done = true;
+				Throwable cause = ex.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw ex;
+			}
+		}
+
+		private List<T> fetchBatch() {
+			List<T> batch = new ArrayList<>(this.batchSize);
+			while (batch.size() < this.batchSize) {
+				if (!this.source.tryAdvance(batch::add)) {
+					break;
+				}
+			}
+			return batch;
+		}
+
+		/**
+		 * Wait for the batch in flight, if any, so that the ResultSet is
+		 * no longer accessed once the Stream is closed.
+		 */
+		void awaitPending() {
+			CompletableFuture<List<T>> next = this.next;
+			if (next != null) {
+				this.next = null;
+				try {
+					next.join();
+				}
+				catch (CompletionException ex) {
+					// ignore, closing anyway
+				}
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+	}
+
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Write-behind buffer for updates with named parameters, synchronized with
+ * Spring-managed transactions (through Spring's {@link TransactionSynchronizationManager}).
+ * Within a transaction, {@link #update} calls are collected per transaction and
+ * sent as JDBC batches before commit, or as soon as the buffer is full. If no
+ * transaction is active, updates are executed immediately, as usual.
+ *
+ * <p>Consecutive updates with the same SQL statement are sent as one batch, in
+ * the order of their {@code update} calls, through
+ * {@link NamedParameterJdbcOperations#batchUpdate(String, SqlParameterSource[])},
+ * so a {@link NamedParameterJdbcTemplate} with
+ * {@link NamedParameterJdbcTemplate#setRewriteBatchedInserts rewritten inserts}
+ * sends buffered inserts as multi-row inserts.
+ *
+ * <p><b>Note:</b> Buffered updates are not visible to queries within the same
+ * transaction until they are sent. Call {@link #flush()}, or flush the current
+ * {@link org.springframework.transaction.TransactionStatus}, before reading data
+ * that may have been updated in the transaction. Buffered updates are discarded
+ * on rollback.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see NamedParameterJdbcTemplate#batchUpdate(String, SqlParameterSource[])
+ */
+public class BatchUpdateBuffer {
+
+	/** Default maximum number of updates to buffer per transaction: 1000. */
+	public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+
+	private final NamedParameterJdbcOperations jdbcOperations;
+
+	private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+
+	/**
+	 * Create a new BatchUpdateBuffer for the given {@link DataSource}.
+	 * @param dataSource the JDBC DataSource to access
+	 */
+	public BatchUpdateBuffer(DataSource dataSource) {
+		this(new NamedParameterJdbcTemplate(dataSource));
+	}
+
+	/**
+	 * Create a new BatchUpdateBuffer for the given {@link NamedParameterJdbcOperations}.
+	 * @param jdbcOperations the operations to send buffered updates with
+	 */
+	public BatchUpdateBuffer(NamedParameterJdbcOperations jdbcOperations) {
+		Assert.notNull(jdbcOperations, "NamedParameterJdbcOperations must not be null");
+		this.jdbcOperations = jdbcOperations;
+	}
+
+
+	/**
+	 * Return the operations that buffered updates are sent with.
+	 */
+	public NamedParameterJdbcOperations getJdbcOperations() {
+		return this.jdbcOperations;
+	}
+
+	/**
+	 * Specify the maximum number of updates to buffer per transaction,
+	 * sending them once reached. Default is 1000.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Return the maximum number of updates to buffer per transaction.
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+
+	/**
+	 * Issue an update via a prepared statement, binding the given arguments,
+	 * buffered until the end of the current transaction, if any.
+	 * @param sql the SQL containing named parameters
+	 * @param paramSource container of arguments and SQL types to bind to the query
+	 * @throws DataAccessException if there is any problem issuing the update,
+	 * or sending previously buffered updates
+	 */
+	public void update(String sql, SqlParameterSource paramSource) throws DataAccessException {
+		Buffer buffer = getTransactionalBuffer();
+		if (buffer != null) {
+			buffer.add(sql, paramSource);
+			if (buffer.size() >= getBufferSize()) {
+				buffer.flush();
+			}
+		}
+		else {
+			this.jdbcOperations.update(sql, paramSource);
+		}
+	}
+
+	/**
+	 * Issue an update via a prepared statement, binding the given arguments,
+	 * buffered until the end of the current transaction, if any.
+	 * @param sql the SQL containing named parameters
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @throws DataAccessException if there is any problem issuing the update,
+	 * or sending previously buffered updates
+	 */
+	public void update(String sql, Map<String, ?> paramMap) throws DataAccessException {
+		update(sql, new MapSqlParameterSource(paramMap));
+	}
+
+	/**
+	 * Send the updates buffered for the current transaction, if any.
+	 * @throws DataAccessException if there is any problem sending the updates
+	 */
+	public void flush() throws DataAccessException {
+		Buffer buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+		if (buffer != null) {
+			buffer.flush();
+		}
+	}
+
+	/**
+	 * Return the number of updates buffered for the current transaction.
+	 */
+	public int getBufferedUpdateCount() {
+		Buffer buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+		return (buffer != null ? buffer.size() : 0);
+	}
+
+	@Nullable
+	private Buffer getTransactionalBuffer() {
+		Buffer buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+		if (buffer == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+			buffer = new Buffer();
+			TransactionSynchronizationManager.bindResource(this, buffer);
+			TransactionSynchronizationManager.registerSynchronization(new BufferSynchronization(buffer));
+		}
+		return buffer;
+	}
+
+
+	/**
+	 * The updates buffered for a transaction, as consecutive batches
+	 * of updates with the same SQL statement.
+	 */
+	private class Buffer {
+
+		private final List<Batch> batches = new ArrayList<>();
+
+		private int size;
+
+		void add(String sql, SqlParameterSource paramSource) {
+			Batch batch = (this.batches.isEmpty() ? null : this.batches.get(this.batches.size() - 1));
+			if (batch == null || !batch.sql.equals(sql)) {
+				batch = new Batch(sql);
+				this.batches.add(batch);
+			}
+			batch.paramSources.add(paramSource);
+			this.size++;
+		}
+
+		int size() {
+			return this.size;
+		}
+
+		void flush() {
+			List<Batch> batches = new ArrayList<>(this.batches);
+			clear();
+			for (Batch batch : batches) {
+				BatchUpdateBuffer.this.jdbcOperations.batchUpdate(
+						batch.sql, batch.paramSources.toArray(new SqlParameterSource[0]));
+			}
+		}
+
+		void clear() {
+			this.batches.clear();
+			this.size = 0;
+		}
+	}
+
+
+	/**
+	 * Consecutive updates with the same SQL statement.
+	 */
+	private static class Batch {
+
+		private final String sql;
+
+		private final List<SqlParameterSource> paramSources = new ArrayList<>();
+
+		Batch(String sql) {
+			this.sql = sql;
+		}
+	}
+
+
+	/**
+	 * Callback for sending buffered updates before commit, and for
+	 * unbinding the buffer at the end of the transaction.
+	 */
+	private class BufferSynchronization extends TransactionSynchronizationAdapter {
+
+		private final Buffer buffer;
+
+		BufferSynchronization(Buffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int getOrder() {
+			// Send updates while the transactional connection is still bound
+			return DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER - 1;
+		}
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(BatchUpdateBuffer.this);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(BatchUpdateBuffer.this, this.buffer);
+		}
+
+		@Override
+		public void flush() {
+			this.buffer.flush();
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			this.buffer.flush();
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(BatchUpdateBuffer.this);
+			this.buffer.clear();
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A single-row {@code INSERT ... VALUES (...)} statement with JDBC-style
+ * placeholders, which can be rewritten into a multi-row {@code VALUES} list.
+ * Mainly for internal use within the framework.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see NamedParameterJdbcTemplate#setRewriteBatchedInserts
+ */
+final class MultiRowInsert {
+
+	/** Maximum number of rows per statement, as supported by all databases below. */
+	static final int MAX_ROWS = 1000;
+
+	/** Maximum number of bind parameters per statement, by common database name. */
+	private static final Map<String, Integer> maxParameters = new HashMap<>(16);
+
+	static {
+		maxParameters.put("Apache Derby", 32767);
+		maxParameters.put("DB2", 32767);
+		maxParameters.put("H2", 32767);
+		maxParameters.put("HSQL Database Engine", 32767);
+		maxParameters.put("Microsoft SQL Server", 2100);
+		maxParameters.put("MySQL", 65535);
+		maxParameters.put("PostgreSQL", 32767);
+		maxParameters.put("SQLite", 999);
+	}
+
+
+	private final String prefix;
+
+	private final String values;
+
+	private final int parameterCount;
+
+
+	private MultiRowInsert(String prefix, String values, int parameterCount) {
+		this.prefix = prefix;
+		this.values = values;
+		this.parameterCount = parameterCount;
+	}
+
+
+	/**
+	 * Return the number of placeholders in the {@code VALUES} list of a single row.
+	 */
+	int getParameterCount() {
+		return this.parameterCount;
+	}
+
+	/**
+	 * Return the maximum number of rows per statement for the given database.
+	 * @param databaseName the common database name
+	 * @return the number of rows, or 1 if multi-row inserts are not supported
+	 * @see org.springframework.jdbc.support.JdbcUtils#commonDatabaseName
+	 */
+	int getMaxRows(@Nullable String databaseName) {
+		Integer max = (databaseName != null ? maxParameters.get(databaseName) : null);
+		if (max == null) {
+			return 1;
+		}
+		return Math.max(1, Math.min(MAX_ROWS, max / this.parameterCount));
+	}
+
+	/**
+	 * Return the statement inserting the given number of rows.
+	 */
+	String getSql(int rows) {
+		StringBuilder sql = new StringBuilder(this.prefix.length() + rows * (this.values.length() + 2));
+		sql.append(this.prefix);
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(this.values);
+		}
+		return sql.toString();
+	}
+
+
+	/**
+	 * Parse the given statement, returning {@code null} unless it is an
+	 * {@code INSERT} statement ending with a single {@code VALUES} list
+	 * that contains placeholders. Statements with comments are not rewritten.
+	 * @param sql the statement with JDBC-style placeholders
+	 */
+	@Nullable
+	static MultiRowInsert parse(String sql) {
+		String statement = sql.trim();
+		if (statement.endsWith(";")) {
+			statement = statement.substring(0, statement.length() - 1).trim();
+		}
+		if (!statement.regionMatches(true, 0, "insert", 0, 6) ||
+				statement.contains("--") || statement.contains("/*")) {
+			return null;
+		}
+
+		int valuesIndex = -1;
+		int depth = 0;
+		char quote = 0;
+		for (int i = 0; i < statement.length(); i++) {
+			char c = statement.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			}
+			else if (c == '\'' || c == '"' || c == '`') {
+				quote = c;
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (depth == 0 && isKeyword(statement, i, "values")) {
+				valuesIndex = i;
+				break;
+			}
+		}
+		if (valuesIndex == -1) {
+			return null;
+		}
+
+		int start = valuesIndex + 6;
+		while (start < statement.length() && Character.isWhitespace(statement.charAt(start))) {
+			start++;
+		}
+		if (start == statement.length() || statement.charAt(start) != '(') {
+			return null;
+		}
+		int end = -1;
+		int parameterCount = 0;
+		depth = 0;
+		quote = 0;
+		for (int i = start; i < statement.length(); i++) {
+			char c = statement.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			}
+			else if (c == '\'' || c == '"' || c == '`') {
+				quote = c;
+			}
+			else if (c == '?') {
+				parameterCount++;
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')' && --depth == 0) {
+				end = i + 1;
+				break;
+			}
+		}
+		if (end != statement.length() || parameterCount == 0) {
+			return null;
+		}
+		return new MultiRowInsert(statement.substring(0, start), statement.substring(start), parameterCount);
+	}
+
+	private static boolean isKeyword(String statement, int index, String keyword) {
+		int end = index + keyword.length();
+		return (statement.regionMatches(true, index, keyword, 0, keyword.length()) &&
+				(index == 0 || !Character.isJavaIdentifierPart(statement.charAt(index - 1))) &&
+				(end == statement.length() || !Character.isJavaIdentifierPart(statement.charAt(end))));
+	}
+
+}
@@ -16,8 +16,10 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcOperations;
@@ -28,6 +30,7 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
 
 /**
  * Interface specifying a basic set of JDBC operations allowing the use
@@ -213,6 +216,45 @@ public interface NamedParameterJdbcOperations {
 	<T> List<T> query(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
 			throws DataAccessException;
 
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream.
+	 * <p>The default implementation collects all rows through
+	 * {@link #query(String, SqlParameterSource, RowMapper)} and streams the resulting List.
+	 * @param sql the SQL query to execute
+	 * @param paramSource container of arguments to bind to the query
+	 * @param rowMapper object that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 5.2.12
+	 */
+	default <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+		return query(sql, paramSource, rowMapper).stream();
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list
+	 * of arguments to bind to the query, mapping each row to a Java object
+	 * via a RowMapper, and turning it into an iterable and closeable Stream.
+	 * <p>The default implementation collects all rows through
+	 * {@link #query(String, Map, RowMapper)} and streams the resulting List.
+	 * @param sql the SQL query to execute
+	 * @param paramMap map of parameters to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type)
+	 * @param rowMapper object that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if the query fails
+	 * @since 5.2.12
+	 */
+	default <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+		return query(sql, paramMap, rowMapper).stream();
+	}
+
 	/**
 	 * Query given SQL to create a prepared statement from SQL,
 	 * mapping each row to a Java object via a RowMapper.
@@ -516,4 +558,33 @@ public interface NamedParameterJdbcOperations {
 	 */
 	int[] batchUpdate(String sql, SqlParameterSource[] batchArgs);
 
+	/**
+	 * Execute multiple batches using the supplied SQL statement with the batch of
+	 * supplied arguments, sending each batch of the given size separately.
+	 * <p>The default implementation delegates to {@link #batchUpdate(String, SqlParameterSource[])}
+	 * for each chunk of the given size.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the array of {@link SqlParameterSource} containing the batch of
+	 * arguments for the query
+	 * @param batchSize the number of updates to send per batch
+	 * @return an array containing for each batch another array containing the numbers
+	 * of rows affected by each update in the batch (may also contain special JDBC-defined
+	 * negative values for affected rows such as {@link java.sql.Statement#SUCCESS_NO_INFO}/
+	 * {@link java.sql.Statement#EXECUTE_FAILED})
+	 * @throws DataAccessException if there is any problem issuing the update
+	 * @since 5.2.12
+	 * @see org.springframework.jdbc.core.JdbcOperations#batchUpdate(String, java.util.Collection, int,
+	 * org.springframework.jdbc.core.ParameterizedPreparedStatementSetter)
+	 */
+	default int[][] batchUpdate(String sql, SqlParameterSource[] batchArgs, int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		int[][] rowsAffected = new int[(batchArgs.length + batchSize - 1) / batchSize][];
+		for (int i = 0; i < rowsAffected.length; i++) {
+			int from = i * batchSize;
+			rowsAffected[i] = batchUpdate(sql,
+					Arrays.copyOfRange(batchArgs, from, Math.min(from + batchSize, batchArgs.length)));
+		}
+		return rowsAffected;
+	}
+
 }
@@ -18,10 +18,17 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -29,6 +36,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
@@ -39,11 +47,15 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ObjectUtils;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -58,6 +70,16 @@ import org.springframework.util.Assert;
  * exposed to allow for convenient access to the traditional
  * {@link org.springframework.jdbc.core.JdbcTemplate} methods.
  *
+ * <p>The SQL statement to use and the declared parameters are cached per
+ * original statement and shape of the given parameters, i.e. the number of
+ * elements of collection values and the declared SQL types. Collections for
+ * {@code IN} lists may optionally be padded, so that fewer distinct statements
+ * reach the JDBC driver's statement cache, see {@link #setInClauseParameterPadding}.
+ *
+ * <p>Batch updates of a single-row {@code INSERT ... VALUES (...)} statement
+ * may optionally be sent as multi-row inserts, see
+ * {@link #setRewriteBatchedInserts}.
+ *
  * <p><b>NOTE: An instance of this class is thread-safe once configured.</b>
  *
  * @author Thomas Risberg
@@ -87,6 +109,27 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 				}
 			};
 
+	/** Cache of PreparedStatementCreatorFactory per statement and parameter shape. */
+	@Nullable
+	private volatile ConcurrentLruCache<StatementKey, PreparedStatementCreatorFactory> statementCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, this::createPreparedStatementCreatorFactory);
+
+	private final LongAdder parsedSqlCacheRequests = new LongAdder();
+
+	private final LongAdder parsedSqlCacheMisses = new LongAdder();
+
+	private final LongAdder statementCacheRequests = new LongAdder();
+
+	private final LongAdder statementCacheMisses = new LongAdder();
+
+	private volatile boolean inClauseParameterPadding = false;
+
+	private volatile boolean rewriteBatchedInserts = false;
+
+	/** Common name of the target database, resolved for rewriting batched inserts. */
+	@Nullable
+	private volatile String databaseName;
+
 
 	/**
 	 * Create a new NamedParameterJdbcTemplate for the given {@link DataSource}.
@@ -133,9 +176,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
 	 * Default is 256.
+	 * <p>The same limit applies to the cache of substituted statements per
+	 * parameter shape. A limit of 0 turns both caches off.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		this.statementCache = (cacheLimit > 0 ?
+				new ConcurrentLruCache<>(cacheLimit, this::createPreparedStatementCreatorFactory) : null);
 	}
 
 	/**
@@ -145,6 +192,85 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.cacheLimit;
 	}
 
+	/**
+	 * Set whether to pad collection values of parameters in {@code IN} lists,
+	 * i.e. parameters that only occur as {@code IN (:name)}, to the next power
+	 * of two, repeating their last element. A query is then sent with one of
+	 * a few distinct statements instead of one per number of elements, allowing
+	 * for reuse of prepared statements and execution plans by the database.
+	 * <p>Default is "false". Not applied to batch updates.
+	 * @since 5.2.12
+	 */
+	public void setInClauseParameterPadding(boolean inClauseParameterPadding) {
+		this.inClauseParameterPadding = inClauseParameterPadding;
+	}
+
+	/**
+	 * Return whether collection values of parameters in {@code IN} lists are padded.
+	 * @since 5.2.12
+	 */
+	public boolean isInClauseParameterPadding() {
+		return this.inClauseParameterPadding;
+	}
+
+	/**
+	 * Set whether to send batch updates of a single-row {@code INSERT ... VALUES (...)}
+	 * statement as multi-row inserts with a {@code VALUES} list per row, on databases
+	 * that support them (e.g. PostgreSQL, MySQL, SQL Server, DB2, H2, HSQLDB, Derby).
+	 * <p>Default is "false". If enabled, the rows of a batch are inserted with as few
+	 * statements as the row and bind parameter limits of the database allow, sent
+	 * together as a JDBC batch. The numbers of rows affected are reported per row:
+	 * as 1 if a statement affected all of its rows, or as
+	 * {@link java.sql.Statement#SUCCESS_NO_INFO} otherwise.
+	 * @since 5.2.12
+	 */
+	public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+		this.rewriteBatchedInserts = rewriteBatchedInserts;
+	}
+
+	/**
+	 * Return whether batch updates of single-row inserts are sent as multi-row inserts.
+	 * @since 5.2.12
+	 */
+	public boolean isRewriteBatchedInserts() {
+		return this.rewriteBatchedInserts;
+	}
+
+	/**
+	 * Return the number of {@link #getParsedSql parsed statements} served from the cache.
+	 * @since 5.2.12
+	 */
+	public long getParsedSqlCacheHitCount() {
+		return this.parsedSqlCacheRequests.sum() - this.parsedSqlCacheMisses.sum();
+	}
+
+	/**
+	 * Return the number of statements parsed for lack of a cached representation.
+	 * @since 5.2.12
+	 */
+	public long getParsedSqlCacheMissCount() {
+		return this.parsedSqlCacheMisses.sum();
+	}
+
+	/**
+	 * Return the number of {@link #getPreparedStatementCreatorFactory statements
+	 * with declared parameters} served from the cache.
+	 * @since 5.2.12
+	 */
+	public long getStatementCacheHitCount() {
+		return this.statementCacheRequests.sum() - this.statementCacheMisses.sum();
+	}
+
+	/**
+	 * Return the number of statements with declared parameters created for lack
+	 * of a cached one, or for parameters that cannot be cached (such as
+	 * collections of arrays).
+	 * @since 5.2.12
+	 */
+	public long getStatementCacheMissCount() {
+		return this.statementCacheMisses.sum();
+	}
+
 
 	@Override
 	@Nullable
@@ -223,6 +349,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, new MapSqlParameterSource(paramMap), rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	@Override
 	public <T> List<T> query(String sql, RowMapper<T> rowMapper) throws DataAccessException {
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
@@ -363,6 +503,13 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		ParsedSql parsedSql = getParsedSql(sql);
 		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
 
+		if (isRewriteBatchedInserts()) {
+			int[][] rowsAffected = batchUpdateAsMultiRowInsert(parsedSql, pscf, batchArgs, batchArgs.length);
+			if (rowsAffected != null) {
+				return Arrays.stream(rowsAffected).flatMapToInt(Arrays::stream).toArray();
+			}
+		}
+
 		return getJdbcOperations().batchUpdate(
 				pscf.getSql(),
 				new BatchPreparedStatementSetter() {
@@ -378,6 +525,117 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 				});
 	}
 
+	@Override
+	public int[][] batchUpdate(String sql, SqlParameterSource[] batchArgs, int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		if (batchArgs.length == 0) {
+			return new int[0][];
+		}
+
+		ParsedSql parsedSql = getParsedSql(sql);
+		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, batchArgs[0]);
+
+		if (isRewriteBatchedInserts()) {
+			int[][] rowsAffected = batchUpdateAsMultiRowInsert(parsedSql, pscf, batchArgs, batchSize);
+			if (rowsAffected != null) {
+				return rowsAffected;
+			}
+		}
+
+		return getJdbcOperations().batchUpdate(pscf.getSql(), Arrays.asList(batchArgs), batchSize,
+				(ps, paramSource) -> {
+					Object[] values = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+					pscf.newPreparedStatementSetter(values).setValues(ps);
+				});
+	}
+
+	/**
+	 * Execute the given batch as multi-row inserts, with up to the given number
+	 * of rows per statement.
+	 * @return the numbers of rows affected per statement, or {@code null} if the
+	 * statement or the database do not support multi-row inserts
+	 */
+	@Nullable
+	private int[][] batchUpdateAsMultiRowInsert(ParsedSql parsedSql, PreparedStatementCreatorFactory pscf,
+			SqlParameterSource[] batchArgs, int batchSize) {
+
+		MultiRowInsert insert = MultiRowInsert.parse(pscf.getSql());
+		if (insert == null) {
+			return null;
+		}
+		int rows = Math.min(batchSize, insert.getMaxRows(getDatabaseName()));
+		if (rows < 2) {
+			return null;
+		}
+
+		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, batchArgs[0]);
+		int statements = batchArgs.length / rows;
+		int remainder = batchArgs.length % rows;
+		List<int[]> rowsAffected = new ArrayList<>(statements + 1);
+
+		if (statements > 0) {
+			PreparedStatementCreatorFactory multiRowPscf = getMultiRowFactory(insert, declaredParameters, rows);
+			int[] updateCounts = getJdbcOperations().batchUpdate(
+					multiRowPscf.getSql(),
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							Object[] values = buildMultiRowValueArray(parsedSql, batchArgs, i * rows, rows);
+							multiRowPscf.newPreparedStatementSetter(values).setValues(ps);
+						}
+						@Override
+						public int getBatchSize() {
+							return statements;
+						}
+					});
+			for (int updateCount : updateCounts) {
+				rowsAffected.add(getRowsAffected(updateCount, rows));
+			}
+		}
+		if (remainder > 0) {
+			PreparedStatementCreatorFactory multiRowPscf = getMultiRowFactory(insert, declaredParameters, remainder);
+			Object[] values = buildMultiRowValueArray(parsedSql, batchArgs, statements * rows, remainder);
+			int updateCount = getJdbcOperations().update(multiRowPscf.newPreparedStatementCreator(values));
+			rowsAffected.add(getRowsAffected(updateCount, remainder));
+		}
+		return rowsAffected.toArray(new int[0][]);
+	}
+
+	private PreparedStatementCreatorFactory getMultiRowFactory(
+			MultiRowInsert insert, List<SqlParameter> declaredParameters, int rows) {
+
+		List<SqlParameter> parameters = new ArrayList<>(declaredParameters.size() * rows);
+		for (int i = 0; i < rows; i++) {
+			parameters.addAll(declaredParameters);
+		}
+		return new PreparedStatementCreatorFactory(insert.getSql(rows), parameters);
+	}
+
+	private Object[] buildMultiRowValueArray(ParsedSql parsedSql, SqlParameterSource[] batchArgs, int offset, int rows) {
+		List<Object> values = new ArrayList<>();
+		for (int i = offset; i < offset + rows; i++) {
+			values.addAll(Arrays.asList(NamedParameterUtils.buildValueArray(parsedSql, batchArgs[i], null)));
+		}
+		return values.toArray();
+	}
+
+	private int[] getRowsAffected(int updateCount, int rows) {
+		int[] rowsAffected = new int[rows];
+		Arrays.fill(rowsAffected, updateCount == rows ? 1 : Statement.SUCCESS_NO_INFO);
+		return rowsAffected;
+	}
+
+	@Nullable
+	private String getDatabaseName() {
+		String databaseName = this.databaseName;
+		if (databaseName == null) {
+			databaseName = getJdbcOperations().execute((ConnectionCallback<String>) con ->
+					JdbcUtils.commonDatabaseName(con.getMetaData().getDatabaseProductName()));
+			this.databaseName = databaseName;
+		}
+		return databaseName;
+	}
+
 
 	/**
 	 * Build a {@link PreparedStatementCreator} based on the given SQL and named parameters.
@@ -411,11 +669,21 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
+		SqlParameterSource paramSourceToUse = paramSource;
+		if (isInClauseParameterPadding()) {
+			Set<String> inClauseParameterNames = parsedSql.getInClauseParameterNames();
+			if (!inClauseParameterNames.isEmpty()) {
+				paramSourceToUse = new InClausePaddingSqlParameterSource(paramSource, inClauseParameterNames);
+			}
+		}
+		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSourceToUse);
 		if (customizer != null) {
+			// Customize a copy rather than a possibly shared factory
+			pscf = new PreparedStatementCreatorFactory(
+					pscf.getSql(), NamedParameterUtils.buildSqlParameterList(parsedSql, paramSourceToUse));
 			customizer.accept(pscf);
 		}
-		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSourceToUse, null);
 		return pscf.newPreparedStatementCreator(params);
 	}
 
@@ -426,16 +694,24 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
+		this.parsedSqlCacheRequests.increment();
 		if (getCacheLimit() <= 0) {
+			this.parsedSqlCacheMisses.increment();
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
 		synchronized (this.parsedSqlCache) {
-			return this.parsedSqlCache.computeIfAbsent(sql, NamedParameterUtils::parseSqlStatement);
+			return this.parsedSqlCache.computeIfAbsent(sql, key -> {
+				this.parsedSqlCacheMisses.increment();
+				return NamedParameterUtils.parseSqlStatement(key);
+			});
 		}
 	}
 
 	/**
 	 * Build a {@link PreparedStatementCreatorFactory} based on the given SQL and named parameters.
+	 * <p>The default implementation caches factories per statement and shape of the
+	 * given parameters, up to the {@link #setCacheLimit cache limit}: the returned
+	 * factory may be shared and must not be modified.
 	 * @param parsedSql parsed representation of the given SQL statement
 	 * @param paramSource container of arguments to bind
 	 * @return the corresponding {@link PreparedStatementCreatorFactory}
@@ -446,9 +722,191 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	protected PreparedStatementCreatorFactory getPreparedStatementCreatorFactory(
 			ParsedSql parsedSql, SqlParameterSource paramSource) {
 
-		String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
-		List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+		this.statementCacheRequests.increment();
+		ConcurrentLruCache<StatementKey, PreparedStatementCreatorFactory> cache = this.statementCache;
+		StatementKey key = (cache != null ? StatementKey.of(parsedSql, paramSource) : null);
+		if (cache == null || key == null) {
+			this.statementCacheMisses.increment();
+			String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+			List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, paramSource);
+			return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
+		}
+		return cache.get(key);
+	}
+
+	private PreparedStatementCreatorFactory createPreparedStatementCreatorFactory(StatementKey key) {
+		this.statementCacheMisses.increment();
+		ParsedSql parsedSql = key.parsedSql;
+		String sqlToUse = NamedParameterUtils.substituteNamedParametersForValueCounts(parsedSql, key.valueCounts);
+		List<String> paramNames = parsedSql.getParameterNames();
+		List<SqlParameter> declaredParameters = new ArrayList<>(paramNames.size());
+		for (int i = 0; i < paramNames.size(); i++) {
+			declaredParameters.add(new SqlParameter(paramNames.get(i), key.sqlTypes[i], key.typeNames[i]));
+		}
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+	/**
+	 * Cache key for a statement and the shape of its parameters.
+	 */
+	private static final class StatementKey {
+
+		private final ParsedSql parsedSql;
+
+		private final int[] valueCounts;
+
+		private final int[] sqlTypes;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		private StatementKey(ParsedSql parsedSql, int[] valueCounts, int[] sqlTypes, String[] typeNames) {
+			this.parsedSql = parsedSql;
+			this.valueCounts = valueCounts;
+			this.sqlTypes = sqlTypes;
+			this.typeNames = typeNames;
+			this.hashCode = 31 * (31 * (31 * parsedSql.getOriginalSql().hashCode() +
+					Arrays.hashCode(valueCounts)) + Arrays.hashCode(sqlTypes)) + Arrays.hashCode(typeNames);
+		}
+
+		/**
+		 * Determine the key for the given statement and parameters.
+		 * @return the key, or {@code null} if the parameters cannot be cached
+		 * since their placeholders depend on more than the number of elements
+		 */
+		@Nullable
+		static StatementKey of(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int count = paramNames.size();
+			int[] valueCounts = new int[count];
+			int[] sqlTypes = new int[count];
+			String[] typeNames = new String[count];
+			for (int i = 0; i < count; i++) {
+				String paramName = paramNames.get(i);
+				valueCounts[i] = -1;
+				if (paramSource.hasValue(paramName)) {
+					Object value = paramSource.getValue(paramName);
+					if (value instanceof SqlParameterValue) {
+						value = ((SqlParameterValue) value).getValue();
+					}
+					if (value instanceof Iterable) {
+						int elements = 0;
+						for (Object element : (Iterable<?>) value) {
+							if (element instanceof Object[]) {
+								return null;
+							}
+							elements++;
+						}
+						valueCounts[i] = elements;
+					}
+				}
+				sqlTypes[i] = paramSource.getSqlType(paramName);
+				typeNames[i] = paramSource.getTypeName(paramName);
+			}
+			return new StatementKey(parsedSql, valueCounts, sqlTypes, typeNames);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementKey)) {
+				return false;
+			}
+			StatementKey otherKey = (StatementKey) other;
+			return (this.hashCode == otherKey.hashCode &&
+					this.parsedSql.getOriginalSql().equals(otherKey.parsedSql.getOriginalSql()) &&
+					Arrays.equals(this.valueCounts, otherKey.valueCounts) &&
+					Arrays.equals(this.sqlTypes, otherKey.sqlTypes) &&
+					ObjectUtils.nullSafeEquals(this.typeNames, otherKey.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+
+	/**
+	 * Decorator for a {@link SqlParameterSource}, padding the collection
+	 * values of the given parameters to the next power of two.
+	 */
+	private static class InClausePaddingSqlParameterSource implements SqlParameterSource {
+
+		private final SqlParameterSource paramSource;
+
+		private final Set<String> paramNames;
+
+		InClausePaddingSqlParameterSource(SqlParameterSource paramSource, Set<String> paramNames) {
+			this.paramSource = paramSource;
+			this.paramNames = paramNames;
+		}
+
+		@Override
+		public boolean hasValue(String paramName) {
+			return this.paramSource.hasValue(paramName);
+		}
+
+		@Override
+		@Nullable
+		public Object getValue(String paramName) throws IllegalArgumentException {
+			Object value = this.paramSource.getValue(paramName);
+			if (!this.paramNames.contains(paramName)) {
+				return value;
+			}
+			if (value instanceof SqlParameterValue) {
+				SqlParameterValue parameterValue = (SqlParameterValue) value;
+				Object padded = pad(parameterValue.getValue());
+				return (padded != parameterValue.getValue() ? new SqlParameterValue(parameterValue, padded) : value);
+			}
+			return pad(value);
+		}
+
+		@Nullable
+		private static Object pad(@Nullable Object value) {
+			if (!(value instanceof Iterable)) {
+				return value;
+			}
+			List<Object> elements;
+			if (value instanceof Collection) {
+				elements = new ArrayList<>((Collection<?>) value);
+			}
+			else {
+				elements = new ArrayList<>();
+				((Iterable<?>) value).forEach(elements::add);
+			}
+			int size = elements.size();
+			int paddedSize = (size > 1 ? Integer.highestOneBit(size - 1) << 1 : size);
+			if (paddedSize == size) {
+				return value;
+			}
+			Object last = elements.get(size - 1);
+			while (elements.size() < paddedSize) {
+				elements.add(last);
+			}
+			return elements;
+		}
+
+		@Override
+		public int getSqlType(String paramName) {
+			return this.paramSource.getSqlType(paramName);
+		}
+
+		@Override
+		@Nullable
+		public String getTypeName(String paramName) {
+			return this.paramSource.getTypeName(paramName);
+		}
+
+		@Override
+		@Nullable
+		public String[] getParameterNames() {
+			return this.paramSource.getParameterNames();
+		}
+	}
+
 }
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.SqlParameter;
@@ -265,6 +266,28 @@ public abstract class NamedParameterUtils {
 	 * @see #parseSqlStatement
 	 */
 	public static String substituteNamedParameters(ParsedSql parsedSql, @Nullable SqlParameterSource paramSource) {
+		return substituteNamedParameters(parsedSql, paramSource, index -> "?");
+	}
+
+	/**
+	 * Parse the SQL statement and locate any placeholders or named parameters.
+	 * Named parameters are substituted for the bind markers created by the given
+	 * function, e.g. {@code $1, $2} for drivers with indexed bind markers.
+	 * <p>Corresponds to {@link #substituteNamedParameters(ParsedSql, SqlParameterSource)},
+	 * expanding collection values into one bind marker per element in the same way.
+	 * Traditional {@code ?} placeholders are left as-is.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param paramSource the source for named parameters
+	 * @param bindMarkers function returning the bind marker for the given
+	 * 0-based index of the bound value, counting the elements of collection
+	 * values individually
+	 * @return the SQL statement with substituted parameters
+	 * @since 5.2.12
+	 * @see #buildValueArray(ParsedSql, SqlParameterSource, List)
+	 */
+	public static String substituteNamedParameters(ParsedSql parsedSql, @Nullable SqlParameterSource paramSource,
+			IntFunction<String> bindMarkers) {
+
 		String originalSql = parsedSql.getOriginalSql();
 		List<String> paramNames = parsedSql.getParameterNames();
 		if (paramNames.isEmpty()) {
@@ -272,6 +295,7 @@ public abstract class NamedParameterUtils {
 		}
 		StringBuilder actualSql = new StringBuilder(originalSql.length());
 		int lastIndex = 0;
+		int markerIndex = 0;
 		for (int i = 0; i < paramNames.size(); i++) {
 			String paramName = paramNames.get(i);
 			int[] indexes = parsedSql.getParameterIndexes(i);
@@ -299,21 +323,21 @@ public abstract class NamedParameterUtils {
 								if (m > 0) {
 									actualSql.append(", ");
 								}
-								actualSql.append('?');
+								actualSql.append(bindMarkers.apply(markerIndex++));
 							}
 							actualSql.append(')');
 						}
 						else {
-							actualSql.append('?');
+							actualSql.append(bindMarkers.apply(markerIndex++));
 						}
 					}
 				}
 				else {
-					actualSql.append('?');
+					actualSql.append(bindMarkers.apply(markerIndex++));
 				}
 			}
 			else {
-				actualSql.append('?');
+				actualSql.append(bindMarkers.apply(markerIndex++));
 			}
 			lastIndex = endIndex;
 		}
@@ -321,6 +345,46 @@ public abstract class NamedParameterUtils {
 		return actualSql.toString();
 	}
 
+	/**
+	 * Parse the SQL statement and locate any placeholders or named parameters,
+	 * substituting each named parameter with the given number of placeholders.
+	 * <p>Corresponds to {@link #substituteNamedParameters(ParsedSql, SqlParameterSource)}
+	 * for parameter values with the same number of elements, without access to
+	 * the values themselves.
+	 * @param parsedSql the parsed representation of the SQL statement
+	 * @param valueCounts the number of elements of the value of each parameter
+	 * occurrence if it is an {@link Iterable}, or -1 for a single placeholder
+	 * @return the SQL statement with substituted parameters
+	 * @since 5.2.12
+	 */
+	static String substituteNamedParametersForValueCounts(ParsedSql parsedSql, int[] valueCounts) {
+		String originalSql = parsedSql.getOriginalSql();
+		List<String> paramNames = parsedSql.getParameterNames();
+		if (paramNames.isEmpty()) {
+			return originalSql;
+		}
+		StringBuilder actualSql = new StringBuilder(originalSql.length());
+		int lastIndex = 0;
+		for (int i = 0; i < paramNames.size(); i++) {
+			int[] indexes = parsedSql.getParameterIndexes(i);
+			actualSql.append(originalSql, lastIndex, indexes[0]);
+			if (valueCounts[i] < 0) {
+				actualSql.append('?');
+			}
+			else {
+				for (int k = 0; k < valueCounts[i]; k++) {
+					if (k > 0) {
+						actualSql.append(", ");
+					}
+					actualSql.append('?');
+				}
+			}
+			lastIndex = indexes[1];
+		}
+		actualSql.append(originalSql, lastIndex, originalSql.length());
+		return actualSql.toString();
+	}
+
 	/**
 	 * Convert a Map of named parameter values to a corresponding array.
 	 * @param parsedSql the parsed SQL statement
@@ -17,7 +17,12 @@
 package org.springframework.jdbc.core.namedparam;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
 
 /**
  * Holds information about a parsed SQL statement.
@@ -40,6 +45,9 @@ public class ParsedSql {
 
 	private int totalParameterCount;
 
+	@Nullable
+	private volatile Set<String> inClauseParameterNames;
+
 
 	/**
 	 * Create a new instance of the {@link ParsedSql} class.
@@ -134,6 +142,59 @@ public class ParsedSql {
 	}
 
 
+	/**
+	 * Return the names of the parameters that only occur as the single
+	 * element of an {@code IN} list, i.e. as {@code IN (:name)}.
+	 * @since 5.2.12
+	 */
+	Set<String> getInClauseParameterNames() {
+		Set<String> names = this.inClauseParameterNames;
+		if (names == null) {
+			Set<String> candidates = new HashSet<>();
+			Set<String> others = new HashSet<>();
+			for (int i = 0; i < this.parameterNames.size(); i++) {
+				int[] indexes = this.parameterIndexes.get(i);
+				boolean inClause = (isFollowedByClosingParenthesis(indexes[1]) &&
+						isPrecededByInKeyword(indexes[0]));
+				if (inClause) {
+					candidates.add(this.parameterNames.get(i));
+				}
+				else {
+					others.add(this.parameterNames.get(i));
+				}
+			}
+			candidates.removeAll(others);
+			names = (candidates.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(candidates));
+			this.inClauseParameterNames = names;
+		}
+		return names;
+	}
+
+	private boolean isFollowedByClosingParenthesis(int index) {
+		while (index < this.originalSql.length() && Character.isWhitespace(this.originalSql.charAt(index))) {
+			index++;
+		}
+		return (index < this.originalSql.length() && this.originalSql.charAt(index) == ')');
+	}
+
+	private boolean isPrecededByInKeyword(int index) {
+		index = skipWhitespaceBackwards(index - 1);
+		if (index < 0 || this.originalSql.charAt(index) != '(') {
+			return false;
+		}
+		index = skipWhitespaceBackwards(index - 1);
+		return (index >= 1 && this.originalSql.regionMatches(true, index - 1, "in", 0, 2) &&
+				(index == 1 || !Character.isJavaIdentifierPart(this.originalSql.charAt(index - 2))));
+	}
+
+	private int skipWhitespaceBackwards(int index) {
+		while (index >= 0 && Character.isWhitespace(this.originalSql.charAt(index))) {
+			index--;
+		}
+		return index;
+	}
+
+
 	/**
 	 * Exposes the original SQL String.
 	 */
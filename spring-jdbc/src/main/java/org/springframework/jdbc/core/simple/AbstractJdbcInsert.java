@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -88,6 +88,9 @@ public abstract class AbstractJdbcInsert {
 	/** The SQL type information for the insert columns. */
 	private int[] insertTypes = new int[0];
 
+	/** The number of rows to send per batch, or 0 for a single batch. */
+	private int batchSize = 0;
+
 
 	/**
 	 * Constructor to be used when initializing using a {@link DataSource}.
@@ -221,6 +224,25 @@ public abstract class AbstractJdbcInsert {
 		this.tableMetaDataContext.setOverrideIncludeSynonymsDefault(override);
 	}
 
+	/**
+	 * Specify the number of rows to send per JDBC batch when executing a batch
+	 * insert. Larger batches are sent as multiple batches of that size.
+	 * The default is 0, sending each batch insert as a single batch.
+	 * @since 5.2.12
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize >= 0, "Batch size must not be negative");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Get the number of rows to send per JDBC batch, or 0 for a single batch.
+	 * @since 5.2.12
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
 	/**
 	 * Get the insert string to be used.
 	 */
@@ -569,6 +591,12 @@ public abstract class AbstractJdbcInsert {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing statement " + getInsertString() + " with batch of size: " + batchValues.size());
 		}
+		int batchSize = getBatchSize();
+		if (batchSize > 0 && batchValues.size() > batchSize) {
+			int[][] rowsAffected = getJdbcTemplate().batchUpdate(getInsertString(), batchValues, batchSize,
+					(ps, values) -> setParameterValues(ps, values, getInsertTypes()));
+			return Arrays.stream(rowsAffected).flatMapToInt(Arrays::stream).toArray();
+		}
 		return getJdbcTemplate().batchUpdate(getInsertString(),
 				new BatchPreparedStatementSetter() {
 					@Override
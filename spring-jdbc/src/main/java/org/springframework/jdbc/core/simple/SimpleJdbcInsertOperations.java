@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -80,6 +80,18 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	SimpleJdbcInsertOperations includeSynonymsForTableColumnMetaData();
 
+	/**
+	 * Specify the number of rows to send per JDBC batch when executing a batch insert.
+	 * <p>The default implementation ignores the given size, sending all rows
+	 * of a batch insert in a single batch.
+	 * @param batchSize the number of rows per batch, or 0 for a single batch
+	 * @return the instance of this SimpleJdbcInsert
+	 * @since 5.2.12
+	 */
+	default SimpleJdbcInsertOperations withBatchSize(int batchSize) {
+		return this;
+	}
+
 
 	/**
 	 * Execute the insert using the values passed in.
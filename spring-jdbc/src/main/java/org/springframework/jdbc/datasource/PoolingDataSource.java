@@ -0,0 +1,854 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Simple connection pool for a target DataSource that is not pooled itself,
+ * such as a {@link SimpleDriverDataSource}, a {@link DriverManagerDataSource}
+ * or an embedded database. Connections returned from {@link #getConnection()}
+ * are handles which return the underlying physical Connection to the pool
+ * when closed.
+ *
+ * <p>Idle Connections are kept in a lock-free bag: a thread preferably
+ * borrows the Connection that it returned most recently, falling back to
+ * any idle Connection and creating new Connections up to the
+ * {@link #setMaxPoolSize maximum pool size}. Beyond that, threads wait
+ * (in order of arrival) for a Connection to be returned, up to the
+ * {@link #setConnectionTimeout connection timeout}.
+ *
+ * <p>Connections may be {@link #setValidateOnBorrow validated} before they are
+ * handed out, and are closed once idle for longer than the
+ * {@link #setIdleTimeout idle timeout} or older than the
+ * {@link #setMaxLifetime maximum lifetime}. Connections that are not returned
+ * within the {@link #setLeakDetectionThreshold leak detection threshold} are
+ * reported, along with the stack trace of their acquisition. The state of
+ * the pool is exposed through getters such as {@link #getActiveConnections()}.
+ *
+ * <p>Connections are reset to the pool's auto-commit, read-only and isolation
+ * defaults when returned, rolling back any pending work of a Connection that
+ * was switched to manual commit mode. This DataSource works with
+ * {@link DataSourceTransactionManager} like any other pool, and may be wrapped
+ * with a {@link LazyConnectionDataSourceProxy} in order to borrow Connections
+ * for transactions only once the first Statement is created.
+ *
+ * <p>This is primarily intended for tests and small applications. Consider a
+ * full-featured connection pool for production use with high concurrency.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see #getConnection()
+ * @see #destroy()
+ */
+public class PoolingDataSource extends DelegatingDataSource implements DisposableBean {
+
+	/** Default maximum number of Connections: 10. */
+	public static final int DEFAULT_MAX_POOL_SIZE = 10;
+
+	/** Default time to wait for a Connection: 30 seconds. */
+	public static final long DEFAULT_CONNECTION_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+	/** Default time after which idle Connections are closed: 10 minutes. */
+	public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+	/** Default time after which Connections are closed: 30 minutes. */
+	public static final long DEFAULT_MAX_LIFETIME = TimeUnit.MINUTES.toMillis(30);
+
+	/** Default period for evicting Connections and detecting leaks: 30 seconds. */
+	public static final long DEFAULT_HOUSEKEEPING_PERIOD = TimeUnit.SECONDS.toMillis(30);
+
+	private static final int STATE_IDLE = 0;
+
+	private static final int STATE_IN_USE = 1;
+
+	private static final int STATE_REMOVED = -1;
+
+	private static final Log logger = LogFactory.getLog(PoolingDataSource.class);
+
+
+	private int maxPoolSize = DEFAULT_MAX_POOL_SIZE;
+
+	private long connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+
+	private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+	private long maxLifetime = DEFAULT_MAX_LIFETIME;
+
+	private long leakDetectionThreshold = 0;
+
+	private long housekeepingPeriod = DEFAULT_HOUSEKEEPING_PERIOD;
+
+	private boolean validateOnBorrow = true;
+
+	private int validationTimeout = 5;
+
+	@Nullable
+	private Boolean autoCommit;
+
+	@Nullable
+	private Boolean readOnly;
+
+	@Nullable
+	private Integer transactionIsolation;
+
+	/** All physical Connections of this pool, idle or in use. */
+	private final List<PooledConnection> connections = new CopyOnWriteArrayList<>();
+
+	/** The Connection most recently returned by each thread. */
+	private final ThreadLocal<WeakReference<PooledConnection>> lastReturned = new ThreadLocal<>();
+
+	private final AtomicInteger totalConnections = new AtomicInteger();
+
+	/** One permit per Connection that may be borrowed. */
+	private volatile Semaphore permits = new Semaphore(DEFAULT_MAX_POOL_SIZE, true);
+
+	@Nullable
+	private volatile ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+
+	private final LongAdder borrowCount = new LongAdder();
+
+	private final LongAdder createdCount = new LongAdder();
+
+	private final LongAdder closedCount = new LongAdder();
+
+	private final LongAdder timeoutCount = new LongAdder();
+
+	private final LongAdder leakCount = new LongAdder();
+
+
+	/**
+	 * Create a new PoolingDataSource.
+	 * @see #setTargetDataSource
+	 */
+	public PoolingDataSource() {
+	}
+
+	/**
+	 * Create a new PoolingDataSource.
+	 * @param targetDataSource the target DataSource to obtain physical Connections from
+	 */
+	public PoolingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Set the maximum number of Connections, idle or in use. Default is 10.
+	 * <p>Needs to be specified before the first Connection is obtained.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		Assert.isTrue(maxPoolSize > 0, "Max pool size must be greater than 0");
+		Assert.state(this.totalConnections.get() == 0, "Pool has already been started");
+		this.maxPoolSize = maxPoolSize;
+		this.permits = new Semaphore(maxPoolSize, true);
+	}
+
+	/**
+	 * Return the maximum number of Connections, idle or in use.
+	 */
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds to wait for a Connection when
+	 * all Connections are in use. Default is 30 seconds.
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		Assert.isTrue(connectionTimeout >= 0, "Connection timeout must not be negative");
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * Return the maximum time in milliseconds to wait for a Connection.
+	 */
+	public long getConnectionTimeout() {
+		return this.connectionTimeout;
+	}
+
+	/**
+	 * Set the time in milliseconds after which an idle Connection is closed.
+	 * Default is 10 minutes; 0 keeps idle Connections open.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		Assert.isTrue(idleTimeout >= 0, "Idle timeout must not be negative");
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Return the time in milliseconds after which an idle Connection is closed.
+	 */
+	public long getIdleTimeout() {
+		return this.idleTimeout;
+	}
+
+	/**
+	 * Set the time in milliseconds after which a Connection is closed once
+	 * idle, e.g. below a timeout enforced by the database or the network.
+	 * Default is 30 minutes; 0 keeps Connections open indefinitely.
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		Assert.isTrue(maxLifetime >= 0, "Max lifetime must not be negative");
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * Return the time in milliseconds after which a Connection is closed once idle.
+	 */
+	public long getMaxLifetime() {
+		return this.maxLifetime;
+	}
+
+	/**
+	 * Set the time in milliseconds that a Connection may be in use before it
+	 * is reported as a possible leak, logging the stack trace of the code that
+	 * obtained it. Default is 0, i.e. no leak detection, since the stack trace
+	 * is captured for every Connection borrowed from the pool.
+	 * @see #getLeakedConnectionCount()
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		Assert.isTrue(leakDetectionThreshold >= 0, "Leak detection threshold must not be negative");
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * Return the time in milliseconds that a Connection may be in use before
+	 * it is reported as a possible leak.
+	 */
+	public long getLeakDetectionThreshold() {
+		return this.leakDetectionThreshold;
+	}
+
+	/**
+	 * Set the period in milliseconds for closing idle and expired Connections
+	 * and for detecting leaks in the background. Default is 30 seconds.
+	 * <p>Needs to be specified before the first Connection is obtained.
+	 */
+	public void setHousekeepingPeriod(long housekeepingPeriod) {
+		Assert.isTrue(housekeepingPeriod > 0, "Housekeeping period must be greater than 0");
+		this.housekeepingPeriod = housekeepingPeriod;
+	}
+
+	/**
+	 * Return the period in milliseconds for housekeeping in the background.
+	 */
+	public long getHousekeepingPeriod() {
+		return this.housekeepingPeriod;
+	}
+
+	/**
+	 * Set whether to validate an idle Connection through
+	 * {@link Connection#isValid(int)} before handing it out, replacing it if
+	 * invalid. Default is "true".
+	 * @see #setValidationTimeout
+	 */
+	public void setValidateOnBorrow(boolean validateOnBorrow) {
+		this.validateOnBorrow = validateOnBorrow;
+	}
+
+	/**
+	 * Return whether to validate an idle Connection before handing it out.
+	 */
+	public boolean isValidateOnBorrow() {
+		return this.validateOnBorrow;
+	}
+
+	/**
+	 * Set the timeout in seconds for validating a Connection. Default is 5.
+	 * @see Connection#isValid(int)
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		Assert.isTrue(validationTimeout >= 0, "Validation timeout must not be negative");
+		this.validationTimeout = validationTimeout;
+	}
+
+	/**
+	 * Return the timeout in seconds for validating a Connection.
+	 */
+	public int getValidationTimeout() {
+		return this.validationTimeout;
+	}
+
+	/**
+	 * Set the auto-commit mode to apply to new Connections and to restore on
+	 * returned Connections. Default is the driver's default (usually "true").
+	 * @see LazyConnectionDataSourceProxy#setDefaultAutoCommit
+	 */
+	public void setAutoCommit(boolean autoCommit) {
+		this.autoCommit = autoCommit;
+	}
+
+	/**
+	 * Set the read-only flag to apply to new Connections and to restore on
+	 * returned Connections. Default is the driver's default (usually "false").
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Set the transaction isolation level to apply to new Connections and to
+	 * restore on returned Connections, as one of the constants defined in
+	 * {@link Connection}. Default is the driver's default.
+	 * @see LazyConnectionDataSourceProxy#setDefaultTransactionIsolation
+	 */
+	public void setTransactionIsolation(int transactionIsolation) {
+		this.transactionIsolation = transactionIsolation;
+	}
+
+
+	/**
+	 * Borrow a Connection from the pool, creating a new physical Connection
+	 * if none is idle, or waiting for one to be returned if the pool is full.
+	 * @return a Connection handle which returns the physical Connection to
+	 * the pool when closed
+	 * @throws SQLTransientConnectionException if no Connection could be
+	 * obtained within the connection timeout
+	 * @see #setConnectionTimeout
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (this.closed) {
+			throw new SQLException("PoolingDataSource has been closed");
+		}
+		Semaphore permits = this.permits;
+		try {
+			if (!permits.tryAcquire() && !permits.tryAcquire(getConnectionTimeout(), TimeUnit.MILLISECONDS)) {
+				this.timeoutCount.increment();
+				throw new SQLTransientConnectionException("Could not obtain a Connection within " +
+						getConnectionTimeout() + " ms (total=" + getTotalConnections() + ", active=" +
+						getActiveConnections() + ", waiting=" + getPendingThreads() + ")");
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a Connection", ex);
+		}
+		try {
+			PooledConnection pc = borrowConnection();
+			this.borrowCount.increment();
+			return pc.createHandle(permits);
+		}
+		catch (SQLException | RuntimeException | Error ex) {
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Specifying a custom username and password doesn't make sense
+	 * with a pool of Connections for the same credentials.
+	 * @throws SQLException always
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLException("PoolingDataSource does not support custom username and password");
+	}
+
+	/**
+	 * Close all idle Connections and stop housekeeping. Connections in use
+	 * are closed when returned.
+	 * <p>As this bean implements DisposableBean, a bean factory will
+	 * automatically invoke this on destruction of its cached singletons.
+	 */
+	@Override
+	public void destroy() {
+		this.closed = true;
+		ScheduledExecutorService housekeeper = this.housekeeper;
+		if (housekeeper != null) {
+			housekeeper.shutdownNow();
+			this.housekeeper = null;
+		}
+		for (PooledConnection pc : this.connections) {
+			if (pc.state.compareAndSet(STATE_IDLE, STATE_REMOVED)) {
+				closeConnection(pc);
+			}
+		}
+	}
+
+	/**
+	 * Close idle Connections past the idle timeout or the maximum lifetime,
+	 * and report Connections in use past the leak detection threshold.
+	 * <p>Performed in the background periodically; may also be called
+	 * directly, e.g. after a database restart.
+	 * @see #setHousekeepingPeriod
+	 */
+	public void evictConnections() {
+		long now = System.currentTimeMillis();
+		long leakDetectionThreshold = getLeakDetectionThreshold();
+		for (PooledConnection pc : this.connections) {
+			if (pc.state.get() == STATE_IDLE) {
+				long idleTimeout = getIdleTimeout();
+				if ((idleTimeout > 0 && now - pc.lastReturned > idleTimeout) || isExpired(pc, now)) {
+					if (pc.state.compareAndSet(STATE_IDLE, STATE_REMOVED)) {
+						closeConnection(pc);
+					}
+				}
+			}
+			else if (leakDetectionThreshold > 0 && pc.state.get() == STATE_IN_USE) {
+				Throwable acquisition = pc.acquisition;
+				if (acquisition != null && !pc.leakReported && now - pc.lastBorrowed > leakDetectionThreshold) {
+					pc.leakReported = true;
+					this.leakCount.increment();
+					logger.warn("Connection " + pc.target + " has been in use for more than " +
+							leakDetectionThreshold + " ms, possible leak", acquisition);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of physical Connections, idle or in use.
+	 */
+	public int getTotalConnections() {
+		return this.totalConnections.get();
+	}
+
+	/**
+	 * Return the number of Connections in use.
+	 */
+	public int getActiveConnections() {
+		int active = 0;
+		for (PooledConnection pc : this.connections) {
+			if (pc.state.get() == STATE_IN_USE) {
+				active++;
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Return the number of idle Connections.
+	 */
+	public int getIdleConnections() {
+		int idle = 0;
+		for (PooledConnection pc : this.connections) {
+			if (pc.state.get() == STATE_IDLE) {
+				idle++;
+			}
+		}
+		return idle;
+	}
+
+	/**
+	 * Return the (estimated) number of threads waiting for a Connection.
+	 */
+	public int getPendingThreads() {
+		return this.permits.getQueueLength();
+	}
+
+	/**
+	 * Return the number of Connections handed out so far.
+	 */
+	public long getBorrowedConnectionCount() {
+		return this.borrowCount.sum();
+	}
+
+	/**
+	 * Return the number of physical Connections created so far.
+	 */
+	public long getCreatedConnectionCount() {
+		return this.createdCount.sum();
+	}
+
+	/**
+	 * Return the number of physical Connections closed so far,
+	 * i.e. evicted, invalid or expired Connections.
+	 */
+	public long getClosedConnectionCount() {
+		return this.closedCount.sum();
+	}
+
+	/**
+	 * Return the number of requests for a Connection that timed out.
+	 */
+	public long getConnectionTimeoutCount() {
+		return this.timeoutCount.sum();
+	}
+
+	/**
+	 * Return the number of Connections reported as possible leaks.
+	 * @see #setLeakDetectionThreshold
+	 */
+	public long getLeakedConnectionCount() {
+		return this.leakCount.sum();
+	}
+
+
+	/**
+	 * Borrow an idle Connection or create a new one, given a permit.
+	 */
+	private PooledConnection borrowConnection() throws SQLException {
+		while (true) {
+			PooledConnection pc = borrowIdleConnection();
+			if (pc != null) {
+				if (isUsable(pc)) {
+					return pc;
+				}
+				pc.state.set(STATE_REMOVED);
+				closeConnection(pc);
+				continue;
+			}
+			int total = this.totalConnections.get();
+			if (total < getMaxPoolSize()) {
+				if (this.totalConnections.compareAndSet(total, total + 1)) {
+					try {
+						return createConnection();
+					}
+					catch (SQLException | RuntimeException | Error ex) {
+						this.totalConnections.decrementAndGet();
+						throw ex;
+					}
+				}
+			}
+			else {
+				// Another thread about to return or discard a Connection
+				Thread.yield();
+			}
+		}
+	}
+
+	@Nullable
+	private PooledConnection borrowIdleConnection() {
+		WeakReference<PooledConnection> ref = this.lastReturned.get();
+		if (ref != null) {
+			PooledConnection pc = ref.get();
+			if (pc != null && pc.state.compareAndSet(STATE_IDLE, STATE_IN_USE)) {
+				return pc;
+			}
+		}
+		for (PooledConnection pc : this.connections) {
+			if (pc.state.compareAndSet(STATE_IDLE, STATE_IN_USE)) {
+				return pc;
+			}
+		}
+		return null;
+	}
+
+	private boolean isUsable(PooledConnection pc) {
+		if (isExpired(pc, System.currentTimeMillis())) {
+			return false;
+		}
+		if (isValidateOnBorrow()) {
+			try {
+				if (!pc.target.isValid(getValidationTimeout())) {
+					logger.debug("Discarding invalid pooled JDBC Connection: " + pc.target);
+					return false;
+				}
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not validate pooled JDBC Connection: " + pc.target, ex);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isExpired(PooledConnection pc, long now) {
+		long maxLifetime = getMaxLifetime();
+		return (maxLifetime > 0 && now - pc.created > maxLifetime);
+	}
+
+	private PooledConnection createConnection() throws SQLException {
+		Connection target = obtainTargetDataSource().getConnection();
+		try {
+			prepareConnection(target);
+		}
+		catch (SQLException | RuntimeException ex) {
+			closeTargetConnection(target);
+			throw ex;
+		}
+		PooledConnection pc = new PooledConnection(target, target.getAutoCommit(),
+				target.isReadOnly(), target.getTransactionIsolation());
+		this.connections.add(pc);
+		this.createdCount.increment();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Created pooled JDBC Connection: " + target);
+		}
+		startHousekeeping();
+		return pc;
+	}
+
+	/**
+	 * Prepare the given Connection before it is added to the pool.
+	 * <p>The default implementation applies the auto-commit, read-only and
+	 * isolation defaults, if specified. Can be overridden in subclasses.
+	 * @param con the Connection to prepare
+	 */
+	protected void prepareConnection(Connection con) throws SQLException {
+		if (this.autoCommit != null && con.getAutoCommit() != this.autoCommit) {
+			con.setAutoCommit(this.autoCommit);
+		}
+		if (this.readOnly != null && con.isReadOnly() != this.readOnly) {
+			con.setReadOnly(this.readOnly);
+		}
+		if (this.transactionIsolation != null && con.getTransactionIsolation() != this.transactionIsolation) {
+			con.setTransactionIsolation(this.transactionIsolation);
+		}
+	}
+
+	private void startHousekeeping() {
+		if (this.housekeeper == null) {
+			synchronized (this.connections) {
+				if (this.housekeeper == null && !this.closed) {
+					ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(task -> {
+						Thread thread = new Thread(task, "PoolingDataSource housekeeper");
+						thread.setDaemon(true);
+						return thread;
+					});
+					long period = getHousekeepingPeriod();
+					housekeeper.scheduleWithFixedDelay(this::evictConnections, period, period, TimeUnit.MILLISECONDS);
+					this.housekeeper = housekeeper;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the given Connection to the pool once its handle has been closed.
+	 */
+	private void returnConnection(PooledConnection pc, Semaphore permits) {
+		try {
+			if (pc.leakReported) {
+				logger.info("Previously reported leaked Connection " + pc.target + " has been returned");
+			}
+			pc.acquisition = null;
+			pc.leakReported = false;
+			boolean reusable = false;
+			try {
+				pc.reset();
+				reusable = (!this.closed && !isExpired(pc, System.currentTimeMillis()));
+			}
+			catch (SQLException ex) {
+				logger.debug("Could not reset pooled JDBC Connection: " + pc.target, ex);
+			}
+			if (reusable) {
+				pc.lastReturned = System.currentTimeMillis();
+				pc.state.set(STATE_IDLE);
+				this.lastReturned.set(pc.selfReference);
+			}
+			else {
+				pc.state.set(STATE_REMOVED);
+				closeConnection(pc);
+			}
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private void closeConnection(PooledConnection pc) {
+		if (this.connections.remove(pc)) {
+			this.totalConnections.decrementAndGet();
+			this.closedCount.increment();
+			closeTargetConnection(pc.target);
+		}
+	}
+
+	private static void closeTargetConnection(Connection target) {
+		try {
+			target.close();
+		}
+		catch (Throwable ex) {
+			logger.debug("Could not close pooled JDBC Connection", ex);
+		}
+	}
+
+
+	/**
+	 * A physical Connection of the pool, along with its state.
+	 */
+	private class PooledConnection {
+
+		final Connection target;
+
+		final AtomicInteger state = new AtomicInteger(STATE_IN_USE);
+
+		final WeakReference<PooledConnection> selfReference = new WeakReference<>(this);
+
+		final long created = System.currentTimeMillis();
+
+		private final boolean defaultAutoCommit;
+
+		private final boolean defaultReadOnly;
+
+		private final int defaultTransactionIsolation;
+
+		volatile long lastReturned = this.created;
+
+		volatile long lastBorrowed;
+
+		@Nullable
+		volatile Throwable acquisition;
+
+		volatile boolean leakReported;
+
+		/** Whether the auto-commit mode, read-only flag or isolation level may have been changed. */
+		boolean dirty;
+
+		PooledConnection(Connection target, boolean autoCommit, boolean readOnly, int transactionIsolation) {
+			this.target = target;
+			this.defaultAutoCommit = autoCommit;
+			this.defaultReadOnly = readOnly;
+			this.defaultTransactionIsolation = transactionIsolation;
+		}
+
+		Connection createHandle(Semaphore permits) {
+			this.lastBorrowed = System.currentTimeMillis();
+			if (getLeakDetectionThreshold() > 0) {
+				this.acquisition = new Throwable("Connection acquisition stack trace");
+			}
+			return (Connection) Proxy.newProxyInstance(
+					ConnectionProxy.class.getClassLoader(),
+					new Class<?>[] {ConnectionProxy.class},
+					new ConnectionHandleInvocationHandler(this, permits));
+		}
+
+		void reset() throws SQLException {
+			// Only a dirty connection may have left its default auto-commit mode
+			boolean autoCommit = (this.dirty ? this.target.getAutoCommit() : this.defaultAutoCommit);
+			if (!autoCommit) {
+				// Discard pending work of an unfinished transaction
+				this.target.rollback();
+			}
+			if (this.dirty) {
+				if (autoCommit != this.defaultAutoCommit) {
+					this.target.setAutoCommit(this.defaultAutoCommit);
+				}
+				if (this.target.isReadOnly() != this.defaultReadOnly) {
+					this.target.setReadOnly(this.defaultReadOnly);
+				}
+				if (this.target.getTransactionIsolation() != this.defaultTransactionIsolation) {
+					this.target.setTransactionIsolation(this.defaultTransactionIsolation);
+				}
+				this.dirty = false;
+			}
+			this.target.clearWarnings();
+		}
+
+		void returnToPool(Semaphore permits) {
+			returnConnection(this, permits);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a Connection handle, returning the
+	 * physical Connection to the pool on close.
+	 */
+	private static class ConnectionHandleInvocationHandler implements InvocationHandler {
+
+		private final PooledConnection pooledConnection;
+
+		private final Semaphore permits;
+
+		private volatile boolean closed;
+
+		ConnectionHandleInvocationHandler(PooledConnection pooledConnection, Semaphore permits) {
+			this.pooledConnection = pooledConnection;
+			this.permits = permits;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Pooled JDBC Connection [" + this.pooledConnection.target + "]";
+				case "isClosed":
+					return this.closed;
+				case "close":
+					// Handle close method: return the physical Connection to the pool.
+					if (!this.closed) {
+						this.closed = true;
+						this.pooledConnection.returnToPool(this.permits);
+					}
+					return null;
+			}
+
+			if (this.closed) {
+				throw new SQLException("Connection handle has been closed");
+			}
+
+			switch (method.getName()) {
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return this.pooledConnection.target;
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "setAutoCommit":
+				case "setReadOnly":
+				case "setTransactionIsolation":
+					this.pooledConnection.dirty = true;
+					break;
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.pooledConnection.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * DataSource that routes read-only transactions to one of several replica
+ * DataSources and everything else to a primary DataSource, based on
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}.
+ *
+ * <p><b>This router needs to be wrapped with a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * when used with a {@link org.springframework.jdbc.datasource.DataSourceTransactionManager}.</b>
+ * The transaction manager obtains its Connection before the read-only flag
+ * of the transaction is exposed, whereas the proxy defers obtaining the actual
+ * Connection until the first Statement is created within the transaction:
+ *
+ * <pre class="code">
+ * &lt;bean id="dataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *   &lt;property name="targetDataSource"&gt;
+ *     &lt;bean class="org.springframework.jdbc.datasource.lookup.ReadWriteRoutingDataSource"&gt;
+ *       &lt;property name="primaryDataSource" ref="myPrimaryDataSource"/&gt;
+ *       &lt;property name="replicaDataSources"&gt;
+ *         &lt;map&gt;
+ *           &lt;entry key="replica1" value-ref="myReplicaDataSource1"/&gt;
+ *           &lt;entry key="replica2" value-ref="myReplicaDataSource2"/&gt;
+ *         &lt;/map&gt;
+ *       &lt;/property&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * <p>Replicas are selected {@link LoadBalancing#ROUND_ROBIN round-robin} or by
+ * {@link LoadBalancing#LEAST_ACTIVE least active Connections}. A replica that
+ * fails to provide a Connection is excluded for the
+ * {@link #setExclusionTime exclusion time}, and so is a replica that lags
+ * behind the primary by more than the {@link #setMaxReplicaLag maximum lag}.
+ * If no replica is available, read-only transactions fall back to the primary.
+ * Statistics per target are exposed through {@link #getPrimaryStatistics()}
+ * and {@link #getReplicaStatistics()}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ * @see org.springframework.transaction.annotation.Transactional#readOnly()
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	/** The name of the primary DataSource in its {@link TargetStatistics}. */
+	public static final String PRIMARY_NAME = "primary";
+
+
+	@Nullable
+	private Object primaryDataSource;
+
+	@Nullable
+	private Map<String, Object> replicaDataSources;
+
+	private DataSourceLookup dataSourceLookup = new JndiDataSourceLookup();
+
+	private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+
+	private boolean fallbackToPrimary = true;
+
+	private long exclusionTime = TimeUnit.SECONDS.toMillis(30);
+
+	private long maxReplicaLag = 0;
+
+	@Nullable
+	private String replicaLagQuery;
+
+	private long replicaLagCheckInterval = TimeUnit.SECONDS.toMillis(5);
+
+	@Nullable
+	private Target primary;
+
+	private List<Target> replicas = Collections.emptyList();
+
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	private final LongAdder primaryFallbackCount = new LongAdder();
+
+
+	/**
+	 * Specify the primary DataSource, for all Connections outside of
+	 * read-only transactions.
+	 * <p>The value can either be a {@link DataSource} instance or a data source
+	 * name String (to be resolved via a {@link #setDataSourceLookup DataSourceLookup}).
+	 */
+	public void setPrimaryDataSource(Object primaryDataSource) {
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	/**
+	 * Specify the replica DataSources for read-only transactions, with
+	 * a name for each replica as key.
+	 * <p>The mapped value can either be a {@link DataSource} instance or a data
+	 * source name String (to be resolved via a {@link #setDataSourceLookup DataSourceLookup}).
+	 */
+	public void setReplicaDataSources(Map<String, Object> replicaDataSources) {
+		this.replicaDataSources = replicaDataSources;
+	}
+
+	/**
+	 * Set the DataSourceLookup implementation to use for resolving data source
+	 * name Strings. Default is a {@link JndiDataSourceLookup}.
+	 */
+	public void setDataSourceLookup(@Nullable DataSourceLookup dataSourceLookup) {
+		this.dataSourceLookup = (dataSourceLookup != null ? dataSourceLookup : new JndiDataSourceLookup());
+	}
+
+	/**
+	 * Specify how to select a replica for a read-only transaction.
+	 * Default is {@link LoadBalancing#ROUND_ROBIN}.
+	 */
+	public void setLoadBalancing(LoadBalancing loadBalancing) {
+		Assert.notNull(loadBalancing, "LoadBalancing must not be null");
+		this.loadBalancing = loadBalancing;
+	}
+
+	/**
+	 * Specify whether read-only transactions fall back to the primary
+	 * DataSource if no replica is available. Default is "true".
+	 * <p>Switch this flag to "false" in order to fail instead, protecting the
+	 * primary from read traffic.
+	 */
+	public void setFallbackToPrimary(boolean fallbackToPrimary) {
+		this.fallbackToPrimary = fallbackToPrimary;
+	}
+
+	/**
+	 * Specify the time in milliseconds for which a replica is excluded
+	 * after failing to provide a Connection. Default is 30 seconds.
+	 */
+	public void setExclusionTime(long exclusionTime) {
+		Assert.isTrue(exclusionTime >= 0, "Exclusion time must not be negative");
+		this.exclusionTime = exclusionTime;
+	}
+
+	/**
+	 * Specify the maximum replication lag in milliseconds, excluding replicas
+	 * that lag behind further. Default is 0, i.e. no lag checks.
+	 * @see #setReplicaLagQuery
+	 * @see #determineReplicaLag
+	 */
+	public void setMaxReplicaLag(long maxReplicaLag) {
+		Assert.isTrue(maxReplicaLag >= 0, "Max replica lag must not be negative");
+		this.maxReplicaLag = maxReplicaLag;
+	}
+
+	/**
+	 * Specify a query returning the replication lag of a replica in milliseconds,
+	 * as a single numeric value, e.g. for PostgreSQL:
+	 * {@code SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000}.
+	 * A {@code NULL} result indicates an unknown lag.
+	 * @see #setMaxReplicaLag
+	 */
+	public void setReplicaLagQuery(@Nullable String replicaLagQuery) {
+		this.replicaLagQuery = replicaLagQuery;
+	}
+
+	/**
+	 * Specify the minimum time in milliseconds between lag checks of a replica.
+	 * Default is 5 seconds.
+	 */
+	public void setReplicaLagCheckInterval(long replicaLagCheckInterval) {
+		Assert.isTrue(replicaLagCheckInterval >= 0, "Replica lag check interval must not be negative");
+		this.replicaLagCheckInterval = replicaLagCheckInterval;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.primaryDataSource == null) {
+			throw new IllegalArgumentException("Property 'primaryDataSource' is required");
+		}
+		this.primary = new Target(PRIMARY_NAME, resolveSpecifiedDataSource(this.primaryDataSource));
+		if (this.replicaDataSources != null) {
+			List<Target> replicas = new ArrayList<>(this.replicaDataSources.size());
+			this.replicaDataSources.forEach((name, value) ->
+					replicas.add(new Target(name, resolveSpecifiedDataSource(value))));
+			this.replicas = replicas;
+		}
+	}
+
+	/**
+	 * Resolve the specified data source object into a DataSource instance.
+	 * @param dataSource the data source value object as specified
+	 * @return the resolved DataSource (never {@code null})
+	 * @throws IllegalArgumentException in case of an unsupported value type
+	 * @see AbstractRoutingDataSource#resolveSpecifiedDataSource
+	 */
+	protected DataSource resolveSpecifiedDataSource(Object dataSource) throws IllegalArgumentException {
+		if (dataSource instanceof DataSource) {
+			return (DataSource) dataSource;
+		}
+		else if (dataSource instanceof String) {
+			return this.dataSourceLookup.getDataSource((String) dataSource);
+		}
+		else {
+			throw new IllegalArgumentException(
+					"Illegal data source value - only [javax.sql.DataSource] and String supported: " + dataSource);
+		}
+	}
+
+
+	/**
+	 * Obtain a Connection from a replica within a read-only transaction,
+	 * or from the primary DataSource otherwise.
+	 * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return doGetConnection(null, null);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return doGetConnection(username, password);
+	}
+
+	private Connection doGetConnection(@Nullable String username, @Nullable String password) throws SQLException {
+		if (isReadOnly()) {
+			SQLException failure = null;
+			for (int attempt = 0; attempt < this.replicas.size(); attempt++) {
+				Target replica = selectReplica();
+				if (replica == null) {
+					break;
+				}
+				try {
+					return replica.getConnection(username, password);
+				}
+				catch (SQLException ex) {
+					logger.warn("Excluding replica '" + replica.name + "' after failure to obtain a Connection", ex);
+					replica.exclude(this.exclusionTime);
+					failure = ex;
+				}
+			}
+			if (!this.fallbackToPrimary) {
+				throw (failure != null ? failure : new SQLException("No replica available for read-only transaction"));
+			}
+			if (!this.replicas.isEmpty()) {
+				this.primaryFallbackCount.increment();
+			}
+		}
+		return obtainPrimary().getConnection(username, password);
+	}
+
+	/**
+	 * Determine whether the current Connection is requested for read-only use.
+	 * <p>The default implementation checks the read-only flag of the current
+	 * transaction, if any.
+	 */
+	protected boolean isReadOnly() {
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	/**
+	 * Select an available replica, if any.
+	 */
+	@Nullable
+	private Target selectReplica() {
+		List<Target> replicas = this.replicas;
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		int offset = Math.floorMod(this.nextReplica.getAndIncrement(), size);
+		Target selected = null;
+		for (int i = 0; i < size; i++) {
+			Target replica = replicas.get((offset + i) % size);
+			if (isAvailable(replica, now)) {
+				if (this.loadBalancing == LoadBalancing.ROUND_ROBIN) {
+					return replica;
+				}
+				if (selected == null || replica.active.get() < selected.active.get()) {
+					selected = replica;
+				}
+			}
+		}
+		return selected;
+	}
+
+	private boolean isAvailable(Target replica, long now) {
+		if (now < replica.excludedUntil) {
+			return false;
+		}
+		if (this.maxReplicaLag > 0) {
+			if (now - replica.lagCheckedAt >= this.replicaLagCheckInterval &&
+					replica.lagCheckInProgress.compareAndSet(false, true)) {
+				try {
+					replica.lag = determineReplicaLag(replica.name, replica.dataSource);
+				}
+				catch (SQLException ex) {
+					logger.warn("Could not determine lag of replica '" + replica.name + "'", ex);
+					replica.lag = -1;
+					replica.exclude(this.exclusionTime);
+					return false;
+				}
+				finally {
+					replica.lagCheckedAt = System.currentTimeMillis();
+					replica.lagCheckInProgress.set(false);
+				}
+			}
+			return (replica.lag <= this.maxReplicaLag);
+		}
+		return true;
+	}
+
+	/**
+	 * Determine the replication lag of the given replica in milliseconds.
+	 * <p>The default implementation runs the {@link #setReplicaLagQuery replica
+	 * lag query}, if any. Can be overridden for custom lag checks, e.g. based
+	 * on a heartbeat table or on metrics provided by the database.
+	 * @param name the name of the replica
+	 * @param replica the replica DataSource
+	 * @return the lag in milliseconds, or -1 if unknown
+	 * @throws SQLException if the lag could not be determined, excluding the replica
+	 * @see #setMaxReplicaLag
+	 */
+	protected long determineReplicaLag(String name, DataSource replica) throws SQLException {
+		String query = this.replicaLagQuery;
+		if (query == null) {
+			return -1;
+		}
+		try (Connection con = replica.getConnection();
+				Statement stmt = con.createStatement();
+				ResultSet rs = stmt.executeQuery(query)) {
+			if (rs.next()) {
+				long lag = rs.getLong(1);
+				return (rs.wasNull() ? -1 : lag);
+			}
+			return -1;
+		}
+	}
+
+	private Target obtainPrimary() {
+		Assert.state(this.primary != null, "DataSource router not initialized");
+		return this.primary;
+	}
+
+
+	/**
+	 * Return the statistics of the primary DataSource.
+	 */
+	public TargetStatistics getPrimaryStatistics() {
+		return obtainPrimary().getStatistics();
+	}
+
+	/**
+	 * Return the statistics of the replica DataSources, by name.
+	 */
+	public Map<String, TargetStatistics> getReplicaStatistics() {
+		Map<String, TargetStatistics> statistics = new LinkedHashMap<>(this.replicas.size());
+		for (Target replica : this.replicas) {
+			statistics.put(replica.name, replica.getStatistics());
+		}
+		return statistics;
+	}
+
+	/**
+	 * Return the number of read-only Connections obtained from the primary
+	 * DataSource since no replica was available.
+	 */
+	public long getPrimaryFallbackCount() {
+		return this.primaryFallbackCount.sum();
+	}
+
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return obtainPrimary().dataSource.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || obtainPrimary().dataSource.isWrapperFor(iface));
+	}
+
+
+	/**
+	 * Strategies for selecting a replica.
+	 */
+	public enum LoadBalancing {
+
+		/**
+		 * Select the available replicas in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * Select the available replica with the least Connections in use,
+		 * taking turns among replicas with the same number of Connections.
+		 */
+		LEAST_ACTIVE
+	}
+
+
+	/**
+	 * Snapshot of the statistics of a target DataSource.
+	 */
+	public static final class TargetStatistics {
+
+		private final String name;
+
+		private final boolean available;
+
+		private final int activeConnections;
+
+		private final long connectionCount;
+
+		private final long failureCount;
+
+		private final long replicaLag;
+
+		TargetStatistics(String name, boolean available, int activeConnections,
+				long connectionCount, long failureCount, long replicaLag) {
+
+			this.name = name;
+			this.available = available;
+			this.activeConnections = activeConnections;
+			this.connectionCount = connectionCount;
+			this.failureCount = failureCount;
+			this.replicaLag = replicaLag;
+		}
+
+		/**
+		 * Return the name of the target: the replica name, or
+		 * {@link ReadWriteRoutingDataSource#PRIMARY_NAME}.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return whether the target is currently not excluded after a failure.
+		 */
+		public boolean isAvailable() {
+			return this.available;
+		}
+
+		/**
+		 * Return the number of Connections from the target currently in use.
+		 */
+		public int getActiveConnections() {
+			return this.activeConnections;
+		}
+
+		/**
+		 * Return the number of Connections obtained from the target so far.
+		 */
+		public long getConnectionCount() {
+			return this.connectionCount;
+		}
+
+		/**
+		 * Return the number of failures to obtain a Connection from the target.
+		 */
+		public long getFailureCount() {
+			return this.failureCount;
+		}
+
+		/**
+		 * Return the most recently determined replication lag in milliseconds,
+		 * or -1 if unknown.
+		 */
+		public long getReplicaLag() {
+			return this.replicaLag;
+		}
+
+		@Override
+		public String toString() {
+			return "TargetStatistics [" + this.name + ": available=" + this.available +
+					", active=" + this.activeConnections + ", connections=" + this.connectionCount +
+					", failures=" + this.failureCount + ", lag=" + this.replicaLag + "]";
+		}
+	}
+
+
+	/**
+	 * A target DataSource along with its state.
+	 */
+	private static class Target {
+
+		final String name;
+
+		final DataSource dataSource;
+
+		final AtomicInteger active = new AtomicInteger();
+
+		final LongAdder connectionCount = new LongAdder();
+
+		final LongAdder failureCount = new LongAdder();
+
+		volatile long excludedUntil;
+
+		volatile long lag = -1;
+
+		volatile long lagCheckedAt;
+
+		final AtomicBoolean lagCheckInProgress = new AtomicBoolean();
+
+		Target(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		Connection getConnection(@Nullable String username, @Nullable String password) throws SQLException {
+			Connection con;
+			try {
+				con = (username != null || password != null ?
+						this.dataSource.getConnection(username, password) : this.dataSource.getConnection());
+			}
+			catch (SQLException | RuntimeException ex) {
+				this.failureCount.increment();
+				throw ex;
+			}
+			this.connectionCount.increment();
+			this.active.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(
+					ConnectionProxy.class.getClassLoader(),
+					new Class<?>[] {ConnectionProxy.class},
+					new TrackingInvocationHandler(con, this.active));
+		}
+
+		void exclude(long exclusionTime) {
+			this.excludedUntil = System.currentTimeMillis() + exclusionTime;
+		}
+
+		TargetStatistics getStatistics() {
+			return new TargetStatistics(this.name, System.currentTimeMillis() >= this.excludedUntil,
+					this.active.get(), this.connectionCount.sum(), this.failureCount.sum(), this.lag);
+		}
+	}
+
+
+	/**
+	 * Invocation handler that tracks the Connections of a target in use.
+	 */
+	private static class TrackingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final AtomicInteger active;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		TrackingInvocationHandler(Connection target, AtomicInteger active) {
+			this.target = target;
+			this.active = active;
+		}
+
+		@Override
+		@Nullable
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			switch (method.getName()) {
+				case "equals":
+					// Only consider equal when proxies are identical.
+					return (proxy == args[0]);
+				case "hashCode":
+					// Use hashCode of Connection proxy.
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Routed JDBC Connection [" + this.target + "]";
+				case "getTargetConnection":
+					// Handle getTargetConnection method: return underlying Connection.
+					return this.target;
+				case "unwrap":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+					break;
+				case "isWrapperFor":
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+					break;
+				case "close":
+					if (this.closed.compareAndSet(false, true)) {
+						this.active.decrementAndGet();
+					}
+					break;
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+}
@@ -16,10 +16,17 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyEditorSupport;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.TypeMismatchException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.test.ConcretePerson;
@@ -30,6 +37,8 @@ import org.springframework.jdbc.core.test.SpacePerson;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 /**
  * @author Thomas Risberg
@@ -134,4 +143,77 @@ public class BeanPropertyRowMapperTests extends AbstractRowMapperTests {
 		mock.verifyClosed();
 	}
 
+	@Test
+	public void testMappingResolvesColumnsOncePerColumnNames() throws Exception {
+		AtomicInteger resolvedNames = new AtomicInteger();
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<Person>(Person.class) {
+			@Override
+			protected String lowerCaseName(String name) {
+				resolvedNames.incrementAndGet();
+				return super.lowerCaseName(name);
+			}
+		};
+		verifyPerson(mapper.mapRow(mockResultSet(), 0));
+		int initialCount = resolvedNames.get();
+		verifyPerson(mapper.mapRow(mockResultSet(), 1));
+		verifyPerson(mapper.mapRow(mockResultSet(), 0));
+		assertThat(resolvedNames.get()).isEqualTo(initialCount);
+	}
+
+	@Test
+	public void testMappingWithAlternatingColumnNames() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<>(Person.class);
+		ResultSet rs = mockResultSet();
+		ResultSet reorderedRs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(reorderedRs.getMetaData()).willReturn(rsmd);
+		given(reorderedRs.getLong(1)).willReturn(42L);
+		given(reorderedRs.getString(2)).willReturn("Bubba");
+		given(rsmd.getColumnCount()).willReturn(2);
+		given(rsmd.getColumnLabel(1)).willReturn("age");
+		given(rsmd.getColumnLabel(2)).willReturn("name");
+
+		for (int i = 0; i < 2; i++) {
+			verifyPerson(mapper.mapRow(rs, i));
+			Person person = mapper.mapRow(reorderedRs, i);
+			assertThat(person.getName()).isEqualTo("Bubba");
+			assertThat(person.getAge()).isEqualTo(42L);
+		}
+	}
+
+	@Test
+	public void testMappingWithCustomBeanWrapper() throws Exception {
+		BeanPropertyRowMapper<Person> mapper = new BeanPropertyRowMapper<Person>(Person.class) {
+			@Override
+			protected void initBeanWrapper(BeanWrapper bw) {
+				super.initBeanWrapper(bw);
+				bw.registerCustomEditor(String.class, new PropertyEditorSupport() {
+					@Override
+					public void setAsText(String text) {
+						setValue(text.toUpperCase());
+					}
+				});
+			}
+		};
+		Person person = mapper.mapRow(mockResultSet(), 0);
+		assertThat(person.getName()).isEqualTo("BUBBA");
+	}
+
+
+	private static ResultSet mockResultSet() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rs.getString(1)).willReturn("Bubba");
+		given(rs.getLong(2)).willReturn(22L);
+		given(rs.getTimestamp(3)).willReturn(new Timestamp(1221222L));
+		given(rs.getBigDecimal(4)).willReturn(new BigDecimal("1234.56"));
+		given(rsmd.getColumnCount()).willReturn(4);
+		given(rsmd.getColumnLabel(1)).willReturn("name");
+		given(rsmd.getColumnLabel(2)).willReturn("age");
+		given(rsmd.getColumnLabel(3)).willReturn("birth_date");
+		given(rsmd.getColumnLabel(4)).willReturn("balance");
+		return rs;
+	}
+
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.core.test.ConstructorPerson;
+import org.springframework.jdbc.core.test.Person;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Spring Framework contributors
+ */
+public class DataClassRowMapperTests extends AbstractRowMapperTests {
+
+	@Test
+	public void testStaticQueryWithDataClass() throws Exception {
+		Mock mock = new Mock();
+		List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new DataClassRowMapper<>(ConstructorPerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		ConstructorPerson person = result.get(0);
+		assertThat(person.name()).isEqualTo("Bubba");
+		assertThat(person.age()).isEqualTo(22L);
+		assertThat(person.birthDate()).usingComparator(Date::compareTo).isEqualTo(new Date(1221222L));
+		assertThat(person.getBalance()).isEqualTo(new BigDecimal("1234.56"));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testStaticQueryWithDataClassAndNullValues() throws Exception {
+		Mock mock = new Mock(MockType.TWO);
+		List<ConstructorPerson> result = mock.getJdbcTemplate().query(
+				"select name, null as age, birth_date, balance from people",
+				new DataClassRowMapper<>(ConstructorPerson.class));
+		assertThat(result.size()).isEqualTo(1);
+		assertThat(result.get(0).age()).isEqualTo(0L);
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testStaticQueryWithBeanClass() throws Exception {
+		Mock mock = new Mock();
+		List<Person> result = mock.getJdbcTemplate().query(
+				"select name, age, birth_date, balance from people",
+				new DataClassRowMapper<>(Person.class));
+		assertThat(result.size()).isEqualTo(1);
+		verifyPerson(result.get(0));
+		mock.verifyClosed();
+	}
+
+	@Test
+	public void testMappingWithAlternatingColumnNames() throws Exception {
+		DataClassRowMapper<ConstructorPerson> mapper = new DataClassRowMapper<>(ConstructorPerson.class);
+		ResultSet rs = mockResultSet("name", "age", "birth_date");
+		ResultSet reorderedRs = mockResultSet("birth_date", "name", "age");
+
+		for (int i = 0; i < 2; i++) {
+			ConstructorPerson person = mapper.mapRow(rs, i);
+			assertThat(person.name()).isEqualTo("Bubba");
+			assertThat(person.age()).isEqualTo(22L);
+			person = mapper.mapRow(reorderedRs, i);
+			assertThat(person.name()).isEqualTo("Bubba");
+			assertThat(person.age()).isEqualTo(22L);
+			assertThat(person.birthDate()).usingComparator(Date::compareTo).isEqualTo(new Date(1221222L));
+		}
+	}
+
+
+	private static ResultSet mockResultSet(String... columnNames) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+		given(rs.getMetaData()).willReturn(rsmd);
+		given(rsmd.getColumnCount()).willReturn(columnNames.length);
+		for (int i = 0; i < columnNames.length; i++) {
+			int index = i + 1;
+			given(rsmd.getColumnLabel(index)).willReturn(columnNames[i]);
+			switch (columnNames[i]) {
+				case "name":
+					given(rs.getString(index)).willReturn("Bubba");
+					break;
+				case "age":
+					given(rs.getLong(index)).willReturn(22L);
+					break;
+				case "birth_date":
+					given(rs.getTimestamp(index)).willReturn(new Timestamp(1221222L));
+					break;
+			}
+		}
+		return rs;
+	}
+
+}
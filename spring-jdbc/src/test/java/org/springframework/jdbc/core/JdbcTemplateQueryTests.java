@@ -24,8 +24,15 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -39,6 +46,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -81,6 +89,8 @@ public class JdbcTemplateQueryTests {
 		given(this.connection.prepareStatement(anyString())).willReturn(this.preparedStatement);
 		given(this.preparedStatement.executeQuery()).willReturn(this.resultSet);
 		given(this.statement.executeQuery(anyString())).willReturn(this.resultSet);
+		given(this.statement.getConnection()).willReturn(this.connection);
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
 	}
 
 
@@ -383,4 +393,84 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStream() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1))) {
+			verify(this.resultSet, never()).next();
+			assertThat(stream.collect(Collectors.toList())).containsExactly(11, 12);
+			verify(this.resultSet, never()).close();
+			verify(this.connection, never()).close();
+		}
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithArgs() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertThat(stream.findFirst()).contains(11);
+		}
+		verify(this.preparedStatement).setObject(1, 3);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFailingSetter() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < ?";
+		assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
+				this.template.queryForStream(sql, ps -> {
+					throw new IllegalStateException("setter failure");
+				}, (rs, rowNum) -> rs.getInt(1)));
+		verify(this.preparedStatement, never()).executeQuery();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamDefaultMethod() {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		RowMapper<Integer> rowMapper = (rs, rowNum) -> rs.getInt(1);
+		JdbcOperations operations = mock(JdbcOperations.class);
+		given(operations.query(sql, rowMapper)).willReturn(Arrays.asList(11, 12));
+		given(operations.queryForStream(sql, rowMapper)).willCallRealMethod();
+		try (Stream<Integer> stream = operations.queryForStream(sql, rowMapper)) {
+			assertThat(stream.collect(Collectors.toList())).containsExactly(11, 12);
+		}
+	}
+
+	@Test
+	public void testQueryForStreamWithPrefetch() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 6";
+		given(this.resultSet.next()).willReturn(true, true, true, true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12, 13, 14, 15);
+		AtomicInteger executions = new AtomicInteger();
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		Executor executor = task -> {
+			executions.incrementAndGet();
+			executorService.execute(task);
+		};
+		this.template.setFetchSize(2);
+		this.template.setStreamPrefetchExecutor(executor);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1))) {
+			assertThat(stream.collect(Collectors.toList())).containsExactly(11, 12, 13, 14, 15);
+		}
+		finally {
+			executorService.shutdown();
+		}
+		assertThat(executions.get()).isEqualTo(2);
+		verify(this.statement).setFetchSize(2);
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
 }
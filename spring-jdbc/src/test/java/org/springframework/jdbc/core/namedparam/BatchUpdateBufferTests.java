@@ -0,0 +1,135 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link BatchUpdateBuffer}.
+ *
+ * @author Spring Framework contributors
+ */
+public class BatchUpdateBufferTests {
+
+	private static final String INSERT = "insert into customer (id) values (:id)";
+
+	private static final String UPDATE = "update customer set name = :name where id = :id";
+
+
+	private Connection connection;
+
+	private NamedParameterJdbcOperations jdbcOperations;
+
+	private BatchUpdateBuffer buffer;
+
+	private TransactionTemplate transactionTemplate;
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		this.connection = mock(Connection.class);
+		given(dataSource.getConnection()).willReturn(this.connection);
+		this.jdbcOperations = mock(NamedParameterJdbcOperations.class);
+		this.buffer = new BatchUpdateBuffer(this.jdbcOperations);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+
+	@Test
+	public void updateWithoutTransaction() {
+		MapSqlParameterSource paramSource = new MapSqlParameterSource("id", 1);
+		this.buffer.update(INSERT, paramSource);
+		verify(this.jdbcOperations).update(INSERT, paramSource);
+	}
+
+	@Test
+	public void updatesSentBeforeCommit() throws Exception {
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 1));
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 2));
+			this.buffer.update(UPDATE, new MapSqlParameterSource("id", 1).addValue("name", "rod"));
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 3));
+			assertThat(this.buffer.getBufferedUpdateCount()).isEqualTo(4);
+			verify(this.jdbcOperations, never()).batchUpdate(any(), any(SqlParameterSource[].class));
+		});
+
+		ArgumentCaptor<SqlParameterSource[]> batchArgs = ArgumentCaptor.forClass(SqlParameterSource[].class);
+		InOrder inOrder = inOrder(this.jdbcOperations, this.connection);
+		inOrder.verify(this.jdbcOperations).batchUpdate(eq(INSERT), batchArgs.capture());
+		inOrder.verify(this.jdbcOperations).batchUpdate(eq(UPDATE), batchArgs.capture());
+		inOrder.verify(this.jdbcOperations).batchUpdate(eq(INSERT), batchArgs.capture());
+		inOrder.verify(this.connection).commit();
+		assertThat(batchArgs.getAllValues()).extracting(args -> args.length).containsExactly(2, 1, 1);
+		assertThat(this.buffer.getBufferedUpdateCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void updatesSentWhenBufferFull() {
+		this.buffer.setBufferSize(2);
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 1));
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 2));
+			verify(this.jdbcOperations).batchUpdate(eq(INSERT), any(SqlParameterSource[].class));
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 3));
+			assertThat(this.buffer.getBufferedUpdateCount()).isEqualTo(1);
+		});
+		verify(this.jdbcOperations, times(2)).batchUpdate(eq(INSERT), any(SqlParameterSource[].class));
+	}
+
+	@Test
+	public void updatesSentOnFlush() {
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 1));
+			status.flush();
+			verify(this.jdbcOperations).batchUpdate(eq(INSERT), any(SqlParameterSource[].class));
+		});
+		verify(this.jdbcOperations).batchUpdate(eq(INSERT), any(SqlParameterSource[].class));
+	}
+
+	@Test
+	public void updatesDiscardedOnRollback() throws Exception {
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.buffer.update(INSERT, new MapSqlParameterSource("id", 1));
+			status.setRollbackOnly();
+		});
+		verify(this.jdbcOperations, never()).batchUpdate(any(), any(SqlParameterSource[].class));
+		verify(this.connection).rollback();
+		assertThat(this.buffer.getBufferedUpdateCount()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.namedparam;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link MultiRowInsert}.
+ *
+ * @author Spring Framework contributors
+ */
+public class MultiRowInsertTests {
+
+	@Test
+	public void rewriteInsert() {
+		MultiRowInsert insert = MultiRowInsert.parse("INSERT INTO customer (id, name) VALUES (?, lower(?));");
+		assertThat(insert).isNotNull();
+		assertThat(insert.getParameterCount()).isEqualTo(2);
+		assertThat(insert.getSql(1)).isEqualTo("INSERT INTO customer (id, name) VALUES (?, lower(?))");
+		assertThat(insert.getSql(3)).isEqualTo(
+				"INSERT INTO customer (id, name) VALUES (?, lower(?)), (?, lower(?)), (?, lower(?))");
+	}
+
+	@Test
+	public void rewriteInsertWithQuotedValues() {
+		MultiRowInsert insert = MultiRowInsert.parse("insert into \"values\" (id, name) values (?, ') values (?')");
+		assertThat(insert).isNotNull();
+		assertThat(insert.getParameterCount()).isEqualTo(1);
+		assertThat(insert.getSql(2)).isEqualTo(
+				"insert into \"values\" (id, name) values (?, ') values (?'), (?, ') values (?')");
+	}
+
+	@Test
+	public void noRewriteForOtherStatements() {
+		assertThat(MultiRowInsert.parse("update customer set name = ? where id = ?")).isNull();
+		assertThat(MultiRowInsert.parse("insert into customer (id, name) select id, ? from person")).isNull();
+		assertThat(MultiRowInsert.parse("insert into customer (id, name) values (?, ?), (?, ?)")).isNull();
+		assertThat(MultiRowInsert.parse("insert into customer (id) values (?) on conflict do nothing")).isNull();
+		assertThat(MultiRowInsert.parse("insert into customer (id) values (1)")).isNull();
+		assertThat(MultiRowInsert.parse("insert into customer (id) /* comment */ values (?)")).isNull();
+	}
+
+	@Test
+	public void maxRowsPerDatabase() {
+		MultiRowInsert insert = MultiRowInsert.parse("insert into customer (id, name) values (?, ?)");
+		assertThat(insert).isNotNull();
+		assertThat(insert.getMaxRows("PostgreSQL")).isEqualTo(MultiRowInsert.MAX_ROWS);
+		assertThat(insert.getMaxRows("Microsoft SQL Server")).isEqualTo(1000);
+		assertThat(insert.getMaxRows("SQLite")).isEqualTo(499);
+		assertThat(insert.getMaxRows("Oracle")).isEqualTo(1);
+		assertThat(insert.getMaxRows(null)).isEqualTo(1);
+	}
+
+}
@@ -44,7 +44,9 @@ import org.springframework.jdbc.core.SqlParameterValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.inOrder;
@@ -424,6 +426,57 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testStatementCache() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+
+		params.put("perfId", 1);
+		params.put("priceId", 1);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		params.put("priceId", 2);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		params.put("priceId", new SqlParameterValue(Types.INTEGER, 3));
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+
+		verify(connection, times(3)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(2, 3, Types.INTEGER);
+		assertThat(namedParameterTemplate.getParsedSqlCacheMissCount()).isEqualTo(1);
+		assertThat(namedParameterTemplate.getParsedSqlCacheHitCount()).isEqualTo(2);
+		assertThat(namedParameterTemplate.getStatementCacheMissCount()).isEqualTo(1);
+		assertThat(namedParameterTemplate.getStatementCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testStatementCachePerCollectionSize() throws SQLException {
+		String sql = "select id, forename from custmr where id in (:ids)";
+		namedParameterTemplate.query(sql, Collections.singletonMap("ids", Arrays.asList(1, 2)), rs -> null);
+		namedParameterTemplate.query(sql, Collections.singletonMap("ids", Arrays.asList(3, 4)), rs -> null);
+		namedParameterTemplate.query(sql, Collections.singletonMap("ids", Arrays.asList(1, 2, 3)), rs -> null);
+
+		verify(connection, times(2)).prepareStatement("select id, forename from custmr where id in (?, ?)");
+		verify(connection).prepareStatement("select id, forename from custmr where id in (?, ?, ?)");
+		assertThat(namedParameterTemplate.getStatementCacheMissCount()).isEqualTo(2);
+		assertThat(namedParameterTemplate.getStatementCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testInClauseParameterPadding() throws SQLException {
+		namedParameterTemplate.setInClauseParameterPadding(true);
+		String sql = "select id, forename from custmr where id in (:ids) and country = :country";
+		params.put("ids", Arrays.asList(1, 2, 3));
+		params.put("country", Arrays.asList("UK", "US", "FR"));
+		namedParameterTemplate.query(sql, params, rs -> null);
+
+		verify(connection).prepareStatement(
+				"select id, forename from custmr where id in (?, ?, ?, ?) and country = ?, ?, ?");
+		verify(preparedStatement).setObject(1, 1);
+		verify(preparedStatement).setObject(2, 2);
+		verify(preparedStatement).setObject(3, 3);
+		verify(preparedStatement).setObject(4, 3);
+		verify(preparedStatement).setString(5, "UK");
+		verify(preparedStatement).setString(7, "FR");
+	}
+
 	@Test
 	public void testBatchUpdateWithPlainMap() throws Exception {
 		@SuppressWarnings("unchecked")
@@ -551,4 +604,99 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testBatchUpdateWithBatchSize() throws Exception {
+		SqlParameterSource[] ids = new SqlParameterSource[3];
+		ids[0] = new MapSqlParameterSource("id", 100);
+		ids[1] = new MapSqlParameterSource("id", 200);
+		ids[2] = new MapSqlParameterSource("id", 300);
+
+		given(preparedStatement.executeBatch()).willReturn(new int[] {1, 1}, new int[] {1});
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		namedParameterTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource, false));
+
+		int[][] actualRowsAffected = namedParameterTemplate.batchUpdate(
+				"UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = :id", ids, 2);
+		assertThat(actualRowsAffected).isEqualTo(new int[][] {{1, 1}, {1}});
+		verify(connection).prepareStatement("UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?");
+		verify(preparedStatement).setObject(1, 100);
+		verify(preparedStatement).setObject(1, 200);
+		verify(preparedStatement).setObject(1, 300);
+		verify(preparedStatement, times(3)).addBatch();
+		verify(preparedStatement, times(2)).executeBatch();
+		verify(preparedStatement, atLeastOnce()).close();
+		verify(connection, atLeastOnce()).close();
+	}
+
+	@Test
+	public void testBatchUpdateWithBatchSizeDefaultMethod() {
+		String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = :id";
+		SqlParameterSource[] ids = new SqlParameterSource[3];
+		ids[0] = new MapSqlParameterSource("id", 100);
+		ids[1] = new MapSqlParameterSource("id", 200);
+		ids[2] = new MapSqlParameterSource("id", 300);
+
+		NamedParameterJdbcOperations operations = mock(NamedParameterJdbcOperations.class);
+		given(operations.batchUpdate(eq(sql), any(SqlParameterSource[].class)))
+				.willReturn(new int[] {1, 1}, new int[] {1});
+		given(operations.batchUpdate(sql, ids, 2)).willCallRealMethod();
+
+		int[][] actualRowsAffected = operations.batchUpdate(sql, ids, 2);
+		assertThat(actualRowsAffected).isEqualTo(new int[][] {{1, 1}, {1}});
+		verify(operations).batchUpdate(sql, new SqlParameterSource[] {ids[0], ids[1]});
+		verify(operations).batchUpdate(sql, new SqlParameterSource[] {ids[2]});
+	}
+
+	@Test
+	public void testBatchUpdateWithRewrittenInserts() throws Exception {
+		SqlParameterSource[] customers = new SqlParameterSource[3];
+		customers[0] = new MapSqlParameterSource("id", 1).addValue("name", "rod");
+		customers[1] = new MapSqlParameterSource("id", 2).addValue("name", "juergen");
+		customers[2] = new MapSqlParameterSource("id", 3).addValue("name", "sam");
+
+		given(preparedStatement.executeBatch()).willReturn(new int[] {2});
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		namedParameterTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource, false));
+		namedParameterTemplate.setRewriteBatchedInserts(true);
+
+		int[][] actualRowsAffected = namedParameterTemplate.batchUpdate(
+				"insert into customer (id, name) values (:id, :name)", customers, 2);
+		assertThat(actualRowsAffected).isEqualTo(new int[][] {{1, 1}, {1}});
+
+		InOrder inOrder = inOrder(connection, preparedStatement);
+		inOrder.verify(connection).prepareStatement("insert into customer (id, name) values (?, ?), (?, ?)");
+		inOrder.verify(preparedStatement).setObject(1, 1);
+		inOrder.verify(preparedStatement).setString(2, "rod");
+		inOrder.verify(preparedStatement).setObject(3, 2);
+		inOrder.verify(preparedStatement).setString(4, "juergen");
+		inOrder.verify(preparedStatement).addBatch();
+		inOrder.verify(preparedStatement).executeBatch();
+		inOrder.verify(connection).prepareStatement("insert into customer (id, name) values (?, ?)");
+		inOrder.verify(preparedStatement).setObject(1, 3);
+		inOrder.verify(preparedStatement).setString(2, "sam");
+		inOrder.verify(preparedStatement).executeUpdate();
+		verify(preparedStatement, atLeastOnce()).close();
+		verify(connection, atLeastOnce()).close();
+	}
+
+	@Test
+	public void testBatchUpdateWithRewrittenInsertsOnUnsupportedDatabase() throws Exception {
+		SqlParameterSource[] customers = new SqlParameterSource[2];
+		customers[0] = new MapSqlParameterSource("id", 1).addValue("name", "rod");
+		customers[1] = new MapSqlParameterSource("id", 2).addValue("name", "juergen");
+
+		given(preparedStatement.executeBatch()).willReturn(new int[] {1, 1});
+		given(databaseMetaData.getDatabaseProductName()).willReturn("Oracle");
+		given(connection.getMetaData()).willReturn(databaseMetaData);
+		namedParameterTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource, false));
+		namedParameterTemplate.setRewriteBatchedInserts(true);
+
+		int[] actualRowsAffected = namedParameterTemplate.batchUpdate(
+				"insert into customer (id, name) values (:id, :name)", customers);
+		assertThat(actualRowsAffected).containsExactly(1, 1);
+		verify(connection).prepareStatement("insert into customer (id, name) values (?, ?)");
+		verify(preparedStatement, times(2)).addBatch();
+	}
+
 }
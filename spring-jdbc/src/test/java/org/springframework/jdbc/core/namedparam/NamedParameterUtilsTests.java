@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -68,6 +69,15 @@ public class NamedParameterUtilsTests {
 		assertThat(NamedParameterUtils.substituteNamedParameters("xxx :a :b :c xx :a :a", namedParams)).isEqualTo("xxx ? ? ? xx ? ?");
 	}
 
+	@Test
+	public void substituteNamedParametersWithBindMarkers() {
+		MapSqlParameterSource namedParams = new MapSqlParameterSource();
+		namedParams.addValue("a", "a").addValue("b", Arrays.asList(1, 2, 3)).addValue("c", "c");
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement("xxx :a in (:b) :c xx :a");
+		assertThat(NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams, index -> "$" + (index + 1)))
+				.isEqualTo("xxx $1 in ($2, $3, $4) $5 xx $6");
+	}
+
 	@Test
 	public void convertParamMapToArray() {
 		Map<String, String> paramMap = new HashMap<>();
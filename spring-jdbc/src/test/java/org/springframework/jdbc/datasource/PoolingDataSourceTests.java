@@ -0,0 +1,239 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link PoolingDataSource}.
+ *
+ * @author Spring Framework contributors
+ */
+public class PoolingDataSourceTests {
+
+	private DataSource target;
+
+	private Connection con;
+
+	private Connection con2;
+
+	private PoolingDataSource dataSource;
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		target = mock(DataSource.class);
+		con = mockConnection();
+		con2 = mockConnection();
+		given(target.getConnection()).willReturn(con, con2);
+		dataSource = new PoolingDataSource(target);
+	}
+
+	private static Connection mockConnection() throws SQLException {
+		Connection con = mock(Connection.class);
+		given(con.getAutoCommit()).willReturn(true);
+		given(con.getTransactionIsolation()).willReturn(Connection.TRANSACTION_READ_COMMITTED);
+		given(con.isValid(5)).willReturn(true);
+		return con;
+	}
+
+	@AfterEach
+	public void destroy() {
+		dataSource.destroy();
+	}
+
+
+	@Test
+	public void reuseConnection() throws Exception {
+		Connection handle = dataSource.getConnection();
+		assertThat(DataSourceUtils.getTargetConnection(handle)).isSameAs(con);
+		assertThat(dataSource.getActiveConnections()).isEqualTo(1);
+		handle.close();
+		assertThat(handle.isClosed()).isTrue();
+		assertThat(dataSource.getIdleConnections()).isEqualTo(1);
+
+		Connection handle2 = dataSource.getConnection();
+		assertThat(handle2).isNotSameAs(handle);
+		assertThat(DataSourceUtils.getTargetConnection(handle2)).isSameAs(con);
+		handle2.close();
+
+		verify(target).getConnection();
+		verify(con, never()).close();
+		assertThat(dataSource.getTotalConnections()).isEqualTo(1);
+		assertThat(dataSource.getCreatedConnectionCount()).isEqualTo(1);
+		assertThat(dataSource.getBorrowedConnectionCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void closedHandle() throws Exception {
+		Connection handle = dataSource.getConnection();
+		handle.close();
+		handle.close();
+		assertThatExceptionOfType(SQLException.class).isThrownBy(handle::createStatement);
+		assertThat(dataSource.getIdleConnections()).isEqualTo(1);
+	}
+
+	@Test
+	public void maxPoolSize() throws Exception {
+		dataSource.setMaxPoolSize(1);
+		dataSource.setConnectionTimeout(10);
+		Connection handle = dataSource.getConnection();
+		assertThatExceptionOfType(SQLTransientConnectionException.class).isThrownBy(dataSource::getConnection);
+		assertThat(dataSource.getConnectionTimeoutCount()).isEqualTo(1);
+
+		handle.close();
+		dataSource.getConnection().close();
+		verify(target).getConnection();
+	}
+
+	@Test
+	public void invalidConnectionReplaced() throws Exception {
+		dataSource.getConnection().close();
+		given(con.isValid(5)).willReturn(false);
+
+		Connection handle = dataSource.getConnection();
+		assertThat(DataSourceUtils.getTargetConnection(handle)).isSameAs(con2);
+		verify(con).close();
+		assertThat(dataSource.getTotalConnections()).isEqualTo(1);
+		assertThat(dataSource.getClosedConnectionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void resetOnReturn() throws Exception {
+		Connection handle = dataSource.getConnection();
+		handle.setAutoCommit(false);
+		given(con.getAutoCommit()).willReturn(false);
+		handle.close();
+
+		verify(con).rollback();
+		verify(con).setAutoCommit(true);
+	}
+
+	@Test
+	public void resetOnReturnWithAutoCommitDisabledByDefault() throws Exception {
+		given(con.getAutoCommit()).willReturn(true, false);
+		dataSource.setAutoCommit(false);
+		Connection handle = dataSource.getConnection();
+		handle.setReadOnly(true);
+		handle.close();
+
+		verify(con).setAutoCommit(false);
+		verify(con).rollback();
+
+		handle = dataSource.getConnection();
+		handle.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		given(con.getTransactionIsolation()).willReturn(Connection.TRANSACTION_SERIALIZABLE);
+		handle.close();
+
+		verify(con, times(2)).rollback();
+		verify(con).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+	}
+
+	@Test
+	public void maxLifetime() throws Exception {
+		dataSource.setMaxLifetime(1);
+		Connection handle = dataSource.getConnection();
+		Thread.sleep(10);
+		handle.close();
+
+		verify(con).close();
+		assertThat(dataSource.getTotalConnections()).isEqualTo(0);
+	}
+
+	@Test
+	public void evictIdleConnections() throws Exception {
+		dataSource.setIdleTimeout(1);
+		dataSource.getConnection().close();
+		Thread.sleep(10);
+		dataSource.evictConnections();
+
+		verify(con).close();
+		assertThat(dataSource.getTotalConnections()).isEqualTo(0);
+		assertThat(DataSourceUtils.getTargetConnection(dataSource.getConnection())).isSameAs(con2);
+	}
+
+	@Test
+	public void leakDetection() throws Exception {
+		dataSource.setLeakDetectionThreshold(1);
+		Connection handle = dataSource.getConnection();
+		Thread.sleep(10);
+		dataSource.evictConnections();
+		dataSource.evictConnections();
+		assertThat(dataSource.getLeakedConnectionCount()).isEqualTo(1);
+
+		handle.close();
+		assertThat(dataSource.getIdleConnections()).isEqualTo(1);
+	}
+
+	@Test
+	public void destroyClosesConnections() throws Exception {
+		Connection handle = dataSource.getConnection();
+		dataSource.getConnection().close();
+		dataSource.destroy();
+		verify(con2).close();
+		assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection);
+
+		handle.close();
+		verify(con).close();
+		assertThat(dataSource.getTotalConnections()).isEqualTo(0);
+	}
+
+	@Test
+	public void transactionManager() throws Exception {
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		for (int i = 0; i < 2; i++) {
+			tt.executeWithoutResult(status ->
+					assertThat(DataSourceUtils.getTargetConnection(DataSourceUtils.getConnection(dataSource)))
+							.isSameAs(con));
+		}
+
+		verify(target).getConnection();
+		verify(con, times(2)).commit();
+		assertThat(dataSource.getActiveConnections()).isEqualTo(0);
+		assertThat(dataSource.getIdleConnections()).isEqualTo(1);
+	}
+
+	@Test
+	public void lazyConnectionDataSourceProxy() throws Exception {
+		LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(proxy));
+		long borrowed = dataSource.getBorrowedConnectionCount();
+		tt.executeWithoutResult(status -> DataSourceUtils.getConnection(proxy));
+
+		assertThat(dataSource.getBorrowedConnectionCount()).isEqualTo(borrowed);
+		assertThat(dataSource.getActiveConnections()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link ReadWriteRoutingDataSource}.
+ *
+ * @author Spring Framework contributors
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private final DataSource primary = mock(DataSource.class);
+
+	private final DataSource replica1 = mock(DataSource.class);
+
+	private final DataSource replica2 = mock(DataSource.class);
+
+	private final Connection primaryCon = mock(Connection.class);
+
+	private final Connection replicaCon1 = mock(Connection.class);
+
+	private final Connection replicaCon2 = mock(Connection.class);
+
+	private final ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource();
+
+
+	@BeforeEach
+	public void setup() throws Exception {
+		given(primary.getConnection()).willReturn(primaryCon);
+		given(replica1.getConnection()).willReturn(replicaCon1);
+		given(replica2.getConnection()).willReturn(replicaCon2);
+
+		Map<String, Object> replicas = new LinkedHashMap<>();
+		replicas.put("replica1", replica1);
+		replicas.put("replica2", replica2);
+		router.setPrimaryDataSource(primary);
+		router.setReplicaDataSources(replicas);
+		router.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void resetReadOnly() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+
+	@Test
+	public void primaryOutsideOfReadOnlyTransaction() throws Exception {
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(primaryCon);
+		verify(replica1, never()).getConnection();
+		assertThat(router.getPrimaryStatistics().getConnectionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void roundRobin() throws Exception {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon1);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon1);
+
+		Map<String, ReadWriteRoutingDataSource.TargetStatistics> statistics = router.getReplicaStatistics();
+		assertThat(statistics.get("replica1").getConnectionCount()).isEqualTo(2);
+		assertThat(statistics.get("replica1").getActiveConnections()).isEqualTo(2);
+		assertThat(statistics.get("replica2").getConnectionCount()).isEqualTo(1);
+		verify(primary, never()).getConnection();
+	}
+
+	@Test
+	public void leastActive() throws Exception {
+		router.setLoadBalancing(ReadWriteRoutingDataSource.LoadBalancing.LEAST_ACTIVE);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		Connection con = router.getConnection();
+		assertThat(DataSourceUtils.getTargetConnection(con)).isSameAs(replicaCon1);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+		con.close();
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon1);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+
+		verify(replicaCon1).close();
+		assertThat(router.getReplicaStatistics().get("replica1").getActiveConnections()).isEqualTo(1);
+	}
+
+	@Test
+	public void excludeFailedReplica() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+
+		ReadWriteRoutingDataSource.TargetStatistics statistics = router.getReplicaStatistics().get("replica1");
+		assertThat(statistics.isAvailable()).isFalse();
+		assertThat(statistics.getFailureCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void fallbackToPrimary() throws Exception {
+		given(replica1.getConnection()).willThrow(new SQLException("down"));
+		given(replica2.getConnection()).willThrow(new SQLException("down"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(primaryCon);
+		assertThat(router.getPrimaryFallbackCount()).isEqualTo(1);
+
+		router.setFallbackToPrimary(false);
+		assertThatExceptionOfType(SQLException.class).isThrownBy(router::getConnection);
+	}
+
+	@Test
+	public void excludeLaggingReplica() throws Exception {
+		ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource() {
+			@Override
+			protected long determineReplicaLag(String name, DataSource replica) {
+				return (name.equals("replica1") ? 10_000 : 100);
+			}
+		};
+		router.setPrimaryDataSource(primary);
+		Map<String, Object> replicas = new LinkedHashMap<>();
+		replicas.put("replica1", replica1);
+		replicas.put("replica2", replica2);
+		router.setReplicaDataSources(replicas);
+		router.setMaxReplicaLag(1000);
+		router.afterPropertiesSet();
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+		assertThat(DataSourceUtils.getTargetConnection(router.getConnection())).isSameAs(replicaCon2);
+		assertThat(router.getReplicaStatistics().get("replica1").getReplicaLag()).isEqualTo(10_000);
+		verify(replica1, never()).getConnection();
+	}
+
+	@Test
+	public void readOnlyTransactionWithLazyConnectionDataSourceProxy() throws Exception {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(router);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		tt.setReadOnly(true);
+		tt.executeWithoutResult(status -> {
+			try {
+				DataSourceUtils.getConnection(dataSource).createStatement();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		verify(replicaCon1).createStatement();
+		verify(replicaCon1).commit();
+		verify(replicaCon1).close();
+
+		tt.setReadOnly(false);
+		tt.executeWithoutResult(status -> {
+			try {
+				DataSourceUtils.getConnection(dataSource).createStatement();
+			}
+			catch (SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		verify(primaryCon).createStatement();
+		verify(primaryCon).commit();
+		assertThat(router.getReplicaStatistics().get("replica1").getActiveConnections()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.connection;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcPermissionDeniedException;
+import io.r2dbc.spi.R2dbcRollbackException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.Ordered;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.PermissionDeniedDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.UncategorizedR2dbcException;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Helper class that provides static methods for obtaining R2DBC Connections from
+ * a {@link ConnectionFactory}, and for translating {@link R2dbcException R2dbcExceptions}
+ * into Spring's {@link DataAccessException} hierarchy.
+ *
+ * <p>Used internally by Spring's {@link org.springframework.r2dbc.core.DatabaseClient},
+ * and by {@link R2dbcTransactionManager}. Can also be used directly in application code.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see #getConnection
+ * @see #releaseConnection
+ * @see R2dbcTransactionManager
+ * @see org.springframework.transaction.reactive.TransactionSynchronizationManager
+ */
+public abstract class ConnectionFactoryUtils {
+
+	/**
+	 * Order value for ReactiveTransactionSynchronization objects that clean up R2DBC Connections.
+	 */
+	public static final int CONNECTION_SYNCHRONIZATION_ORDER = 1000;
+
+	private static final Log logger = LogFactory.getLog(ConnectionFactoryUtils.class);
+
+
+	/**
+	 * Obtain a {@link Connection} from the given {@link ConnectionFactory}.
+	 * Translates exceptions into the Spring hierarchy of unchecked generic
+	 * data access exceptions, simplifying calling code and making any
+	 * exception that is thrown more meaningful.
+	 * <p>Is aware of a corresponding Connection bound to the current
+	 * {@link TransactionSynchronizationManager}. Will bind a Connection to the
+	 * {@link TransactionSynchronizationManager} if transaction synchronization is active.
+	 * @param connectionFactory the {@link ConnectionFactory} to obtain Connections from
+	 * @return a R2DBC Connection from the given {@link ConnectionFactory}
+	 * @throws DataAccessResourceFailureException if the attempt to get a
+	 * {@link Connection} failed
+	 * @see #releaseConnection
+	 */
+	public static Mono<Connection> getConnection(ConnectionFactory connectionFactory) {
+		return doGetConnection(connectionFactory).onErrorMap(ex ->
+				new DataAccessResourceFailureException("Failed to obtain R2DBC Connection", ex));
+	}
+
+	/**
+	 * Actually obtain a R2DBC Connection from the given {@link ConnectionFactory}.
+	 * Same as {@link #getConnection}, but preserving the original exceptions.
+	 * @param connectionFactory the {@link ConnectionFactory} to obtain Connections from
+	 * @return a R2DBC {@link Connection} from the given {@link ConnectionFactory}
+	 */
+	public static Mono<Connection> doGetConnection(ConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "ConnectionFactory must not be null");
+
+		return TransactionSynchronizationManager.forCurrentTransaction().flatMap(synchronizationManager -> {
+			ConnectionHolder conHolder = (ConnectionHolder) synchronizationManager.getResource(connectionFactory);
+			if (conHolder != null && (conHolder.hasConnection() || conHolder.isSynchronizedWithTransaction())) {
+				conHolder.requested();
+				if (!conHolder.hasConnection()) {
+					logger.debug("Fetching resumed R2DBC Connection from ConnectionFactory");
+					return fetchConnection(connectionFactory).doOnNext(conHolder::setConnection);
+				}
+				return Mono.just(conHolder.getConnection());
+			}
+			// Else we either got no holder or an empty thread-bound holder here.
+
+			logger.debug("Fetching R2DBC Connection from ConnectionFactory");
+			Mono<Connection> con = fetchConnection(connectionFactory);
+			if (synchronizationManager.isSynchronizationActive()) {
+				return con.flatMap(connection -> Mono.fromRunnable(() -> {
+					// Use same Connection for further R2DBC actions within the transaction.
+					// Thread-bound object will get removed by synchronization at transaction completion.
+					ConnectionHolder holderToUse = conHolder;
+					if (holderToUse == null) {
+						holderToUse = new ConnectionHolder(connection);
+					}
+					else {
+						holderToUse.setConnection(connection);
+					}
+					holderToUse.requested();
+					synchronizationManager.registerSynchronization(
+							new ConnectionSynchronization(holderToUse, connectionFactory));
+					holderToUse.setSynchronizedWithTransaction(true);
+					if (holderToUse != conHolder) {
+						synchronizationManager.bindResource(connectionFactory, holderToUse);
+					}
+				}).thenReturn(connection).onErrorResume(ex ->
+						// Unexpected exception from external delegation call -> close Connection and rethrow.
+						releaseConnection(connection, connectionFactory).then(Mono.error(ex))));
+			}
+			return con;
+		}).onErrorResume(NoTransactionException.class, ex -> fetchConnection(connectionFactory));
+	}
+
+	/**
+	 * Actually fetch a {@link Connection} from the given {@link ConnectionFactory}.
+	 * @param connectionFactory the {@link ConnectionFactory} to obtain Connections from
+	 * @return a R2DBC {@link Connection} from the given {@link ConnectionFactory}
+	 * (never {@code null}).
+	 * @throws IllegalStateException if the {@link ConnectionFactory} returned a {@code null} value
+	 * @see ConnectionFactory#create()
+	 */
+	private static Mono<Connection> fetchConnection(ConnectionFactory connectionFactory) {
+		return Mono.from(connectionFactory.create());
+	}
+
+	/**
+	 * Close the given {@link Connection}, obtained from the given {@link ConnectionFactory},
+	 * if it is not managed externally (that is, not bound to the subscription).
+	 * @param con the {@link Connection} to close if necessary
+	 * @param connectionFactory the {@link ConnectionFactory} that the Connection was obtained from
+	 * @see #getConnection
+	 */
+	public static Mono<Void> releaseConnection(Connection con, ConnectionFactory connectionFactory) {
+		return doReleaseConnection(con, connectionFactory).onErrorMap(ex ->
+				new DataAccessResourceFailureException("Failed to close R2DBC Connection", ex));
+	}
+
+	/**
+	 * Actually close the given {@link Connection}, obtained from the given
+	 * {@link ConnectionFactory}. Same as {@link #releaseConnection},
+	 * but preserving the original exception.
+	 * @param con the {@link Connection} to close if necessary
+	 * @param connectionFactory the {@link ConnectionFactory} that the Connection was obtained from
+	 * @see #doGetConnection
+	 */
+	public static Mono<Void> doReleaseConnection(Connection con, ConnectionFactory connectionFactory) {
+		return TransactionSynchronizationManager.forCurrentTransaction().flatMap(synchronizationManager -> {
+			ConnectionHolder conHolder = (ConnectionHolder) synchronizationManager.getResource(connectionFactory);
+			if (conHolder != null && conHolder.hasConnection() && conHolder.getConnection() == con) {
+				// It's the transactional Connection: Don't close it.
+				conHolder.released();
+				return Mono.empty();
+			}
+			return Mono.from(con.close());
+		}).onErrorResume(NoTransactionException.class, ex -> Mono.from(con.close()));
+	}
+
+	/**
+	 * Determine whether the given {@link Connection} is transactional, that is,
+	 * bound to the current subscription by Spring's transaction facilities.
+	 * @param con the Connection to check
+	 * @param connectionFactory the ConnectionFactory that the Connection was obtained from
+	 * @return whether the Connection is transactional
+	 */
+	public static Mono<Boolean> isConnectionTransactional(Connection con, ConnectionFactory connectionFactory) {
+		return TransactionSynchronizationManager.forCurrentTransaction().map(synchronizationManager -> {
+			ConnectionHolder conHolder = (ConnectionHolder) synchronizationManager.getResource(connectionFactory);
+			return (conHolder != null && conHolder.hasConnection() && conHolder.getConnection() == con);
+		}).onErrorResume(NoTransactionException.class, ex -> Mono.just(false));
+	}
+
+	/**
+	 * Translate the given {@link R2dbcException} into a generic {@link DataAccessException}.
+	 * <p>The returned DataAccessException is supposed to contain the original
+	 * {@code R2dbcException} as root cause. However, client code may not generally
+	 * rely on this due to DataAccessExceptions possibly being caused by other resource
+	 * APIs as well. That said, a {@code getRootCause() instanceof R2dbcException}
+	 * check (and subsequent cast) is considered reliable when expecting R2DBC-based
+	 * access to have happened.
+	 * @param task readable text describing the task being attempted
+	 * @param sql the SQL query or update that caused the problem (if known)
+	 * @param ex the offending {@code R2dbcException}
+	 * @return the corresponding DataAccessException instance
+	 */
+	public static DataAccessException convertR2dbcException(String task, @Nullable String sql, R2dbcException ex) {
+		String message = task + "; " + (sql != null ? "SQL [" + sql + "]; " : "") + ex.getMessage();
+		if (ex instanceof R2dbcTransientResourceException) {
+			return new TransientDataAccessResourceException(message, ex);
+		}
+		if (ex instanceof R2dbcRollbackException) {
+			return new ConcurrencyFailureException(message, ex);
+		}
+		if (ex instanceof R2dbcTimeoutException) {
+			return new QueryTimeoutException(message, ex);
+		}
+		if (ex instanceof R2dbcBadGrammarException) {
+			return new InvalidDataAccessResourceUsageException(message, ex);
+		}
+		if (ex instanceof R2dbcDataIntegrityViolationException) {
+			return new DataIntegrityViolationException(message, ex);
+		}
+		if (ex instanceof R2dbcPermissionDeniedException) {
+			return new PermissionDeniedDataAccessException(message, ex);
+		}
+		if (ex instanceof R2dbcNonTransientResourceException) {
+			return new DataAccessResourceFailureException(message, ex);
+		}
+		return new UncategorizedR2dbcException(task, sql, ex);
+	}
+
+
+	/**
+	 * Callback for resource cleanup at the end of a non-native R2DBC transaction.
+	 */
+	private static class ConnectionSynchronization implements TransactionSynchronization, Ordered {
+
+		private final ConnectionHolder connectionHolder;
+
+		private final ConnectionFactory connectionFactory;
+
+		private boolean holderActive = true;
+
+		ConnectionSynchronization(ConnectionHolder connectionHolder, ConnectionFactory connectionFactory) {
+			this.connectionHolder = connectionHolder;
+			this.connectionFactory = connectionFactory;
+		}
+
+		@Override
+		public int getOrder() {
+			return CONNECTION_SYNCHRONIZATION_ORDER;
+		}
+
+		@Override
+		public Mono<Void> suspend() {
+			if (this.holderActive) {
+				return TransactionSynchronizationManager.forCurrentTransaction().flatMap(synchronizationManager -> {
+					synchronizationManager.unbindResource(this.connectionFactory);
+					if (this.connectionHolder.hasConnection() && !this.connectionHolder.isOpen()) {
+						// Release Connection on suspend if the application doesn't keep
+						// a handle to it anymore. We will fetch a fresh Connection if the
+						// application accesses the ConnectionHolder again after resume,
+						// assuming that it will participate in the same transaction.
+						Connection con = this.connectionHolder.getConnection();
+						this.connectionHolder.setConnection(null);
+						return releaseConnection(con, this.connectionFactory);
+					}
+					return Mono.empty();
+				});
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> resume() {
+			if (this.holderActive) {
+				return TransactionSynchronizationManager.forCurrentTransaction().doOnNext(synchronizationManager ->
+						synchronizationManager.bindResource(this.connectionFactory, this.connectionHolder)).then();
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> beforeCompletion() {
+			// Release Connection early if the holder is not open anymore
+			// (that is, not used by another resource
+			// that has its own cleanup via transaction synchronization),
+			// to avoid issues with strict transaction implementations that expect
+			// the close call before transaction completion.
+			if (!this.connectionHolder.isOpen()) {
+				return TransactionSynchronizationManager.forCurrentTransaction().flatMap(synchronizationManager -> {
+					synchronizationManager.unbindResource(this.connectionFactory);
+					this.holderActive = false;
+					if (this.connectionHolder.hasConnection()) {
+						return releaseConnection(this.connectionHolder.getConnection(), this.connectionFactory);
+					}
+					return Mono.empty();
+				});
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> afterCompletion(int status) {
+			// If we haven't closed the Connection in beforeCompletion,
+			// close it now. The holder might have been used for other
+			// cleanup in the meantime.
+			if (this.holderActive) {
+				return TransactionSynchronizationManager.forCurrentTransaction().flatMap(synchronizationManager -> {
+					synchronizationManager.unbindResourceIfPossible(this.connectionFactory);
+					this.holderActive = false;
+					if (this.connectionHolder.hasConnection()) {
+						Connection con = this.connectionHolder.getConnection();
+						// Reset the ConnectionHolder: It might remain bound to the context.
+						this.connectionHolder.setConnection(null);
+						return releaseConnection(con, this.connectionFactory);
+					}
+					return Mono.empty();
+				}).doFinally(signal -> this.connectionHolder.reset());
+			}
+			this.connectionHolder.reset();
+			return Mono.empty();
+		}
+	}
+
+}
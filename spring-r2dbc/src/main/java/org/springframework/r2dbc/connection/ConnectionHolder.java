@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.connection;
+
+import io.r2dbc.spi.Connection;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.util.Assert;
+
+/**
+ * Resource holder wrapping an R2DBC {@link Connection}.
+ * {@link R2dbcTransactionManager} binds instances of this class to the
+ * subscription context, for a specific {@link io.r2dbc.spi.ConnectionFactory}.
+ *
+ * <p>Inherits rollback-only support for nested R2DBC transactions
+ * and reference count functionality from the base class.
+ *
+ * <p>Note: This is an SPI class, not intended to be used by applications.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see R2dbcTransactionManager
+ * @see ConnectionFactoryUtils
+ */
+public class ConnectionHolder extends ResourceHolderSupport {
+
+	@Nullable
+	private Connection currentConnection;
+
+	private boolean transactionActive = false;
+
+
+	/**
+	 * Create a new ConnectionHolder for the given R2DBC Connection,
+	 * assuming that there is no ongoing transaction.
+	 * @param connection the R2DBC Connection to hold
+	 * @see #ConnectionHolder(Connection, boolean)
+	 */
+	public ConnectionHolder(Connection connection) {
+		this(connection, false);
+	}
+
+	/**
+	 * Create a new ConnectionHolder for the given R2DBC Connection.
+	 * @param connection the R2DBC Connection to hold
+	 * @param transactionActive whether the given Connection is involved
+	 * in an ongoing transaction
+	 */
+	public ConnectionHolder(Connection connection, boolean transactionActive) {
+		Assert.notNull(connection, "Connection must not be null");
+		this.currentConnection = connection;
+		this.transactionActive = transactionActive;
+	}
+
+
+	/**
+	 * Return whether this holder currently has a Connection.
+	 */
+	protected boolean hasConnection() {
+		return (this.currentConnection != null);
+	}
+
+	/**
+	 * Set whether this holder represents an active, R2DBC-managed transaction.
+	 * @see R2dbcTransactionManager
+	 */
+	protected void setTransactionActive(boolean transactionActive) {
+		this.transactionActive = transactionActive;
+	}
+
+	/**
+	 * Return whether this holder represents an active, R2DBC-managed transaction.
+	 */
+	protected boolean isTransactionActive() {
+		return this.transactionActive;
+	}
+
+	/**
+	 * Override the existing Connection with the given Connection.
+	 * Reset the Connection if given {@code null}.
+	 * <p>Used for releasing the Connection on suspend (with a {@code null}
+	 * argument) and setting a fresh Connection on resume.
+	 */
+	protected void setConnection(@Nullable Connection connection) {
+		this.currentConnection = connection;
+	}
+
+	/**
+	 * Return the current Connection held by this ConnectionHolder.
+	 * @throws IllegalStateException if no Connection available
+	 */
+	public Connection getConnection() {
+		Assert.state(this.currentConnection != null, "Active Connection is required");
+		return this.currentConnection;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		this.transactionActive = false;
+	}
+
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.connection;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Result;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.transaction.ReactiveTransactionManager}
+ * implementation for a single R2DBC {@link ConnectionFactory}. This class is
+ * capable of working in any environment with any R2DBC driver, as long as the
+ * setup uses a {@link ConnectionFactory} as its {@link Connection} factory
+ * mechanism. Binds a R2DBC {@link Connection} from the specified
+ * {@link ConnectionFactory} to the current subscriber context, potentially
+ * allowing for one context-bound {@link Connection} per {@link ConnectionFactory}.
+ *
+ * <p><b>Note: The {@link ConnectionFactory} that this transaction manager
+ * operates on needs to return independent {@link Connection}s.</b>
+ * The {@link Connection}s may come from a pool (the typical case), but the
+ * {@link ConnectionFactory} must not return scoped {@link Connection}s
+ * or the like.
+ *
+ * <p>Application code is required to retrieve the R2DBC Connection via
+ * {@link ConnectionFactoryUtils#getConnection(ConnectionFactory)}
+ * instead of a standard R2DBC-style {@link ConnectionFactory#create()} call.
+ * Spring classes such as {@link org.springframework.r2dbc.core.DatabaseClient}
+ * use this strategy implicitly. If not used in combination with this
+ * transaction manager, the {@link ConnectionFactoryUtils} lookup strategy
+ * behaves exactly like the native {@code ConnectionFactory} lookup; it can
+ * thus be used in a portable fashion.
+ *
+ * <p>This transaction manager is the R2DBC counterpart of
+ * {@link org.springframework.jdbc.datasource.DataSourceTransactionManager},
+ * typically driven through a
+ * {@link org.springframework.transaction.reactive.TransactionalOperator}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see ConnectionFactoryUtils#getConnection(ConnectionFactory)
+ * @see ConnectionFactoryUtils#releaseConnection
+ * @see org.springframework.r2dbc.core.DatabaseClient
+ * @see org.springframework.transaction.reactive.TransactionalOperator
+ */
+@SuppressWarnings("serial")
+public class R2dbcTransactionManager extends AbstractReactiveTransactionManager implements InitializingBean {
+
+	@Nullable
+	private ConnectionFactory connectionFactory;
+
+	private boolean enforceReadOnly = false;
+
+
+	/**
+	 * Create a new {@code R2dbcTransactionManager} instance.
+	 * A ConnectionFactory has to be set to be able to use it.
+	 * @see #setConnectionFactory
+	 */
+	public R2dbcTransactionManager() {
+	}
+
+	/**
+	 * Create a new {@code R2dbcTransactionManager} instance.
+	 * @param connectionFactory the R2DBC ConnectionFactory to manage transactions for
+	 */
+	public R2dbcTransactionManager(ConnectionFactory connectionFactory) {
+		this();
+		setConnectionFactory(connectionFactory);
+		afterPropertiesSet();
+	}
+
+
+	/**
+	 * Set the R2DBC {@link ConnectionFactory} that this instance should manage transactions for.
+	 * <p>This will typically be a locally defined {@code ConnectionFactory}, for example a connection pool.
+	 * <p><b>The {@code ConnectionFactory} passed in here needs to return independent {@link Connection}s.</b>
+	 * The {@code Connection}s may come from a pool (the typical case), but the {@code ConnectionFactory}
+	 * must not return scoped {@code Connection}s or the like.
+	 */
+	public void setConnectionFactory(@Nullable ConnectionFactory connectionFactory) {
+		this.connectionFactory = connectionFactory;
+	}
+
+	/**
+	 * Return the R2DBC {@link ConnectionFactory} that this instance manages transactions for.
+	 */
+	@Nullable
+	public ConnectionFactory getConnectionFactory() {
+		return this.connectionFactory;
+	}
+
+	/**
+	 * Obtain the {@link ConnectionFactory} for actual use.
+	 * @return the {@code ConnectionFactory} (never {@code null})
+	 * @throws IllegalStateException in case of no ConnectionFactory set
+	 */
+	protected ConnectionFactory obtainConnectionFactory() {
+		ConnectionFactory connectionFactory = getConnectionFactory();
+		Assert.state(connectionFactory != null, "No ConnectionFactory set");
+		return connectionFactory;
+	}
+
+	/**
+	 * Specify whether to enforce the read-only nature of a transaction (as indicated by
+	 * {@link TransactionDefinition#isReadOnly()}) through an explicit statement on the
+	 * transactional connection: "SET TRANSACTION READ ONLY" as understood by Oracle,
+	 * MySQL and Postgres.
+	 * <p>The exact treatment, including any SQL statement executed on the connection,
+	 * can be customized through {@link #prepareTransactionalConnection}.
+	 * @see #prepareTransactionalConnection
+	 */
+	public void setEnforceReadOnly(boolean enforceReadOnly) {
+		this.enforceReadOnly = enforceReadOnly;
+	}
+
+	/**
+	 * Return whether to enforce the read-only nature of a transaction through an
+	 * explicit statement on the transactional connection.
+	 * @see #setEnforceReadOnly
+	 */
+	public boolean isEnforceReadOnly() {
+		return this.enforceReadOnly;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (getConnectionFactory() == null) {
+			throw new IllegalArgumentException("Property 'connectionFactory' is required");
+		}
+	}
+
+
+	@Override
+	protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+		ConnectionFactoryTransactionObject txObject = new ConnectionFactoryTransactionObject();
+		ConnectionHolder conHolder = (ConnectionHolder) synchronizationManager.getResource(obtainConnectionFactory());
+		txObject.setConnectionHolder(conHolder, false);
+		return txObject;
+	}
+
+	@Override
+	protected boolean isExistingTransaction(Object transaction) {
+		ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) transaction;
+		return (txObject.hasConnectionHolder() && txObject.getConnectionHolder().isTransactionActive());
+	}
+
+	@Override
+	protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+			TransactionDefinition definition) throws TransactionException {
+
+		ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) transaction;
+
+		return Mono.defer(() -> {
+			Mono<Connection> connectionMono;
+
+			if (!txObject.hasConnectionHolder() || txObject.getConnectionHolder().isSynchronizedWithTransaction()) {
+				Mono<Connection> newCon = Mono.from(obtainConnectionFactory().create());
+				connectionMono = newCon.doOnNext(connection -> {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Acquired Connection [" + connection + "] for R2DBC transaction");
+					}
+					txObject.setConnectionHolder(new ConnectionHolder(connection), true);
+				});
+			}
+			else {
+				connectionMono = Mono.just(txObject.getConnectionHolder().getConnection());
+			}
+
+			return connectionMono.flatMap(con -> {
+				txObject.getConnectionHolder().setSynchronizedWithTransaction(true);
+				return beginTransaction(synchronizationManager, txObject, con, definition);
+			}).onErrorMap(ex -> new CannotCreateTransactionException(
+					"Could not open R2DBC Connection for transaction", ex));
+		});
+	}
+
+	private Mono<Void> beginTransaction(TransactionSynchronizationManager synchronizationManager,
+			ConnectionFactoryTransactionObject txObject, Connection con, TransactionDefinition definition) {
+
+		return doBeginTransaction(definition, con)
+				.then(prepareTransactionalConnection(con, definition))
+				.doOnSuccess(v -> {
+					txObject.getConnectionHolder().setTransactionActive(true);
+					int timeout = determineTimeout(definition);
+					if (timeout != TransactionDefinition.TIMEOUT_DEFAULT) {
+						txObject.getConnectionHolder().setTimeoutInSeconds(timeout);
+					}
+					// Bind the connection holder to the subscriber context.
+					if (txObject.isNewConnectionHolder()) {
+						synchronizationManager.bindResource(obtainConnectionFactory(), txObject.getConnectionHolder());
+					}
+				})
+				.onErrorResume(ex -> {
+					if (txObject.isNewConnectionHolder()) {
+						return ConnectionFactoryUtils.releaseConnection(con, obtainConnectionFactory())
+								.doOnTerminate(() -> txObject.setConnectionHolder(null, false))
+								.then(Mono.error(ex));
+					}
+					return Mono.error(ex);
+				});
+	}
+
+	private Mono<Void> doBeginTransaction(TransactionDefinition definition, Connection con) {
+		Mono<Void> doBegin = Mono.from(con.beginTransaction());
+		if (definition.getIsolationLevel() != TransactionDefinition.ISOLATION_DEFAULT) {
+			IsolationLevel isolationLevel = resolveIsolationLevel(definition.getIsolationLevel());
+			if (isolationLevel != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Changing isolation level of R2DBC Connection [" + con + "] to " +
+							isolationLevel.asSql());
+				}
+				doBegin = doBegin.then(Mono.from(con.setTransactionIsolationLevel(isolationLevel)));
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Starting R2DBC transaction on Connection [" + con + "]");
+		}
+		return doBegin;
+	}
+
+	/**
+	 * Determine the actual timeout to use for the given definition.
+	 * Will fall back to the default timeout if the transaction
+	 * definition doesn't specify a non-default value.
+	 * @param definition the transaction definition
+	 * @return the actual timeout to use
+	 * @see TransactionDefinition#getTimeout()
+	 */
+	protected int determineTimeout(TransactionDefinition definition) {
+		if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+			return definition.getTimeout();
+		}
+		return TransactionDefinition.TIMEOUT_DEFAULT;
+	}
+
+	@Override
+	protected Mono<Object> doSuspend(TransactionSynchronizationManager synchronizationManager, Object transaction)
+			throws TransactionException {
+
+		return Mono.defer(() -> {
+			ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) transaction;
+			txObject.setConnectionHolder(null);
+			return Mono.justOrEmpty(synchronizationManager.unbindResource(obtainConnectionFactory()));
+		});
+	}
+
+	@Override
+	protected Mono<Void> doResume(TransactionSynchronizationManager synchronizationManager,
+			@Nullable Object transaction, Object suspendedResources) throws TransactionException {
+
+		return Mono.defer(() -> {
+			synchronizationManager.bindResource(obtainConnectionFactory(), suspendedResources);
+			return Mono.empty();
+		});
+	}
+
+	@Override
+	protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) status.getTransaction();
+		Connection connection = txObject.getConnectionHolder().getConnection();
+		if (status.isDebug()) {
+			logger.debug("Committing R2DBC transaction on Connection [" + connection + "]");
+		}
+		return Mono.from(connection.commitTransaction())
+				.onErrorMap(R2dbcException.class, ex -> translateException("R2DBC commit", ex));
+	}
+
+	@Override
+	protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) status.getTransaction();
+		Connection connection = txObject.getConnectionHolder().getConnection();
+		if (status.isDebug()) {
+			logger.debug("Rolling back R2DBC transaction on Connection [" + connection + "]");
+		}
+		return Mono.from(connection.rollbackTransaction())
+				.onErrorMap(R2dbcException.class, ex -> translateException("R2DBC rollback", ex));
+	}
+
+	@Override
+	protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) throws TransactionException {
+
+		return Mono.fromRunnable(() -> {
+			ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) status.getTransaction();
+			if (status.isDebug()) {
+				logger.debug("Setting R2DBC transaction [" + txObject.getConnectionHolder().getConnection() +
+						"] rollback-only");
+			}
+			txObject.setRollbackOnly();
+		});
+	}
+
+	@Override
+	protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+			Object transaction) {
+
+		return Mono.defer(() -> {
+			ConnectionFactoryTransactionObject txObject = (ConnectionFactoryTransactionObject) transaction;
+
+			// Remove the connection holder from the context, if exposed.
+			if (txObject.isNewConnectionHolder()) {
+				synchronizationManager.unbindResource(obtainConnectionFactory());
+			}
+
+			Mono<Void> afterCleanup = Mono.empty();
+			if (txObject.isNewConnectionHolder()) {
+				Connection con = txObject.getConnectionHolder().getConnection();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Releasing R2DBC Connection [" + con + "] after transaction");
+				}
+				afterCleanup = ConnectionFactoryUtils.releaseConnection(con, obtainConnectionFactory());
+			}
+
+			return afterCleanup.doFinally(s -> txObject.getConnectionHolder().clear());
+		});
+	}
+
+	/**
+	 * Prepare the transactional {@link Connection} right after transaction begin.
+	 * <p>The default implementation executes a "SET TRANSACTION READ ONLY" statement if the
+	 * {@link #setEnforceReadOnly "enforceReadOnly"} flag is set to {@code true} and the
+	 * transaction definition indicates a read-only transaction.
+	 * <p>The "SET TRANSACTION READ ONLY" is understood by Oracle, MySQL and Postgres
+	 * and may work with other databases as well. If you'd like to adapt this treatment,
+	 * override this method accordingly.
+	 * @param con the transactional R2DBC Connection
+	 * @param definition the current transaction definition
+	 * @see #setEnforceReadOnly
+	 */
+	protected Mono<Void> prepareTransactionalConnection(Connection con, TransactionDefinition definition) {
+		Mono<Void> prepare = Mono.empty();
+		if (isEnforceReadOnly() && definition.isReadOnly()) {
+			prepare = Mono.from(con.createStatement("SET TRANSACTION READ ONLY").execute())
+					.flatMapMany(Result::getRowsUpdated)
+					.then();
+		}
+		return prepare;
+	}
+
+	/**
+	 * Resolve the {@linkplain TransactionDefinition#getIsolationLevel() isolation level constant} to a R2DBC
+	 * {@link IsolationLevel}. If you'd like to extend isolation level translation for vendor-specific
+	 * {@code IsolationLevel}s, override this method accordingly.
+	 * @param isolationLevel the isolation level to translate.
+	 * @return the resolved isolation level. Can be {@code null} if not resolvable or the isolation level
+	 * should remain {@link TransactionDefinition#ISOLATION_DEFAULT default}.
+	 * @see TransactionDefinition#getIsolationLevel()
+	 */
+	@Nullable
+	protected IsolationLevel resolveIsolationLevel(int isolationLevel) {
+		switch (isolationLevel) {
+			case TransactionDefinition.ISOLATION_READ_COMMITTED:
+				return IsolationLevel.READ_COMMITTED;
+			case TransactionDefinition.ISOLATION_READ_UNCOMMITTED:
+				return IsolationLevel.READ_UNCOMMITTED;
+			case TransactionDefinition.ISOLATION_REPEATABLE_READ:
+				return IsolationLevel.REPEATABLE_READ;
+			case TransactionDefinition.ISOLATION_SERIALIZABLE:
+				return IsolationLevel.SERIALIZABLE;
+		}
+		return null;
+	}
+
+	/**
+	 * Translate the given R2DBC commit/rollback exception to a common Spring
+	 * exception to propagate from the {@link #commit}/{@link #rollback} call.
+	 * @param task the task description (commit or rollback).
+	 * @param ex the SQLException thrown from commit/rollback.
+	 * @return the translated exception to emit
+	 */
+	protected RuntimeException translateException(String task, R2dbcException ex) {
+		return new TransactionSystemException(task + " failed", ex);
+	}
+
+
+	/**
+	 * ConnectionFactory transaction object, representing a ConnectionHolder.
+	 * Used as transaction object by R2dbcTransactionManager.
+	 */
+	private static class ConnectionFactoryTransactionObject {
+
+		@Nullable
+		private ConnectionHolder connectionHolder;
+
+		private boolean newConnectionHolder;
+
+		void setConnectionHolder(@Nullable ConnectionHolder connectionHolder, boolean newConnectionHolder) {
+			setConnectionHolder(connectionHolder);
+			this.newConnectionHolder = newConnectionHolder;
+		}
+
+		boolean isNewConnectionHolder() {
+			return this.newConnectionHolder;
+		}
+
+		void setRollbackOnly() {
+			getConnectionHolder().setRollbackOnly();
+		}
+
+		public void setConnectionHolder(@Nullable ConnectionHolder connectionHolder) {
+			this.connectionHolder = connectionHolder;
+		}
+
+		public ConnectionHolder getConnectionHolder() {
+			Assert.state(this.connectionHolder != null, "No ConnectionHolder available");
+			return this.connectionHolder;
+		}
+
+		public boolean hasConnectionHolder() {
+			return (this.connectionHolder != null);
+		}
+	}
+
+}
@@ -0,0 +1,10 @@
+/**
+ * Provides a utility class for easy ConnectionFactory access,
+ * and a ReactiveTransactionManager for a single ConnectionFactory.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.r2dbc.connection;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+
+import org.springframework.util.Assert;
+
+/**
+ * Strategy for creating the vendor-specific bind marker that replaces a named
+ * parameter in a SQL statement, e.g. {@code $1} for PostgreSQL, {@code @P0}
+ * for SQL Server or a plain {@code ?} for MySQL.
+ *
+ * <p>Bind markers are created for the 0-based index of the value bound to the
+ * {@link io.r2dbc.spi.Statement}, with collection values expanded into one
+ * marker per element.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see DatabaseClient#create(ConnectionFactory, BindMarkersFactory)
+ * @see org.springframework.jdbc.core.namedparam.NamedParameterUtils#substituteNamedParameters(org.springframework.jdbc.core.namedparam.ParsedSql, org.springframework.jdbc.core.namedparam.SqlParameterSource, java.util.function.IntFunction)
+ */
+@FunctionalInterface
+public interface BindMarkersFactory {
+
+	/**
+	 * Create the bind marker for the given value index.
+	 * @param index the 0-based index of the bound value
+	 * @return the bind marker to render into the SQL statement
+	 */
+	String createMarker(int index);
+
+
+	/**
+	 * Create a factory for anonymous bind markers that render the same
+	 * placeholder for each value, e.g. {@code ?}.
+	 * @param placeholder the placeholder to render
+	 */
+	static BindMarkersFactory anonymous(String placeholder) {
+		Assert.hasText(placeholder, "Placeholder must not be empty");
+		return index -> placeholder;
+	}
+
+	/**
+	 * Create a factory for indexed bind markers that render the prefix
+	 * followed by the value index, e.g. {@code $1, $2} for prefix {@code $}
+	 * and a begin index of {@code 1}.
+	 * @param prefix the prefix of each bind marker
+	 * @param beginWith the index of the first bind marker
+	 */
+	static BindMarkersFactory indexed(String prefix, int beginWith) {
+		Assert.notNull(prefix, "Prefix must not be null");
+		return index -> prefix + (beginWith + index);
+	}
+
+	/**
+	 * Resolve the {@link BindMarkersFactory} for the database behind the given
+	 * {@link ConnectionFactory}, based on its {@link ConnectionFactoryMetadata#getName() name}.
+	 * Falls back to anonymous {@code ?} markers for unknown databases.
+	 * @param connectionFactory the connection factory to resolve the bind markers for
+	 */
+	static BindMarkersFactory resolve(ConnectionFactory connectionFactory) {
+		Assert.notNull(connectionFactory, "ConnectionFactory must not be null");
+		BindMarkersFactory factory = BuiltinBindMarkers.BY_NAME.get(connectionFactory.getMetadata().getName());
+		return (factory != null ? factory : BuiltinBindMarkers.ANONYMOUS);
+	}
+
+}
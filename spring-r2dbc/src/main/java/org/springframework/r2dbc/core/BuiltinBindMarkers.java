@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bind marker strategies for well-known R2DBC drivers, keyed by
+ * {@link io.r2dbc.spi.ConnectionFactoryMetadata#getName() driver name}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see BindMarkersFactory#resolve
+ */
+final class BuiltinBindMarkers {
+
+	static final BindMarkersFactory ANONYMOUS = BindMarkersFactory.anonymous("?");
+
+	static final Map<String, BindMarkersFactory> BY_NAME = new HashMap<>(8);
+
+	static {
+		BY_NAME.put("H2", BindMarkersFactory.indexed("$", 1));
+		BY_NAME.put("PostgreSQL", BindMarkersFactory.indexed("$", 1));
+		BY_NAME.put("Microsoft SQL Server", BindMarkersFactory.indexed("@P", 0));
+		BY_NAME.put("MySQL", ANONYMOUS);
+		BY_NAME.put("MariaDB", ANONYMOUS);
+	}
+
+
+	private BuiltinBindMarkers() {
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * A non-blocking, reactive client for performing database calls with
+ * Reactive Streams back pressure. Provides a higher level, common API over
+ * R2DBC client libraries, the reactive counterpart of
+ * {@link org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate}.
+ *
+ * <p>Use one of the static factory methods to create a {@code DatabaseClient}:
+ * <pre class="code">
+ * ConnectionFactory factory = &hellip;
+ *
+ * DatabaseClient client = DatabaseClient.create(factory);
+ * Flux&lt;String&gt; names = client.sql("SELECT name FROM person WHERE age &gt; :age")
+ *     .bind("age", 42)
+ *     .map(row -&gt; row.get("name", String.class))
+ *     .all();
+ * </pre>
+ *
+ * <p>Named parameters are parsed and expanded through
+ * {@link org.springframework.jdbc.core.namedparam.NamedParameterUtils}, with
+ * collection values expanded into one bind marker per element, and rendered
+ * using the database-specific {@link BindMarkersFactory}.
+ *
+ * <p>Connections are obtained through {@link org.springframework.r2dbc.connection.ConnectionFactoryUtils},
+ * participating in transactions driven by a
+ * {@link org.springframework.r2dbc.connection.R2dbcTransactionManager}.
+ * R2DBC exceptions are translated into Spring's {@link DataAccessException} hierarchy.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see org.springframework.r2dbc.connection.R2dbcTransactionManager
+ * @see org.springframework.transaction.reactive.TransactionalOperator
+ */
+public interface DatabaseClient {
+
+	/**
+	 * Return the {@link ConnectionFactory} that this client uses.
+	 */
+	ConnectionFactory getConnectionFactory();
+
+	/**
+	 * Specify a static {@code sql} statement to run. Contract for specifying a
+	 * SQL call along with options leading to the execution. The SQL string can
+	 * contain either native parameter bind markers or named parameters
+	 * (e.g. {@literal :foo, :bar}).
+	 * @param sql the SQL statement
+	 * @return a new {@link GenericExecuteSpec}
+	 */
+	GenericExecuteSpec sql(String sql);
+
+	/**
+	 * Execute a callback {@link Function} within a {@link Connection} scope.
+	 * The function is responsible for creating a {@link Mono}. The connection
+	 * is released after the {@link Mono} terminates (or the subscription is cancelled).
+	 * Connection resources must not be passed outside of the {@link Function}
+	 * closure, otherwise resources may get defunct.
+	 * @param action the callback object that specifies the connection action
+	 * @return the resulting {@link Mono}
+	 */
+	<T> Mono<T> inConnection(Function<Connection, Mono<T>> action) throws DataAccessException;
+
+	/**
+	 * Execute a callback {@link Function} within a {@link Connection} scope.
+	 * The function is responsible for creating a {@link Flux}. The connection
+	 * is released after the {@link Flux} terminates (or the subscription is cancelled).
+	 * Connection resources must not be passed outside of the {@link Function}
+	 * closure, otherwise resources may get defunct.
+	 * @param action the callback object that specifies the connection action
+	 * @return the resulting {@link Flux}
+	 */
+	<T> Flux<T> inConnectionMany(Function<Connection, Flux<T>> action) throws DataAccessException;
+
+
+	/**
+	 * Create a {@code DatabaseClient} that will use the provided {@link ConnectionFactory},
+	 * resolving the {@link BindMarkersFactory} from the connection factory metadata.
+	 * @param factory the {@code ConnectionFactory} to use for obtaining connections
+	 * @return a new {@code DatabaseClient}
+	 * @see BindMarkersFactory#resolve(ConnectionFactory)
+	 */
+	static DatabaseClient create(ConnectionFactory factory) {
+		return create(factory, BindMarkersFactory.resolve(factory));
+	}
+
+	/**
+	 * Create a {@code DatabaseClient} that will use the provided {@link ConnectionFactory}
+	 * and {@link BindMarkersFactory}.
+	 * @param factory the {@code ConnectionFactory} to use for obtaining connections
+	 * @param bindMarkersFactory the strategy for rendering bind markers for named parameters
+	 * @return a new {@code DatabaseClient}
+	 */
+	static DatabaseClient create(ConnectionFactory factory, BindMarkersFactory bindMarkersFactory) {
+		return new DefaultDatabaseClient(factory, bindMarkersFactory);
+	}
+
+
+	/**
+	 * Contract for specifying a SQL call along with options leading to the execution.
+	 */
+	interface GenericExecuteSpec {
+
+		/**
+		 * Bind a non-{@code null} value to a parameter identified by its {@code index}.
+		 * The {@code index} refers to the native bind markers of the SQL statement.
+		 * Index and named bindings cannot be mixed within the same set of bindings.
+		 * @param index zero based index to bind the parameter to
+		 * @param value must not be {@code null}. Use {@link #bindNull(int, Class)} instead to bind a {@code null} value.
+		 */
+		GenericExecuteSpec bind(int index, Object value);
+
+		/**
+		 * Bind a {@code null} value to a parameter identified by its {@code index}.
+		 * @param index zero based index to bind the parameter to
+		 * @param type the parameter type
+		 */
+		GenericExecuteSpec bindNull(int index, Class<?> type);
+
+		/**
+		 * Bind a non-{@code null} value to a named parameter. Collection values
+		 * are expanded into one bind marker per element, e.g. for {@code IN} clauses.
+		 * @param name the name of the parameter
+		 * @param value the value to bind. Use {@link #bindNull(String, Class)} instead to bind a {@code null} value.
+		 */
+		GenericExecuteSpec bind(String name, Object value);
+
+		/**
+		 * Bind a {@code null} value to a named parameter.
+		 * @param name the name of the parameter
+		 * @param type the parameter type
+		 */
+		GenericExecuteSpec bindNull(String name, Class<?> type);
+
+		/**
+		 * Add the current bindings to a batch and start a new set of bindings
+		 * for the same statement. All sets are executed as a single batch
+		 * through {@link io.r2dbc.spi.Statement#add()}, emitting one
+		 * {@link io.r2dbc.spi.Result} per set.
+		 * <p>Bindings left over after the last {@code add()} form the final set.
+		 * Named parameters must expand to the same bind markers in every set,
+		 * so collection values need to have the same size throughout the batch.
+		 * @throws IllegalStateException if no values have been bound since the
+		 * previous call
+		 */
+		GenericExecuteSpec add();
+
+		/**
+		 * Configure a result mapping {@link Function function} and enter the execution stage.
+		 * @param mappingFunction a function that maps from {@link Row} to the result type
+		 * @param <R> the result type
+		 * @return a {@link FetchSpec} for configuration what to fetch
+		 */
+		default <R> RowsFetchSpec<R> map(Function<Row, R> mappingFunction) {
+			return map((row, rowMetadata) -> mappingFunction.apply(row));
+		}
+
+		/**
+		 * Configure a result mapping {@link BiFunction function} and enter the execution stage.
+		 * @param mappingFunction a function that maps from {@link Row} and {@link RowMetadata}
+		 * to the result type
+		 * @param <R> the result type
+		 * @return a {@link FetchSpec} for configuration what to fetch
+		 */
+		<R> RowsFetchSpec<R> map(BiFunction<Row, RowMetadata, R> mappingFunction);
+
+		/**
+		 * Perform the SQL call and retrieve the result by entering the execution stage,
+		 * mapping each row to a case-insensitive column name to value {@link Map}.
+		 */
+		FetchSpec<Map<String, Object>> fetch();
+
+		/**
+		 * Perform the SQL call and return a {@link Mono} that completes without result
+		 * on statement completion.
+		 * @return a {@link Mono} ignoring its payload (actively dropping)
+		 */
+		Mono<Void> then();
+	}
+
+}
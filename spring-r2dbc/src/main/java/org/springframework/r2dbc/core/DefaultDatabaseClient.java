@@ -0,0 +1,394 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.connection.ConnectionFactoryUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Default implementation of {@link DatabaseClient}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see DatabaseClient#create(ConnectionFactory)
+ */
+class DefaultDatabaseClient implements DatabaseClient {
+
+	private static final Log logger = LogFactory.getLog(DefaultDatabaseClient.class);
+
+	private final ConnectionFactory connectionFactory;
+
+	private final BindMarkersFactory bindMarkersFactory;
+
+
+	DefaultDatabaseClient(ConnectionFactory connectionFactory, BindMarkersFactory bindMarkersFactory) {
+		Assert.notNull(connectionFactory, "ConnectionFactory must not be null");
+		Assert.notNull(bindMarkersFactory, "BindMarkersFactory must not be null");
+		this.connectionFactory = connectionFactory;
+		this.bindMarkersFactory = bindMarkersFactory;
+	}
+
+
+	@Override
+	public ConnectionFactory getConnectionFactory() {
+		return this.connectionFactory;
+	}
+
+	@Override
+	public GenericExecuteSpec sql(String sql) {
+		Assert.hasText(sql, "SQL must not be null or empty");
+		return new DefaultGenericExecuteSpec(sql, Collections.emptyList(), Bindings.EMPTY);
+	}
+
+	@Override
+	public <T> Mono<T> inConnection(Function<Connection, Mono<T>> action) throws DataAccessException {
+		Assert.notNull(action, "Callback object must not be null");
+		return Mono.usingWhen(ConnectionFactoryUtils.getConnection(this.connectionFactory),
+				action,
+				this::releaseConnection,
+				(con, ex) -> releaseConnection(con),
+				this::releaseConnection)
+				.onErrorMap(R2dbcException.class, ex -> ConnectionFactoryUtils.convertR2dbcException("inConnection", null, ex));
+	}
+
+	@Override
+	public <T> Flux<T> inConnectionMany(Function<Connection, Flux<T>> action) throws DataAccessException {
+		return inConnectionMany(action, "inConnectionMany", null);
+	}
+
+	private <T> Flux<T> inConnectionMany(Function<Connection, Flux<T>> action, String task, @Nullable String sql) {
+		Assert.notNull(action, "Callback object must not be null");
+		return Flux.usingWhen(ConnectionFactoryUtils.getConnection(this.connectionFactory),
+				action,
+				this::releaseConnection,
+				(con, ex) -> releaseConnection(con),
+				this::releaseConnection)
+				.onErrorMap(R2dbcException.class, ex -> ConnectionFactoryUtils.convertR2dbcException(task, sql, ex));
+	}
+
+	private Publisher<Void> releaseConnection(Connection connection) {
+		return ConnectionFactoryUtils.releaseConnection(connection, this.connectionFactory);
+	}
+
+	/**
+	 * Expand the named parameters of the given SQL statement into bind markers
+	 * and bind all parameter values to a new {@link Statement}, adding a batch
+	 * entry for each set of bindings.
+	 */
+	Statement createStatement(Connection connection, String sql, List<Bindings> batch) {
+		String sqlToUse = null;
+		List<Map<Integer, Object>> batchValues = new ArrayList<>(batch.size());
+		for (Bindings bindings : batch) {
+			String expandedSql = sql;
+			Map<Integer, Object> values = bindings.byIndex;
+			if (!bindings.byName.isEmpty()) {
+				ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+				MapSqlParameterSource paramSource = new MapSqlParameterSource(bindings.byName);
+				expandedSql = NamedParameterUtils.substituteNamedParameters(
+						parsedSql, paramSource, this.bindMarkersFactory::createMarker);
+				values = expandNamedParameters(parsedSql, paramSource);
+			}
+			if (sqlToUse == null) {
+				sqlToUse = expandedSql;
+			}
+			else if (!sqlToUse.equals(expandedSql)) {
+				throw new InvalidDataAccessApiUsageException("Batched bindings expand to different SQL statements [" +
+						sqlToUse + "] and [" + expandedSql + "]: collection values need to have the same size");
+			}
+			batchValues.add(values);
+		}
+		Assert.state(sqlToUse != null, "No bindings");
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL statement [" + sqlToUse + "]" +
+					(batchValues.size() > 1 ? " with a batch of " + batchValues.size() + " bindings" : ""));
+		}
+		Statement statement = connection.createStatement(sqlToUse);
+		for (int i = 0; i < batchValues.size(); i++) {
+			if (i > 0) {
+				statement.add();
+			}
+			batchValues.get(i).forEach((index, value) -> {
+				if (value instanceof NullValue) {
+					statement.bindNull(index, ((NullValue) value).getType());
+				}
+				else {
+					statement.bind(index, value);
+				}
+			});
+		}
+		return statement;
+	}
+
+	private static Map<Integer, Object> expandNamedParameters(ParsedSql parsedSql, MapSqlParameterSource paramSource) {
+		Map<Integer, Object> values = new LinkedHashMap<>();
+		int valueIndex = 0;
+		for (Object value : NamedParameterUtils.buildValueArray(parsedSql, paramSource, null)) {
+			if (value instanceof Iterable) {
+				for (Object element : (Iterable<?>) value) {
+					if (element instanceof Object[]) {
+						for (Object entry : (Object[]) element) {
+							values.put(valueIndex++, entry);
+						}
+					}
+					else {
+						values.put(valueIndex++, element);
+					}
+				}
+			}
+			else {
+				values.put(valueIndex++, value);
+			}
+		}
+		return values;
+	}
+
+
+	/**
+	 * Immutable set of parameter values, bound either by index or by name.
+	 */
+	static final class Bindings {
+
+		static final Bindings EMPTY = new Bindings(Collections.emptyMap(), Collections.emptyMap());
+
+		final Map<Integer, Object> byIndex;
+
+		final Map<String, Object> byName;
+
+		Bindings(Map<Integer, Object> byIndex, Map<String, Object> byName) {
+			this.byIndex = byIndex;
+			this.byName = byName;
+		}
+
+		boolean isEmpty() {
+			return (this.byIndex.isEmpty() && this.byName.isEmpty());
+		}
+
+		Bindings withIndexed(int index, Object value) {
+			Assert.state(this.byName.isEmpty(),
+					"Cannot mix index and named parameter bindings: use either bind(int, ...) or bind(String, ...)");
+			Map<Integer, Object> byIndex = new LinkedHashMap<>(this.byIndex);
+			byIndex.put(index, value);
+			return new Bindings(byIndex, this.byName);
+		}
+
+		Bindings withNamed(String name, Object value) {
+			Assert.state(this.byIndex.isEmpty(),
+					"Cannot mix index and named parameter bindings: use either bind(int, ...) or bind(String, ...)");
+			Map<String, Object> byName = new LinkedHashMap<>(this.byName);
+			byName.put(name, value);
+			return new Bindings(this.byIndex, byName);
+		}
+	}
+
+
+	/**
+	 * Placeholder for a {@code null} value of a given type.
+	 */
+	private static final class NullValue {
+
+		private final Class<?> type;
+
+		NullValue(Class<?> type) {
+			Assert.notNull(type, "Type must not be null");
+			this.type = type;
+		}
+
+		Class<?> getType() {
+			return this.type;
+		}
+	}
+
+
+	/**
+	 * Immutable {@link GenericExecuteSpec}: every {@code bind} and {@code add}
+	 * call returns a new instance.
+	 */
+	private class DefaultGenericExecuteSpec implements GenericExecuteSpec {
+
+		private final String sql;
+
+		private final List<Bindings> batch;
+
+		private final Bindings bindings;
+
+		DefaultGenericExecuteSpec(String sql, List<Bindings> batch, Bindings bindings) {
+			this.sql = sql;
+			this.batch = batch;
+			this.bindings = bindings;
+		}
+
+		@Override
+		public GenericExecuteSpec bind(int index, Object value) {
+			Assert.isTrue(index >= 0, () -> "Index must be greater or equal to zero: " + index);
+			Assert.notNull(value, () -> "Value at index " + index + " must not be null. Use bindNull(...) instead.");
+			return new DefaultGenericExecuteSpec(this.sql, this.batch, this.bindings.withIndexed(index, value));
+		}
+
+		@Override
+		public GenericExecuteSpec bindNull(int index, Class<?> type) {
+			Assert.isTrue(index >= 0, () -> "Index must be greater or equal to zero: " + index);
+			return new DefaultGenericExecuteSpec(this.sql, this.batch,
+					this.bindings.withIndexed(index, new NullValue(type)));
+		}
+
+		@Override
+		public GenericExecuteSpec bind(String name, Object value) {
+			Assert.hasText(name, "Parameter name must not be null or empty");
+			Assert.notNull(value, () -> "Value for parameter '" + name + "' must not be null. Use bindNull(...) instead.");
+			return new DefaultGenericExecuteSpec(this.sql, this.batch, this.bindings.withNamed(name, value));
+		}
+
+		@Override
+		public GenericExecuteSpec bindNull(String name, Class<?> type) {
+			Assert.hasText(name, "Parameter name must not be null or empty");
+			return new DefaultGenericExecuteSpec(this.sql, this.batch,
+					this.bindings.withNamed(name, new NullValue(type)));
+		}
+
+		@Override
+		public GenericExecuteSpec add() {
+			Assert.state(!this.bindings.isEmpty(), "No bindings to add to the batch");
+			List<Bindings> batch = new ArrayList<>(this.batch.size() + 1);
+			batch.addAll(this.batch);
+			batch.add(this.bindings);
+			return new DefaultGenericExecuteSpec(this.sql, batch, Bindings.EMPTY);
+		}
+
+		@Override
+		public <R> RowsFetchSpec<R> map(BiFunction<Row, RowMetadata, R> mappingFunction) {
+			Assert.notNull(mappingFunction, "Mapping function must not be null");
+			return new DefaultFetchSpec<>(result -> result.map(mappingFunction));
+		}
+
+		@Override
+		public FetchSpec<Map<String, Object>> fetch() {
+			return new DefaultFetchSpec<>(result -> result.map(this::toColumnMap));
+		}
+
+		@Override
+		public Mono<Void> then() {
+			return fetch().rowsUpdated().then();
+		}
+
+		private Map<String, Object> toColumnMap(Row row, RowMetadata rowMetadata) {
+			List<String> columnNames = new ArrayList<>(rowMetadata.getColumnNames());
+			Map<String, Object> columns = new LinkedCaseInsensitiveMap<>(columnNames.size());
+			for (int i = 0; i < columnNames.size(); i++) {
+				columns.put(columnNames.get(i), row.get(i));
+			}
+			return columns;
+		}
+
+		/**
+		 * Return the sets of bindings to execute: the ones added to the batch,
+		 * followed by the current bindings unless empty.
+		 */
+		private List<Bindings> getBatch() {
+			if (this.batch.isEmpty()) {
+				return Collections.singletonList(this.bindings);
+			}
+			if (this.bindings.isEmpty()) {
+				return this.batch;
+			}
+			List<Bindings> batch = new ArrayList<>(this.batch);
+			batch.add(this.bindings);
+			return batch;
+		}
+
+		/**
+		 * Execute the statement within a connection scope, applying the given
+		 * function to each {@link Result} as it is emitted by the driver.
+		 */
+		private <T> Flux<T> execute(Function<Result, Publisher<T>> resultFunction) {
+			return inConnectionMany(connection -> {
+				Statement statement = createStatement(connection, this.sql, getBatch());
+				return Flux.from(statement.execute()).concatMap(resultFunction);
+			}, "execute", this.sql);
+		}
+
+
+		/**
+		 * {@link FetchSpec} streaming the results of the enclosing statement.
+		 */
+		private class DefaultFetchSpec<T> implements FetchSpec<T> {
+
+			private final Function<Result, Publisher<T>> resultFunction;
+
+			DefaultFetchSpec(Function<Result, Publisher<T>> resultFunction) {
+				this.resultFunction = resultFunction;
+			}
+
+			@Override
+			public Mono<T> one() {
+				return all().buffer(2).flatMap(list -> {
+					if (list.size() > 1) {
+						return Mono.error(new IncorrectResultSizeDataAccessException(
+								"Query [" + DefaultGenericExecuteSpec.this.sql + "] returned non unique result.", 1));
+					}
+					return Mono.just(list.get(0));
+				}).next();
+			}
+
+			@Override
+			public Mono<T> first() {
+				return all().next();
+			}
+
+			@Override
+			public Flux<T> all() {
+				return execute(this.resultFunction);
+			}
+
+			@Override
+			public Mono<Integer> rowsUpdated() {
+				return execute(Result::getRowsUpdated).collect(Collectors.summingInt(Integer::intValue));
+			}
+		}
+	}
+
+}
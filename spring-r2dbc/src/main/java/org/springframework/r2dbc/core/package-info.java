@@ -0,0 +1,10 @@
+/**
+ * Core R2DBC functionality: the fluent {@code DatabaseClient} API,
+ * with named parameter support and streamed row mapping.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.r2dbc.core;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -0,0 +1,10 @@
+/**
+ * The classes in this package make R2DBC easier to use and
+ * reduce the likelihood of common errors.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.r2dbc;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.connection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link R2dbcTransactionManager} and {@link ConnectionFactoryUtils}.
+ *
+ * @author Spring Framework contributors
+ */
+public class R2dbcTransactionManagerTests {
+
+	private final ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+
+	private final Connection connection = mock(Connection.class);
+
+	private final R2dbcTransactionManager tm = new R2dbcTransactionManager(this.connectionFactory);
+
+
+	@BeforeEach
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void setup() {
+		given(connectionFactory.create()).willReturn((Mono) Mono.just(connection));
+		given(connection.beginTransaction()).willReturn(Mono.empty());
+		given(connection.commitTransaction()).willReturn(Mono.empty());
+		given(connection.rollbackTransaction()).willReturn(Mono.empty());
+		given(connection.close()).willReturn(Mono.empty());
+	}
+
+
+	@Test
+	public void commitTransaction() {
+		AtomicInteger commits = new AtomicInteger();
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.flatMap(con -> TransactionSynchronizationManager.forCurrentTransaction()
+						.doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(
+								new TransactionSynchronization() {
+									@Override
+									public Mono<Void> afterCommit() {
+										commits.incrementAndGet();
+										return Mono.empty();
+									}
+								})).thenReturn(con))
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.expectNext(connection)
+				.verifyComplete();
+
+		assertThat(commits).hasValue(1);
+		verify(connection).beginTransaction();
+		verify(connection).commitTransaction();
+		verify(connection, never()).rollbackTransaction();
+		verify(connection).close();
+	}
+
+	@Test
+	public void rollbackTransaction() {
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.flatMap(con -> Mono.error(new IllegalStateException()))
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.verifyError(IllegalStateException.class);
+
+		verify(connection).beginTransaction();
+		verify(connection).rollbackTransaction();
+		verify(connection, never()).commitTransaction();
+		verify(connection).close();
+	}
+
+	@Test
+	public void connectionReusedWithinTransaction() {
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.flatMap(con -> ConnectionFactoryUtils.getConnection(connectionFactory)
+						.flatMap(other -> ConnectionFactoryUtils.releaseConnection(other, connectionFactory)
+								.thenReturn(other == con)))
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.expectNext(true)
+				.verifyComplete();
+
+		verify(connectionFactory, times(1)).create();
+		verify(connection, times(1)).close();
+	}
+
+	@Test
+	public void applyIsolationLevel() {
+		given(connection.setTransactionIsolationLevel(IsolationLevel.SERIALIZABLE)).willReturn(Mono.empty());
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+		TransactionalOperator operator = TransactionalOperator.create(tm, definition);
+
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.expectNextCount(1)
+				.verifyComplete();
+
+		verify(connection).setTransactionIsolationLevel(IsolationLevel.SERIALIZABLE);
+		verify(connection).commitTransaction();
+	}
+
+	@Test
+	public void beginFailureReleasesConnection() {
+		given(connection.beginTransaction()).willReturn(Mono.error(new R2dbcTimeoutException("timeout")));
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.verifyError(CannotCreateTransactionException.class);
+
+		verify(connection).close();
+		verify(connection, never()).commitTransaction();
+	}
+
+	@Test
+	public void connectionClosedWithoutTransaction() {
+		ConnectionFactoryUtils.getConnection(connectionFactory)
+				.flatMap(con -> ConnectionFactoryUtils.releaseConnection(con, connectionFactory))
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		verify(connection).close();
+		verify(connection, never()).beginTransaction();
+	}
+
+	@Test
+	public void convertR2dbcException() {
+		assertThat(ConnectionFactoryUtils.convertR2dbcException("task", "SELECT", new R2dbcBadGrammarException("bad")))
+				.isInstanceOf(InvalidDataAccessResourceUsageException.class)
+				.hasMessageContaining("SELECT");
+		assertThat(ConnectionFactoryUtils.convertR2dbcException("task", null, new R2dbcTimeoutException("timeout")))
+				.isInstanceOf(QueryTimeoutException.class);
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link DefaultDatabaseClient}.
+ *
+ * @author Spring Framework contributors
+ */
+public class DefaultDatabaseClientTests {
+
+	private final ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+
+	private final Connection connection = mock(Connection.class);
+
+	private final Statement statement = mock(Statement.class);
+
+	private final Result result = mock(Result.class);
+
+	private DatabaseClient databaseClient;
+
+
+	@BeforeEach
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void setup() {
+		ConnectionFactoryMetadata metadata = mock(ConnectionFactoryMetadata.class);
+		given(metadata.getName()).willReturn("PostgreSQL");
+		given(connectionFactory.getMetadata()).willReturn(metadata);
+		given(connectionFactory.create()).willReturn((Mono) Mono.just(connection));
+		given(connection.createStatement(anyString())).willReturn(statement);
+		given(connection.close()).willReturn(Mono.empty());
+		given(statement.execute()).willReturn((Flux) Flux.just(result));
+		databaseClient = DatabaseClient.create(connectionFactory);
+	}
+
+
+	@Test
+	public void expandNamedParameters() {
+		given(result.getRowsUpdated()).willReturn(Mono.just(2));
+
+		databaseClient.sql("UPDATE person SET age = :age WHERE id IN (:ids) AND name = :name")
+				.bind("age", 42)
+				.bind("ids", Arrays.asList(1, 2))
+				.bindNull("name", String.class)
+				.fetch().rowsUpdated()
+				.as(StepVerifier::create)
+				.expectNext(2)
+				.verifyComplete();
+
+		verify(connection).createStatement("UPDATE person SET age = $1 WHERE id IN ($2, $3) AND name = $4");
+		verify(statement).bind(0, 42);
+		verify(statement).bind(1, 1);
+		verify(statement).bind(2, 2);
+		verify(statement).bindNull(3, String.class);
+		verify(connection).close();
+	}
+
+	@Test
+	public void bindByIndex() {
+		given(result.getRowsUpdated()).willReturn(Mono.just(1));
+
+		databaseClient.sql("DELETE FROM person WHERE id = $1")
+				.bind(0, 7)
+				.then()
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		verify(connection).createStatement("DELETE FROM person WHERE id = $1");
+		verify(statement).bind(0, 7);
+	}
+
+	@Test
+	public void bindingsAreImmutable() {
+		given(result.getRowsUpdated()).willReturn(Mono.just(1));
+		DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("DELETE FROM person WHERE id = :id");
+		spec.bind("id", 1);
+
+		spec.bind("id", 2).then()
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		verify(statement).bind(0, 2);
+		verify(statement, times(0)).bind(0, 1);
+	}
+
+	@Test
+	public void rejectMixedBindings() {
+		DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("DELETE FROM person WHERE id = $1 AND name = :name");
+
+		assertThatIllegalStateException().isThrownBy(() -> spec.bind(0, 7).bind("name", "Walter"));
+		assertThatIllegalStateException().isThrownBy(() -> spec.bind("name", "Walter").bindNull(0, Integer.class));
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void executeBatch() {
+		Result result2 = mock(Result.class);
+		given(statement.execute()).willReturn((Flux) Flux.just(result, result2));
+		given(result.getRowsUpdated()).willReturn(Mono.just(1));
+		given(result2.getRowsUpdated()).willReturn(Mono.just(1));
+
+		databaseClient.sql("INSERT INTO person (id, name) VALUES (:id, :name)")
+				.bind("id", 1).bind("name", "Walter").add()
+				.bind("id", 2).bindNull("name", String.class)
+				.fetch().rowsUpdated()
+				.as(StepVerifier::create)
+				.expectNext(2)
+				.verifyComplete();
+
+		InOrder inOrder = inOrder(connection, statement);
+		inOrder.verify(connection).createStatement("INSERT INTO person (id, name) VALUES ($1, $2)");
+		inOrder.verify(statement).bind(0, 1);
+		inOrder.verify(statement).bind(1, "Walter");
+		inOrder.verify(statement).add();
+		inOrder.verify(statement).bind(0, 2);
+		inOrder.verify(statement).bindNull(1, String.class);
+		inOrder.verify(statement).execute();
+		verify(statement, times(1)).add();
+	}
+
+	@Test
+	public void executeBatchWithDifferentExpansion() {
+		databaseClient.sql("DELETE FROM person WHERE id IN (:ids)")
+				.bind("ids", Arrays.asList(1, 2)).add()
+				.bind("ids", Arrays.asList(3, 4, 5))
+				.then()
+				.as(StepVerifier::create)
+				.verifyError(InvalidDataAccessApiUsageException.class);
+	}
+
+	@Test
+	public void addRequiresBindings() {
+		assertThatIllegalStateException().isThrownBy(() ->
+				databaseClient.sql("DELETE FROM person WHERE id = :id").bind("id", 1).add().add());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void streamMappedRows() {
+		Row row1 = mock(Row.class);
+		Row row2 = mock(Row.class);
+		given(row1.get("name", String.class)).willReturn("Walter");
+		given(row2.get("name", String.class)).willReturn("Jesse");
+		RowMetadata metadata = mock(RowMetadata.class);
+		willAnswer(invocation -> {
+			BiFunction<Row, RowMetadata, ?> mappingFunction = invocation.getArgument(0);
+			return Flux.just(mappingFunction.apply(row1, metadata), mappingFunction.apply(row2, metadata));
+		}).given(result).map(any(BiFunction.class));
+
+		databaseClient.sql("SELECT name FROM person")
+				.map(row -> row.get("name", String.class))
+				.all()
+				.as(StepVerifier::create)
+				.expectNext("Walter", "Jesse")
+				.verifyComplete();
+
+		databaseClient.sql("SELECT name FROM person")
+				.map(row -> row.get("name", String.class))
+				.one()
+				.as(StepVerifier::create)
+				.verifyError(IncorrectResultSizeDataAccessException.class);
+
+		verify(connection, times(2)).close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void fetchColumnMap() {
+		Row row = mock(Row.class);
+		given(row.get(0)).willReturn("Walter");
+		RowMetadata metadata = mock(RowMetadata.class);
+		given(metadata.getColumnNames()).willReturn(Arrays.asList("NAME"));
+		willAnswer(invocation -> {
+			BiFunction<Row, RowMetadata, ?> mappingFunction = invocation.getArgument(0);
+			return Flux.just(mappingFunction.apply(row, metadata));
+		}).given(result).map(any(BiFunction.class));
+
+		databaseClient.sql("SELECT name FROM person")
+				.fetch().first()
+				.as(StepVerifier::create)
+				.assertNext(actual -> assertThat(actual).containsEntry("name", "Walter"))
+				.verifyComplete();
+	}
+
+	@Test
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void translateException() {
+		given(statement.execute()).willReturn((Flux) Flux.error(new R2dbcBadGrammarException("bad grammar")));
+
+		databaseClient.sql("SELEKT 1")
+				.then()
+				.as(StepVerifier::create)
+				.expectErrorSatisfies(ex -> assertThat(ex)
+						.isInstanceOf(InvalidDataAccessResourceUsageException.class)
+						.hasMessageContaining("SELEKT 1"))
+				.verify();
+
+		verify(connection).close();
+	}
+
+	@Test
+	public void participateInTransaction() {
+		given(connection.beginTransaction()).willReturn(Mono.empty());
+		given(connection.commitTransaction()).willReturn(Mono.empty());
+		given(result.getRowsUpdated()).willReturn(Mono.just(1));
+		TransactionalOperator operator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+
+		databaseClient.sql("INSERT INTO person (name) VALUES (:name)").bind("name", "Walter").then()
+				.then(databaseClient.sql("INSERT INTO person (name) VALUES (:name)").bind("name", "Jesse").then())
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		verify(connectionFactory).create();
+		verify(connection, times(2)).createStatement("INSERT INTO person (name) VALUES ($1)");
+		verify(connection).commitTransaction();
+		verify(connection).close();
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.r2dbc.core;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Integration tests for {@link DatabaseClient} against an in-memory H2 database.
+ *
+ * @author Spring Framework contributors
+ */
+public class H2DatabaseClientIntegrationTests {
+
+	private ConnectionFactory connectionFactory;
+
+	private DatabaseClient databaseClient;
+
+
+	@BeforeEach
+	public void setup() {
+		this.connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() +
+				"?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+		this.databaseClient = DatabaseClient.create(this.connectionFactory);
+		this.databaseClient.sql("CREATE TABLE person (id INT PRIMARY KEY, name VARCHAR(255))")
+				.then()
+				.as(StepVerifier::create)
+				.verifyComplete();
+	}
+
+
+	@Test
+	public void executeBatch() {
+		this.databaseClient.sql("INSERT INTO person (id, name) VALUES (:id, :name)")
+				.bind("id", 1).bind("name", "Walter").add()
+				.bind("id", 2).bind("name", "Jesse").add()
+				.bind("id", 3).bindNull("name", String.class)
+				.fetch().rowsUpdated()
+				.as(StepVerifier::create)
+				.expectNext(3)
+				.verifyComplete();
+
+		this.databaseClient.sql("SELECT name FROM person WHERE id IN (:ids) ORDER BY id")
+				.bind("ids", Arrays.asList(1, 2))
+				.map(row -> row.get(0, String.class))
+				.all()
+				.as(StepVerifier::create)
+				.expectNext("Walter", "Jesse")
+				.verifyComplete();
+
+		this.databaseClient.sql("SELECT COUNT(*) FROM person WHERE name IS NULL")
+				.map(row -> row.get(0, Long.class))
+				.one()
+				.as(StepVerifier::create)
+				.expectNext(1L)
+				.verifyComplete();
+	}
+
+	@Test
+	public void executeBatchByIndex() {
+		this.databaseClient.sql("INSERT INTO person (id, name) VALUES ($1, $2)")
+				.bind(0, 1).bind(1, "Walter").add()
+				.bind(0, 2).bind(1, "Jesse").add()
+				.fetch().rowsUpdated()
+				.as(StepVerifier::create)
+				.expectNext(2)
+				.verifyComplete();
+
+		this.databaseClient.sql("SELECT COUNT(*) FROM person")
+				.map(row -> row.get(0, Long.class))
+				.one()
+				.as(StepVerifier::create)
+				.expectNext(2L)
+				.verifyComplete();
+	}
+
+	@Test
+	public void rollbackBatch() {
+		TransactionalOperator operator = TransactionalOperator.create(
+				new R2dbcTransactionManager(this.connectionFactory));
+
+		this.databaseClient.sql("INSERT INTO person (id, name) VALUES (:id, :name)")
+				.bind("id", 1).bind("name", "Walter").add()
+				.bind("id", 1).bind("name", "Jesse")
+				.then()
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.verifyError(DataIntegrityViolationException.class);
+
+		this.databaseClient.sql("SELECT COUNT(*) FROM person")
+				.map(row -> row.get(0, Long.class))
+				.one()
+				.as(StepVerifier::create)
+				.expectNext(0L)
+				.verifyComplete();
+	}
+
+}
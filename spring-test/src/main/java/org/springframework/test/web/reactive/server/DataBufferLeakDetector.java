@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.test.web.reactive.server;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.TrackingDataBufferFactory;
+import org.springframework.core.io.buffer.TrackingDataBufferFactory.Allocation;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.reactive.DataBufferTrackingFilter;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+/**
+ * Configurer for a mock server {@link WebTestClient} setup that tracks the
+ * response buffers allocated by the server, and asserts that all of them
+ * have been released, e.g. at the end of each test:
+ *
+ * <pre class="code">
+ * DataBufferLeakDetector leakDetector = new DataBufferLeakDetector();
+ *
+ * WebTestClient client = WebTestClient.bindToController(new TestController())
+ *     .apply(leakDetector)
+ *     .build();
+ *
+ * // ...
+ *
+ * leakDetector.assertNoLeaks();
+ * </pre>
+ *
+ * <p>For tests against a live server, register a {@link DataBufferTrackingFilter}
+ * with the server's application instead, and use a detector for the same
+ * {@link TrackingDataBufferFactory} for assertions.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see TrackingDataBufferFactory
+ * @see DataBufferTrackingFilter
+ */
+public class DataBufferLeakDetector implements MockServerConfigurer, WebTestClientConfigurer {
+
+	private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+
+	private final TrackingDataBufferFactory bufferFactory;
+
+
+	/**
+	 * Create a new detector that tracks heap buffers allocated through a
+	 * {@link DefaultDataBufferFactory}.
+	 */
+	public DataBufferLeakDetector() {
+		this(new TrackingDataBufferFactory(new DefaultDataBufferFactory()));
+	}
+
+	/**
+	 * Create a new detector for the given factory.
+	 * @param bufferFactory the factory to track allocations with
+	 */
+	public DataBufferLeakDetector(TrackingDataBufferFactory bufferFactory) {
+		Assert.notNull(bufferFactory, "TrackingDataBufferFactory must not be null");
+		this.bufferFactory = bufferFactory;
+	}
+
+
+	/**
+	 * Return the factory that allocations are tracked with.
+	 */
+	public TrackingDataBufferFactory getBufferFactory() {
+		return this.bufferFactory;
+	}
+
+	@Override
+	public void beforeServerCreated(WebHttpHandlerBuilder builder) {
+		registerFilter(builder);
+	}
+
+	@Override
+	public void afterConfigurerAdded(WebTestClient.Builder builder,
+			@Nullable WebHttpHandlerBuilder httpHandlerBuilder, @Nullable ClientHttpConnector connector) {
+
+		if (httpHandlerBuilder != null) {
+			registerFilter(httpHandlerBuilder);
+		}
+	}
+
+	private void registerFilter(WebHttpHandlerBuilder builder) {
+		builder.filters(filters -> {
+			if (filters.stream().noneMatch(filter -> filter instanceof DataBufferTrackingFilter)) {
+				filters.add(0, new DataBufferTrackingFilter(this.bufferFactory));
+			}
+		});
+	}
+
+	/**
+	 * Assert that all buffers allocated so far have been released, waiting
+	 * up to 5 seconds for buffers that are still in flight.
+	 * @throws AssertionError if there are buffers that have not been released
+	 */
+	public void assertNoLeaks() {
+		assertNoLeaks(DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * Assert that all buffers allocated so far have been released, waiting
+	 * up to the given timeout for buffers that are still in flight.
+	 * <p>The allocation sites of leaked buffers, if recorded, are attached
+	 * to the {@code AssertionError} as suppressed exceptions.
+	 * @param timeout how long to wait for buffers to be released
+	 * @throws AssertionError if there are buffers that have not been released
+	 */
+	public void assertNoLeaks(Duration timeout) {
+		long deadline = System.currentTimeMillis() + timeout.toMillis();
+		List<Allocation> leaks = this.bufferFactory.getLiveAllocations();
+		while (!leaks.isEmpty() && System.currentTimeMillis() < deadline) {
+			try {
+				Thread.sleep(50);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			leaks = this.bufferFactory.getLiveAllocations();
+		}
+		if (leaks.isEmpty()) {
+			return;
+		}
+		StringBuilder message = new StringBuilder();
+		message.append(leaks.size()).append(" DataBuffer leak(s) detected:");
+		for (Allocation leak : leaks) {
+			message.append("\n\t").append(leak);
+		}
+		AssertionError error = new AssertionError(message.toString());
+		for (Allocation leak : leaks) {
+			Throwable allocationSite = leak.getAllocationSite();
+			if (allocationSite != null) {
+				error.addSuppressed(allocationSite);
+			}
+		}
+		throw error;
+	}
+
+	/**
+	 * Stop tracking all buffers allocated so far, e.g. between tests.
+	 * @see TrackingDataBufferFactory#reset()
+	 */
+	public void reset() {
+		this.bufferFactory.reset();
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.test.web.reactive.server;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests for {@link DataBufferLeakDetector}.
+ *
+ * @since 5.2.12
+ */
+class DataBufferLeakDetectorTests {
+
+	private final DataBufferLeakDetector leakDetector = new DataBufferLeakDetector();
+
+
+	@Test
+	void releasedBuffers() {
+		WebTestClient client = WebTestClient.bindToWebHandler(exchange -> {
+			DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+			DataBuffer buffer = bufferFactory.allocateBuffer().write("foo", StandardCharsets.UTF_8);
+			return exchange.getResponse().writeWith(Mono.just(buffer));
+		}).apply(this.leakDetector).configureClient().build();
+
+		client.get().uri("/").exchange().expectBody(String.class).isEqualTo("foo");
+
+		assertThat(this.leakDetector.getBufferFactory().getAllocationCount()).isGreaterThan(0);
+		this.leakDetector.assertNoLeaks();
+	}
+
+	@Test
+	void leakedBuffer() {
+		WebTestClient client = WebTestClient.bindToWebHandler(exchange -> {
+			exchange.getResponse().bufferFactory().allocateBuffer();
+			return exchange.getResponse().setComplete();
+		}).apply(this.leakDetector).configureClient().build();
+
+		client.get().uri("/").exchange().expectStatus().isOk();
+
+		assertThatExceptionOfType(AssertionError.class)
+				.isThrownBy(() -> this.leakDetector.assertNoLeaks(Duration.ofMillis(100)))
+				.withMessageContaining("1 DataBuffer leak(s) detected")
+				.satisfies(error -> assertThat(error.getSuppressed()).hasSize(1));
+
+		this.leakDetector.reset();
+		this.leakDetector.assertNoLeaks();
+	}
+
+}
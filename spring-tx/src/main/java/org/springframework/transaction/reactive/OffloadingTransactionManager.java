@@ -0,0 +1,411 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * {@link org.springframework.transaction.ReactiveTransactionManager} that adapts
+ * a blocking {@link PlatformTransactionManager} for use in reactive pipelines,
+ * typically driven through a {@link TransactionalOperator}.
+ *
+ * <p>Blocking transaction managers keep their resources (such as the JDBC
+ * {@code Connection} of a {@code DataSourceTransactionManager}) bound to the
+ * current thread, which is lost when each blocking call is offloaded separately
+ * through {@code Mono.fromCallable(...).subscribeOn(...)}. This adapter instead
+ * pins each reactive transaction to a dedicated worker thread: the blocking
+ * transaction is begun, committed or rolled back on that worker, and all work
+ * submitted through {@link #execute} or {@link #executeMany} within the
+ * transaction runs on the very same thread, so that {@code JdbcTemplate} and
+ * {@code TransactionTemplate} code sees the transactional resources as usual:
+ *
+ * <pre class="code">
+ * OffloadingTransactionManager tm = new OffloadingTransactionManager(new DataSourceTransactionManager(dataSource));
+ * TransactionalOperator operator = TransactionalOperator.create(tm);
+ *
+ * tm.execute(() -&gt; jdbcTemplate.update("UPDATE account SET balance = balance - 10 WHERE id = 1"))
+ *     .then(tm.execute(() -&gt; jdbcTemplate.update("UPDATE account SET balance = balance + 10 WHERE id = 2")))
+ *     .as(operator::transactional);
+ * </pre>
+ *
+ * <p>Work submitted outside of a transaction runs on the task executor directly;
+ * a complete {@code TransactionTemplate} unit of work can therefore also be
+ * offloaded as a single {@code execute} call without a reactive transaction.
+ *
+ * <p>By default, workers run on virtual threads when the JVM supports them,
+ * and on a cached pool of daemon threads otherwise. A custom {@link Executor}
+ * must be able to run one long-lived worker per concurrent transaction:
+ * a bounded pool limits the number of concurrent transactions accordingly.
+ *
+ * <p>Each reactive transaction gets its own worker and hence its own blocking
+ * transaction: {@code PROPAGATION_REQUIRES_NEW} suspends the outer transaction
+ * along with its worker, while participating transactions share the worker.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see TransactionalOperator
+ * @see PlatformTransactionManager
+ */
+@SuppressWarnings("serial")
+public class OffloadingTransactionManager extends AbstractReactiveTransactionManager implements DisposableBean {
+
+	private final PlatformTransactionManager transactionManager;
+
+	private final Executor taskExecutor;
+
+	@Nullable
+	private final ExecutorService defaultExecutor;
+
+
+	/**
+	 * Create a new {@code OffloadingTransactionManager} for the given blocking
+	 * transaction manager, running workers on virtual threads if available.
+	 * @param transactionManager the blocking transaction manager to adapt
+	 */
+	public OffloadingTransactionManager(PlatformTransactionManager transactionManager) {
+		Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+		ExecutorService defaultExecutor = createDefaultExecutor();
+		this.transactionManager = transactionManager;
+		this.defaultExecutor = defaultExecutor;
+		this.taskExecutor = defaultExecutor;
+	}
+
+	/**
+	 * Create a new {@code OffloadingTransactionManager} for the given blocking
+	 * transaction manager, running workers on the given executor.
+	 * @param transactionManager the blocking transaction manager to adapt
+	 * @param taskExecutor the executor to run transaction workers and
+	 * non-transactional work on
+	 */
+	public OffloadingTransactionManager(PlatformTransactionManager transactionManager, Executor taskExecutor) {
+		Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+		Assert.notNull(taskExecutor, "Executor must not be null");
+		this.transactionManager = transactionManager;
+		this.defaultExecutor = null;
+		this.taskExecutor = taskExecutor;
+	}
+
+
+	/**
+	 * Return the blocking transaction manager that this adapter delegates to.
+	 */
+	public PlatformTransactionManager getTransactionManager() {
+		return this.transactionManager;
+	}
+
+	/**
+	 * Return the executor that transaction workers and non-transactional work run on.
+	 */
+	public Executor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+
+	/**
+	 * Run the given blocking action on the worker of the current reactive transaction,
+	 * or on the task executor if no transaction is active.
+	 * @param action the blocking action, e.g. a {@code JdbcTemplate} call
+	 * @return a {@link Mono} emitting the result of the action,
+	 * or completing empty for a {@code null} result
+	 */
+	public <T> Mono<T> execute(Callable<T> action) {
+		Assert.notNull(action, "Callable must not be null");
+		return currentExecutor().flatMap(executor -> submit(executor, action));
+	}
+
+	/**
+	 * Run the given blocking action on the worker of the current reactive transaction,
+	 * or on the task executor if no transaction is active, emitting the elements
+	 * of the resulting {@link Iterable}.
+	 * @param action the blocking action, e.g. a {@code JdbcTemplate} query
+	 * @return a {@link Flux} emitting the elements of the result
+	 */
+	public <T> Flux<T> executeMany(Callable<? extends Iterable<T>> action) {
+		Assert.notNull(action, "Callable must not be null");
+		return this.<Iterable<T>>execute(action::call).flatMapMany(Flux::fromIterable);
+	}
+
+	private Mono<Executor> currentExecutor() {
+		return TransactionSynchronizationManager.forCurrentTransaction()
+				.map(synchronizationManager -> {
+					WorkerHolder holder = (WorkerHolder) synchronizationManager.getResource(this);
+					return (holder != null ? (Executor) holder.getWorker() : this.taskExecutor);
+				})
+				.onErrorResume(NoTransactionException.class, ex -> Mono.just(this.taskExecutor));
+	}
+
+	/**
+	 * Shut down the default executor, if created by this transaction manager.
+	 */
+	@Override
+	public void destroy() {
+		if (this.defaultExecutor != null) {
+			this.defaultExecutor.shutdown();
+		}
+	}
+
+
+	@Override
+	protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+		OffloadingTransactionObject txObject = new OffloadingTransactionObject();
+		txObject.setWorkerHolder((WorkerHolder) synchronizationManager.getResource(this));
+		return txObject;
+	}
+
+	@Override
+	protected boolean isExistingTransaction(Object transaction) {
+		return ((OffloadingTransactionObject) transaction).hasWorkerHolder();
+	}
+
+	@Override
+	protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+			TransactionDefinition definition) {
+
+		OffloadingTransactionObject txObject = (OffloadingTransactionObject) transaction;
+
+		return Mono.defer(() -> {
+			Worker worker = new Worker();
+			this.taskExecutor.execute(worker);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Started worker for transaction [" + definition.getName() + "]");
+			}
+			AtomicReference<TransactionStatus> obtainedStatus = new AtomicReference<>();
+			return submit(worker, () -> {
+						TransactionStatus status = this.transactionManager.getTransaction(definition);
+						obtainedStatus.set(status);
+						return status;
+					})
+					.doOnNext(status -> {
+						WorkerHolder holder = new WorkerHolder(worker, status);
+						txObject.setWorkerHolder(holder);
+						synchronizationManager.bindResource(this, holder);
+					})
+					.doOnError(ex -> worker.shutdown())
+					.doOnCancel(() -> {
+						// Queued behind getTransaction: roll back whatever it obtained on the same thread.
+						worker.execute(() -> {
+							TransactionStatus status = obtainedStatus.get();
+							if (status != null && !status.isCompleted()) {
+								try {
+									this.transactionManager.rollback(status);
+								}
+								catch (Throwable ex) {
+									logger.debug("Failed to roll back transaction after cancellation", ex);
+								}
+							}
+						});
+						worker.shutdown();
+					})
+					.then();
+		});
+	}
+
+	@Override
+	protected Mono<Object> doSuspend(TransactionSynchronizationManager synchronizationManager, Object transaction) {
+		return Mono.defer(() -> {
+			((OffloadingTransactionObject) transaction).setWorkerHolder(null);
+			return Mono.justOrEmpty(synchronizationManager.unbindResource(this));
+		});
+	}
+
+	@Override
+	protected Mono<Void> doResume(TransactionSynchronizationManager synchronizationManager,
+			@Nullable Object transaction, Object suspendedResources) {
+
+		return Mono.fromRunnable(() -> synchronizationManager.bindResource(this, suspendedResources));
+	}
+
+	@Override
+	protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		WorkerHolder holder = ((OffloadingTransactionObject) status.getTransaction()).getWorkerHolder();
+		return submit(holder.getWorker(), () -> {
+			this.transactionManager.commit(holder.getTransactionStatus());
+			return null;
+		}).then();
+	}
+
+	@Override
+	protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		WorkerHolder holder = ((OffloadingTransactionObject) status.getTransaction()).getWorkerHolder();
+		return submit(holder.getWorker(), () -> {
+			this.transactionManager.rollback(holder.getTransactionStatus());
+			return null;
+		}).then();
+	}
+
+	@Override
+	protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		return Mono.fromRunnable(() -> ((OffloadingTransactionObject) status.getTransaction())
+				.getWorkerHolder().getTransactionStatus().setRollbackOnly());
+	}
+
+	@Override
+	protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+			Object transaction) {
+
+		return Mono.fromRunnable(() -> {
+			synchronizationManager.unbindResourceIfPossible(this);
+			((OffloadingTransactionObject) transaction).getWorkerHolder().getWorker().shutdown();
+		});
+	}
+
+
+	private static <T> Mono<T> submit(Executor executor, Callable<T> action) {
+		return Mono.create(sink -> executor.execute(() -> {
+			try {
+				sink.success(action.call());
+			}
+			catch (Throwable ex) {
+				sink.error(ex);
+			}
+		}));
+	}
+
+	private static ExecutorService createDefaultExecutor() {
+		Method factoryMethod = ClassUtils.getStaticMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+		if (factoryMethod != null) {
+			try {
+				return (ExecutorService) factoryMethod.invoke(null);
+			}
+			catch (ReflectiveOperationException | RuntimeException ex) {
+				// Virtual threads available as preview feature only -> fall back to platform threads.
+			}
+		}
+		CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("offloading-tx-");
+		threadCreator.setDaemon(true);
+		return Executors.newCachedThreadPool(threadCreator::createThread);
+	}
+
+
+	/**
+	 * Single-threaded executor that keeps running on one thread of the task
+	 * executor until shut down, so that all tasks of a transaction see the
+	 * same thread-bound resources.
+	 */
+	private static class Worker implements Executor, Runnable {
+
+		private static final Runnable SHUTDOWN = () -> {};
+
+		private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+
+		private volatile boolean shutdown;
+
+		@Override
+		public void execute(Runnable task) {
+			if (this.shutdown) {
+				throw new RejectedExecutionException("Transaction worker has already been shut down");
+			}
+			this.tasks.add(task);
+		}
+
+		@Override
+		public void run() {
+			try {
+				Runnable task = this.tasks.take();
+				while (task != SHUTDOWN) {
+					task.run();
+					task = this.tasks.take();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		public void shutdown() {
+			this.shutdown = true;
+			this.tasks.add(SHUTDOWN);
+		}
+	}
+
+
+	/**
+	 * Holder for the worker of a reactive transaction and the status of the
+	 * blocking transaction running on it, bound to the transaction context.
+	 */
+	private static class WorkerHolder {
+
+		private final Worker worker;
+
+		private final TransactionStatus transactionStatus;
+
+		public WorkerHolder(Worker worker, TransactionStatus transactionStatus) {
+			this.worker = worker;
+			this.transactionStatus = transactionStatus;
+		}
+
+		public Worker getWorker() {
+			return this.worker;
+		}
+
+		public TransactionStatus getTransactionStatus() {
+			return this.transactionStatus;
+		}
+	}
+
+
+	/**
+	 * Transaction object, representing a WorkerHolder.
+	 * Used as transaction object by OffloadingTransactionManager.
+	 */
+	private static class OffloadingTransactionObject {
+
+		@Nullable
+		private WorkerHolder workerHolder;
+
+		public void setWorkerHolder(@Nullable WorkerHolder workerHolder) {
+			this.workerHolder = workerHolder;
+		}
+
+		public WorkerHolder getWorkerHolder() {
+			Assert.state(this.workerHolder != null, "No WorkerHolder available");
+			return this.workerHolder;
+		}
+
+		public boolean hasWorkerHolder() {
+			return (this.workerHolder != null);
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.testfixture.CallCountingTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OffloadingTransactionManager}.
+ *
+ * @author Spring Framework contributors
+ */
+public class OffloadingTransactionManagerTests {
+
+	private final CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+
+	private final OffloadingTransactionManager tm = new OffloadingTransactionManager(this.ptm);
+
+
+	@AfterEach
+	public void shutdown() {
+		this.tm.destroy();
+	}
+
+
+	@Test
+	public void pinTransactionToSingleWorker() {
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		tm.execute(() -> {
+			worker.set(Thread.currentThread());
+			bindBlockingResource("key", "value");
+			return isBlockingTransactionActive();
+		}).flatMap(active -> tm.execute(() -> active && Thread.currentThread() == worker.get() &&
+				"value".equals(unbindBlockingResource("key"))))
+				.as(operator::transactional)
+				.as(StepVerifier::create)
+				.expectNext(true)
+				.verifyComplete();
+
+		assertThat(worker.get()).isNotSameAs(Thread.currentThread());
+		assertThat(ptm.begun).isEqualTo(1);
+		assertThat(ptm.commits).isEqualTo(1);
+		assertThat(ptm.inflight).isEqualTo(0);
+	}
+
+	@Test
+	public void rollbackOnError() {
+		TransactionalOperator operator = TransactionalOperator.create(tm);
+
+		tm.execute(() -> {
+			throw new IllegalStateException("failure");
+		}).as(operator::transactional)
+				.as(StepVerifier::create)
+				.verifyError(IllegalStateException.class);
+
+		assertThat(ptm.begun).isEqualTo(1);
+		assertThat(ptm.commits).isEqualTo(0);
+		assertThat(ptm.rollbacks).isEqualTo(1);
+	}
+
+	@Test
+	public void requiresNewUsesSeparateWorker() {
+		AtomicReference<Thread> outer = new AtomicReference<>();
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		TransactionalOperator requiresNew = TransactionalOperator.create(tm, definition);
+
+		tm.execute(() -> {
+			outer.set(Thread.currentThread());
+			return true;
+		}).then(tm.execute(() -> Thread.currentThread() != outer.get()).as(requiresNew::transactional))
+				.flatMap(separate -> tm.execute(() -> separate && Thread.currentThread() == outer.get()))
+				.as(TransactionalOperator.create(tm)::transactional)
+				.as(StepVerifier::create)
+				.expectNext(true)
+				.verifyComplete();
+
+		assertThat(ptm.begun).isEqualTo(2);
+		assertThat(ptm.commits).isEqualTo(2);
+	}
+
+	@Test
+	public void executeWithoutTransaction() {
+		tm.executeMany(() -> Arrays.asList(1, 2, 3))
+				.as(StepVerifier::create)
+				.expectNext(1, 2, 3)
+				.verifyComplete();
+
+		Mono.fromCallable(Thread::currentThread)
+				.flatMap(caller -> tm.execute(() -> Thread.currentThread() != caller &&
+						!isBlockingTransactionActive()))
+				.as(StepVerifier::create)
+				.expectNext(true)
+				.verifyComplete();
+
+		assertThat(ptm.begun).isEqualTo(0);
+	}
+
+	@Test
+	public void rollbackOnCancelDuringBegin() throws InterruptedException {
+		CountDownLatch beginLatch = new CountDownLatch(1);
+		CountDownLatch rollbackLatch = new CountDownLatch(1);
+		CallCountingTransactionManager slowPtm = new CallCountingTransactionManager() {
+			@Override
+			protected void doBegin(Object transaction, TransactionDefinition definition) {
+				super.doBegin(transaction, definition);
+				try {
+					beginLatch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			protected void doRollback(DefaultTransactionStatus status) {
+				super.doRollback(status);
+				rollbackLatch.countDown();
+			}
+		};
+		OffloadingTransactionManager slowTm = new OffloadingTransactionManager(slowPtm);
+		try {
+			slowTm.execute(() -> true)
+					.as(TransactionalOperator.create(slowTm)::transactional)
+					.as(StepVerifier::create)
+					.thenCancel()
+					.verify();
+			beginLatch.countDown();
+
+			assertThat(rollbackLatch.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(slowPtm.begun).isEqualTo(1);
+			assertThat(slowPtm.commits).isEqualTo(0);
+			assertThat(slowPtm.rollbacks).isEqualTo(1);
+			assertThat(slowPtm.inflight).isEqualTo(0);
+		}
+		finally {
+			slowTm.destroy();
+		}
+	}
+
+
+	private static void bindBlockingResource(Object key, Object value) {
+		org.springframework.transaction.support.TransactionSynchronizationManager.bindResource(key, value);
+	}
+
+	private static Object unbindBlockingResource(Object key) {
+		return org.springframework.transaction.support.TransactionSynchronizationManager.unbindResource(key);
+	}
+
+	private static boolean isBlockingTransactionActive() {
+		return org.springframework.transaction.support.TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+}
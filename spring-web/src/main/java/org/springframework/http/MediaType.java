@@ -30,6 +30,7 @@ import java.util.Map;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
@@ -369,6 +370,9 @@ public class MediaType extends MimeType implements Serializable {
 
 	private static final String PARAM_QUALITY_FACTOR = "q";
 
+	private static final ConcurrentLruCache<String, MediaType> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, MediaType::parseMediaTypeInternal);
+
 
 	static {
 		// Not using "valueOf' to avoid static init cost
@@ -573,11 +577,20 @@ public class MediaType extends MimeType implements Serializable {
 
 	/**
 	 * Parse the given String into a single {@code MediaType}.
+	 * Recently parsed {@code MediaType} instances are cached for further retrieval.
 	 * @param mediaType the string to parse
 	 * @return the media type
 	 * @throws InvalidMediaTypeException if the media type value cannot be parsed
 	 */
 	public static MediaType parseMediaType(String mediaType) {
+		// do not cache empty values, nor multipart media types with random boundaries
+		if (!StringUtils.hasLength(mediaType) || mediaType.startsWith("multipart")) {
+			return parseMediaTypeInternal(mediaType);
+		}
+		return cachedMediaTypes.get(mediaType);
+	}
+
+	private static MediaType parseMediaTypeInternal(String mediaType) {
 		MimeType type;
 		try {
 			type = MimeTypeUtils.parseMimeType(mediaType);
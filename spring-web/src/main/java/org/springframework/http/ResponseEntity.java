@@ -24,6 +24,7 @@ import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -467,6 +468,32 @@ public class ResponseEntity<T> extends HttpEntity<T> {
 		 * @return the built response entity
 		 */
 		<T> ResponseEntity<T> body(@Nullable T body);
+
+		/**
+		 * Set a supplier for the body of the response entity and return it.
+		 * The supplier is invoked when the body is first accessed, and not at
+		 * all if the response turns out to be not modified, as determined
+		 * from the {@code ETag} or {@code Last-Modified} header of the entity
+		 * and the conditional headers of the request. This allows a version
+		 * check to replace loading and rendering of an unchanged resource:
+		 * <pre class="code">
+		 * return ResponseEntity.ok()
+		 *     .eTag(repository.getVersion(id))
+		 *     .lazyBody(() -&gt; repository.load(id));
+		 * </pre>
+		 * <p>Entities with a lazy body are only equal to themselves.
+		 * <p>The default implementation invokes the supplier right away and
+		 * delegates to {@link #body(Object)}, for builders that do not support
+		 * lazy bodies.
+		 * @param <T> the type of the body
+		 * @param bodySupplier the supplier for the body of the response entity
+		 * @return the built response entity
+		 * @since 5.2.12
+		 */
+		default <T> ResponseEntity<T> lazyBody(Supplier<? extends T> bodySupplier) {
+			Assert.notNull(bodySupplier, "Body supplier must not be null");
+			return body(bodySupplier.get());
+		}
 	}
 
 
@@ -577,6 +604,56 @@ public class ResponseEntity<T> extends HttpEntity<T> {
 		public <T> ResponseEntity<T> body(@Nullable T body) {
 			return new ResponseEntity<>(body, this.headers, this.statusCode);
 		}
+
+		@Override
+		public <T> ResponseEntity<T> lazyBody(Supplier<? extends T> bodySupplier) {
+			Assert.notNull(bodySupplier, "Body supplier must not be null");
+			return new LazyBodyResponseEntity<>(bodySupplier, this.headers, this.statusCode);
+		}
+	}
+
+
+	/**
+	 * {@code ResponseEntity} that obtains its body from a supplier on first access.
+	 */
+	private static class LazyBodyResponseEntity<T> extends ResponseEntity<T> {
+
+		private final Supplier<? extends T> bodySupplier;
+
+		@Nullable
+		private T body;
+
+		private boolean bodyResolved;
+
+		LazyBodyResponseEntity(Supplier<? extends T> bodySupplier, MultiValueMap<String, String> headers, Object status) {
+			super(null, headers, status);
+			this.bodySupplier = bodySupplier;
+		}
+
+		@Override
+		@Nullable
+		public T getBody() {
+			if (!this.bodyResolved) {
+				this.body = this.bodySupplier.get();
+				this.bodyResolved = true;
+			}
+			return this.body;
+		}
+
+		@Override
+		public boolean hasBody() {
+			return (getBody() != null);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return (this == other);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
 	}
 
 }
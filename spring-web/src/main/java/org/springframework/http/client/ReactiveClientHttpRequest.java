@@ -0,0 +1,299 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpRequest} implementation that executes the request through
+ * a reactive {@link ClientHttpConnector}.
+ *
+ * <p>Created via the {@link ReactiveClientHttpRequestFactory}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see ReactiveClientHttpRequestFactory#createRequest(URI, HttpMethod)
+ */
+final class ReactiveClientHttpRequest extends AbstractClientHttpRequest implements StreamingHttpOutputMessage {
+
+	private static final int CHUNK_SIZE = 8192;
+
+
+	private final ClientHttpConnector connector;
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	@Nullable
+	private final Duration readTimeout;
+
+	private final Scheduler blockingOperationScheduler;
+
+	@Nullable
+	private Body body;
+
+	@Nullable
+	private ByteArrayOutputStream bufferedOutput;
+
+
+	ReactiveClientHttpRequest(ClientHttpConnector connector, HttpMethod method, URI uri,
+			@Nullable Duration readTimeout, Scheduler blockingOperationScheduler) {
+
+		this.connector = connector;
+		this.method = method;
+		this.uri = uri;
+		this.readTimeout = readTimeout;
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String getMethodValue() {
+		return this.method.name();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) {
+		if (this.bufferedOutput == null) {
+			this.bufferedOutput = new ByteArrayOutputStream(1024);
+		}
+		return this.bufferedOutput;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		Mono<org.springframework.http.client.reactive.ClientHttpResponse> responseMono =
+				this.connector.connect(this.method, this.uri, request -> {
+					request.getHeaders().putAll(headers);
+					if (this.body != null) {
+						return request.writeWith(writeBody(this.body, request.bufferFactory()));
+					}
+					else if (this.bufferedOutput != null && this.bufferedOutput.size() > 0) {
+						byte[] bytes = this.bufferedOutput.toByteArray();
+						return request.writeWith(Mono.fromCallable(() -> request.bufferFactory().wrap(bytes)));
+					}
+					else {
+						return request.setComplete();
+					}
+				});
+		if (this.readTimeout != null) {
+			responseMono = responseMono.timeout(this.readTimeout);
+		}
+		try {
+			org.springframework.http.client.reactive.ClientHttpResponse response = responseMono.block();
+			if (response == null) {
+				throw new IOException("Connector completed without response for " + this.method + " " + this.uri);
+			}
+			return new ReactiveClientHttpResponse(response, this.readTimeout);
+		}
+		catch (RuntimeException ex) {
+			Throwable cause = Exceptions.unwrap(ex);
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else if (cause instanceof TimeoutException) {
+				throw new SocketTimeoutException("Read timed out after " + this.readTimeout);
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * Write the given streaming body on the blocking operation scheduler,
+	 * emitting chunks of it as they are written and requested.
+	 */
+	private Flux<DataBuffer> writeBody(Body body, DataBufferFactory bufferFactory) {
+		return Flux.create(sink -> {
+			SinkOutputStream outputStream = new SinkOutputStream(sink, bufferFactory);
+			sink.onRequest(n -> outputStream.demandChanged());
+			sink.onDispose(outputStream::demandChanged);
+			this.blockingOperationScheduler.schedule(() -> {
+				try {
+					body.writeTo(outputStream);
+					outputStream.close();
+					sink.complete();
+				}
+				catch (Throwable ex) {
+					outputStream.discard();
+					sink.error(ex);
+				}
+			});
+		});
+	}
+
+
+	/**
+	 * {@link OutputStream} that emits what is written to it as chunks to a
+	 * {@link FluxSink}, blocking the writer while there is no demand.
+	 */
+	private static final class SinkOutputStream extends OutputStream {
+
+		private final FluxSink<DataBuffer> sink;
+
+		private final DataBufferFactory bufferFactory;
+
+		@Nullable
+		private DataBuffer buffer;
+
+		private boolean closed;
+
+		SinkOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory bufferFactory) {
+			this.sink = sink;
+			this.bufferFactory = bufferFactory;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			assertOpen();
+			DataBuffer buffer = getBuffer();
+			buffer.write((byte) b);
+			if (buffer.writableByteCount() == 0) {
+				emit();
+			}
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			assertOpen();
+			while (length > 0) {
+				DataBuffer buffer = getBuffer();
+				int count = Math.min(length, buffer.writableByteCount());
+				buffer.write(bytes, offset, count);
+				offset += count;
+				length -= count;
+				if (buffer.writableByteCount() == 0) {
+					emit();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			assertOpen();
+			if (this.buffer != null && this.buffer.readableByteCount() > 0) {
+				emit();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				flush();
+				this.closed = true;
+			}
+		}
+
+		private void assertOpen() throws IOException {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+		}
+
+		private DataBuffer getBuffer() {
+			DataBuffer buffer = this.buffer;
+			if (buffer == null) {
+				buffer = this.bufferFactory.allocateBuffer(CHUNK_SIZE);
+				this.buffer = buffer;
+			}
+			return buffer;
+		}
+
+		private void emit() throws IOException {
+			DataBuffer buffer = this.buffer;
+			if (buffer == null) {
+				return;
+			}
+			this.buffer = null;
+			try {
+				awaitDemand();
+			}
+			catch (IOException ex) {
+				DataBufferUtils.release(buffer);
+				throw ex;
+			}
+			this.sink.next(buffer);
+		}
+
+		private synchronized void awaitDemand() throws IOException {
+			try {
+				while (this.sink.requestedFromDownstream() == 0 && !this.sink.isCancelled()) {
+					wait();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while writing request body");
+			}
+			if (this.sink.isCancelled()) {
+				throw new IOException("Request body write cancelled");
+			}
+		}
+
+		synchronized void demandChanged() {
+			notifyAll();
+		}
+
+		void discard() {
+			DataBuffer buffer = this.buffer;
+			if (buffer != null) {
+				this.buffer = null;
+				DataBufferUtils.release(buffer);
+			}
+			this.closed = true;
+		}
+	}
+
+}
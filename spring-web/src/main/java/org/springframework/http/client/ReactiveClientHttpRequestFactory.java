@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.time.Duration;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation that executes requests
+ * through a reactive {@link ClientHttpConnector}, allowing the
+ * {@code RestTemplate} to share the connection pool, and where supported
+ * HTTP/2 multiplexing, of the HTTP client behind that connector.
+ *
+ * <p>For example, with Reactor Netty, HTTP/2 can be enabled through
+ * {@code HttpClient.create().protocol(HttpProtocol.H2, HttpProtocol.HTTP11)}
+ * passed to the
+ * {@link org.springframework.http.client.reactive.ReactorClientHttpConnector}.
+ *
+ * <p>Request bodies written through
+ * {@link org.springframework.http.StreamingHttpOutputMessage} are streamed,
+ * as are all response bodies. The request body is written on the
+ * {@link #setBlockingOperationScheduler blocking operation scheduler}, while
+ * the caller blocks until the response status and headers are received.
+ * This factory must therefore not be used on a non-blocking thread.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class ReactiveClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	private final ClientHttpConnector connector;
+
+	@Nullable
+	private Duration readTimeout;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+
+	/**
+	 * Create a factory with the given {@link ClientHttpConnector}.
+	 * @param connector the connector to execute requests with
+	 */
+	public ReactiveClientHttpRequestFactory(ClientHttpConnector connector) {
+		Assert.notNull(connector, "ClientHttpConnector must not be null");
+		this.connector = connector;
+	}
+
+
+	/**
+	 * Set the maximum time to wait for the response status and headers, and
+	 * for each chunk of the response body.
+	 * <p>By default, this is not set, and the timeouts configured on the
+	 * underlying HTTP client apply.
+	 */
+	public void setReadTimeout(@Nullable Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for writing streamed
+	 * request bodies to the connector.
+	 * <p>By default, {@link Schedulers#boundedElastic()} is used.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "BlockingOperationScheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+		return new ReactiveClientHttpRequest(
+				this.connector, httpMethod, uri, this.readTimeout, this.blockingOperationScheduler);
+	}
+
+}
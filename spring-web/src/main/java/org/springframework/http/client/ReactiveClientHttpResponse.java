@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpResponse} implementation that adapts the response of a
+ * reactive {@link org.springframework.http.client.reactive.ClientHttpConnector},
+ * streaming its body one buffer at a time.
+ *
+ * <p>Created via the {@link ReactiveClientHttpRequest}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+final class ReactiveClientHttpResponse extends AbstractClientHttpResponse {
+
+	private final org.springframework.http.client.reactive.ClientHttpResponse response;
+
+	@Nullable
+	private final Duration readTimeout;
+
+	@Nullable
+	private BodyInputStream body;
+
+
+	ReactiveClientHttpResponse(org.springframework.http.client.reactive.ClientHttpResponse response,
+			@Nullable Duration readTimeout) {
+
+		this.response = response;
+		this.readTimeout = readTimeout;
+	}
+
+
+	@Override
+	public int getRawStatusCode() {
+		return this.response.getRawStatusCode();
+	}
+
+	@Override
+	public String getStatusText() {
+		HttpStatus status = HttpStatus.resolve(getRawStatusCode());
+		return (status != null ? status.getReasonPhrase() : "");
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.response.getHeaders();
+	}
+
+	@Override
+	public InputStream getBody() {
+		BodyInputStream body = this.body;
+		if (body == null) {
+			body = new BodyInputStream(this.response.getBody(), this.readTimeout);
+			this.body = body;
+		}
+		return body;
+	}
+
+	@Override
+	public void close() {
+		// Consume the remaining body in the background, allowing the connection to be reused
+		((BodyInputStream) getBody()).close();
+	}
+
+
+	/**
+	 * {@link InputStream} over a {@code Publisher<DataBuffer>}, requesting
+	 * the next buffer only once the previous one has been read.
+	 */
+	private static final class BodyInputStream extends InputStream {
+
+		private static final Object COMPLETE = new Object();
+
+		private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+		private final BodySubscriber subscriber = new BodySubscriber();
+
+		@Nullable
+		private final Duration readTimeout;
+
+		@Nullable
+		private DataBuffer current;
+
+		private boolean done;
+
+		private volatile boolean closed;
+
+		BodyInputStream(Publisher<DataBuffer> body, @Nullable Duration readTimeout) {
+			this.readTimeout = readTimeout;
+			body.subscribe(this.subscriber);
+		}
+
+		@Override
+		public int read() throws IOException {
+			DataBuffer buffer = getCurrent();
+			return (buffer != null ? buffer.read() & 0xFF : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			DataBuffer buffer = getCurrent();
+			if (buffer == null) {
+				return -1;
+			}
+			int count = Math.min(length, buffer.readableByteCount());
+			buffer.read(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			DataBuffer buffer = this.current;
+			return (buffer != null ? buffer.readableByteCount() : 0);
+		}
+
+		@Override
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			releaseCurrent();
+			releaseSignals();
+			if (!this.done) {
+				this.subscriber.drain();
+			}
+		}
+
+		@Nullable
+		private DataBuffer getCurrent() throws IOException {
+			if (this.closed) {
+				throw new IOException("Stream closed");
+			}
+			DataBuffer buffer = this.current;
+			while (buffer == null || buffer.readableByteCount() == 0) {
+				if (buffer != null) {
+					releaseCurrent();
+					this.subscriber.request(1);
+				}
+				if (this.done) {
+					return null;
+				}
+				Object signal = takeSignal();
+				if (signal == COMPLETE) {
+					this.done = true;
+					return null;
+				}
+				else if (signal instanceof Throwable) {
+					this.done = true;
+					Throwable ex = (Throwable) signal;
+					throw (ex instanceof IOException ? (IOException) ex : new IOException(ex.getMessage(), ex));
+				}
+				buffer = (DataBuffer) signal;
+				this.current = buffer;
+			}
+			return buffer;
+		}
+
+		private Object takeSignal() throws IOException {
+			try {
+				if (this.readTimeout == null) {
+					return this.signals.take();
+				}
+				Object signal = this.signals.poll(this.readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+				if (signal == null) {
+					this.done = true;
+					this.subscriber.cancel();
+					throw new SocketTimeoutException("Read timed out after " + this.readTimeout);
+				}
+				return signal;
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while reading response body");
+			}
+		}
+
+		private void releaseCurrent() {
+			DataBuffer buffer = this.current;
+			if (buffer != null) {
+				this.current = null;
+				DataBufferUtils.release(buffer);
+			}
+		}
+
+		private void releaseSignals() {
+			Object signal;
+			while ((signal = this.signals.poll()) != null) {
+				if (signal instanceof DataBuffer) {
+					DataBufferUtils.release((DataBuffer) signal);
+				}
+			}
+		}
+
+
+		private final class BodySubscriber extends BaseSubscriber<DataBuffer> {
+
+			@Override
+			protected void hookOnSubscribe(Subscription subscription) {
+				subscription.request(1);
+			}
+
+			@Override
+			protected void hookOnNext(DataBuffer buffer) {
+				if (BodyInputStream.this.closed) {
+					DataBufferUtils.release(buffer);
+					return;
+				}
+				BodyInputStream.this.signals.add(buffer);
+				if (BodyInputStream.this.closed) {
+					releaseSignals();
+				}
+			}
+
+			@Override
+			protected void hookOnComplete() {
+				BodyInputStream.this.signals.add(COMPLETE);
+			}
+
+			@Override
+			protected void hookOnError(Throwable throwable) {
+				BodyInputStream.this.signals.add(throwable);
+			}
+
+			void drain() {
+				request(Long.MAX_VALUE);
+			}
+		}
+	}
+
+}
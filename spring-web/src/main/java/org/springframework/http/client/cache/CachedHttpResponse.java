@@ -0,0 +1,394 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A response held in an {@link HttpCacheStore}, along with the values of the
+ * request headers it varies on and the time it was received, from which its
+ * freshness is derived as per RFC 7234.
+ *
+ * <p>Since the client is a private cache, {@code s-maxage} is ignored, while
+ * responses marked {@code private} are cached. No heuristic freshness is
+ * applied: responses without {@code max-age} or {@code Expires} are only
+ * cached if they carry an {@code ETag} or {@code Last-Modified} validator,
+ * and are then revalidated on every use.
+ *
+ * <p>The body is kept as a byte array that is shared by all responses served
+ * from the cache, and must not be modified.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public final class CachedHttpResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Set<Integer> CACHEABLE_STATUS_CODES = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList(200, 203, 300, 301, 308, 404, 410)));
+
+	private static final Set<HttpMethod> UNSAFE_METHODS = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE)));
+
+	/** Headers of a 304 response that must not replace those of the stored response. */
+	private static final Set<String> CONTENT_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			"content-length", "content-encoding", "content-range", "transfer-encoding")));
+
+
+	private final int statusCode;
+
+	private final HttpHeaders headers;
+
+	private final byte[] body;
+
+	private final Map<String, List<String>> varyValues;
+
+	private final long requestTime;
+
+	private final long responseTime;
+
+
+	/**
+	 * Create a new cached response.
+	 * @param statusCode the response status code
+	 * @param headers the response headers
+	 * @param body the response body, which is not copied
+	 * @param requestHeaders the headers of the request, from which the values
+	 * of the headers named in {@code Vary} are retained
+	 * @param requestTime the time the request was sent, in milliseconds
+	 * @param responseTime the time the response was received, in milliseconds
+	 */
+	public CachedHttpResponse(int statusCode, HttpHeaders headers, byte[] body,
+			HttpHeaders requestHeaders, long requestTime, long responseTime) {
+
+		Assert.notNull(headers, "Headers must not be null");
+		Assert.notNull(body, "Body must not be null");
+		Assert.notNull(requestHeaders, "Request headers must not be null");
+		this.statusCode = statusCode;
+		this.headers = new HttpHeaders();
+		this.headers.putAll(headers);
+		this.body = body;
+		this.varyValues = new HashMap<>();
+		for (String name : headers.getVary()) {
+			List<String> values = requestHeaders.get(name);
+			this.varyValues.put(name.toLowerCase(Locale.ENGLISH),
+					(values != null ? values : Collections.emptyList()));
+		}
+		this.requestTime = requestTime;
+		this.responseTime = responseTime;
+	}
+
+	private CachedHttpResponse(CachedHttpResponse original, HttpHeaders headers, long requestTime, long responseTime) {
+		this.statusCode = original.statusCode;
+		this.headers = headers;
+		this.body = original.body;
+		this.varyValues = original.varyValues;
+		this.requestTime = requestTime;
+		this.responseTime = responseTime;
+	}
+
+
+	/**
+	 * Return the response status code.
+	 */
+	public int getStatusCode() {
+		return this.statusCode;
+	}
+
+	/**
+	 * Return the response headers, as a read-only view.
+	 */
+	public HttpHeaders getHeaders() {
+		return HttpHeaders.readOnlyHttpHeaders(this.headers);
+	}
+
+	/**
+	 * Return the response body, which is shared and must not be modified.
+	 */
+	public byte[] getBody() {
+		return this.body;
+	}
+
+	/**
+	 * Return the time the request for this response was sent, in milliseconds.
+	 */
+	public long getRequestTime() {
+		return this.requestTime;
+	}
+
+	/**
+	 * Return the time this response was received, in milliseconds.
+	 */
+	public long getResponseTime() {
+		return this.responseTime;
+	}
+
+
+	/**
+	 * Whether this response was stored for a request with the same values
+	 * for the headers named in its {@code Vary} header as the given request.
+	 * @param requestHeaders the headers of the request to serve
+	 */
+	public boolean matches(HttpHeaders requestHeaders) {
+		for (Map.Entry<String, List<String>> entry : this.varyValues.entrySet()) {
+			List<String> values = requestHeaders.get(entry.getKey());
+			if (!ObjectUtils.nullSafeEquals(entry.getValue(), (values != null ? values : Collections.emptyList()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return the current age of this response in milliseconds, taking into
+	 * account its {@code Date} and {@code Age} headers.
+	 * @param now the current time in milliseconds
+	 */
+	public long getAge(long now) {
+		long apparentAge = 0;
+		long date = getDate(HttpHeaders.DATE);
+		if (date != -1) {
+			apparentAge = Math.max(0, this.responseTime - date);
+		}
+		long ageValue = 0;
+		String age = this.headers.getFirst(HttpHeaders.AGE);
+		if (StringUtils.hasText(age)) {
+			try {
+				ageValue = Long.parseLong(age.trim()) * 1000;
+			}
+			catch (NumberFormatException ex) {
+				// Ignore invalid Age header
+			}
+		}
+		long correctedAge = Math.max(apparentAge, ageValue + (this.responseTime - this.requestTime));
+		return correctedAge + Math.max(0, now - this.responseTime);
+	}
+
+	/**
+	 * Return the freshness lifetime of this response in milliseconds, derived
+	 * from {@code max-age}, or otherwise from {@code Expires} and {@code Date}.
+	 */
+	public long getFreshnessLifetime() {
+		Map<String, String> directives = parseCacheControl(this.headers);
+		long maxAge = getSeconds(directives, "max-age");
+		if (maxAge != -1) {
+			return maxAge * 1000;
+		}
+		long expires = getDate(HttpHeaders.EXPIRES);
+		if (expires != -1) {
+			long date = getDate(HttpHeaders.DATE);
+			return Math.max(0, expires - (date != -1 ? date : this.responseTime));
+		}
+		return 0;
+	}
+
+	/**
+	 * Whether this response may be served to the given request without
+	 * revalidation.
+	 * @param requestHeaders the headers of the request to serve
+	 * @param now the current time in milliseconds
+	 */
+	public boolean isFresh(HttpHeaders requestHeaders, long now) {
+		Map<String, String> requestDirectives = parseCacheControl(requestHeaders);
+		if (requestDirectives.containsKey("no-cache") || "no-cache".equals(requestHeaders.getPragma())) {
+			return false;
+		}
+		if (parseCacheControl(this.headers).containsKey("no-cache")) {
+			return false;
+		}
+		long age = getAge(now);
+		long maxAge = getSeconds(requestDirectives, "max-age");
+		if (maxAge != -1 && age > maxAge * 1000) {
+			return false;
+		}
+		return (age < getFreshnessLifetime());
+	}
+
+	/**
+	 * Whether this response is stale, but may still be served to the given
+	 * request while it is revalidated in the background, as permitted by the
+	 * {@code stale-while-revalidate} directive of the response.
+	 * @param requestHeaders the headers of the request to serve
+	 * @param now the current time in milliseconds
+	 */
+	public boolean isStaleWhileRevalidate(HttpHeaders requestHeaders, long now) {
+		Map<String, String> directives = parseCacheControl(this.headers);
+		if (directives.containsKey("no-cache") || directives.containsKey("must-revalidate") ||
+				parseCacheControl(requestHeaders).containsKey("no-cache")) {
+			return false;
+		}
+		long staleWhileRevalidate = getSeconds(directives, "stale-while-revalidate");
+		return (staleWhileRevalidate > 0 &&
+				getAge(now) < getFreshnessLifetime() + staleWhileRevalidate * 1000);
+	}
+
+	/**
+	 * Whether this response has an {@code ETag} or {@code Last-Modified}
+	 * validator, with which it can be revalidated.
+	 */
+	public boolean hasValidators() {
+		return (this.headers.getETag() != null || this.headers.containsKey(HttpHeaders.LAST_MODIFIED));
+	}
+
+	/**
+	 * Add {@code If-None-Match} or {@code If-Modified-Since} conditions for
+	 * the validators of this response to the given request headers.
+	 * @param requestHeaders the headers of the request to revalidate with
+	 */
+	public void addConditionalHeaders(HttpHeaders requestHeaders) {
+		String etag = this.headers.getETag();
+		if (etag != null) {
+			requestHeaders.setIfNoneMatch(etag);
+		}
+		else {
+			String lastModified = this.headers.getFirst(HttpHeaders.LAST_MODIFIED);
+			if (lastModified != null) {
+				requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+			}
+		}
+	}
+
+	/**
+	 * Return a copy of this response updated with the headers of a
+	 * {@code 304 Not Modified} response to a revalidation request.
+	 * @param notModifiedHeaders the headers of the 304 response
+	 * @param requestTime the time the revalidation request was sent
+	 * @param responseTime the time the 304 response was received
+	 */
+	public CachedHttpResponse revalidated(HttpHeaders notModifiedHeaders, long requestTime, long responseTime) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(this.headers);
+		notModifiedHeaders.forEach((name, values) -> {
+			if (!CONTENT_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) {
+				headers.put(name, values);
+			}
+		});
+		return new CachedHttpResponse(this, headers, requestTime, responseTime);
+	}
+
+
+	private long getDate(String headerName) {
+		try {
+			return this.headers.getFirstDate(headerName);
+		}
+		catch (IllegalArgumentException ex) {
+			// Treat an invalid date like an absent one
+			return -1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CachedHttpResponse[" + this.statusCode + ", " + this.body.length + " bytes]";
+	}
+
+
+	/**
+	 * Whether a request may be served from the cache: only {@code GET}
+	 * requests without {@code no-store}, and without conditions or ranges
+	 * of their own, are.
+	 * @param method the request method
+	 * @param requestHeaders the request headers
+	 */
+	public static boolean isCacheableRequest(@Nullable HttpMethod method, HttpHeaders requestHeaders) {
+		return (method == HttpMethod.GET &&
+				!parseCacheControl(requestHeaders).containsKey("no-store") &&
+				!requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) &&
+				!requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE) &&
+				!requestHeaders.containsKey(HttpHeaders.RANGE));
+	}
+
+	/**
+	 * Whether a response may be stored: it must have a cacheable status,
+	 * must not be marked {@code no-store} or vary on all request headers,
+	 * and must have an explicit freshness lifetime or a validator.
+	 * @param statusCode the response status code
+	 * @param headers the response headers
+	 */
+	public static boolean isCacheableResponse(int statusCode, HttpHeaders headers) {
+		if (!CACHEABLE_STATUS_CODES.contains(statusCode)) {
+			return false;
+		}
+		Map<String, String> directives = parseCacheControl(headers);
+		if (directives.containsKey("no-store") || headers.getVary().contains("*")) {
+			return false;
+		}
+		return (directives.containsKey("max-age") || headers.containsKey(HttpHeaders.EXPIRES) ||
+				headers.getETag() != null || headers.containsKey(HttpHeaders.LAST_MODIFIED));
+	}
+
+	/**
+	 * Whether a successful request with the given method invalidates the
+	 * response stored for its URI.
+	 * @param method the request method
+	 */
+	public static boolean isInvalidatingRequest(@Nullable HttpMethod method) {
+		return (method != null && UNSAFE_METHODS.contains(method));
+	}
+
+	private static Map<String, String> parseCacheControl(HttpHeaders headers) {
+		List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+		if (values == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> directives = new HashMap<>();
+		for (String value : values) {
+			for (String directive : StringUtils.tokenizeToStringArray(value, ",")) {
+				int index = directive.indexOf('=');
+				if (index == -1) {
+					directives.put(directive.toLowerCase(Locale.ENGLISH), "");
+				}
+				else {
+					String name = directive.substring(0, index).trim().toLowerCase(Locale.ENGLISH);
+					directives.put(name, StringUtils.trimTrailingCharacter(
+							StringUtils.trimLeadingCharacter(directive.substring(index + 1).trim(), '"'), '"'));
+				}
+			}
+		}
+		return directives;
+	}
+
+	private static long getSeconds(Map<String, String> directives, String name) {
+		String value = directives.get(name);
+		if (StringUtils.hasText(value)) {
+			try {
+				return Math.max(0, Long.parseLong(value));
+			}
+			catch (NumberFormatException ex) {
+				// Ignore invalid directive value
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpLogging;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that serves {@code GET} requests from
+ * an {@link HttpCacheStore} while the stored response is fresh, and otherwise
+ * revalidates it with {@code If-None-Match} or {@code If-Modified-Since}.
+ *
+ * <p>Cacheable responses are stored once their body has been read to the end,
+ * or up to the {@code Content-Length}, as long as it does not exceed the
+ * {@link #setMaxBodySize maximum body size}. A body that is closed before it
+ * has been read to the end, as some message converters do, is drained first.
+ * Successful {@code POST}, {@code PUT}, {@code PATCH} and {@code DELETE}
+ * requests evict the response stored for their URI.
+ *
+ * <p>Stale responses that allow {@code stale-while-revalidate} are served
+ * right away and revalidated in the background, if
+ * {@link #setAsyncRevalidation asynchronous revalidation} is configured.
+ * Otherwise they are revalidated before the request completes.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see CachedHttpResponse
+ */
+public class CachingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Log logger = HttpLogging.forLogName(CachingClientHttpRequestInterceptor.class);
+
+
+	private final HttpCacheStore store;
+
+	private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+	private int maxBodySize = 1024 * 1024;
+
+	@Nullable
+	private ClientHttpRequestFactory revalidationRequestFactory;
+
+	@Nullable
+	private Executor revalidationExecutor;
+
+
+	/**
+	 * Create an interceptor that stores responses in the given store.
+	 * @param store the store for cached responses
+	 */
+	public CachingClientHttpRequestInterceptor(HttpCacheStore store) {
+		Assert.notNull(store, "HttpCacheStore must not be null");
+		this.store = store;
+	}
+
+
+	/**
+	 * Set the maximum size of a response body to be stored, in bytes.
+	 * <p>By default this is set to 1MB.
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	/**
+	 * Enable serving stale responses that allow {@code stale-while-revalidate},
+	 * while revalidating them in the background with requests created by the
+	 * given factory, on the given executor.
+	 * <p>The factory is typically the one the {@code RestTemplate} itself
+	 * uses, without this interceptor.
+	 * @param requestFactory the factory for revalidation requests
+	 * @param executor the executor to revalidate on
+	 */
+	public void setAsyncRevalidation(ClientHttpRequestFactory requestFactory, Executor executor) {
+		Assert.notNull(requestFactory, "ClientHttpRequestFactory must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		this.revalidationRequestFactory = requestFactory;
+		this.revalidationExecutor = executor;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+
+		HttpMethod method = request.getMethod();
+		String key = request.getURI().toString();
+
+		if (!CachedHttpResponse.isCacheableRequest(method, request.getHeaders())) {
+			ClientHttpResponse response = execution.execute(request, body);
+			if (CachedHttpResponse.isInvalidatingRequest(method) && response.getRawStatusCode() < 400) {
+				this.store.evict(key);
+			}
+			return response;
+		}
+
+		CachedHttpResponse cached = this.store.get(key);
+		if (cached != null && cached.matches(request.getHeaders())) {
+			long now = System.currentTimeMillis();
+			if (cached.isFresh(request.getHeaders(), now)) {
+				return new CachedClientHttpResponse(cached);
+			}
+			if (this.revalidationExecutor != null && cached.isStaleWhileRevalidate(request.getHeaders(), now)) {
+				revalidateAsync(request, key, cached);
+				return new CachedClientHttpResponse(cached);
+			}
+			if (cached.hasValidators()) {
+				cached.addConditionalHeaders(request.getHeaders());
+			}
+		}
+		else {
+			cached = null;
+		}
+
+		long requestTime = System.currentTimeMillis();
+		ClientHttpResponse response = execution.execute(request, body);
+		long responseTime = System.currentTimeMillis();
+
+		if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+			CachedHttpResponse revalidated = cached.revalidated(response.getHeaders(), requestTime, responseTime);
+			response.close();
+			this.store.put(key, revalidated);
+			return new CachedClientHttpResponse(revalidated);
+		}
+		if (isStorable(response)) {
+			return new StoringClientHttpResponse(response, key, request.getHeaders(), requestTime, responseTime);
+		}
+		return response;
+	}
+
+	private boolean isStorable(ClientHttpResponse response) throws IOException {
+		return (CachedHttpResponse.isCacheableResponse(response.getRawStatusCode(), response.getHeaders()) &&
+				response.getHeaders().getContentLength() <= this.maxBodySize);
+	}
+
+	private void revalidateAsync(HttpRequest request, String key, CachedHttpResponse cached) {
+		Assert.state(this.revalidationExecutor != null, "No revalidation executor");
+		if (!this.revalidating.add(key)) {
+			return;
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.getHeaders());
+		try {
+			this.revalidationExecutor.execute(() -> {
+				try {
+					revalidate(request, headers, key, cached);
+				}
+				catch (Throwable ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Revalidation of " + key + " failed: " + ex);
+					}
+				}
+				finally {
+					this.revalidating.remove(key);
+				}
+			});
+		}
+		catch (RuntimeException ex) {
+			this.revalidating.remove(key);
+			throw ex;
+		}
+	}
+
+	private void revalidate(HttpRequest request, HttpHeaders headers, String key, CachedHttpResponse cached)
+			throws IOException {
+
+		Assert.state(this.revalidationRequestFactory != null, "No revalidation request factory");
+		ClientHttpRequest revalidation = this.revalidationRequestFactory.createRequest(request.getURI(), HttpMethod.GET);
+		revalidation.getHeaders().putAll(headers);
+		if (cached.hasValidators()) {
+			cached.addConditionalHeaders(revalidation.getHeaders());
+		}
+		long requestTime = System.currentTimeMillis();
+		try (ClientHttpResponse response = revalidation.execute()) {
+			long responseTime = System.currentTimeMillis();
+			if (response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+				this.store.put(key, cached.revalidated(response.getHeaders(), requestTime, responseTime));
+			}
+			else if (isStorable(response)) {
+				byte[] body = StreamUtils.copyToByteArray(response.getBody());
+				if (body.length <= this.maxBodySize) {
+					this.store.put(key, new CachedHttpResponse(response.getRawStatusCode(), response.getHeaders(),
+							body, revalidation.getHeaders(), requestTime, responseTime));
+				}
+			}
+			else {
+				this.store.evict(key);
+			}
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} served from a {@link CachedHttpResponse}.
+	 */
+	private static final class CachedClientHttpResponse implements ClientHttpResponse {
+
+		private final CachedHttpResponse response;
+
+		CachedClientHttpResponse(CachedHttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() {
+			return HttpStatus.valueOf(this.response.getStatusCode());
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return this.response.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() {
+			HttpStatus status = HttpStatus.resolve(this.response.getStatusCode());
+			return (status != null ? status.getReasonPhrase() : "");
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.response.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.response.getBody());
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} wrapper that copies the body as it is read,
+	 * and stores the response once the end of the body is reached.
+	 */
+	private final class StoringClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		private final String key;
+
+		private final HttpHeaders requestHeaders;
+
+		private final long requestTime;
+
+		private final long responseTime;
+
+		@Nullable
+		private InputStream body;
+
+		StoringClientHttpResponse(ClientHttpResponse delegate, String key, HttpHeaders requestHeaders,
+				long requestTime, long responseTime) {
+
+			this.delegate = delegate;
+			this.key = key;
+			this.requestHeaders = requestHeaders;
+			this.requestTime = requestTime;
+			this.responseTime = responseTime;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return this.delegate.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return this.delegate.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if (this.body == null) {
+				this.body = new StoringInputStream(this.delegate.getBody(), getHeaders().getContentLength());
+			}
+			return this.body;
+		}
+
+		@Override
+		public void close() {
+			this.delegate.close();
+		}
+
+		void store(byte[] body) throws IOException {
+			CachingClientHttpRequestInterceptor.this.store.put(this.key, new CachedHttpResponse(getRawStatusCode(),
+					getHeaders(), body, this.requestHeaders, this.requestTime, this.responseTime));
+		}
+
+
+		private final class StoringInputStream extends InputStream {
+
+			private final InputStream delegate;
+
+			private final long contentLength;
+
+			@Nullable
+			private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+			StoringInputStream(InputStream delegate, long contentLength) {
+				this.delegate = delegate;
+				this.contentLength = contentLength;
+			}
+
+			@Override
+			public int read() throws IOException {
+				int b = this.delegate.read();
+				if (b == -1) {
+					complete();
+				}
+				else if (this.copy != null) {
+					this.copy.write(b);
+					copied();
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length) throws IOException {
+				int count = this.delegate.read(bytes, offset, length);
+				if (count == -1) {
+					complete();
+				}
+				else if (this.copy != null) {
+					this.copy.write(bytes, offset, count);
+					copied();
+				}
+				return count;
+			}
+
+			@Override
+			public int available() throws IOException {
+				return this.delegate.available();
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					drain();
+				}
+				finally {
+					this.copy = null;
+					this.delegate.close();
+				}
+			}
+
+			private void copied() throws IOException {
+				if (this.copy != null) {
+					if (this.copy.size() > CachingClientHttpRequestInterceptor.this.maxBodySize) {
+						this.copy = null;
+					}
+					else if (this.copy.size() == this.contentLength) {
+						complete();
+					}
+				}
+			}
+
+			/**
+			 * Read the rest of the body, up to the maximum body size, so that
+			 * it can be stored even if the caller did not read it to the end.
+			 */
+			private void drain() {
+				byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+				try {
+					while (this.copy != null) {
+						read(buffer, 0, buffer.length);
+					}
+				}
+				catch (IOException ex) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Could not read the rest of the body for " +
+								StoringClientHttpResponse.this.key + ": " + ex);
+					}
+				}
+			}
+
+			private void complete() throws IOException {
+				ByteArrayOutputStream copy = this.copy;
+				if (copy != null) {
+					this.copy = null;
+					store(copy.toByteArray());
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Contract for the storage of {@link CachedHttpResponse cached responses},
+ * keyed by request URI.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see InMemoryHttpCacheStore
+ * @see SpringCacheHttpCacheStore
+ */
+public interface HttpCacheStore {
+
+	/**
+	 * Return the response stored for the given key, if any.
+	 * @param key the cache key
+	 * @return the stored response, or {@code null} if none
+	 */
+	@Nullable
+	CachedHttpResponse get(String key);
+
+	/**
+	 * Store the given response, replacing any response stored for the key.
+	 * @param key the cache key
+	 * @param response the response to store
+	 */
+	void put(String key, CachedHttpResponse response);
+
+	/**
+	 * Remove the response stored for the given key, if any.
+	 * @param key the cache key
+	 */
+	void evict(String key);
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link HttpCacheStore} that keeps responses in memory, evicting the least
+ * recently used response once the given number of entries is exceeded.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class InMemoryHttpCacheStore implements HttpCacheStore {
+
+	private final Map<String, CachedHttpResponse> responses;
+
+
+	/**
+	 * Create a store with the given maximum number of entries.
+	 * @param maxEntries the maximum number of responses to keep
+	 */
+	public InMemoryHttpCacheStore(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "Max entries must be positive");
+		this.responses = new LinkedHashMap<String, CachedHttpResponse>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedHttpResponse> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+
+	@Override
+	@Nullable
+	public CachedHttpResponse get(String key) {
+		synchronized (this.responses) {
+			return this.responses.get(key);
+		}
+	}
+
+	@Override
+	public void put(String key, CachedHttpResponse response) {
+		synchronized (this.responses) {
+			this.responses.put(key, response);
+		}
+	}
+
+	@Override
+	public void evict(String key) {
+		synchronized (this.responses) {
+			this.responses.remove(key);
+		}
+	}
+
+	/**
+	 * Return the number of responses currently stored.
+	 */
+	public int size() {
+		synchronized (this.responses) {
+			return this.responses.size();
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link HttpCacheStore} that delegates to a Spring {@link Cache}, e.g. one
+ * obtained from the application's {@link org.springframework.cache.CacheManager}.
+ *
+ * <p>{@link CachedHttpResponse} is {@link java.io.Serializable}, so that it may
+ * also be stored in a cache outside of the current process.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class SpringCacheHttpCacheStore implements HttpCacheStore {
+
+	private final Cache cache;
+
+
+	/**
+	 * Create a store that delegates to the given {@link Cache}.
+	 * @param cache the cache to store responses in
+	 */
+	public SpringCacheHttpCacheStore(Cache cache) {
+		Assert.notNull(cache, "Cache must not be null");
+		this.cache = cache;
+	}
+
+
+	@Override
+	@Nullable
+	public CachedHttpResponse get(String key) {
+		return this.cache.get(key, CachedHttpResponse.class);
+	}
+
+	@Override
+	public void put(String key, CachedHttpResponse response) {
+		this.cache.put(key, response);
+	}
+
+	@Override
+	public void evict(String key) {
+		this.cache.evict(key);
+	}
+
+}
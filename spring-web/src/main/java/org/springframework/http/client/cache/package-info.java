@@ -0,0 +1,11 @@
+/**
+ * HTTP response caching for client requests, with a pluggable store
+ * shared between the {@code RestTemplate} interceptor and the
+ * {@code WebClient} filter.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.http.client.cache;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -92,6 +92,22 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Set the minimum content length of a file-based {@code Resource} to be
+	 * read through memory mapping, for responses that do not support
+	 * {@link ZeroCopyHttpOutputMessage zero-copy} transfers.
+	 * <p>By default this is set to -1, never using memory mapping.
+	 * @param memoryMappedThreshold the threshold in bytes, or -1 to disable
+	 * @since 5.2.12
+	 * @see ResourceEncoder#setMemoryMappedThreshold
+	 * @see ResourceRegionEncoder#setMemoryMappedThreshold
+	 */
+	public void setMemoryMappedThreshold(long memoryMappedThreshold) {
+		this.encoder.setMemoryMappedThreshold(memoryMappedThreshold);
+		this.regionEncoder.setMemoryMappedThreshold(memoryMappedThreshold);
+	}
+
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
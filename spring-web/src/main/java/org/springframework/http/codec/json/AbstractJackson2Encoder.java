@@ -19,6 +19,7 @@ package org.springframework.http.codec.json;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +38,7 @@ import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ResolvableType;
@@ -86,6 +88,10 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 	private final List<MediaType> streamingMediaTypes = new ArrayList<>(1);
 
+	private int streamingBufferSize = -1;
+
+	private Duration streamingFlushInterval = Duration.ofMillis(50);
+
 
 	/**
 	 * Constructor with a Jackson {@link ObjectMapper} to use.
@@ -107,6 +113,52 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		this.streamingMediaTypes.addAll(mediaTypes);
 	}
 
+	/**
+	 * Configure the size, in bytes, up to which consecutive values of a
+	 * {@link #setStreamingMediaTypes streaming} response are written into a
+	 * single buffer. Each buffer is flushed as a whole, so larger values
+	 * result in fewer and larger writes, at the expense of latency bounded
+	 * by the {@link #setStreamingFlushInterval flush interval}.
+	 * <p>By default this is set to -1, in which case each value is written
+	 * to, and flushed as, a separate buffer.
+	 * @param byteCount the buffer size in bytes, or -1 to disable coalescing
+	 * @since 5.2.12
+	 */
+	public void setStreamingBufferSize(int byteCount) {
+		this.streamingBufferSize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setStreamingBufferSize configured} streaming buffer size.
+	 * @since 5.2.12
+	 */
+	public int getStreamingBufferSize() {
+		return this.streamingBufferSize;
+	}
+
+	/**
+	 * Configure the maximum amount of time that a value of a streaming
+	 * response is held back in order to be coalesced with subsequent values.
+	 * Only applies if a {@link #setStreamingBufferSize streaming buffer size}
+	 * is configured.
+	 * <p>By default this is set to 50 milliseconds.
+	 * @param interval the maximum latency added to streamed values
+	 * @since 5.2.12
+	 */
+	public void setStreamingFlushInterval(Duration interval) {
+		Assert.notNull(interval, "Interval must not be null");
+		Assert.isTrue(!interval.isNegative(), "Interval must not be negative");
+		this.streamingFlushInterval = interval;
+	}
+
+	/**
+	 * Return the {@link #setStreamingFlushInterval configured} streaming flush interval.
+	 * @since 5.2.12
+	 */
+	public Duration getStreamingFlushInterval() {
+		return this.streamingFlushInterval;
+	}
+
 
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -140,29 +192,45 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		else {
 			byte[] separator = streamSeparator(mimeType);
 			if (separator != null) { // streaming
-				try {
+				// Generator and byte builder are reused for all values of a subscription
+				return Flux.defer(() -> {
 					ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
 					ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
-					JsonEncoding encoding = getJsonEncoding(mimeType);
-					JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
-					SequenceWriter sequenceWriter = writer.writeValues(generator);
-
-					return Flux.from(inputStream)
-							.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter, byteBuilder,
-									separator))
-							.doAfterTerminate(() -> {
-								try {
-									byteBuilder.release();
-									generator.close();
-								}
-								catch (IOException ex) {
-									logger.error("Could not close Encoder resources", ex);
-								}
-							});
-				}
-				catch (IOException ex) {
-					return Flux.error(ex);
-				}
+					JsonGenerator generator;
+					SequenceWriter sequenceWriter;
+					try {
+						JsonEncoding encoding = getJsonEncoding(mimeType);
+						generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
+						sequenceWriter = writer.writeValues(generator);
+					}
+					catch (IOException ex) {
+						byteBuilder.release();
+						return Flux.error(ex);
+					}
+
+					Flux<DataBuffer> result;
+					if (this.streamingBufferSize > 0) {
+						result = DataBufferCoalescer.coalesce(inputStream,
+								(value, buffer) -> writeStreamingValue(value, buffer, hints, sequenceWriter,
+										byteBuilder, separator),
+								bufferFactory, this.streamingBufferSize, this.streamingFlushInterval,
+								Schedulers.parallel());
+					}
+					else {
+						result = Flux.from(inputStream)
+								.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter,
+										byteBuilder, separator));
+					}
+					return result.doFinally(signalType -> {
+						try {
+							byteBuilder.release();
+							generator.close();
+						}
+						catch (IOException ex) {
+							logger.error("Could not close Encoder resources", ex);
+						}
+					});
+				});
 			}
 			else { // non-streaming
 				ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
@@ -214,6 +282,27 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
 			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
 
+		byte[] bytes = serializeStreamingValue(value, hints, sequenceWriter, byteArrayBuilder);
+		int offset = streamingValueOffset(bytes);
+		DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length - offset + separator.length);
+		buffer.write(bytes, offset, bytes.length - offset);
+		buffer.write(separator);
+
+		return buffer;
+	}
+
+	private void writeStreamingValue(Object value, DataBuffer buffer, @Nullable Map<String, Object> hints,
+			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
+
+		byte[] bytes = serializeStreamingValue(value, hints, sequenceWriter, byteArrayBuilder);
+		int offset = streamingValueOffset(bytes);
+		buffer.write(bytes, offset, bytes.length - offset);
+		buffer.write(separator);
+	}
+
+	private byte[] serializeStreamingValue(Object value, @Nullable Map<String, Object> hints,
+			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder) {
+
 		logValue(hints, value);
 
 		try {
@@ -232,23 +321,12 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 
 		byte[] bytes = byteArrayBuilder.toByteArray();
 		byteArrayBuilder.reset();
+		return bytes;
+	}
 
-		int offset;
-		int length;
-		if (bytes.length > 0 && bytes[0] == ' ') {
-			// SequenceWriter writes an unnecessary space in between values
-			offset = 1;
-			length = bytes.length - 1;
-		}
-		else {
-			offset = 0;
-			length = bytes.length;
-		}
-		DataBuffer buffer = bufferFactory.allocateBuffer(length + separator.length);
-		buffer.write(bytes, offset, length);
-		buffer.write(separator);
-
-		return buffer;
+	private static int streamingValueOffset(byte[] bytes) {
+		// SequenceWriter writes an unnecessary space in between values
+		return (bytes.length > 0 && bytes[0] == ' ' ? 1 : 0);
 	}
 
 	private void logValue(@Nullable Map<String, Object> hints, Object value) {
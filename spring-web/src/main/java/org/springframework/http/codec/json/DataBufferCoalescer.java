@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+/**
+ * Writes consecutive elements of a stream into a shared {@link DataBuffer},
+ * emitting that buffer once it reaches a given size, once a given latency
+ * budget has passed since its first element was written, or once the stream
+ * completes. Used by {@link AbstractJackson2Encoder} to reduce the number of
+ * buffers, and therefore flushes, for streams of many small values.
+ *
+ * <p>Elements are requested one at a time from upstream for as long as the
+ * current buffer is not full, regardless of downstream demand; once it is
+ * full, no further elements are requested until the buffer has been emitted.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @param <T> the type of stream element
+ */
+final class DataBufferCoalescer<T> extends BaseSubscriber<T> {
+
+	private final FluxSink<DataBuffer> sink;
+
+	private final BiConsumer<T, DataBuffer> writer;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final int maxBufferSize;
+
+	private final Duration maxLatency;
+
+	private final Scheduler scheduler;
+
+	@Nullable
+	private DataBuffer pending;
+
+	@Nullable
+	private Disposable flushTask;
+
+	private boolean flushDue;
+
+	private boolean upstreamRequested;
+
+	private boolean upstreamDone;
+
+	private boolean terminated;
+
+
+	private DataBufferCoalescer(FluxSink<DataBuffer> sink, BiConsumer<T, DataBuffer> writer,
+			DataBufferFactory bufferFactory, int maxBufferSize, Duration maxLatency, Scheduler scheduler) {
+
+		this.sink = sink;
+		this.writer = writer;
+		this.bufferFactory = bufferFactory;
+		this.maxBufferSize = maxBufferSize;
+		this.maxLatency = maxLatency;
+		this.scheduler = scheduler;
+	}
+
+
+	/**
+	 * Coalesce the given stream of elements into data buffers.
+	 * @param source the stream of elements
+	 * @param writer writes a single element to the given buffer
+	 * @param bufferFactory the factory for the buffers to write to
+	 * @param maxBufferSize the size at which a buffer is emitted
+	 * @param maxLatency the maximum time a written element is held back
+	 * @param scheduler the scheduler used to flush buffers after {@code maxLatency}
+	 * @return the stream of coalesced buffers
+	 */
+	static <T> Flux<DataBuffer> coalesce(Publisher<T> source, BiConsumer<T, DataBuffer> writer,
+			DataBufferFactory bufferFactory, int maxBufferSize, Duration maxLatency, Scheduler scheduler) {
+
+		return Flux.create(sink -> {
+			DataBufferCoalescer<T> coalescer =
+					new DataBufferCoalescer<>(sink, writer, bufferFactory, maxBufferSize, maxLatency, scheduler);
+			sink.onRequest(n -> coalescer.drain());
+			sink.onDispose(coalescer::release);
+			source.subscribe(coalescer);
+		});
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		drain();
+	}
+
+	@Override
+	protected void hookOnNext(T value) {
+		synchronized (this) {
+			this.upstreamRequested = false;
+			if (this.terminated) {
+				return;
+			}
+			DataBuffer buffer = this.pending;
+			if (buffer == null) {
+				buffer = this.bufferFactory.allocateBuffer(this.maxBufferSize);
+				this.pending = buffer;
+				scheduleFlush(buffer);
+			}
+			this.writer.accept(value, buffer);
+			drain();
+		}
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		synchronized (this) {
+			this.upstreamDone = true;
+			drain();
+		}
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		synchronized (this) {
+			this.upstreamDone = true;
+			if (!this.terminated) {
+				release();
+				this.sink.error(throwable);
+			}
+		}
+	}
+
+	/**
+	 * Emit the pending buffer if it is due and requested, complete the sink
+	 * if there is nothing left to emit, and request the next element if the
+	 * pending buffer has room for it.
+	 */
+	private synchronized void drain() {
+		if (this.terminated) {
+			return;
+		}
+		DataBuffer buffer = this.pending;
+		if (buffer != null && this.sink.requestedFromDownstream() > 0 &&
+				(this.flushDue || this.upstreamDone || buffer.readableByteCount() >= this.maxBufferSize)) {
+			this.pending = null;
+			this.flushDue = false;
+			cancelFlushTask();
+			this.sink.next(buffer);
+		}
+		if (this.upstreamDone) {
+			if (this.pending == null && !this.terminated) {
+				this.terminated = true;
+				this.sink.complete();
+			}
+		}
+		else if (!this.upstreamRequested && upstream() != null &&
+				(this.pending == null || this.pending.readableByteCount() < this.maxBufferSize)) {
+			this.upstreamRequested = true;
+			request(1);
+		}
+	}
+
+	private void scheduleFlush(DataBuffer buffer) {
+		this.flushTask = this.scheduler.schedule(() -> flush(buffer),
+				this.maxLatency.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized void flush(DataBuffer buffer) {
+		if (this.pending == buffer) {
+			this.flushTask = null;
+			this.flushDue = true;
+			drain();
+		}
+	}
+
+	private void cancelFlushTask() {
+		Disposable task = this.flushTask;
+		if (task != null) {
+			this.flushTask = null;
+			task.dispose();
+		}
+	}
+
+	/**
+	 * Release all resources, cancelling the upstream if necessary.
+	 */
+	private synchronized void release() {
+		this.terminated = true;
+		cancelFlushTask();
+		DataBuffer buffer = this.pending;
+		if (buffer != null) {
+			this.pending = null;
+			DataBufferUtils.release(buffer);
+		}
+		if (!this.upstreamDone) {
+			this.upstreamDone = true;
+			cancel();
+		}
+	}
+
+}
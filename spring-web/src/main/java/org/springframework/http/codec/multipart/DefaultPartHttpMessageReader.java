@@ -0,0 +1,383 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.core.log.LogFormatUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.http.codec.multipart.MultipartParser.Token;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Default {@code HttpMessageReader} for parsing {@code "multipart/form-data"}
+ * requests to a stream of {@link Part}s, without any third-party dependencies.
+ *
+ * <p>Boundaries are found directly in the incoming data buffers, without
+ * blocking and without copying part content. Parts without a filename are
+ * read into memory as {@link FormFieldPart}s, up to the
+ * {@link #setMaxInMemorySize max in-memory size}. File parts are kept in
+ * memory up to that size as well; larger file parts are streamed to a
+ * temporary file through an {@link java.nio.channels.AsynchronousFileChannel}.
+ * The creation, copying and deletion of temporary files happens on the
+ * {@link #setBlockingOperationScheduler blocking operation scheduler}.
+ *
+ * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
+ * to aggregate all parts into a Map.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see MultipartHttpMessageReader
+ * @see SynchronossPartHttpMessageReader
+ */
+public class DefaultPartHttpMessageReader extends LoggingCodecSupport implements HttpMessageReader<Part> {
+
+	private static final String FILE_STORAGE_DIRECTORY_PREFIX = "spring-multipart-";
+
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private long maxDiskUsagePerPart = -1;
+
+	private int maxParts = -1;
+
+	private Charset headersCharset = StandardCharsets.UTF_8;
+
+	@Nullable
+	private volatile Path fileStorageDirectory;
+
+	private Scheduler blockingOperationScheduler = Schedulers.boundedElastic();
+
+
+	/**
+	 * Configure the maximum amount of memory that is allowed per part.
+	 * When the limit is exceeded:
+	 * <ul>
+	 * <li>file parts are written to a temporary file.
+	 * <li>non-file parts are rejected with {@link DataBufferLimitException}.
+	 * </ul>
+	 * <p>By default this is set to 256K.
+	 * @param maxInMemorySize the in-memory limit in bytes, or -1 to keep all
+	 * parts in memory
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Get the {@link #setMaxInMemorySize configured} maximum in-memory size.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum amount of memory allowed for the headers of each part.
+	 * <p>By default this is set to 8K.
+	 * @param byteCount the maximum size of part headers in bytes, or -1 for unlimited
+	 */
+	public void setMaxHeadersSize(int byteCount) {
+		this.maxHeadersSize = byteCount;
+	}
+
+	/**
+	 * Get the {@link #setMaxHeadersSize configured} maximum headers size.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
+
+	/**
+	 * Configure the maximum amount of disk space allowed for file parts.
+	 * <p>By default this is set to -1.
+	 * @param maxDiskUsagePerPart the disk limit in bytes, or -1 for unlimited
+	 */
+	public void setMaxDiskUsagePerPart(long maxDiskUsagePerPart) {
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Get the {@link #setMaxDiskUsagePerPart configured} maximum disk usage.
+	 */
+	public long getMaxDiskUsagePerPart() {
+		return this.maxDiskUsagePerPart;
+	}
+
+	/**
+	 * Specify the maximum number of parts allowed in a given multipart request.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+
+	/**
+	 * Return the {@link #setMaxParts configured} limit on the number of parts.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
+
+	/**
+	 * Set the character set used to decode part headers.
+	 * <p>By default this is set to UTF-8, as used by browsers for file names.
+	 */
+	public void setHeadersCharset(Charset headersCharset) {
+		Assert.notNull(headersCharset, "HeadersCharset must not be null");
+		this.headersCharset = headersCharset;
+	}
+
+	/**
+	 * Set the directory used to store parts larger than
+	 * {@link #setMaxInMemorySize(int) maxInMemorySize}.
+	 * <p>By default, a new directory is created in the system temporary directory.
+	 */
+	public void setFileStorageDirectory(Path fileStorageDirectory) throws IOException {
+		Assert.notNull(fileStorageDirectory, "FileStorageDirectory must not be null");
+		if (!Files.exists(fileStorageDirectory)) {
+			Files.createDirectory(fileStorageDirectory);
+		}
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Set the Reactor {@link Scheduler} to be used for creating, copying and
+	 * deleting temporary files.
+	 * <p>By default, {@link Schedulers#boundedElastic()} is used.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "BlockingOperationScheduler must not be null");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	@Override
+	public List<MediaType> getReadableMediaTypes() {
+		return MultipartHttpMessageReader.MIME_TYPES;
+	}
+
+	@Override
+	public boolean canRead(ResolvableType elementType, @Nullable MediaType mediaType) {
+		if (Part.class.equals(elementType.toClass())) {
+			if (mediaType == null) {
+				return true;
+			}
+			for (MediaType supportedMediaType : getReadableMediaTypes()) {
+				if (supportedMediaType.isCompatibleWith(mediaType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
+			Map<String, Object> hints) {
+
+		return Mono.error(new UnsupportedOperationException("Cannot read multipart request body into single Part"));
+	}
+
+	@Override
+	public Flux<Part> read(ResolvableType elementType, ReactiveHttpInputMessage message, Map<String, Object> hints) {
+		return Flux.defer(() -> {
+			byte[] boundary = boundary(message);
+			if (boundary == null) {
+				return Flux.error(new DecodingException("No multipart boundary found in Content-Type: \"" +
+						message.getHeaders().getContentType() + "\""));
+			}
+			AtomicInteger partCount = new AtomicInteger();
+			return MultipartParser.parse(message.getBody(), boundary, this.maxHeadersSize, this.headersCharset)
+					.windowUntil(Token::isHeaders, true)
+					.concatMap(window -> window.switchOnFirst((signal, tokens) -> {
+						Token first = signal.get();
+						if (first == null || !first.isHeaders()) {
+							return tokens.filter(token -> false).cast(Part.class);
+						}
+						Flux<DataBuffer> body = tokens.skip(1).map(Token::buffer);
+						return createPart(first.headers(), body, partCount.incrementAndGet());
+					}))
+					.doOnDiscard(MultipartParser.BodyToken.class, token -> DataBufferUtils.release(token.buffer()))
+					.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+		})
+		.doOnNext(part -> {
+			if (!Hints.isLoggingSuppressed(hints)) {
+				LogFormatUtils.traceDebug(logger, traceOn -> Hints.getLogPrefix(hints) + "Parsed " +
+						(isEnableLoggingRequestDetails() ?
+								LogFormatUtils.formatValue(part, !traceOn) :
+								"parts '" + part.name() + "' (content masked)"));
+			}
+		});
+	}
+
+	@Nullable
+	private static byte[] boundary(ReactiveHttpInputMessage message) {
+		MediaType contentType = message.getHeaders().getContentType();
+		if (contentType != null) {
+			String boundary = contentType.getParameter("boundary");
+			if (boundary != null) {
+				int length = boundary.length();
+				if (length > 2 && boundary.charAt(0) == '"' && boundary.charAt(length - 1) == '"') {
+					boundary = boundary.substring(1, length - 1);
+				}
+				return boundary.getBytes(StandardCharsets.ISO_8859_1);
+			}
+		}
+		return null;
+	}
+
+	private Mono<Part> createPart(HttpHeaders headers, Flux<DataBuffer> body, int index) {
+		if (this.maxParts > 0 && index > this.maxParts) {
+			return body.doOnNext(DataBufferUtils::release)
+					.then(Mono.error(new DecodingException("Too many parts (" + this.maxParts + " allowed)")));
+		}
+		if (headers.getContentDisposition().getFilename() == null) {
+			return createFormFieldPart(headers, body, index);
+		}
+		else {
+			return createFilePart(headers, body, index);
+		}
+	}
+
+	private Mono<Part> createFormFieldPart(HttpHeaders headers, Flux<DataBuffer> body, int index) {
+		return DataBufferUtils.join(body, this.maxInMemorySize)
+				.map(DefaultPartHttpMessageReader::toByteArray)
+				.defaultIfEmpty(new byte[0])
+				.<Part>map(bytes -> DefaultParts.formFieldPart(headers, new String(bytes, DefaultParts.charset(headers))))
+				.onErrorMap(DataBufferLimitException.class, ex -> new DataBufferLimitException(
+						"Part[" + index + "] exceeded the in-memory limit of " + this.maxInMemorySize + " bytes"));
+	}
+
+	private Mono<Part> createFilePart(HttpHeaders headers, Flux<DataBuffer> body, int index) {
+		AtomicLong byteCount = new AtomicLong();
+		return body
+				.handle((DataBuffer buffer, SynchronousSink<DataBuffer> sink) -> {
+					long count = byteCount.addAndGet(buffer.readableByteCount());
+					if (this.maxDiskUsagePerPart > 0 && count > this.maxDiskUsagePerPart) {
+						DataBufferUtils.release(buffer);
+						sink.error(new DecodingException("Part[" + index + "] exceeded the disk usage limit of " +
+								this.maxDiskUsagePerPart + " bytes"));
+					}
+					else {
+						sink.next(buffer);
+					}
+				})
+				// Collect buffers in memory up to the in-memory limit; after that,
+				// each buffer is passed on by itself to be written to disk
+				.bufferUntil(buffer -> this.maxInMemorySize >= 0 && byteCount.get() > this.maxInMemorySize)
+				.switchOnFirst((signal, lists) -> {
+					if (!signal.hasValue() || byteCount.get() <= this.maxInMemorySize || this.maxInMemorySize < 0) {
+						return lists.concatMapIterable(Function.identity())
+								.collectList()
+								.map(buffers -> DefaultParts.inMemoryFilePart(headers, toByteArray(buffers)));
+					}
+					return writeToTemporaryFile(headers, lists.concatMapIterable(Function.identity()));
+				})
+				.cast(Part.class)
+				.next();
+	}
+
+	private Mono<FilePart> writeToTemporaryFile(HttpHeaders headers, Flux<DataBuffer> content) {
+		return createTemporaryFile().flatMap(file ->
+				DataBufferUtils.write(content, file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+						.then(Mono.fromSupplier(() ->
+								DefaultParts.fileBackedFilePart(headers, file, this.blockingOperationScheduler)))
+						.onErrorResume(ex -> deleteQuietly(file).then(Mono.error(ex))));
+	}
+
+	private Mono<Path> createTemporaryFile() {
+		return Mono.fromCallable(() -> Files.createTempFile(getFileStorageDirectory(), null, ".multipart"))
+				.subscribeOn(this.blockingOperationScheduler);
+	}
+
+	private Path getFileStorageDirectory() throws IOException {
+		Path directory = this.fileStorageDirectory;
+		if (directory == null) {
+			synchronized (this) {
+				directory = this.fileStorageDirectory;
+				if (directory == null) {
+					directory = Files.createTempDirectory(FILE_STORAGE_DIRECTORY_PREFIX);
+					this.fileStorageDirectory = directory;
+				}
+			}
+		}
+		return directory;
+	}
+
+	private Mono<Void> deleteQuietly(Path file) {
+		return Mono.<Void>fromCallable(() -> {
+			Files.deleteIfExists(file);
+			return null;
+		})
+		.onErrorResume(IOException.class, ex -> Mono.empty())
+		.subscribeOn(this.blockingOperationScheduler);
+	}
+
+	private static byte[] toByteArray(DataBuffer buffer) {
+		byte[] bytes = new byte[buffer.readableByteCount()];
+		buffer.read(bytes);
+		DataBufferUtils.release(buffer);
+		return bytes;
+	}
+
+	private static byte[] toByteArray(List<DataBuffer> buffers) {
+		int length = 0;
+		for (DataBuffer buffer : buffers) {
+			length += buffer.readableByteCount();
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		for (DataBuffer buffer : buffers) {
+			int count = buffer.readableByteCount();
+			buffer.read(bytes, offset, count);
+			offset += count;
+			DataBufferUtils.release(buffer);
+		}
+		return bytes;
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementations of {@link Part} and subtypes, as created by the
+ * {@link DefaultPartHttpMessageReader}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+abstract class DefaultParts {
+
+	// Static DataBufferFactory to wrap in-memory content and to read from temporary files
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private static final int FILE_READ_BUFFER_SIZE = 8192;
+
+
+	/**
+	 * Create a new {@link FormFieldPart} with the given parameters.
+	 * @param headers the part headers
+	 * @param value the form field value
+	 * @return the created part
+	 */
+	static FormFieldPart formFieldPart(HttpHeaders headers, String value) {
+		return new DefaultFormFieldPart(headers, value);
+	}
+
+	/**
+	 * Create a new {@link FilePart} held in memory.
+	 * @param headers the part headers
+	 * @param content the part content
+	 * @return the created part
+	 */
+	static FilePart inMemoryFilePart(HttpHeaders headers, byte[] content) {
+		return new InMemoryFilePart(headers, content);
+	}
+
+	/**
+	 * Create a new {@link FilePart} backed by a temporary file.
+	 * @param headers the part headers
+	 * @param file the temporary file holding the part content
+	 * @param blockingOperationScheduler the scheduler for blocking file operations
+	 * @return the created part
+	 */
+	static FilePart fileBackedFilePart(HttpHeaders headers, Path file, Scheduler blockingOperationScheduler) {
+		return new FileBackedFilePart(headers, file, blockingOperationScheduler);
+	}
+
+
+	/**
+	 * Return the charset of the given part headers, or UTF-8 by default.
+	 */
+	static Charset charset(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		Charset charset = (contentType != null ? contentType.getCharset() : null);
+		return (charset != null ? charset : StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Abstract base class for parts, exposing the name from the
+	 * {@code Content-Disposition} header.
+	 */
+	private abstract static class AbstractPart implements Part {
+
+		private final HttpHeaders headers;
+
+		AbstractPart(HttpHeaders headers) {
+			Assert.notNull(headers, "HttpHeaders is required");
+			this.headers = headers;
+		}
+
+		@Override
+		public String name() {
+			String name = this.headers.getContentDisposition().getName();
+			return (name != null ? name : "");
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+	}
+
+
+	/**
+	 * Default implementation of {@link FormFieldPart}.
+	 */
+	private static class DefaultFormFieldPart extends AbstractPart implements FormFieldPart {
+
+		private final String value;
+
+		DefaultFormFieldPart(HttpHeaders headers, String value) {
+			super(headers);
+			this.value = value;
+		}
+
+		@Override
+		public String value() {
+			return this.value;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> {
+				byte[] bytes = this.value.getBytes(charset(headers()));
+				return Flux.just(bufferFactory.wrap(bytes));
+			});
+		}
+
+		@Override
+		public String toString() {
+			return "DefaultFormFieldPart{" + name() + "}";
+		}
+	}
+
+
+	/**
+	 * Abstract base class for {@link FilePart} implementations.
+	 */
+	private abstract static class AbstractFilePart extends AbstractPart implements FilePart {
+
+		AbstractFilePart(HttpHeaders headers) {
+			super(headers);
+		}
+
+		@Override
+		public String filename() {
+			ContentDisposition contentDisposition = headers().getContentDisposition();
+			String filename = contentDisposition.getFilename();
+			return (filename != null ? filename : "");
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "{" + name() + " (" + filename() + ")}";
+		}
+	}
+
+
+	/**
+	 * {@link FilePart} whose content is held in memory.
+	 */
+	private static class InMemoryFilePart extends AbstractFilePart {
+
+		private final byte[] content;
+
+		InMemoryFilePart(HttpHeaders headers, byte[] content) {
+			super(headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content)));
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return DataBufferUtils.write(content(), dest);
+		}
+	}
+
+
+	/**
+	 * {@link FilePart} whose content is held in a temporary file.
+	 */
+	private static class FileBackedFilePart extends AbstractFilePart {
+
+		private final Path file;
+
+		private final Scheduler blockingOperationScheduler;
+
+		FileBackedFilePart(HttpHeaders headers, Path file, Scheduler blockingOperationScheduler) {
+			super(headers);
+			this.file = file;
+			this.blockingOperationScheduler = blockingOperationScheduler;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return DataBufferUtils.readAsynchronousFileChannel(
+					() -> AsynchronousFileChannel.open(this.file, StandardOpenOption.READ),
+					bufferFactory, FILE_READ_BUFFER_SIZE);
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+				Files.copy(this.file, dest, StandardCopyOption.REPLACE_EXISTING);
+				return null;
+			}).subscribeOn(this.blockingOperationScheduler);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.<Void>fromCallable(() -> {
+				Files.deleteIfExists(this.file);
+				return null;
+			}).subscribeOn(this.blockingOperationScheduler);
+		}
+	}
+
+}
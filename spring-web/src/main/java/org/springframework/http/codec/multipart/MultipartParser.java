@@ -0,0 +1,502 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+/**
+ * Subscribes to a buffer stream containing multipart data, and produces a
+ * stream of {@link Token} instances: a {@link HeadersToken} at the start of
+ * each part, followed by {@link BodyToken}s with the content of that part.
+ *
+ * <p>Boundaries are found through {@link DataBufferUtils#matcher(byte[])},
+ * which uses the Knuth-Morris-Pratt algorithm across buffer boundaries. Part
+ * content is passed on as slices of the incoming buffers without copying,
+ * except for the few trailing bytes that might be the start of a boundary.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+final class MultipartParser extends BaseSubscriber<DataBuffer> {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] CR_LF = {CR, LF};
+
+	private static final byte[] TWO_HYPHENS = {HYPHEN, HYPHEN};
+
+
+	private final FluxSink<Token> sink;
+
+	private final byte[] boundary;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private volatile State state;
+
+
+	private MultipartParser(FluxSink<Token> sink, byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		this.sink = sink;
+		this.boundary = boundary;
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		this.state = new PreambleState();
+	}
+
+
+	/**
+	 * Parse the given stream of buffers into a stream of tokens.
+	 * @param buffers the input buffers
+	 * @param boundary the multipart boundary, as found in the Content-Type header
+	 * @param maxHeadersSize the maximum size of the headers of a single part
+	 * @param headersCharset the charset to decode part headers with
+	 * @return a stream of parsed tokens
+	 */
+	static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize,
+			Charset headersCharset) {
+
+		return Flux.create(sink -> {
+			MultipartParser parser = new MultipartParser(sink, boundary, maxHeadersSize, headersCharset);
+			sink.onCancel(parser::onSinkCancel);
+			sink.onRequest(n -> parser.requestBuffer());
+			buffers.subscribe(parser);
+		});
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		requestBuffer();
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer value) {
+		this.state.onNext(value);
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.state.onComplete();
+	}
+
+	@Override
+	protected void hookOnError(Throwable throwable) {
+		changeState(DisposedState.INSTANCE);
+		this.sink.error(throwable);
+	}
+
+	@Override
+	protected void hookFinally(SignalType type) {
+		if (type == SignalType.CANCEL) {
+			changeState(DisposedState.INSTANCE);
+		}
+	}
+
+	private void onSinkCancel() {
+		changeState(DisposedState.INSTANCE);
+		cancel();
+	}
+
+	private void changeState(State newState) {
+		State oldState = this.state;
+		this.state = newState;
+		oldState.dispose();
+	}
+
+	private void changeState(State newState, DataBuffer remainder) {
+		changeState(newState);
+		if (remainder.readableByteCount() > 0) {
+			newState.onNext(remainder);
+		}
+		else {
+			DataBufferUtils.release(remainder);
+			requestBuffer();
+		}
+	}
+
+	private void requestBuffer() {
+		if (upstream() != null && !this.sink.isCancelled() && this.sink.requestedFromDownstream() > 0) {
+			request(1);
+		}
+	}
+
+	private void emitError(Throwable ex) {
+		changeState(DisposedState.INSTANCE);
+		cancel();
+		this.sink.error(ex);
+	}
+
+	private static byte[] concat(byte[]... byteArrays) {
+		int length = 0;
+		for (byte[] byteArray : byteArrays) {
+			length += byteArray.length;
+		}
+		byte[] result = new byte[length];
+		int offset = 0;
+		for (byte[] byteArray : byteArrays) {
+			System.arraycopy(byteArray, 0, result, offset, byteArray.length);
+			offset += byteArray.length;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Represents the output of {@link #parse}.
+	 */
+	abstract static class Token {
+
+		abstract boolean isHeaders();
+
+		abstract HttpHeaders headers();
+
+		abstract DataBuffer buffer();
+	}
+
+
+	/**
+	 * Token that contains the headers of a part.
+	 */
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		boolean isHeaders() {
+			return true;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		DataBuffer buffer() {
+			throw new IllegalStateException("Headers token has no buffer");
+		}
+	}
+
+
+	/**
+	 * Token that contains (part of) the body of a part.
+	 */
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		boolean isHeaders() {
+			return false;
+		}
+
+		@Override
+		HttpHeaders headers() {
+			throw new IllegalStateException("Body token has no headers");
+		}
+
+		@Override
+		DataBuffer buffer() {
+			return this.buffer;
+		}
+	}
+
+
+	/**
+	 * Parser state, receiving the buffers in turn.
+	 */
+	private interface State {
+
+		void onNext(DataBuffer buffer);
+
+		void onComplete();
+
+		default void dispose() {
+		}
+	}
+
+
+	/**
+	 * Initial state, skipping everything up to the first boundary.
+	 */
+	private final class PreambleState implements State {
+
+		private final DataBufferUtils.Matcher firstBoundary =
+				DataBufferUtils.matcher(concat(TWO_HYPHENS, MultipartParser.this.boundary));
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int endIdx = this.firstBoundary.match(buffer);
+			if (endIdx != -1) {
+				buffer.readPosition(endIdx + 1);
+				changeState(new HeadersState(), buffer);
+			}
+			else {
+				DataBufferUtils.release(buffer);
+				requestBuffer();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			changeState(DisposedState.INSTANCE);
+			sink.error(new DecodingException("Could not find first boundary"));
+		}
+	}
+
+
+	/**
+	 * State after a boundary, collecting the headers of the next part until
+	 * an empty line, or ending the parse on a closing boundary.
+	 */
+	private final class HeadersState implements State {
+
+		private final DataBufferUtils.Matcher endOfHeaders = DataBufferUtils.matcher(concat(CR_LF, CR_LF));
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private int byteCount;
+
+		private int leadingHyphens;
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			if (isClosingBoundary(buffer)) {
+				DataBufferUtils.release(buffer);
+				changeState(DisposedState.INSTANCE);
+				sink.complete();
+				requestUnbounded();
+				return;
+			}
+			int endIdx = this.endOfHeaders.match(buffer);
+			int length = (endIdx != -1 ? endIdx + 1 : buffer.writePosition()) - buffer.readPosition();
+			this.byteCount += length;
+			if (maxHeadersSize > 0 && this.byteCount > maxHeadersSize) {
+				DataBufferUtils.release(buffer);
+				emitError(new DataBufferLimitException(
+						"Part headers exceeded the limit of " + maxHeadersSize + " bytes"));
+				return;
+			}
+			if (endIdx != -1) {
+				this.buffers.add(buffer.retainedSlice(buffer.readPosition(), length));
+				buffer.readPosition(endIdx + 1);
+				sink.next(new HeadersToken(parseHeaders()));
+				changeState(new BodyState(), buffer);
+			}
+			else {
+				this.buffers.add(buffer);
+				requestBuffer();
+			}
+		}
+
+		/**
+		 * Check whether the bytes right after the boundary are "--", taking
+		 * into account that those two bytes might be split across buffers.
+		 */
+		private boolean isClosingBoundary(DataBuffer buffer) {
+			for (int i = buffer.readPosition(); i < buffer.writePosition() && this.leadingHyphens >= 0; i++) {
+				if (buffer.getByte(i) == HYPHEN) {
+					if (++this.leadingHyphens == 2) {
+						return true;
+					}
+				}
+				else {
+					this.leadingHyphens = -1;
+				}
+			}
+			return false;
+		}
+
+		private HttpHeaders parseHeaders() {
+			byte[] bytes = new byte[this.byteCount];
+			int offset = 0;
+			for (DataBuffer buffer : this.buffers) {
+				int length = buffer.readableByteCount();
+				buffer.read(bytes, offset, length);
+				offset += length;
+				DataBufferUtils.release(buffer);
+			}
+			this.buffers.clear();
+			String string = new String(bytes, headersCharset);
+			HttpHeaders headers = new HttpHeaders();
+			String previousName = null;
+			for (String line : StringUtils.delimitedListToStringArray(string, "\r\n")) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && previousName != null) {
+					// Obsolete line folding: continuation of the previous header value
+					List<String> values = headers.get(previousName);
+					int last = values.size() - 1;
+					values.set(last, values.get(last) + " " + line.trim());
+					continue;
+				}
+				int idx = line.indexOf(':');
+				if (idx > 0) {
+					previousName = line.substring(0, idx).trim();
+					headers.add(previousName, line.substring(idx + 1).trim());
+				}
+			}
+			return headers;
+		}
+
+		@Override
+		public void onComplete() {
+			changeState(DisposedState.INSTANCE);
+			sink.error(new DecodingException("Could not find end of headers"));
+		}
+
+		@Override
+		public void dispose() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+		}
+	}
+
+
+	/**
+	 * State within the body of a part, passing on content until the next
+	 * boundary. Since a boundary may span several buffers, the trailing
+	 * buffers that might contain the start of a boundary are held back.
+	 */
+	private final class BodyState implements State {
+
+		private final DataBufferUtils.Matcher delimiter =
+				DataBufferUtils.matcher(concat(CR_LF, TWO_HYPHENS, MultipartParser.this.boundary));
+
+		private final Deque<DataBuffer> heldBuffers = new ArrayDeque<>();
+
+		private int heldByteCount;
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			int delimiterLength = this.delimiter.delimiter().length;
+			int endIdx = this.delimiter.match(buffer);
+			if (endIdx != -1) {
+				int bodyLength = endIdx + 1 - buffer.readPosition() - delimiterLength;
+				if (bodyLength >= 0) {
+					emitHeld(this.heldByteCount);
+					if (bodyLength > 0) {
+						sink.next(new BodyToken(buffer.retainedSlice(buffer.readPosition(), bodyLength)));
+					}
+				}
+				else {
+					// The delimiter started in one of the held buffers
+					emitHeld(this.heldByteCount + bodyLength);
+				}
+				buffer.readPosition(endIdx + 1);
+				changeState(new HeadersState(), buffer);
+			}
+			else {
+				this.heldBuffers.add(buffer);
+				this.heldByteCount += buffer.readableByteCount();
+				DataBuffer first;
+				while ((first = this.heldBuffers.peek()) != null &&
+						this.heldByteCount - first.readableByteCount() >= delimiterLength - 1) {
+					this.heldBuffers.poll();
+					this.heldByteCount -= first.readableByteCount();
+					sink.next(new BodyToken(first));
+				}
+				requestBuffer();
+			}
+		}
+
+		/**
+		 * Emit the given number of bytes from the held buffers, and release the rest.
+		 */
+		private void emitHeld(int byteCount) {
+			DataBuffer buffer;
+			while ((buffer = this.heldBuffers.poll()) != null) {
+				int length = buffer.readableByteCount();
+				if (byteCount >= length) {
+					sink.next(new BodyToken(buffer));
+				}
+				else {
+					if (byteCount > 0) {
+						sink.next(new BodyToken(buffer.retainedSlice(buffer.readPosition(), byteCount)));
+					}
+					DataBufferUtils.release(buffer);
+				}
+				byteCount -= length;
+			}
+			this.heldByteCount = 0;
+		}
+
+		@Override
+		public void onComplete() {
+			changeState(DisposedState.INSTANCE);
+			sink.error(new DecodingException("Could not find end of body"));
+		}
+
+		@Override
+		public void dispose() {
+			this.heldBuffers.forEach(DataBufferUtils::release);
+			this.heldBuffers.clear();
+		}
+	}
+
+
+	/**
+	 * Final state, after the closing boundary or an error, releasing any
+	 * remaining input.
+	 */
+	private static final class DisposedState implements State {
+
+		static final DisposedState INSTANCE = new DisposedState();
+
+		@Override
+		public void onNext(DataBuffer buffer) {
+			DataBufferUtils.release(buffer);
+		}
+
+		@Override
+		public void onComplete() {
+		}
+	}
+
+}
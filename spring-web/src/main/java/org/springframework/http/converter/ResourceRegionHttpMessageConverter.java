@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,16 @@
 
 package org.springframework.http.converter;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
@@ -40,6 +45,10 @@ import org.springframework.util.StreamUtils;
  * Implementation of {@link HttpMessageConverter} that can write a single {@link ResourceRegion},
  * or Collections of {@link ResourceRegion ResourceRegions}.
  *
+ * <p>Regions of file-based resources are transferred from a {@link FileChannel}
+ * with positional reads, opened once for all regions of the same resource,
+ * rather than skipped to through an {@code InputStream}.
+ *
  * @author Brian Clozel
  * @author Juergen Hoeller
  * @since 4.3
@@ -154,17 +163,23 @@ public class ResourceRegionHttpMessageConverter extends AbstractGenericHttpMessa
 		responseHeaders.add("Content-Range", "bytes " + start + '-' + end + '/' + resourceLength);
 		responseHeaders.setContentLength(rangeLength);
 
+		FileChannel channel = getFileChannel(region.getResource());
+		if (channel != null) {
+			try {
+				copyRange(channel, outputMessage.getBody(), start, end);
+			}
+			finally {
+				closeQuietly(channel);
+			}
+			return;
+		}
+
 		InputStream in = region.getResource().getInputStream();
 		try {
 			StreamUtils.copyRange(in, outputMessage.getBody(), start, end);
 		}
 		finally {
-			try {
-				in.close();
-			}
-			catch (IOException ex) {
-				// ignore
-			}
+			closeQuietly(in);
 		}
 	}
 
@@ -180,17 +195,22 @@ public class ResourceRegionHttpMessageConverter extends AbstractGenericHttpMessa
 		OutputStream out = outputMessage.getBody();
 
 		Resource resource = null;
+		FileChannel channel = null;
 		InputStream in = null;
 		long inputStreamPosition = 0;
 
 		try {
 			for (ResourceRegion region : resourceRegions) {
-				long start = region.getPosition() - inputStreamPosition;
-				if (start < 0 || resource != region.getResource()) {
-					if (in != null) {
-						in.close();
-					}
+				if (resource != region.getResource()) {
+					closeQuietly(channel);
+					closeQuietly(in);
+					in = null;
 					resource = region.getResource();
+					channel = getFileChannel(resource);
+				}
+				long start = region.getPosition() - inputStreamPosition;
+				if (channel == null && (in == null || start < 0)) {
+					closeQuietly(in);
 					in = resource.getInputStream();
 					inputStreamPosition = 0;
 					start = region.getPosition();
@@ -205,30 +225,79 @@ public class ResourceRegionHttpMessageConverter extends AbstractGenericHttpMessa
 					println(out);
 				}
 				Long resourceLength = region.getResource().contentLength();
-				end = Math.min(end, resourceLength - inputStreamPosition - 1);
 				print(out, "Content-Range: bytes " +
 						region.getPosition() + '-' + (region.getPosition() + region.getCount() - 1) +
 						'/' + resourceLength);
 				println(out);
 				println(out);
 				// Printing content
-				StreamUtils.copyRange(in, out, start, end);
-				inputStreamPosition += (end + 1);
+				if (channel != null) {
+					start = region.getPosition();
+					end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+					copyRange(channel, out, start, end);
+				}
+				else {
+					end = Math.min(end, resourceLength - inputStreamPosition - 1);
+					StreamUtils.copyRange(in, out, start, end);
+					inputStreamPosition += (end + 1);
+				}
 			}
 		}
 		finally {
+			closeQuietly(channel);
+			closeQuietly(in);
+		}
+
+		println(out);
+		print(out, "--" + boundaryString + "--");
+	}
+
+	/**
+	 * Open a {@link FileChannel} for the given resource, if it is file-based.
+	 */
+	@Nullable
+	private static FileChannel getFileChannel(Resource resource) {
+		if (!resource.isFile()) {
+			return null;
+		}
+		try {
+			ReadableByteChannel channel = resource.readableChannel();
+			if (channel instanceof FileChannel) {
+				return (FileChannel) channel;
+			}
+			closeQuietly(channel);
+		}
+		catch (IOException ex) {
+			// fall back on the InputStream
+		}
+		return null;
+	}
+
+	/**
+	 * Transfer the given range of the channel to the output stream, letting
+	 * the JDK use direct transfers or its cached temporary direct buffers.
+	 */
+	private static void copyRange(FileChannel channel, OutputStream out, long start, long end) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+		long position = start;
+		while (position <= end) {
+			long transferred = channel.transferTo(position, end - position + 1, target);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+		}
+	}
+
+	private static void closeQuietly(@Nullable Closeable closeable) {
+		if (closeable != null) {
 			try {
-				if (in != null) {
-					in.close();
-				}
+				closeable.close();
 			}
 			catch (IOException ex) {
 				// ignore
 			}
 		}
-
-		println(out);
-		print(out, "--" + boundaryString + "--");
 	}
 
 	private static void println(OutputStream os) throws IOException {
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@code MultiValueMap} implementation for wrapping the headers of a
+ * {@link HttpServletRequest}.
+ *
+ * <p>Lookups of individual headers are delegated to the Servlet container,
+ * which already performs case-insensitive matching on its own header storage.
+ * All other operations, including any modification, first copy the headers
+ * into a regular {@link HttpHeaders} instance, which is used from then on.
+ *
+ * <p>{@code Content-Type} and {@code Content-Length} also reflect the content
+ * type, character encoding and content length exposed as request properties,
+ * if they are not present as headers.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+class ServletRequestHeadersAdapter implements MultiValueMap<String, String> {
+
+	private final HttpServletRequest request;
+
+	@Nullable
+	private String derivedContentType;
+
+	@Nullable
+	private String derivedContentLength;
+
+	private boolean derivedHeadersResolved;
+
+	@Nullable
+	private HttpHeaders headers;
+
+
+	ServletRequestHeadersAdapter(HttpServletRequest request) {
+		this.request = request;
+	}
+
+
+	// Lookups delegated to the Servlet container
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		if (this.headers != null) {
+			return this.headers.getFirst(key);
+		}
+		String derivedValue = getDerivedValue(key);
+		return (derivedValue != null ? derivedValue : this.request.getHeader(key));
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (this.headers != null) {
+			return this.headers.get(key);
+		}
+		if (!(key instanceof String)) {
+			return null;
+		}
+		String derivedValue = getDerivedValue((String) key);
+		if (derivedValue != null) {
+			List<String> values = new ArrayList<>(1);
+			values.add(derivedValue);
+			return values;
+		}
+		Enumeration<String> values = this.request.getHeaders((String) key);
+		return (values != null && values.hasMoreElements() ? Collections.list(values) : null);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.headers != null) {
+			return this.headers.containsKey(key);
+		}
+		return (key instanceof String && getFirst((String) key) != null);
+	}
+
+	@Nullable
+	private String getDerivedValue(String key) {
+		if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(key)) {
+			resolveDerivedHeaders();
+			return this.derivedContentType;
+		}
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(key)) {
+			resolveDerivedHeaders();
+			return this.derivedContentLength;
+		}
+		return null;
+	}
+
+	private void resolveDerivedHeaders() {
+		if (this.derivedHeadersResolved) {
+			return;
+		}
+		this.derivedHeadersResolved = true;
+
+		// HttpServletRequest exposes some headers as properties:
+		// we should include those if not already present
+		try {
+			String value = this.request.getHeader(HttpHeaders.CONTENT_TYPE);
+			MediaType contentType = (StringUtils.hasLength(value) ? MediaType.parseMediaType(value) : null);
+			if (contentType == null) {
+				String requestContentType = this.request.getContentType();
+				if (StringUtils.hasLength(requestContentType)) {
+					contentType = MediaType.parseMediaType(requestContentType);
+					this.derivedContentType = contentType.toString();
+				}
+			}
+			if (contentType != null && contentType.getCharset() == null) {
+				String requestEncoding = this.request.getCharacterEncoding();
+				if (StringUtils.hasLength(requestEncoding)) {
+					Charset charSet = Charset.forName(requestEncoding);
+					Map<String, String> params = new LinkedCaseInsensitiveMap<>();
+					params.putAll(contentType.getParameters());
+					params.put("charset", charSet.toString());
+					MediaType mediaType = new MediaType(contentType.getType(), contentType.getSubtype(), params);
+					this.derivedContentType = mediaType.toString();
+				}
+			}
+		}
+		catch (InvalidMediaTypeException ex) {
+			// Ignore: simply not exposing an invalid content type in HttpHeaders...
+		}
+
+		if (this.request.getHeader(HttpHeaders.CONTENT_LENGTH) == null) {
+			int requestContentLength = this.request.getContentLength();
+			if (requestContentLength != -1) {
+				this.derivedContentLength = Integer.toString(requestContentLength);
+			}
+		}
+	}
+
+
+	// Everything else operates on a copy of the headers
+
+	private HttpHeaders getHeaders() {
+		HttpHeaders headers = this.headers;
+		if (headers == null) {
+			headers = new HttpHeaders();
+			Enumeration<String> names = this.request.getHeaderNames();
+			if (names != null) {
+				while (names.hasMoreElements()) {
+					String headerName = names.nextElement();
+					for (Enumeration<String> headerValues = this.request.getHeaders(headerName);
+							headerValues.hasMoreElements();) {
+						headers.add(headerName, headerValues.nextElement());
+					}
+				}
+			}
+			resolveDerivedHeaders();
+			if (this.derivedContentType != null) {
+				headers.set(HttpHeaders.CONTENT_TYPE, this.derivedContentType);
+			}
+			if (this.derivedContentLength != null) {
+				headers.set(HttpHeaders.CONTENT_LENGTH, this.derivedContentLength);
+			}
+			this.headers = headers;
+		}
+		return headers;
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		getHeaders().add(key, value);
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		getHeaders().addAll(key, values);
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		getHeaders().addAll(values);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		getHeaders().set(key, value);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		getHeaders().setAll(values);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		return getHeaders().toSingleValueMap();
+	}
+
+	@Override
+	public int size() {
+		return getHeaders().size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return getHeaders().isEmpty();
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return getHeaders().containsValue(value);
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		return getHeaders().put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		return getHeaders().remove(key);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends List<String>> map) {
+		getHeaders().putAll(map);
+	}
+
+	@Override
+	public void clear() {
+		getHeaders().clear();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return getHeaders().keySet();
+	}
+
+	@Override
+	public Collection<List<String>> values() {
+		return getHeaders().values();
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return getHeaders().entrySet();
+	}
+
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Map)) {
+			return false;
+		}
+		return getHeaders().entrySet().equals(((Map<?, ?>) other).entrySet());
+	}
+
+	@Override
+	public int hashCode() {
+		return getHeaders().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return HttpHeaders.formatHeaders(this);
+	}
+
+}
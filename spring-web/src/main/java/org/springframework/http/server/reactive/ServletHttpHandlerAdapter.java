@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -108,6 +108,13 @@ public class ServletHttpHandlerAdapter implements Servlet {
 		return this.servletPath;
 	}
 
+	/**
+	 * Set the factory to allocate request body buffers with.
+	 * <p>By default, this is a {@link org.springframework.core.io.buffer.DefaultDataBufferFactory}
+	 * for heap buffers. Consider a {@link org.springframework.core.io.buffer.PooledDataBufferFactory}
+	 * to recycle buffers once they are released, provided that all code handling
+	 * request bodies releases buffers properly.
+	 */
 	public void setDataBufferFactory(DataBufferFactory dataBufferFactory) {
 		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
 		this.dataBufferFactory = dataBufferFactory;
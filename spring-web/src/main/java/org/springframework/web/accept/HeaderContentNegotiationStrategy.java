@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,25 +16,37 @@
 
 package org.springframework.web.accept;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * A {@code ContentNegotiationStrategy} that checks the 'Accept' request header.
  *
+ * <p>Recently seen 'Accept' header values are cached, along with their parsed
+ * and sorted media types. Each call returns a copy of the cached media types
+ * that the caller is free to modify.
+ *
  * @author Rossen Stoyanchev
  * @author Juergen Hoeller
  * @since 3.2
  */
 public class HeaderContentNegotiationStrategy implements ContentNegotiationStrategy {
 
+	private static final ConcurrentLruCache<String, List<MediaType>> cachedMediaTypes =
+			new ConcurrentLruCache<>(64, HeaderContentNegotiationStrategy::parseMediaTypes);
+
+
 	/**
 	 * {@inheritDoc}
 	 * @throws HttpMediaTypeNotAcceptableException if the 'Accept' header cannot be parsed
@@ -48,16 +60,22 @@ public class HeaderContentNegotiationStrategy implements ContentNegotiationStrat
 			return MEDIA_TYPE_ALL_LIST;
 		}
 
-		List<String> headerValues = Arrays.asList(headerValueArray);
+		String headerValue = (headerValueArray.length == 1 ? headerValueArray[0] :
+				StringUtils.arrayToCommaDelimitedString(headerValueArray));
 		try {
-			List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValues);
-			MediaType.sortBySpecificityAndQuality(mediaTypes);
-			return !CollectionUtils.isEmpty(mediaTypes) ? mediaTypes : MEDIA_TYPE_ALL_LIST;
+			List<MediaType> mediaTypes = cachedMediaTypes.get(headerValue);
+			return (mediaTypes != MEDIA_TYPE_ALL_LIST ? new ArrayList<>(mediaTypes) : MEDIA_TYPE_ALL_LIST);
 		}
 		catch (InvalidMediaTypeException ex) {
 			throw new HttpMediaTypeNotAcceptableException(
-					"Could not parse 'Accept' header " + headerValues + ": " + ex.getMessage());
+					"Could not parse 'Accept' header " + Arrays.asList(headerValueArray) + ": " + ex.getMessage());
 		}
 	}
 
+	private static List<MediaType> parseMediaTypes(String headerValue) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(headerValue);
+		MediaType.sortBySpecificityAndQuality(mediaTypes);
+		return (!CollectionUtils.isEmpty(mediaTypes) ? Collections.unmodifiableList(mediaTypes) : MEDIA_TYPE_ALL_LIST);
+	}
+
 }
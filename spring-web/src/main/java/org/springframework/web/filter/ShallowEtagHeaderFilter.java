@@ -18,17 +18,22 @@ package org.springframework.web.filter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
@@ -45,6 +50,15 @@ import org.springframework.web.util.WebUtils;
  * <p>Since the ETag is based on the response content, the response
  * (e.g. a {@link org.springframework.web.servlet.View}) is still rendered.
  * As such, this filter only saves bandwidth, not server performance.
+ * Handlers that can tell the version of a resource up front should rather
+ * set the {@code ETag} header themselves, e.g. through
+ * {@link org.springframework.http.ResponseEntity.BodyBuilder#lazyBody}, in
+ * which case the content is written through without buffering.
+ *
+ * <p>The digest can be computed as the content is written, see
+ * {@link #setDigestWhileWriting}. Beyond the
+ * {@link #setMaxContentCacheSize maximum content cache size}, the content is
+ * written through to the response, and no ETag is generated for it.
  *
  * <p><b>NOTE:</b> As of Spring Framework 5.0, this filter uses request/response
  * decorators built on the Servlet 3.1 API.
@@ -64,6 +78,10 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	private boolean writeWeakETag = false;
 
+	private int maxContentCacheSize = -1;
+
+	private boolean digestWhileWriting = false;
+
 
 	/**
 	 * Set whether the ETag value written to the response should be weak, as per RFC 7232.
@@ -84,6 +102,52 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		return this.writeWeakETag;
 	}
 
+	/**
+	 * Set the maximum number of bytes of response content to buffer in order
+	 * to generate an ETag. Larger responses are written through to the
+	 * response as soon as they exceed this size, without an ETag.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "maxContentCacheSize" in the filter definition in {@code web.xml}.
+	 * <p>By default this is set to -1, i.e. unlimited.
+	 * @since 5.2.12
+	 */
+	public void setMaxContentCacheSize(int maxContentCacheSize) {
+		this.maxContentCacheSize = maxContentCacheSize;
+	}
+
+	/**
+	 * Return the maximum number of bytes of response content to buffer in
+	 * order to generate an ETag.
+	 * @since 5.2.12
+	 */
+	public int getMaxContentCacheSize() {
+		return this.maxContentCacheSize;
+	}
+
+	/**
+	 * Set whether the MD5 digest of the response content should be computed
+	 * as the content is written, rather than from the cached content once the
+	 * response is complete.
+	 * <p>Should be configured using an {@code <init-param>} for parameter name
+	 * "digestWhileWriting" in the filter definition in {@code web.xml}.
+	 * <p>By default this is set to {@code false}. Note that a subclass variant
+	 * of {@link #generateETagHeaderValue(InputStream, boolean)} is not called
+	 * once this is switched on.
+	 * @since 5.2.12
+	 */
+	public void setDigestWhileWriting(boolean digestWhileWriting) {
+		this.digestWhileWriting = digestWhileWriting;
+	}
+
+	/**
+	 * Return whether the MD5 digest of the response content is computed as
+	 * the content is written.
+	 * @since 5.2.12
+	 */
+	public boolean isDigestWhileWriting() {
+		return this.digestWhileWriting;
+	}
+
 
 	/**
 	 * The default value is {@code false} so that the filter may delay the generation
@@ -100,7 +164,8 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 		HttpServletResponse responseToUse = response;
 		if (!isAsyncDispatch(request) && !(response instanceof ConditionalContentCachingResponseWrapper)) {
-			responseToUse = new ConditionalContentCachingResponseWrapper(response, request);
+			responseToUse = new ConditionalContentCachingResponseWrapper(response, request,
+					this.maxContentCacheSize, this.digestWhileWriting);
 		}
 
 		filterChain.doFilter(request, responseToUse);
@@ -116,10 +181,13 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 		Assert.notNull(wrapper, "ContentCachingResponseWrapper not found");
 		HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
 
-		if (isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
+		if (!wrapper.isWrittenThrough() &&
+				isEligibleForEtag(request, wrapper, wrapper.getStatus(), wrapper.getContentInputStream())) {
 			String eTag = wrapper.getHeader(HttpHeaders.ETAG);
 			if (!StringUtils.hasText(eTag)) {
-				eTag = generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag);
+				byte[] digest = wrapper.getContentDigest();
+				eTag = (digest != null ? formatETagHeaderValue(digest, this.writeWeakETag) :
+						generateETagHeaderValue(wrapper.getContentInputStream(), this.writeWeakETag));
 				rawResponse.setHeader(HttpHeaders.ETAG, eTag);
 			}
 			if (new ServletWebRequest(request, rawResponse).checkNotModified(eTag)) {
@@ -161,20 +229,28 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Generate the ETag header value from the given response body byte array.
-	 * <p>The default implementation generates an MD5 hash.
+	 * <p>The default implementation generates an MD5 hash. It is only called
+	 * if the content is not {@link #setDigestWhileWriting digested while writing}.
 	 * @param inputStream the response body as an InputStream
 	 * @param isWeak whether the generated ETag should be weak
 	 * @return the ETag header value
 	 * @see org.springframework.util.DigestUtils
 	 */
 	protected String generateETagHeaderValue(InputStream inputStream, boolean isWeak) throws IOException {
+		return formatETagHeaderValue(DigestUtils.md5Digest(inputStream), isWeak);
+	}
+
+	private static String formatETagHeaderValue(byte[] md5Digest, boolean isWeak) {
 		// length of W/ + " + 0 + 32bits md5 hash + "
 		StringBuilder builder = new StringBuilder(37);
 		if (isWeak) {
 			builder.append("W/");
 		}
 		builder.append("\"0");
-		DigestUtils.appendMd5DigestAsHex(inputStream, builder);
+		for (byte b : md5Digest) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
 		builder.append('"');
 		return builder.toString();
 	}
@@ -211,32 +287,193 @@ public class ShallowEtagHeaderFilter extends OncePerRequestFilter {
 
 	/**
 	 * Returns the raw OutputStream, instead of the one that does caching,
-	 * if {@link #isContentCachingDisabled}.
+	 * if {@link #isContentCachingDisabled}, and digests the content as it is
+	 * cached if requested, switching to the raw OutputStream once the content exceeds the
+	 * maximum content cache size.
 	 */
 	private static class ConditionalContentCachingResponseWrapper extends ContentCachingResponseWrapper {
 
 		private final HttpServletRequest request;
 
-		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+		private final int maxContentCacheSize;
+
+		@Nullable
+		private final MessageDigest digest;
+
+		@Nullable
+		private ServletOutputStream outputStream;
+
+		@Nullable
+		private PrintWriter writer;
+
+		private boolean writtenThrough;
+
+		ConditionalContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request,
+				int maxContentCacheSize, boolean digestWhileWriting) {
+
 			super(response);
 			this.request = request;
+			this.maxContentCacheSize = maxContentCacheSize;
+			this.digest = (digestWhileWriting ? createMd5Digest() : null);
 		}
 
 		@Override
 		public ServletOutputStream getOutputStream() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag() ?
-					getResponse().getOutputStream() : super.getOutputStream());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getOutputStream();
+			}
+			if (this.outputStream == null) {
+				this.outputStream = new DigestingOutputStream(super.getOutputStream());
+			}
+			return this.outputStream;
 		}
 
 		@Override
 		public PrintWriter getWriter() throws IOException {
-			return (isContentCachingDisabled(this.request) || hasETag()?
-					getResponse().getWriter() : super.getWriter());
+			if (isContentCachingDisabled(this.request) || hasETag()) {
+				return getResponse().getWriter();
+			}
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new ResponsePrintWriter(new OutputStreamWriter(getOutputStream(),
+						(characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING)));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			resetDigest();
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			resetDigest();
 		}
 
 		private boolean hasETag() {
 			return StringUtils.hasText(getHeader(HttpHeaders.ETAG));
 		}
+
+		/**
+		 * Whether the content exceeded the maximum content cache size, and was
+		 * written through to the response.
+		 */
+		boolean isWrittenThrough() {
+			return this.writtenThrough;
+		}
+
+		/**
+		 * Return the MD5 digest of the cached content, or {@code null} if the
+		 * content is not digested as it is written.
+		 */
+		@Nullable
+		byte[] getContentDigest() {
+			return (this.digest != null ? this.digest.digest() : null);
+		}
+
+		private void resetDigest() {
+			if (this.digest != null) {
+				this.digest.reset();
+			}
+		}
+
+		private void contentWritten() throws IOException {
+			if (this.maxContentCacheSize >= 0 && getContentSize() > this.maxContentCacheSize) {
+				this.writtenThrough = true;
+				copyBodyToResponse(false);
+			}
+		}
+
+		private static MessageDigest createMd5Digest() {
+			try {
+				return MessageDigest.getInstance("MD5");
+			}
+			catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+			}
+		}
+
+
+		private class DigestingOutputStream extends ServletOutputStream {
+
+			private final ServletOutputStream cachingStream;
+
+			DigestingOutputStream(ServletOutputStream cachingStream) {
+				this.cachingStream = cachingStream;
+			}
+
+			@Override
+			public void write(int b) throws IOException {
+				if (isWrittenThrough()) {
+					getResponse().getOutputStream().write(b);
+					return;
+				}
+				if (ConditionalContentCachingResponseWrapper.this.digest != null) {
+					ConditionalContentCachingResponseWrapper.this.digest.update((byte) b);
+				}
+				this.cachingStream.write(b);
+				contentWritten();
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				if (isWrittenThrough()) {
+					getResponse().getOutputStream().write(b, off, len);
+					return;
+				}
+				if (ConditionalContentCachingResponseWrapper.this.digest != null) {
+					ConditionalContentCachingResponseWrapper.this.digest.update(b, off, len);
+				}
+				this.cachingStream.write(b, off, len);
+				contentWritten();
+			}
+
+			@Override
+			public void flush() throws IOException {
+				if (isWrittenThrough()) {
+					getResponse().getOutputStream().flush();
+				}
+			}
+
+			@Override
+			public boolean isReady() {
+				return this.cachingStream.isReady();
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				this.cachingStream.setWriteListener(writeListener);
+			}
+		}
+
+
+		private static class ResponsePrintWriter extends PrintWriter {
+
+			ResponsePrintWriter(OutputStreamWriter writer) {
+				super(writer);
+			}
+
+			@Override
+			public void write(char[] buf, int off, int len) {
+				super.write(buf, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(String s, int off, int len) {
+				super.write(s, off, len);
+				super.flush();
+			}
+
+			@Override
+			public void write(int c) {
+				super.write(c);
+				super.flush();
+			}
+		}
 	}
 
 }
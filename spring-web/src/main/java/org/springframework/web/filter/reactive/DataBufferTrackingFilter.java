@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter.reactive;
+
+import java.util.Optional;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.TrackingDataBufferFactory;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Makes the response of each exchange allocate its buffers through a
+ * {@link TrackingDataBufferFactory}, tagged with the id of the request, so
+ * that buffers which are not released can be traced back to the request
+ * they were allocated for.
+ *
+ * <p>The tagged factory is also exposed under {@link #DATA_BUFFER_FACTORY_ATTRIBUTE},
+ * both as an exchange attribute and in the Reactor {@link Context}, for
+ * components that allocate buffers outside of the response's encoders.
+ *
+ * <p>The {@code TrackingDataBufferFactory} should decorate the factory of
+ * the underlying server, e.g. a {@code NettyDataBufferFactory} for Reactor
+ * Netty, since buffers are handed over to the server for writing.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class DataBufferTrackingFilter implements WebFilter {
+
+	/** Name of the exchange attribute and context key for the tagged factory. */
+	public static final String DATA_BUFFER_FACTORY_ATTRIBUTE =
+			DataBufferTrackingFilter.class.getName() + ".DATA_BUFFER_FACTORY";
+
+
+	private final TrackingDataBufferFactory bufferFactory;
+
+
+	/**
+	 * Create a new {@code DataBufferTrackingFilter} for the given factory.
+	 * @param bufferFactory the factory to track response buffers with
+	 */
+	public DataBufferTrackingFilter(TrackingDataBufferFactory bufferFactory) {
+		Assert.notNull(bufferFactory, "TrackingDataBufferFactory must not be null");
+		this.bufferFactory = bufferFactory;
+	}
+
+
+	/**
+	 * Return the factory that response buffers are tracked with.
+	 */
+	public TrackingDataBufferFactory getBufferFactory() {
+		return this.bufferFactory;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		DataBufferFactory taggedFactory = this.bufferFactory.withTag(getTag(exchange));
+		ServerWebExchange exchangeToUse = exchange.mutate()
+				.response(new ServerHttpResponseDecorator(exchange.getResponse()) {
+					@Override
+					public DataBufferFactory bufferFactory() {
+						return taggedFactory;
+					}
+				})
+				.build();
+		exchangeToUse.getAttributes().put(DATA_BUFFER_FACTORY_ATTRIBUTE, taggedFactory);
+		return chain.filter(exchangeToUse)
+				.subscriberContext(cxt -> cxt.put(DATA_BUFFER_FACTORY_ATTRIBUTE, taggedFactory));
+	}
+
+	/**
+	 * Determine the tag for buffers allocated for the given exchange.
+	 * <p>The default implementation uses the {@link
+	 * org.springframework.http.server.reactive.ServerHttpRequest#getId() request id}.
+	 * @param exchange the current exchange
+	 * @return the tag to use
+	 */
+	protected String getTag(ServerWebExchange exchange) {
+		return exchange.getRequest().getId();
+	}
+
+
+	/**
+	 * Access the tagged {@link DataBufferFactory} from the Reactor Context,
+	 * if available, which is if {@link DataBufferTrackingFilter} is configured
+	 * for use and the given context was obtained from a request processing chain.
+	 * @param context the context in which to access the factory
+	 * @return the tagged factory
+	 */
+	public static Optional<DataBufferFactory> get(Context context) {
+		return context.getOrEmpty(DATA_BUFFER_FACTORY_ATTRIBUTE);
+	}
+
+}
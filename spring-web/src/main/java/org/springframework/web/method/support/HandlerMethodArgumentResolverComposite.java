@@ -26,6 +26,8 @@ import org.springframework.core.MethodParameter;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
 
 /**
  * Resolves method parameters by delegating to a list of registered
@@ -118,7 +120,33 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 			throw new IllegalArgumentException("Unsupported parameter type [" +
 					parameter.getParameterType().getName() + "]. supportsParameter should be called first.");
 		}
-		return resolver.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
+		return resolveArgument(resolver, parameter, mavContainer, webRequest, binderFactory);
+	}
+
+	/**
+	 * Resolve the given parameter through the given resolver, previously
+	 * obtained from {@link #getArgumentResolver}.
+	 * @since 5.2.12
+	 */
+	@Nullable
+	static Object resolveArgument(HandlerMethodArgumentResolver resolver, MethodParameter parameter,
+			@Nullable ModelAndViewContainer mavContainer, NativeWebRequest webRequest,
+			@Nullable WebDataBinderFactory binderFactory) throws Exception {
+
+		RequestObservation observation = RequestObservation.getCurrent(webRequest);
+		if (observation == null) {
+			return resolver.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
+		}
+		long startTime = observation.startPhase();
+		try {
+			Object result = resolver.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
+			observation.phaseCompleted(RequestPhase.ARGUMENT_RESOLUTION, startTime, -1, null);
+			return result;
+		}
+		catch (Exception ex) {
+			observation.phaseCompleted(RequestPhase.ARGUMENT_RESOLUTION, startTime, -1, ex);
+			throw ex;
+		}
 	}
 
 	/**
@@ -126,7 +154,7 @@ public class HandlerMethodArgumentResolverComposite implements HandlerMethodArgu
 	 * the given method parameter.
 	 */
 	@Nullable
-	private HandlerMethodArgumentResolver getArgumentResolver(MethodParameter parameter) {
+	HandlerMethodArgumentResolver getArgumentResolver(MethodParameter parameter) {
 		HandlerMethodArgumentResolver result = this.argumentResolverCache.get(parameter);
 		if (result == null) {
 			for (HandlerMethodArgumentResolver resolver : this.argumentResolvers) {
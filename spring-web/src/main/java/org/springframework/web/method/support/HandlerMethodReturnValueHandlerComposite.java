@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,8 @@ package org.springframework.web.method.support;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -26,6 +28,8 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.core.MethodParameter;
 import org.springframework.lang.Nullable;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
 
 /**
  * Handles method return values by delegating to a list of registered {@link HandlerMethodReturnValueHandler HandlerMethodReturnValueHandlers}.
@@ -40,6 +44,9 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 
 	private final List<HandlerMethodReturnValueHandler> returnValueHandlers = new ArrayList<>();
 
+	private final Map<ReturnTypeKey, HandlerMethodReturnValueHandler> returnValueHandlerCache =
+			new ConcurrentHashMap<>(256);
+
 
 	/**
 	 * Return a read-only list with the registered handlers, or an empty list.
@@ -79,21 +86,40 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 		if (handler == null) {
 			throw new IllegalArgumentException("Unknown return value type: " + returnType.getParameterType().getName());
 		}
-		handler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+		RequestObservation observation = RequestObservation.getCurrent(webRequest);
+		if (observation == null) {
+			handler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			return;
+		}
+		long startTime = observation.startPhase();
+		try {
+			handler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			observation.phaseCompleted(RequestPhase.RESULT_HANDLING, startTime, -1, null);
+		}
+		catch (Exception ex) {
+			observation.phaseCompleted(RequestPhase.RESULT_HANDLING, startTime, -1, ex);
+			throw ex;
+		}
 	}
 
 	@Nullable
 	private HandlerMethodReturnValueHandler selectHandler(@Nullable Object value, MethodParameter returnType) {
 		boolean isAsyncValue = isAsyncReturnValue(value, returnType);
-		for (HandlerMethodReturnValueHandler handler : this.returnValueHandlers) {
-			if (isAsyncValue && !(handler instanceof AsyncHandlerMethodReturnValueHandler)) {
-				continue;
-			}
-			if (handler.supportsReturnType(returnType)) {
-				return handler;
+		ReturnTypeKey key = new ReturnTypeKey(returnType, isAsyncValue);
+		HandlerMethodReturnValueHandler result = this.returnValueHandlerCache.get(key);
+		if (result == null) {
+			for (HandlerMethodReturnValueHandler handler : this.returnValueHandlers) {
+				if (isAsyncValue && !(handler instanceof AsyncHandlerMethodReturnValueHandler)) {
+					continue;
+				}
+				if (handler.supportsReturnType(returnType)) {
+					result = handler;
+					this.returnValueHandlerCache.put(key, result);
+					break;
+				}
 			}
 		}
-		return null;
+		return result;
 	}
 
 	private boolean isAsyncReturnValue(@Nullable Object value, MethodParameter returnType) {
@@ -111,6 +137,7 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 	 */
 	public HandlerMethodReturnValueHandlerComposite addHandler(HandlerMethodReturnValueHandler handler) {
 		this.returnValueHandlers.add(handler);
+		this.returnValueHandlerCache.clear();
 		return this;
 	}
 
@@ -122,8 +149,49 @@ public class HandlerMethodReturnValueHandlerComposite implements HandlerMethodRe
 
 		if (handlers != null) {
 			this.returnValueHandlers.addAll(handlers);
+			this.returnValueHandlerCache.clear();
 		}
 		return this;
 	}
 
+
+	/**
+	 * Cache key for the handler selected for a return type. A return type
+	 * for a specific value (see {@code HandlerMethod#getReturnValueType})
+	 * is equal to the declared return type of the method, so the actual
+	 * type of the value needs to be part of the key.
+	 */
+	private static final class ReturnTypeKey {
+
+		private final MethodParameter returnType;
+
+		private final Class<?> parameterType;
+
+		private final boolean async;
+
+		ReturnTypeKey(MethodParameter returnType, boolean async) {
+			this.returnType = returnType;
+			this.parameterType = returnType.getParameterType();
+			this.async = async;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ReturnTypeKey)) {
+				return false;
+			}
+			ReturnTypeKey otherKey = (ReturnTypeKey) other;
+			return (this.returnType.equals(otherKey.returnType) &&
+					this.parameterType == otherKey.parameterType && this.async == otherKey.async);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.returnType.hashCode() * 31 + this.parameterType.hashCode();
+		}
+	}
+
 }
@@ -31,6 +31,8 @@ import org.springframework.web.bind.support.SessionStatus;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
 
 /**
  * Extension of {@link HandlerMethod} that invokes the underlying method with
@@ -53,6 +55,9 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	@Nullable
 	private WebDataBinderFactory dataBinderFactory;
 
+	@Nullable
+	private volatile HandlerMethodArgumentResolver[] argumentResolverBindings;
+
 
 	/**
 	 * Create an instance from a {@code HandlerMethod}.
@@ -88,6 +93,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 */
 	public void setHandlerMethodArgumentResolvers(HandlerMethodArgumentResolverComposite argumentResolvers) {
 		this.resolvers = argumentResolvers;
+		this.argumentResolverBindings = null;
 	}
 
 	/**
@@ -97,6 +103,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 */
 	public void setParameterNameDiscoverer(ParameterNameDiscoverer parameterNameDiscoverer) {
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
+		this.argumentResolverBindings = null;
 	}
 
 	/**
@@ -135,7 +142,20 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		if (logger.isTraceEnabled()) {
 			logger.trace("Arguments: " + Arrays.toString(args));
 		}
-		return doInvoke(args);
+		RequestObservation observation = RequestObservation.getCurrent(request);
+		if (observation == null) {
+			return doInvoke(args);
+		}
+		long startTime = observation.startPhase();
+		try {
+			Object returnValue = doInvoke(args);
+			observation.phaseCompleted(RequestPhase.HANDLER_INVOCATION, startTime, -1, null);
+			return returnValue;
+		}
+		catch (Exception ex) {
+			observation.phaseCompleted(RequestPhase.HANDLER_INVOCATION, startTime, -1, ex);
+			throw ex;
+		}
 	}
 
 	/**
@@ -152,19 +172,28 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			return EMPTY_ARGS;
 		}
 
+		// A custom composite may override the resolution: ask it for each invocation then
+		HandlerMethodArgumentResolver[] bindings =
+				(this.resolvers.getClass() == HandlerMethodArgumentResolverComposite.class ?
+						getArgumentResolverBindings(parameters) : null);
 		Object[] args = new Object[parameters.length];
 		for (int i = 0; i < parameters.length; i++) {
 			MethodParameter parameter = parameters[i];
-			parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
+			if (bindings == null) {
+				parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
+			}
 			args[i] = findProvidedArgument(parameter, providedArgs);
 			if (args[i] != null) {
 				continue;
 			}
-			if (!this.resolvers.supportsParameter(parameter)) {
+			if (bindings != null ? bindings[i] == null : !this.resolvers.supportsParameter(parameter)) {
 				throw new IllegalStateException(formatArgumentError(parameter, "No suitable resolver"));
 			}
 			try {
-				args[i] = this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory);
+				args[i] = (bindings != null ?
+						HandlerMethodArgumentResolverComposite.resolveArgument(
+								bindings[i], parameter, mavContainer, request, this.dataBinderFactory) :
+						this.resolvers.resolveArgument(parameter, mavContainer, request, this.dataBinderFactory));
 			}
 			catch (Exception ex) {
 				// Leave stack trace for later, exception may actually be resolved and handled...
@@ -180,6 +209,25 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		return args;
 	}
 
+	/**
+	 * Return the argument resolver for each of the given parameters, or
+	 * {@code null} for parameters that no resolver supports, determining
+	 * them on first use and reusing them for subsequent invocations.
+	 */
+	private HandlerMethodArgumentResolver[] getArgumentResolverBindings(MethodParameter[] parameters) {
+		HandlerMethodArgumentResolver[] bindings = this.argumentResolverBindings;
+		if (bindings == null) {
+			bindings = new HandlerMethodArgumentResolver[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				MethodParameter parameter = parameters[i];
+				parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
+				bindings[i] = this.resolvers.getArgumentResolver(parameter);
+			}
+			this.argumentResolverBindings = bindings;
+		}
+		return bindings;
+	}
+
 	/**
 	 * Invoke the handler method with the given argument values.
 	 */
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.observation;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+
+/**
+ * Observation of the processing of a single request, reporting completed
+ * {@link RequestPhase phases} to a {@link RequestObserver}.
+ *
+ * <p>On the server side, an instance is created per request by the
+ * {@code DispatcherServlet} or the {@code DispatcherHandler} if a
+ * {@link RequestObserver} is configured, and exposed under the
+ * {@link #OBSERVATION_ATTRIBUTE} request or exchange attribute. Components
+ * further down the processing chain look up that attribute in order to
+ * report their own phases, and do nothing if it is not present.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class RequestObservation {
+
+	/**
+	 * Name of the request or exchange attribute that holds the
+	 * {@code RequestObservation} for the current request, if any.
+	 */
+	public static final String OBSERVATION_ATTRIBUTE = RequestObservation.class.getName();
+
+
+	private final RequestObserver observer;
+
+	private final String method;
+
+	private final String path;
+
+	@Nullable
+	private volatile String pattern;
+
+
+	/**
+	 * Create a new observation for the given request.
+	 * @param observer the observer to notify
+	 * @param method the HTTP method of the request
+	 * @param path the path of the request
+	 */
+	public RequestObservation(RequestObserver observer, String method, String path) {
+		Assert.notNull(observer, "RequestObserver must not be null");
+		this.observer = observer;
+		this.method = method;
+		this.path = path;
+	}
+
+
+	/**
+	 * Return the observation exposed as request attribute, if any.
+	 * @param attributes the attributes of the current request, if available
+	 * @return the current observation, or {@code null} if none
+	 */
+	@Nullable
+	public static RequestObservation getCurrent(@Nullable RequestAttributes attributes) {
+		return (attributes != null ? (RequestObservation) attributes.getAttribute(
+				OBSERVATION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null);
+	}
+
+	/**
+	 * Set the pattern of the handler mapping that matched the request, or
+	 * the URI template of a client request, once known.
+	 */
+	public void setPattern(@Nullable String pattern) {
+		this.pattern = pattern;
+	}
+
+	/**
+	 * Return the {@link #setPattern configured} pattern, if any.
+	 */
+	@Nullable
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Return the current time, to be passed to
+	 * {@link #phaseCompleted(RequestPhase, long, int, Throwable)}
+	 * once the phase started now has completed.
+	 */
+	public long startPhase() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Notify the observer that the given phase has completed.
+	 * @param phase the completed phase
+	 * @param startTime the start time of the phase, as returned from {@link #startPhase()}
+	 * @param statusCode the HTTP status code of the response, or -1 if not known
+	 * @param exception the exception that the phase completed with, if any
+	 */
+	public void phaseCompleted(RequestPhase phase, long startTime, int statusCode, @Nullable Throwable exception) {
+		long duration = System.nanoTime() - startTime;
+		this.observer.onPhaseCompleted(new RequestPhaseEvent(
+				phase, this.method, this.path, this.pattern, statusCode, exception, duration));
+	}
+
+}
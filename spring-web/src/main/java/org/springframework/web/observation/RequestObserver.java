@@ -0,0 +1,44 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.observation;
+
+/**
+ * Callback interface notified of each completed {@link RequestPhase} of
+ * request processing, e.g. in order to record per-endpoint timings.
+ *
+ * <p>An observer can be registered with the {@code DispatcherServlet}, the
+ * {@code DispatcherHandler} and with {@code ExchangeFunctions} for
+ * {@code WebClient}. If no observer is registered, no {@link RequestPhaseEvent}
+ * is created and no timing information is collected.
+ *
+ * <p>Observers are invoked on the thread that completes a phase, and should
+ * therefore return quickly and not block.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ * @see RequestObservation
+ */
+@FunctionalInterface
+public interface RequestObserver {
+
+	/**
+	 * Notification that a phase of request processing has completed.
+	 * @param event the event describing the completed phase
+	 */
+	void onPhaseCompleted(RequestPhaseEvent event);
+
+}
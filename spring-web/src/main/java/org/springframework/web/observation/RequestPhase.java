@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.observation;
+
+/**
+ * Enumeration of the phases of request processing reported to a
+ * {@link RequestObserver}.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public enum RequestPhase {
+
+	/**
+	 * The processing of a request as a whole, by the {@code DispatcherServlet}
+	 * or the {@code DispatcherHandler}.
+	 */
+	REQUEST,
+
+	/**
+	 * The lookup of the handler for a request through the configured handler mappings.
+	 */
+	HANDLER_LOOKUP,
+
+	/**
+	 * The resolution of a single handler method argument, including the
+	 * conversion of the request body, if any.
+	 */
+	ARGUMENT_RESOLUTION,
+
+	/**
+	 * The invocation of a handler method once its arguments have been resolved,
+	 * until it returns. Argument resolution and the handling of the return
+	 * value are reported as separate phases. For an asynchronous return value,
+	 * this covers the invocation that returns it only.
+	 */
+	HANDLER_INVOCATION,
+
+	/**
+	 * The handling of a handler return value, including the conversion and
+	 * writing of the response body, if any.
+	 */
+	RESULT_HANDLING,
+
+	/**
+	 * The rendering of a view.
+	 */
+	VIEW_RENDERING,
+
+	/**
+	 * An exchange performed by a client, from sending the request until
+	 * the response status and headers have been received.
+	 */
+	CLIENT_EXCHANGE
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.observation;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Event passed to a {@link RequestObserver} for each completed
+ * {@link RequestPhase} of request processing.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class RequestPhaseEvent {
+
+	private final RequestPhase phase;
+
+	private final String method;
+
+	private final String path;
+
+	@Nullable
+	private final String pattern;
+
+	private final int statusCode;
+
+	@Nullable
+	private final Throwable exception;
+
+	private final long durationNanos;
+
+
+	/**
+	 * Create a new {@code RequestPhaseEvent}.
+	 * @param phase the completed phase
+	 * @param method the HTTP method of the request
+	 * @param path the path of the request
+	 * @param pattern the pattern of the handler mapping that matched the
+	 * request, or the URI template of a client request, if any
+	 * @param statusCode the HTTP status code of the response, or -1 if not
+	 * known at the end of the phase
+	 * @param exception the exception that the phase completed with, if any
+	 * @param durationNanos the duration of the phase in nanoseconds
+	 */
+	public RequestPhaseEvent(RequestPhase phase, String method, String path, @Nullable String pattern,
+			int statusCode, @Nullable Throwable exception, long durationNanos) {
+
+		this.phase = phase;
+		this.method = method;
+		this.path = path;
+		this.pattern = pattern;
+		this.statusCode = statusCode;
+		this.exception = exception;
+		this.durationNanos = durationNanos;
+	}
+
+
+	/**
+	 * Return the completed phase.
+	 */
+	public RequestPhase getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * Return the HTTP method of the request.
+	 */
+	public String getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the path of the request.
+	 */
+	public String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Return the pattern of the handler mapping that matched the request, or
+	 * the URI template of a client request, if available. This is preferable
+	 * over the {@link #getPath() path} as a tag for metrics, since it does
+	 * not contain variable parts.
+	 */
+	@Nullable
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Return the HTTP status code of the response, or -1 if not known at
+	 * the end of the phase.
+	 */
+	public int getStatusCode() {
+		return this.statusCode;
+	}
+
+	/**
+	 * Return the exception that the phase completed with, if any.
+	 * <p>For the {@link RequestPhase#REQUEST} phase, this may also be an
+	 * exception that was resolved to an error response.
+	 */
+	@Nullable
+	public Throwable getException() {
+		return this.exception;
+	}
+
+	/**
+	 * Return the duration of the phase in nanoseconds.
+	 */
+	public long getDurationNanos() {
+		return this.durationNanos;
+	}
+
+	/**
+	 * Return the duration of the phase.
+	 */
+	public Duration getDuration() {
+		return Duration.ofNanos(this.durationNanos);
+	}
+
+
+	@Override
+	public String toString() {
+		return "RequestPhaseEvent: phase=[" + this.phase + "]; method=[" + this.method + "]; path=[" +
+				this.path + "]; pattern=[" + this.pattern + "]; status=[" + this.statusCode + "]; " +
+				"exception=[" + this.exception + "]; time=[" + TimeUnit.NANOSECONDS.toMillis(this.durationNanos) + "ms]";
+	}
+
+}
@@ -0,0 +1,11 @@
+/**
+ * SPI for observing the phases of request processing on the server side,
+ * such as handler lookup, argument resolution and view rendering, as well as
+ * exchanges performed on the client side.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.web.observation;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -21,6 +21,7 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
@@ -72,6 +73,20 @@ public class ResponseEntityTests {
 		assertThat((int) responseEntity.getBody()).isEqualTo((int) entity);
 	}
 
+	@Test
+	public void lazyBody() {
+		AtomicInteger invocations = new AtomicInteger();
+		ResponseEntity<Integer> responseEntity = ResponseEntity.ok().eTag("42").lazyBody(invocations::incrementAndGet);
+
+		assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(responseEntity.getHeaders().getETag()).isEqualTo("\"42\"");
+		assertThat(invocations.get()).isEqualTo(0);
+		assertThat(responseEntity.getBody()).isEqualTo(1);
+		assertThat(responseEntity.hasBody()).isTrue();
+		assertThat(responseEntity.getBody()).isEqualTo(1);
+		assertThat(invocations.get()).isEqualTo(1);
+	}
+
 	@Test
 	public void ofOptional() {
 		Integer entity = 42;
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ReactiveClientHttpRequestFactory}.
+ *
+ * @since 5.2.12
+ */
+public class ReactiveClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTests {
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return new ReactiveClientHttpRequestFactory(new ReactorClientHttpConnector());
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Test
+	public void streamingBodyLargerThanChunk() throws Exception {
+		ReactiveClientHttpRequest request =
+				(ReactiveClientHttpRequest) factory.createRequest(new URI(baseUrl + "/echo"), HttpMethod.PUT);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			builder.append("Hello World ");
+		}
+		byte[] body = builder.toString().getBytes(StandardCharsets.UTF_8);
+		request.getHeaders().setContentLength(body.length);
+		request.setBody(outputStream -> {
+			for (byte b : body) {
+				outputStream.write(b);
+			}
+		});
+
+		try (ClientHttpResponse response = request.execute()) {
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(StreamUtils.copyToByteArray(response.getBody())).isEqualTo(body);
+		}
+	}
+
+	@Test
+	public void closeWithoutReadingBody() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			ClientHttpRequest request = factory.createRequest(new URI(baseUrl + "/echo"), HttpMethod.POST);
+			StreamUtils.copy("Hello World", StandardCharsets.UTF_8, request.getBody());
+			try (ClientHttpResponse response = request.execute()) {
+				assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.cache;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CachingClientHttpRequestInterceptor}.
+ *
+ * @author Spring Framework contributors
+ */
+public class CachingClientHttpRequestInterceptorTests {
+
+	private final InMemoryHttpCacheStore store = new InMemoryHttpCacheStore(10);
+
+	private final CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.store);
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	private MockWebServer server;
+
+	private URI uri;
+
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		this.server = new MockWebServer();
+		this.server.start();
+		this.uri = URI.create("http://localhost:" + this.server.getPort() + "/data");
+		this.restTemplate.setInterceptors(Collections.singletonList(this.interceptor));
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		this.server.shutdown();
+	}
+
+
+	@Test
+	public void freshResponse() {
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60").setBody("a"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void revalidateWithETag() throws Exception {
+		this.server.enqueue(new MockResponse()
+				.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache").setHeader(HttpHeaders.ETAG, "\"v1\"").setBody("a"));
+		this.server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+
+		assertThat(this.server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+		assertThat(this.server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+	}
+
+	@Test
+	public void revalidateWithLastModified() throws Exception {
+		String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=0")
+				.setHeader(HttpHeaders.LAST_MODIFIED, lastModified).setBody("a"));
+		this.server.enqueue(new MockResponse().setBody("b"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("b");
+
+		this.server.takeRequest();
+		assertThat(this.server.takeRequest().getHeader(HttpHeaders.IF_MODIFIED_SINCE)).isEqualTo(lastModified);
+	}
+
+	@Test
+	public void vary() {
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE).setBody("en"));
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE).setBody("fr"));
+
+		assertThat(get("en")).isEqualTo("en");
+		assertThat(get("en")).isEqualTo("en");
+		assertThat(get("fr")).isEqualTo("fr");
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void notCacheable() {
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-store, max-age=60").setBody("a"));
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60").setBody("b"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("b");
+		assertThat(this.store.size()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void jsonResponseWithoutContentLength() {
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+				.setChunkedBody("{\"name\":\"a\"}  ", 8));
+		this.restTemplate.setMessageConverters(
+				Collections.singletonList(new MappingJackson2HttpMessageConverter()));
+
+		assertThat(this.restTemplate.getForObject(this.uri, Map.class)).containsEntry("name", "a");
+		assertThat(this.restTemplate.getForObject(this.uri, Map.class)).containsEntry("name", "a");
+		assertThat(this.server.getRequestCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void maxBodySize() {
+		this.interceptor.setMaxBodySize(2);
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60").setBody("abc"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("abc");
+		assertThat(this.store.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void unsafeRequestEvicts() {
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60").setBody("a"));
+		this.server.enqueue(new MockResponse());
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60").setBody("b"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		this.restTemplate.postForLocation(this.uri, "c");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("b");
+	}
+
+	@Test
+	public void staleWhileRevalidate() throws Exception {
+		this.interceptor.setAsyncRevalidation(new SimpleClientHttpRequestFactory(), new SyncTaskExecutor());
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=0, stale-while-revalidate=60")
+				.setHeader(HttpHeaders.ETAG, "\"v1\"").setBody("a"));
+		this.server.enqueue(new MockResponse().setHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.setHeader(HttpHeaders.ETAG, "\"v2\"").setBody("b"));
+
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("a");
+		assertThat(this.restTemplate.getForObject(this.uri, String.class)).isEqualTo("b");
+
+		assertThat(this.server.getRequestCount()).isEqualTo(2);
+		this.server.takeRequest();
+		RecordedRequest revalidation = this.server.takeRequest();
+		assertThat(revalidation.getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+	}
+
+	private String get(String language) {
+		RequestEntity<Void> request = RequestEntity.method(HttpMethod.GET, this.uri)
+				.header(HttpHeaders.ACCEPT_LANGUAGE, language).build();
+		return this.restTemplate.exchange(request, String.class).getBody();
+	}
+
+}
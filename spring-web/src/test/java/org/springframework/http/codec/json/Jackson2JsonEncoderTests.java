@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -176,6 +176,57 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTests<Jackson2JsonE
 				barMediaType, null);
 	}
 
+	@Test
+	public void encodeAsStreamWithCoalescing() {
+		this.encoder.setStreamingBufferSize(1024);
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar")
+		);
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n" +
+						"{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_STREAM_JSON, null);
+	}
+
+	@Test
+	public void encodeAsStreamWithCoalescingBufferSizeExceeded() {
+		this.encoder.setStreamingBufferSize(32);
+		Flux<Pojo> input = Flux.just(
+				new Pojo("foo", "bar"),
+				new Pojo("foofoo", "barbar"),
+				new Pojo("foofoofoo", "barbarbar")
+		);
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n" +
+						"{\"foo\":\"foofoo\",\"bar\":\"barbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.consumeNextWith(expectString("{\"foo\":\"foofoofoo\",\"bar\":\"barbarbar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.verifyComplete(),
+				APPLICATION_STREAM_JSON, null);
+	}
+
+	@Test
+	public void encodeAsStreamWithCoalescingFlushInterval() {
+		this.encoder.setStreamingBufferSize(1024);
+		this.encoder.setStreamingFlushInterval(Duration.ofMillis(10));
+		Flux<Pojo> input = Flux.concat(Flux.just(new Pojo("foo", "bar")), Flux.never());
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n")
+						.andThen(DataBufferUtils::release))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5)),
+				APPLICATION_STREAM_JSON, null);
+	}
+
 	@Test
 	public void fieldLevelJsonView() {
 		JacksonViewBean bean = new JacksonViewBean();
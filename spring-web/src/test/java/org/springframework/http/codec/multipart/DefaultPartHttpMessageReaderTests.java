@@ -0,0 +1,267 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.testfixture.io.buffer.AbstractLeakCheckingTests;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ *
+ * @since 5.2.12
+ */
+class DefaultPartHttpMessageReaderTests extends AbstractLeakCheckingTests {
+
+	private static final String BOUNDARY = "simple-boundary";
+
+	private static final String LOREM_IPSUM = "Lorem ipsum dolor sit amet, consectetur adipiscing elit.";
+
+	private static final ResolvableType PART_TYPE = ResolvableType.forClass(Part.class);
+
+
+	private final DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+
+	@TempDir
+	Path tempDir;
+
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.reader.setFileStorageDirectory(this.tempDir);
+	}
+
+
+	@Test
+	void canRead() {
+		assertThat(this.reader.canRead(PART_TYPE, MediaType.MULTIPART_FORM_DATA)).isTrue();
+		assertThat(this.reader.canRead(PART_TYPE, MediaType.MULTIPART_MIXED)).isTrue();
+		assertThat(this.reader.canRead(PART_TYPE, null)).isTrue();
+		assertThat(this.reader.canRead(PART_TYPE, MediaType.APPLICATION_FORM_URLENCODED)).isFalse();
+		assertThat(this.reader.canRead(ResolvableType.forClass(String.class), MediaType.MULTIPART_FORM_DATA)).isFalse();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3, 7, 16, 1024})
+	void formFieldAndFilePart(int chunkSize) {
+		String body = part("text", null, "sample-text") + part("file", "foo.txt", LOREM_IPSUM) + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, chunkSize), emptyMap()))
+				.assertNext(part -> {
+					assertThat(part).isInstanceOf(FormFieldPart.class);
+					assertThat(part.name()).isEqualTo("text");
+					assertThat(((FormFieldPart) part).value()).isEqualTo("sample-text");
+				})
+				.assertNext(part -> {
+					assertThat(part).isInstanceOf(FilePart.class);
+					assertThat(part.name()).isEqualTo("file");
+					assertThat(((FilePart) part).filename()).isEqualTo("foo.txt");
+					assertThat(part.headers().getContentType()).isEqualTo(MediaType.TEXT_PLAIN);
+					assertThat(content(part)).isEqualTo(LOREM_IPSUM);
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	void preambleAndEpilogue() {
+		String body = "preamble\r\n" + part("text", null, "sample-text") + end() + "epilogue";
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 5), emptyMap()))
+				.assertNext(part -> assertThat(((FormFieldPart) part).value()).isEqualTo("sample-text"))
+				.verifyComplete();
+	}
+
+	@Test
+	void emptyPart() {
+		String body = part("text", null, "") + part("file", "empty.txt", "") + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 4), emptyMap()))
+				.assertNext(part -> assertThat(((FormFieldPart) part).value()).isEmpty())
+				.assertNext(part -> assertThat(content(part)).isEmpty())
+				.verifyComplete();
+	}
+
+	@Test
+	void quotedBoundary() {
+		String body = part("text", null, "sample-text") + end();
+		MockServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(new MediaType(MediaType.MULTIPART_FORM_DATA,
+						singletonMap("boundary", "\"" + BOUNDARY + "\"")))
+				.body(Flux.just(this.bufferFactory.wrap(body.getBytes(UTF_8))));
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request, emptyMap()))
+				.assertNext(part -> assertThat(((FormFieldPart) part).value()).isEqualTo("sample-text"))
+				.verifyComplete();
+	}
+
+	@Test
+	void largeFilePartWrittenToDisk() throws IOException {
+		this.reader.setMaxInMemorySize(16);
+		String content = StringUtils.collectionToDelimitedString(Collections.nCopies(LOREM_IPSUM, 20), "\n");
+		String body = part("file", "lorem.txt", content) + end();
+
+		Part part = this.reader.read(PART_TYPE, request(body, 100), emptyMap()).single().block(Duration.ofSeconds(5));
+		assertThat(part).isInstanceOf(FilePart.class);
+		assertThat(content(part)).isEqualTo(content);
+		assertThat(Files.list(this.tempDir).count()).isEqualTo(1);
+
+		Path dest = this.tempDir.resolve("dest.txt");
+		((FilePart) part).transferTo(dest).block(Duration.ofSeconds(5));
+		assertThat(new String(Files.readAllBytes(dest), UTF_8)).isEqualTo(content);
+
+		part.delete().block(Duration.ofSeconds(5));
+		assertThat(Files.list(this.tempDir).count()).isEqualTo(1);
+	}
+
+	@Test
+	void formFieldExceedsInMemorySize() {
+		this.reader.setMaxInMemorySize(16);
+		String body = part("text", null, LOREM_IPSUM) + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 8), emptyMap()))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	void filePartExceedsDiskUsage() {
+		this.reader.setMaxInMemorySize(16);
+		this.reader.setMaxDiskUsagePerPart(32);
+		String body = part("file", "lorem.txt", LOREM_IPSUM) + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 8), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void tooManyParts() {
+		this.reader.setMaxParts(1);
+		String body = part("first", null, "1") + part("second", null, "2") + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 8), emptyMap()))
+				.expectNextCount(1)
+				.expectErrorMessage("Too many parts (1 allowed)")
+				.verify();
+	}
+
+	@Test
+	void headersExceedMaxSize() {
+		this.reader.setMaxHeadersSize(32);
+		String body = part("text", null, "sample-text") + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 8), emptyMap()))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	void missingBoundary() {
+		MockServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(Flux.empty());
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request, emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void missingEndBoundary() {
+		String body = part("text", null, "sample-text");
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 8), emptyMap()))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	void cancelWhileReading() {
+		String body = part("first", null, "1") + part("second", null, "2") + end();
+
+		StepVerifier.create(this.reader.read(PART_TYPE, request(body, 3), emptyMap()), 1)
+				.expectNextCount(1)
+				.thenCancel()
+				.verify();
+	}
+
+
+	private ServerHttpRequest request(String body, int chunkSize) {
+		byte[] bytes = body.getBytes(UTF_8);
+		List<DataBuffer> buffers = new ArrayList<>();
+		for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, bytes.length - offset);
+			DataBuffer buffer = this.bufferFactory.allocateBuffer(length);
+			buffer.write(bytes, offset, length);
+			buffers.add(buffer);
+		}
+		return MockServerHttpRequest.post("/")
+				.contentType(new MediaType(MediaType.MULTIPART_FORM_DATA, singletonMap("boundary", BOUNDARY)))
+				.body(Flux.fromIterable(buffers));
+	}
+
+	private static String part(String name, String filename, String content) {
+		StringBuilder builder = new StringBuilder("--").append(BOUNDARY).append("\r\n");
+		builder.append("Content-Disposition: form-data; name=\"").append(name).append("\"");
+		if (filename != null) {
+			builder.append("; filename=\"").append(filename).append("\"\r\n");
+			builder.append("Content-Type: text/plain");
+		}
+		return builder.append("\r\n\r\n").append(content).append("\r\n").toString();
+	}
+
+	private static String end() {
+		return "--" + BOUNDARY + "--\r\n";
+	}
+
+	private static String content(Part part) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertThat(buffer).isNotNull();
+		String result = buffer.toString(UTF_8);
+		DataBufferUtils.release(buffer);
+		return result;
+	}
+
+}
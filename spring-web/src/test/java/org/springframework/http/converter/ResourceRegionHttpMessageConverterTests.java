@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,18 +17,23 @@
 package org.springframework.http.converter;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
@@ -183,6 +188,52 @@ public class ResourceRegionHttpMessageConverterTests {
 		assertThat(ranges[15]).isEqualTo("t resource");
 	}
 
+	@Test
+	public void partialContentMultipleByteRangesWithSingleChannel() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		AtomicInteger channelCount = new AtomicInteger();
+		Resource body = new FileSystemResource(new ClassPathResource("byterangeresource.txt", getClass()).getFile()) {
+			@Override
+			public ReadableByteChannel readableChannel() throws IOException {
+				channelCount.incrementAndGet();
+				return super.readableChannel();
+			}
+		};
+		List<HttpRange> rangeList = HttpRange.parseRanges("bytes=7-15,0-5");
+		List<ResourceRegion> regions = new ArrayList<>();
+		for (HttpRange range : rangeList) {
+			regions.add(range.toResourceRegion(body));
+		}
+
+		converter.write(regions, MediaType.TEXT_PLAIN, outputMessage);
+
+		String content = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		String[] ranges = StringUtils.tokenizeToStringArray(content, "\r\n", false, true);
+		assertThat(ranges[3]).isEqualTo("Framework");
+		assertThat(ranges[7]).isEqualTo("Spring");
+		assertThat(channelCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void partialContentMultipleByteRangesWithNonFileResource() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		Resource body = new ByteArrayResource("Spring Framework test resource content.".getBytes(StandardCharsets.UTF_8));
+		List<HttpRange> rangeList = HttpRange.parseRanges("bytes=7-15,0-5");
+		List<ResourceRegion> regions = new ArrayList<>();
+		for (HttpRange range : rangeList) {
+			regions.add(range.toResourceRegion(body));
+		}
+
+		converter.write(regions, MediaType.TEXT_PLAIN, outputMessage);
+
+		String content = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		String[] ranges = StringUtils.tokenizeToStringArray(content, "\r\n", false, true);
+		assertThat(ranges[2]).isEqualTo("Content-Range: bytes 7-15/39");
+		assertThat(ranges[3]).isEqualTo("Framework");
+		assertThat(ranges[6]).isEqualTo("Content-Range: bytes 0-5/39");
+		assertThat(ranges[7]).isEqualTo("Spring");
+	}
+
 	@Test // SPR-15041
 	public void applicationOctetStreamDefaultContentType() throws Exception {
 		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -151,6 +151,41 @@ public class ServletServerHttpRequestTests {
 		assertThat(headers.getContentType()).isNull();
 	}
 
+	@Test
+	public void getHeadersIsCaseInsensitive() {
+		mockRequest.addHeader("MyHeader", "value");
+
+		HttpHeaders headers = request.getHeaders();
+		assertThat(headers.getFirst("myheader")).isEqualTo("value");
+		assertThat(headers.get("MYHEADER")).containsExactly("value");
+		assertThat(headers.containsKey("myHeader")).isTrue();
+		assertThat(headers.containsKey("OtherHeader")).isFalse();
+		assertThat(headers.get("OtherHeader")).isNull();
+	}
+
+	@Test
+	public void getHeadersWithContentLength() {
+		mockRequest.setContent("Hello World".getBytes(StandardCharsets.UTF_8));
+
+		HttpHeaders headers = request.getHeaders();
+		assertThat(headers.getContentLength()).isEqualTo(11);
+		assertThat(headers.keySet()).contains(HttpHeaders.CONTENT_LENGTH);
+	}
+
+	@Test
+	public void modifyHeaders() {
+		mockRequest.addHeader("MyHeader", "value1");
+
+		HttpHeaders headers = request.getHeaders();
+		assertThat(headers.getFirst("MyHeader")).isEqualTo("value1");
+		headers.add("MyHeader", "value2");
+		headers.set("OtherHeader", "value");
+
+		assertThat(headers.get("MyHeader")).containsExactly("value1", "value2");
+		assertThat(headers.keySet()).containsExactly("MyHeader", "OtherHeader");
+		assertThat(mockRequest.getHeader("OtherHeader")).isNull();
+	}
+
 	@Test
 	public void getBody() throws IOException {
 		byte[] content = "Hello World".getBytes("UTF-8");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -56,6 +56,19 @@ public class HeaderContentNegotiationStrategyTests {
 		assertThat(mediaTypes.get(3).toString()).isEqualTo("text/plain;q=0.5");
 	}
 
+	@Test
+	public void resolveMediaTypesReturnsModifiableCopy() throws Exception {
+		this.servletRequest.addHeader("Accept", "text/html, application/json;q=0.9");
+		List<MediaType> mediaTypes = this.strategy.resolveMediaTypes(this.webRequest);
+		mediaTypes.clear();
+
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		otherRequest.addHeader("Accept", "text/html, application/json;q=0.9");
+		List<MediaType> otherMediaTypes = this.strategy.resolveMediaTypes(new ServletWebRequest(otherRequest));
+		assertThat(otherMediaTypes).isNotSameAs(mediaTypes);
+		assertThat(otherMediaTypes).containsExactly(MediaType.TEXT_HTML, MediaType.parseMediaType("application/json;q=0.9"));
+	}
+
 	@Test  // SPR-14506
 	public void resolveMediaTypesFromMultipleHeaderValues() throws Exception {
 		this.servletRequest.addHeader("Accept", "text/plain; q=0.5, text/html");
@@ -16,6 +16,8 @@
 
 package org.springframework.web.filter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import javax.servlet.FilterChain;
@@ -266,4 +268,58 @@ public class ShallowEtagHeaderFilterTests {
 		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
 	}
 
+	@Test
+	public void filterMaxContentCacheSize() throws Exception {
+		this.filter.setMaxContentCacheSize(8);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		request.addHeader("If-None-Match", "\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) -> {
+			filterResponse.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+			assertThat(response.getContentAsByteArray()).isEmpty();
+			filterResponse.getOutputStream().write(" World".getBytes(StandardCharsets.UTF_8));
+			assertThat(response.getContentAsString()).isEqualTo("Hello World");
+			filterResponse.getOutputStream().write("!".getBytes(StandardCharsets.UTF_8));
+		};
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getStatus()).as("Invalid status").isEqualTo(200);
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isNull();
+		assertThat(response.getContentAsString()).as("Invalid content").isEqualTo("Hello World!");
+	}
+
+	@Test
+	public void filterCustomETagGeneration() throws Exception {
+		ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter() {
+			@Override
+			protected String generateETagHeaderValue(InputStream inputStream, boolean isWeak) throws IOException {
+				return "\"" + StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8).length() + "\"";
+			}
+		};
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		FilterChain filterChain = (filterRequest, filterResponse) ->
+				FileCopyUtils.copy("Hello World".getBytes(StandardCharsets.UTF_8), filterResponse.getOutputStream());
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"11\"");
+	}
+
+	@Test
+	public void filterDigestWhileWriting() throws Exception {
+		filter.setDigestWhileWriting(true);
+		final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		final byte[] responseBody = "Hello World".getBytes(StandardCharsets.UTF_8);
+		FilterChain filterChain = (filterRequest, filterResponse) ->
+				FileCopyUtils.copy(responseBody, filterResponse.getOutputStream());
+		filter.doFilter(request, response, filterChain);
+
+		assertThat(response.getHeader("ETag")).as("Invalid ETag").isEqualTo("\"0b10a8db164e0754105b7a99be72e3fe5\"");
+		assertThat(response.getContentAsByteArray()).as("Invalid content").isEqualTo(responseBody);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +17,20 @@
 package org.springframework.web.method.support;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
@@ -75,6 +84,31 @@ public class HandlerMethodArgumentResolverCompositeTests {
 		assertThat(resolvedValue).as("Didn't use the first registered resolver").isEqualTo(1);
 	}
 
+	@Test
+	public void resolveArgumentWithObservation() throws Exception {
+		List<RequestPhaseEvent> events = new ArrayList<>();
+		NativeWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+		webRequest.setAttribute(RequestObservation.OBSERVATION_ATTRIBUTE,
+				new RequestObservation(events::add, "GET", "/path"), RequestAttributes.SCOPE_REQUEST);
+		this.resolverComposite.addResolver(new StubArgumentResolver(55));
+		Object resolvedValue = this.resolverComposite.resolveArgument(paramInt, null, webRequest, null);
+
+		assertThat(resolvedValue).isEqualTo(55);
+		assertThat(events).extracting(RequestPhaseEvent::getPhase).containsExactly(RequestPhase.ARGUMENT_RESOLUTION);
+		assertThat(events.get(0).getPath()).isEqualTo("/path");
+		assertThat(events.get(0).getException()).isNull();
+	}
+
+	@Test
+	public void resolveArgumentWithoutWebRequest() throws Exception {
+		assertThat(RequestObservation.getCurrent(null)).isNull();
+
+		this.resolverComposite.addResolver(new StubArgumentResolver(55));
+		Object resolvedValue = this.resolverComposite.resolveArgument(paramInt, null, null, null);
+
+		assertThat(resolvedValue).isEqualTo(55);
+	}
+
 	@Test
 	public void noSuitableArgumentResolver() throws Exception {
 		assertThatIllegalArgumentException().isThrownBy(() ->
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,14 +16,26 @@
 
 package org.springframework.web.method.support;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -85,6 +97,35 @@ public class HandlerMethodReturnValueHandlerCompositeTests {
 		verifyNoMoreInteractions(anotherIntegerHandler);
 	}
 
+	@Test
+	public void handleReturnValueWithObservation() throws Exception {
+		List<RequestPhaseEvent> events = new ArrayList<>();
+		NativeWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+		webRequest.setAttribute(RequestObservation.OBSERVATION_ATTRIBUTE,
+				new RequestObservation(events::add, "GET", "/path"), RequestAttributes.SCOPE_REQUEST);
+		IllegalStateException failure = new IllegalStateException("failure");
+		willThrow(failure).given(this.integerHandler).handleReturnValue(56, this.integerType, this.mavContainer, webRequest);
+
+		this.handlers.handleReturnValue(55, this.integerType, this.mavContainer, webRequest);
+		assertThatIllegalStateException().isThrownBy(() ->
+				this.handlers.handleReturnValue(56, this.integerType, this.mavContainer, webRequest));
+
+		assertThat(events).extracting(RequestPhaseEvent::getPhase)
+				.containsExactly(RequestPhase.RESULT_HANDLING, RequestPhase.RESULT_HANDLING);
+		assertThat(events.get(0).getException()).isNull();
+		assertThat(events.get(1).getException()).isSameAs(failure);
+	}
+
+	@Test
+	public void handleReturnValueWithCachedHandler() throws Exception {
+		this.handlers.handleReturnValue(55, this.integerType, this.mavContainer, null);
+		this.handlers.handleReturnValue(56, this.integerType, this.mavContainer, null);
+
+		verify(this.integerHandler).supportsReturnType(this.integerType);
+		verify(this.integerHandler).handleReturnValue(55, this.integerType, this.mavContainer, null);
+		verify(this.integerHandler).handleReturnValue(56, this.integerType, this.mavContainer, null);
+	}
+
 	@Test  // SPR-13083
 	public void handleReturnValueWithAsyncHandler() throws Exception {
 		Promise<Integer> promise = new Promise<>();
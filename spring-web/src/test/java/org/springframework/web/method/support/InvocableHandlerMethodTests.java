@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.core.MethodParameter;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.ServletWebRequest;
@@ -156,6 +157,27 @@ public class InvocableHandlerMethodTests {
 			.withMessageContaining("Illegal argument");
 	}
 
+	@Test
+	public void resolveArgWithCustomComposite() throws Exception {
+		HandlerMethodArgumentResolverComposite customComposite = new HandlerMethodArgumentResolverComposite() {
+			@Override
+			public Object resolveArgument(MethodParameter parameter, @Nullable ModelAndViewContainer mavContainer,
+					NativeWebRequest webRequest, @Nullable WebDataBinderFactory binderFactory) throws Exception {
+
+				Object value = super.resolveArgument(parameter, mavContainer, webRequest, binderFactory);
+				return (value instanceof String ? ((String) value).toUpperCase() : value);
+			}
+		};
+		customComposite.addResolver(new StubArgumentResolver(99));
+		customComposite.addResolver(new StubArgumentResolver("value"));
+		Method method = ResolvableMethod.on(Handler.class).argTypes(Integer.class, String.class).resolveMethod();
+		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new Handler(), method);
+		handlerMethod.setHandlerMethodArgumentResolvers(customComposite);
+
+		assertThat(handlerMethod.invokeForRequest(this.request, null)).isEqualTo("99-VALUE");
+		assertThat(handlerMethod.invokeForRequest(this.request, null)).isEqualTo("99-VALUE");
+	}
+
 	private InvocableHandlerMethod getInvocable(Class<?>... argTypes) {
 		Method method = ResolvableMethod.on(Handler.class).argTypes(argTypes).resolveMethod();
 		InvocableHandlerMethod handlerMethod = new InvocableHandlerMethod(new Handler(), method);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,11 +29,16 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.lang.Nullable;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestObserver;
+import org.springframework.web.observation.RequestPhase;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.pattern.PathPattern;
 
 /**
  * Central dispatcher for HTTP request handlers/controllers. Dispatches to
@@ -76,6 +81,9 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 	@Nullable
 	private List<HandlerResultHandler> resultHandlers;
 
+	@Nullable
+	private RequestObserver requestObserver;
+
 
 	/**
 	 * Create a new {@code DispatcherHandler} which needs to be configured with
@@ -106,6 +114,18 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 		return this.handlerMappings;
 	}
 
+	/**
+	 * Set a {@link RequestObserver} to notify of the completed phases of each
+	 * request handled by this {@code DispatcherHandler}.
+	 * <p>By default, a unique {@code RequestObserver} bean in the application
+	 * context is used, if any. If there is none, no request observation is
+	 * performed.
+	 * @since 5.2.12
+	 */
+	public void setRequestObserver(@Nullable RequestObserver requestObserver) {
+		this.requestObserver = requestObserver;
+	}
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) {
 		initStrategies(applicationContext);
@@ -131,6 +151,10 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 
 		this.resultHandlers = new ArrayList<>(beans.values());
 		AnnotationAwareOrderComparator.sort(this.resultHandlers);
+
+		if (this.requestObserver == null) {
+			this.requestObserver = context.getBeanProvider(RequestObserver.class).getIfUnique();
+		}
 	}
 
 
@@ -139,6 +163,9 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 		if (this.handlerMappings == null) {
 			return createNotFoundError();
 		}
+		if (this.requestObserver != null) {
+			return handleObserved(exchange, this.handlerMappings, this.requestObserver);
+		}
 		return Flux.fromIterable(this.handlerMappings)
 				.concatMap(mapping -> mapping.getHandler(exchange))
 				.next()
@@ -147,6 +174,53 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 				.flatMap(result -> handleResult(exchange, result));
 	}
 
+	private Mono<Void> handleObserved(
+			ServerWebExchange exchange, List<HandlerMapping> mappings, RequestObserver observer) {
+
+		return Mono.defer(() -> {
+			ServerHttpRequest request = exchange.getRequest();
+			RequestObservation observation =
+					new RequestObservation(observer, request.getMethodValue(), request.getPath().value());
+			exchange.getAttributes().put(RequestObservation.OBSERVATION_ATTRIBUTE, observation);
+			long startTime = observation.startPhase();
+
+			return Flux.fromIterable(mappings)
+					.concatMap(mapping -> mapping.getHandler(exchange))
+					.next()
+					.switchIfEmpty(createNotFoundError())
+					.doOnNext(handler -> {
+						Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+						if (pattern instanceof PathPattern) {
+							observation.setPattern(((PathPattern) pattern).getPatternString());
+						}
+						observation.phaseCompleted(RequestPhase.HANDLER_LOOKUP, startTime, -1, null);
+					})
+					.flatMap(handler -> invokeHandler(exchange, handler))
+					.flatMap(result -> observe(handleResult(exchange, result),
+							observation, RequestPhase.RESULT_HANDLING, exchange))
+					.doOnSuccess(aVoid -> observation.phaseCompleted(
+							RequestPhase.REQUEST, startTime, getStatusCode(exchange), null))
+					.doOnError(ex -> observation.phaseCompleted(
+							RequestPhase.REQUEST, startTime, getStatusCode(exchange), ex));
+		});
+	}
+
+	private static <T> Mono<T> observe(Mono<T> mono, RequestObservation observation,
+			RequestPhase phase, ServerWebExchange exchange) {
+
+		return Mono.defer(() -> {
+			long startTime = observation.startPhase();
+			return mono
+					.doOnSuccess(value -> observation.phaseCompleted(phase, startTime, getStatusCode(exchange), null))
+					.doOnError(ex -> observation.phaseCompleted(phase, startTime, getStatusCode(exchange), ex));
+		});
+	}
+
+	private static int getStatusCode(ServerWebExchange exchange) {
+		Integer statusCode = exchange.getResponse().getRawStatusCode();
+		return (statusCode != null ? statusCode : -1);
+	}
+
 	private <R> Mono<R> createNotFoundError() {
 		return Mono.defer(() -> {
 			Exception ex = new ResponseStatusException(HttpStatus.NOT_FOUND, "No matching handler");
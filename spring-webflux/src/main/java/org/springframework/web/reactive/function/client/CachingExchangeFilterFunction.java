@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpLogging;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.cache.CachedHttpResponse;
+import org.springframework.http.client.cache.HttpCacheStore;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that serves {@code GET} requests from an
+ * {@link HttpCacheStore} while the stored response is fresh, and otherwise
+ * revalidates it with {@code If-None-Match} or {@code If-Modified-Since}.
+ *
+ * <p>Cacheable responses are stored once their body has been consumed to the
+ * end, as long as it does not exceed the {@link #setMaxBodySize maximum body
+ * size}. Responses served from the cache wrap the stored byte array into a
+ * {@link DataBuffer} without copying it. Successful {@code POST}, {@code PUT},
+ * {@code PATCH} and {@code DELETE} requests evict the response stored for
+ * their URI.
+ *
+ * <p>Stale responses that allow {@code stale-while-revalidate} are served
+ * right away and revalidated in the background.
+ *
+ * <p>This is the {@code WebClient} counterpart of
+ * {@link org.springframework.http.client.cache.CachingClientHttpRequestInterceptor},
+ * and the two may share a store.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class CachingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private static final Log logger = HttpLogging.forLogName(CachingExchangeFilterFunction.class);
+
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private final HttpCacheStore store;
+
+	private final ExchangeStrategies strategies;
+
+	private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+	private int maxBodySize = 1024 * 1024;
+
+
+	/**
+	 * Create a filter that stores responses in the given store, decoding
+	 * responses served from the cache with the default
+	 * {@link ExchangeStrategies}.
+	 * @param store the store for cached responses
+	 */
+	public CachingExchangeFilterFunction(HttpCacheStore store) {
+		this(store, ExchangeStrategies.withDefaults());
+	}
+
+	/**
+	 * Create a filter that stores responses in the given store, decoding
+	 * responses served from the cache with the given {@link ExchangeStrategies},
+	 * typically those the {@code WebClient} is configured with.
+	 * @param store the store for cached responses
+	 * @param strategies the strategies for responses served from the cache
+	 */
+	public CachingExchangeFilterFunction(HttpCacheStore store, ExchangeStrategies strategies) {
+		Assert.notNull(store, "HttpCacheStore must not be null");
+		Assert.notNull(strategies, "ExchangeStrategies must not be null");
+		this.store = store;
+		this.strategies = strategies;
+	}
+
+
+	/**
+	 * Set the maximum size of a response body to be stored, in bytes.
+	 * <p>By default this is set to 1MB.
+	 */
+	public void setMaxBodySize(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		HttpMethod method = request.method();
+		String key = request.url().toString();
+
+		if (!CachedHttpResponse.isCacheableRequest(method, request.headers())) {
+			if (CachedHttpResponse.isInvalidatingRequest(method)) {
+				return next.exchange(request).doOnNext(response -> {
+					if (response.rawStatusCode() < 400) {
+						this.store.evict(key);
+					}
+				});
+			}
+			return next.exchange(request);
+		}
+
+		return Mono.defer(() -> {
+			CachedHttpResponse cached = this.store.get(key);
+			if (cached == null || !cached.matches(request.headers())) {
+				return exchange(request, next, key, null);
+			}
+			long now = System.currentTimeMillis();
+			if (cached.isFresh(request.headers(), now)) {
+				return Mono.just(toClientResponse(cached, this.strategies));
+			}
+			if (cached.isStaleWhileRevalidate(request.headers(), now)) {
+				revalidateAsync(request, next, key, cached);
+				return Mono.just(toClientResponse(cached, this.strategies));
+			}
+			return exchange(conditionalRequest(request, cached), next, key, cached);
+		});
+	}
+
+	private ClientRequest conditionalRequest(ClientRequest request, CachedHttpResponse cached) {
+		return (cached.hasValidators() ?
+				ClientRequest.from(request).headers(cached::addConditionalHeaders).build() : request);
+	}
+
+	private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, String key,
+			@Nullable CachedHttpResponse cached) {
+
+		long requestTime = System.currentTimeMillis();
+		return next.exchange(request).flatMap(response -> {
+			long responseTime = System.currentTimeMillis();
+			if (cached != null && response.rawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+				CachedHttpResponse revalidated =
+						cached.revalidated(response.headers().asHttpHeaders(), requestTime, responseTime);
+				this.store.put(key, revalidated);
+				return response.releaseBody().thenReturn(toClientResponse(revalidated, response.strategies()));
+			}
+			if (isStorable(response)) {
+				return Mono.just(storing(response, key, request.headers(), requestTime, responseTime));
+			}
+			return Mono.just(response);
+		});
+	}
+
+	private boolean isStorable(ClientResponse response) {
+		HttpHeaders headers = response.headers().asHttpHeaders();
+		return (CachedHttpResponse.isCacheableResponse(response.rawStatusCode(), headers) &&
+				headers.getContentLength() <= this.maxBodySize);
+	}
+
+	private ClientResponse storing(ClientResponse response, String key, HttpHeaders requestHeaders,
+			long requestTime, long responseTime) {
+
+		int statusCode = response.rawStatusCode();
+		HttpHeaders headers = response.headers().asHttpHeaders();
+		BodyCopy copy = new BodyCopy();
+		Flux<DataBuffer> body = response.body(BodyExtractors.toDataBuffers())
+				.doOnNext(copy::write)
+				.doOnComplete(() -> {
+					byte[] bytes = copy.toByteArray();
+					if (bytes != null) {
+						this.store.put(key, new CachedHttpResponse(
+								statusCode, headers, bytes, requestHeaders, requestTime, responseTime));
+					}
+				});
+		return ClientResponse.from(response).body(body).build();
+	}
+
+	private void revalidateAsync(ClientRequest request, ExchangeFunction next, String key, CachedHttpResponse cached) {
+		if (!this.revalidating.add(key)) {
+			return;
+		}
+		exchange(conditionalRequest(request, cached), next, key, cached)
+				.flatMap(ClientResponse::releaseBody)
+				.doFinally(signal -> this.revalidating.remove(key))
+				.subscribe(null, ex -> {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Revalidation of " + key + " failed: " + ex);
+					}
+				});
+	}
+
+	private static ClientResponse toClientResponse(CachedHttpResponse cached, ExchangeStrategies strategies) {
+		byte[] bytes = cached.getBody();
+		Flux<DataBuffer> body = (bytes.length > 0 ? Mono.fromSupplier(() -> bufferFactory.wrap(bytes)).flux() : Flux.empty());
+		return ClientResponse.create(cached.getStatusCode(), strategies)
+				.headers(headers -> headers.putAll(cached.getHeaders()))
+				.body(body)
+				.build();
+	}
+
+
+	/**
+	 * Copy of a response body as it is consumed, abandoned once it exceeds
+	 * the maximum body size.
+	 */
+	private final class BodyCopy {
+
+		@Nullable
+		private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		synchronized void write(DataBuffer buffer) {
+			ByteArrayOutputStream output = this.output;
+			if (output == null) {
+				return;
+			}
+			if (output.size() + buffer.readableByteCount() > CachingExchangeFilterFunction.this.maxBodySize) {
+				this.output = null;
+				return;
+			}
+			ByteBuffer byteBuffer = buffer.asByteBuffer();
+			byte[] bytes = new byte[byteBuffer.remaining()];
+			byteBuffer.get(bytes);
+			output.write(bytes, 0, bytes.length);
+		}
+
+		@Nullable
+		synchronized byte[] toByteArray() {
+			return (this.output != null ? this.output.toByteArray() : null);
+		}
+	}
+
+}
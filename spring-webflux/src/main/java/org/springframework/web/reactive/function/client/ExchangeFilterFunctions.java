@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,30 +16,52 @@
 
 package org.springframework.web.reactive.function.client;
 
+import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Static factory methods providing access to built-in implementations of
- * {@link ExchangeFilterFunction} for basic authentication, error handling, etc.
+ * {@link ExchangeFilterFunction} for basic authentication, error handling,
+ * hedging, retries, concurrency limiting and client-side load balancing.
  *
  * @author Rob Winch
  * @author Arjen Poutsma
  * @author Sam Brannen
+ * @author Spring Framework contributors
  * @since 5.0
  */
 public abstract class ExchangeFilterFunctions {
@@ -53,6 +75,12 @@ public abstract class ExchangeFilterFunctions {
 	public static final String BASIC_AUTHENTICATION_CREDENTIALS_ATTRIBUTE =
 			ExchangeFilterFunctions.class.getName() + ".basicAuthenticationCredentials";
 
+	private static final Set<HttpMethod> IDEMPOTENT_METHODS = Collections.unmodifiableSet(EnumSet.of(
+			HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE, HttpMethod.PUT, HttpMethod.DELETE));
+
+	private static final Set<Integer> RETRYABLE_STATUS_CODES = Collections.unmodifiableSet(
+			new HashSet<>(Arrays.asList(502, 503, 504)));
+
 
 	/**
 	 * Consume up to the specified number of bytes from the response body and
@@ -133,6 +161,246 @@ public abstract class ExchangeFilterFunctions {
 	}
 
 
+	/**
+	 * Return a filter that hedges idempotent requests: if no response has
+	 * been received after the given delay, a second identical request is sent,
+	 * and whichever response arrives first is used, while the other exchange
+	 * is cancelled, or its response released if it arrived concurrently.
+	 * <p>The delay is typically set to a high percentile, e.g. the 95th, of the
+	 * observed response times of the target service, which bounds the tail
+	 * latency at the cost of a few percent of additional requests.
+	 * Non-idempotent requests are passed through unchanged.
+	 * @param delay the time to wait for a response before sending the hedged request
+	 * @return the filter to hedge requests with
+	 * @since 5.2.12
+	 * @see #hedge(Supplier)
+	 */
+	public static ExchangeFilterFunction hedge(Duration delay) {
+		Assert.notNull(delay, "Delay must not be null");
+		return hedge(() -> delay);
+	}
+
+	/**
+	 * Variant of {@link #hedge(Duration)} with a supplier for the delay, which
+	 * is invoked for every request, e.g. to follow a percentile that is
+	 * measured at runtime.
+	 * @param delaySupplier the supplier for the time to wait for a response
+	 * before sending the hedged request
+	 * @return the filter to hedge requests with
+	 * @since 5.2.12
+	 */
+	public static ExchangeFilterFunction hedge(Supplier<Duration> delaySupplier) {
+		Assert.notNull(delaySupplier, "Delay supplier must not be null");
+		return (request, next) -> {
+			if (!isIdempotent(request)) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				Mono<ClientResponse> hedged = Mono.delay(delaySupplier.get())
+						.flatMap(tick -> next.exchange(request));
+				return Flux.mergeDelayError(1, next.exchange(request), hedged)
+						.next()
+						.doOnDiscard(ClientResponse.class, response -> response.releaseBody().subscribe());
+			});
+		};
+	}
+
+	/**
+	 * Return a filter that retries idempotent requests up to the given number
+	 * of times if the exchange fails with an {@link IOException} or a
+	 * {@link TimeoutException}, or if the response status is 502, 503 or 504.
+	 * <p>Retries are delayed by an exponential backoff, starting at the given
+	 * minimum backoff and doubling up to the given maximum backoff, with a
+	 * random jitter of up to half the backoff applied in either direction, in
+	 * order to avoid synchronized retries from many clients. Once the retries
+	 * are exhausted, the last response or error is passed on. Non-idempotent
+	 * requests are passed through unchanged.
+	 * @param maxRetries the maximum number of retries
+	 * @param minBackoff the backoff before the first retry
+	 * @param maxBackoff the maximum backoff between retries
+	 * @return the filter to retry requests with
+	 * @since 5.2.12
+	 */
+	public static ExchangeFilterFunction retry(int maxRetries, Duration minBackoff, Duration maxBackoff) {
+		Assert.isTrue(maxRetries >= 0, "Max retries must not be negative");
+		Assert.notNull(minBackoff, "Min backoff must not be null");
+		Assert.notNull(maxBackoff, "Max backoff must not be null");
+		Assert.isTrue(minBackoff.compareTo(maxBackoff) <= 0, "Min backoff must not be greater than max backoff");
+		return (request, next) -> {
+			if (!isIdempotent(request)) {
+				return next.exchange(request);
+			}
+			return exchangeWithRetry(request, next, 0, maxRetries, minBackoff, maxBackoff);
+		};
+	}
+
+	/**
+	 * Return a filter that limits the number of concurrent exchanges per
+	 * target host and port, queueing further requests until a running
+	 * exchange completes.
+	 * <p>An exchange counts towards the limit until its response status and
+	 * headers are received, or until it fails or is cancelled. If the queue for
+	 * a host is full, requests are rejected with an {@link IllegalStateException}.
+	 * Queued requests that are cancelled are removed from the queue.
+	 * @param maxConcurrency the maximum number of concurrent exchanges per host
+	 * @param maxQueueSize the maximum number of requests waiting per host
+	 * @return the filter to limit the concurrency with
+	 * @since 5.2.12
+	 */
+	public static ExchangeFilterFunction limitConcurrency(int maxConcurrency, int maxQueueSize) {
+		Assert.isTrue(maxConcurrency > 0, "Max concurrency must be positive");
+		Assert.isTrue(maxQueueSize >= 0, "Max queue size must not be negative");
+		Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+		return (request, next) -> {
+			URI url = request.url();
+			String key = url.getHost() + ":" + url.getPort();
+			ConcurrencyLimiter limiter = limiters.computeIfAbsent(key,
+					host -> new ConcurrencyLimiter(host, maxConcurrency, maxQueueSize));
+			return limiter.acquire().then(Mono.defer(() -> next.exchange(request).doFinally(signal -> limiter.release())));
+		};
+	}
+
+	/**
+	 * Return a filter that distributes requests in round-robin order over the
+	 * given base URIs, replacing the scheme, host and port of each request URL,
+	 * and prepending the path of the base URI to the request path.
+	 * @param baseUris the base URIs to distribute requests over
+	 * @return the filter to balance requests with
+	 * @since 5.2.12
+	 * @see #roundRobin(Supplier)
+	 */
+	public static ExchangeFilterFunction roundRobin(List<URI> baseUris) {
+		Assert.notEmpty(baseUris, "Base URIs must not be empty");
+		return roundRobin(() -> baseUris);
+	}
+
+	/**
+	 * Variant of {@link #roundRobin(List)} with a supplier for the base URIs,
+	 * which is invoked for every request, e.g. to follow the instances
+	 * registered for a service in a discovery client.
+	 * @param baseUrisSupplier the supplier for the base URIs
+	 * @return the filter to balance requests with
+	 * @since 5.2.12
+	 */
+	public static ExchangeFilterFunction roundRobin(Supplier<List<URI>> baseUrisSupplier) {
+		Assert.notNull(baseUrisSupplier, "Base URIs supplier must not be null");
+		AtomicInteger position = new AtomicInteger();
+		return (request, next) -> Mono.defer(() -> {
+			List<URI> baseUris = getBaseUris(baseUrisSupplier);
+			int index = Math.floorMod(position.getAndIncrement(), baseUris.size());
+			return next.exchange(withBaseUri(request, baseUris.get(index)));
+		});
+	}
+
+	/**
+	 * Return a filter that sends each request to the base URI with the fewest
+	 * outstanding exchanges, replacing the scheme, host and port of the request
+	 * URL, and prepending the path of the base URI to the request path.
+	 * <p>Compared to {@link #roundRobin(List) round-robin}, this steers requests
+	 * away from slow instances. An exchange is outstanding until its response
+	 * status and headers are received, or until it fails or is cancelled.
+	 * @param baseUris the base URIs to distribute requests over
+	 * @return the filter to balance requests with
+	 * @since 5.2.12
+	 * @see #leastOutstanding(Supplier)
+	 */
+	public static ExchangeFilterFunction leastOutstanding(List<URI> baseUris) {
+		Assert.notEmpty(baseUris, "Base URIs must not be empty");
+		return leastOutstanding(() -> baseUris);
+	}
+
+	/**
+	 * Variant of {@link #leastOutstanding(List)} with a supplier for the base
+	 * URIs, which is invoked for every request, e.g. to follow the instances
+	 * registered for a service in a discovery client.
+	 * @param baseUrisSupplier the supplier for the base URIs
+	 * @return the filter to balance requests with
+	 * @since 5.2.12
+	 */
+	public static ExchangeFilterFunction leastOutstanding(Supplier<List<URI>> baseUrisSupplier) {
+		Assert.notNull(baseUrisSupplier, "Base URIs supplier must not be null");
+		Map<URI, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+		AtomicInteger position = new AtomicInteger();
+		return (request, next) -> Mono.defer(() -> {
+			List<URI> baseUris = getBaseUris(baseUrisSupplier);
+			// Start at a rotating offset, so that ties are broken in round-robin order
+			int offset = position.getAndIncrement();
+			URI selected = null;
+			AtomicInteger selectedCount = null;
+			for (int i = 0; i < baseUris.size(); i++) {
+				URI baseUri = baseUris.get(Math.floorMod(offset + i, baseUris.size()));
+				AtomicInteger count = outstanding.computeIfAbsent(baseUri, uri -> new AtomicInteger());
+				if (selectedCount == null || count.get() < selectedCount.get()) {
+					selected = baseUri;
+					selectedCount = count;
+				}
+			}
+			AtomicInteger counter = selectedCount;
+			counter.incrementAndGet();
+			return next.exchange(withBaseUri(request, selected))
+					.doFinally(signal -> counter.decrementAndGet());
+		});
+	}
+
+	private static boolean isIdempotent(ClientRequest request) {
+		return IDEMPOTENT_METHODS.contains(request.method());
+	}
+
+	private static Mono<ClientResponse> exchangeWithRetry(ClientRequest request, ExchangeFunction next,
+			int attempt, int maxRetries, Duration minBackoff, Duration maxBackoff) {
+
+		if (attempt >= maxRetries) {
+			return next.exchange(request);
+		}
+		Mono<ClientResponse> retry = Mono.defer(() -> Mono.delay(getBackoff(attempt, minBackoff, maxBackoff)))
+				.then(Mono.defer(() -> exchangeWithRetry(request, next, attempt + 1, maxRetries, minBackoff, maxBackoff)));
+		// The retry is subscribed from onErrorResume, so its own errors are not retried again here
+		return next.exchange(request)
+				.flatMap(response -> (RETRYABLE_STATUS_CODES.contains(response.rawStatusCode()) ?
+						response.releaseBody().then(Mono.error(new RetryableStatusException())) :
+						Mono.just(response)))
+				.onErrorResume(ex -> ex instanceof RetryableStatusException ||
+						ex instanceof IOException || ex instanceof TimeoutException, ex -> retry);
+	}
+
+	private static Duration getBackoff(int attempt, Duration minBackoff, Duration maxBackoff) {
+		long min = minBackoff.toMillis();
+		long max = maxBackoff.toMillis();
+		long backoff = (attempt < 31 ? Math.min(min << attempt, max) : max);
+		long jitter = backoff / 2;
+		if (jitter > 0) {
+			backoff += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+		}
+		return Duration.ofMillis(Math.max(min, Math.min(backoff, max)));
+	}
+
+	private static List<URI> getBaseUris(Supplier<List<URI>> baseUrisSupplier) {
+		List<URI> baseUris = baseUrisSupplier.get();
+		if (CollectionUtils.isEmpty(baseUris)) {
+			throw new IllegalStateException("No base URIs available");
+		}
+		return baseUris;
+	}
+
+	private static ClientRequest withBaseUri(ClientRequest request, URI baseUri) {
+		URI url = request.url();
+		String basePath = baseUri.getRawPath();
+		String path = url.getRawPath();
+		if (basePath != null && !basePath.isEmpty() && !basePath.equals("/")) {
+			path = (basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1) : basePath) +
+					(path != null ? path : "");
+		}
+		URI target = UriComponentsBuilder.fromUri(url)
+				.scheme(baseUri.getScheme())
+				.host(baseUri.getHost())
+				.port(baseUri.getPort())
+				.replacePath(path)
+				.build(true)
+				.toUri();
+		return ClientRequest.from(request).url(target).build();
+	}
+
+
 	/**
 	 * Stores username and password for HTTP basic authentication.
 	 * @deprecated as of Spring 5.1 in favor of using
@@ -191,4 +459,106 @@ public abstract class ExchangeFilterFunctions {
 		}
 	}
 
+
+	/**
+	 * Signals a response with a status for which the request is retried.
+	 */
+	@SuppressWarnings("serial")
+	private static final class RetryableStatusException extends RuntimeException {
+
+		RetryableStatusException() {
+			super(null, null, false, false);
+		}
+	}
+
+
+	/**
+	 * Holds the permits and the queue of waiting requests for one host.
+	 */
+	private static final class ConcurrencyLimiter {
+
+		private final String host;
+
+		private final int maxConcurrency;
+
+		private final int maxQueueSize;
+
+		private final Queue<Waiter> queue = new ArrayDeque<>();
+
+		private int active;
+
+		ConcurrencyLimiter(String host, int maxConcurrency, int maxQueueSize) {
+			this.host = host;
+			this.maxConcurrency = maxConcurrency;
+			this.maxQueueSize = maxQueueSize;
+		}
+
+		Mono<Void> acquire() {
+			return Mono.create(sink -> {
+				Waiter waiter = new Waiter(sink);
+				boolean acquired = false;
+				synchronized (this) {
+					if (this.active < this.maxConcurrency) {
+						this.active++;
+						acquired = true;
+					}
+					else if (this.queue.size() < this.maxQueueSize) {
+						this.queue.add(waiter);
+					}
+					else {
+						sink.error(new IllegalStateException(
+								"Too many pending requests for " + this.host + ": " + this.queue.size()));
+						return;
+					}
+				}
+				if (acquired) {
+					sink.success();
+				}
+				else {
+					sink.onCancel(() -> cancel(waiter));
+				}
+			});
+		}
+
+		void release() {
+			Waiter next;
+			synchronized (this) {
+				next = this.queue.poll();
+				if (next != null) {
+					// Hand the permit over to the next waiter
+					next.granted = true;
+				}
+				else {
+					this.active--;
+				}
+			}
+			if (next != null) {
+				next.sink.success();
+			}
+		}
+
+		private void cancel(Waiter waiter) {
+			boolean granted;
+			synchronized (this) {
+				granted = !this.queue.remove(waiter) && waiter.granted;
+			}
+			if (granted) {
+				// Cancelled after the permit was handed over, but before it was used
+				release();
+			}
+		}
+	}
+
+
+	private static final class Waiter {
+
+		final MonoSink<Void> sink;
+
+		boolean granted;
+
+		Waiter(MonoSink<Void> sink) {
+			this.sink = sink;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,7 +30,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ClientHttpResponse;
 import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestObserver;
+import org.springframework.web.observation.RequestPhase;
 
 /**
  * Static factory methods to create an {@link ExchangeFunction}.
@@ -64,7 +68,27 @@ public abstract class ExchangeFunctions {
 	 * @return the created {@code ExchangeFunction}
 	 */
 	public static ExchangeFunction create(ClientHttpConnector connector, ExchangeStrategies strategies) {
-		return new DefaultExchangeFunction(connector, strategies);
+		return new DefaultExchangeFunction(connector, strategies, null);
+	}
+
+	/**
+	 * Create an {@code ExchangeFunction} with the given
+	 * {@code ClientHttpConnector} and {@code ExchangeStrategies}, notifying
+	 * the given {@link RequestObserver} of the completion of each exchange.
+	 * <p>Exchanges are reported as {@link RequestPhase#CLIENT_EXCHANGE} once
+	 * the response status and headers have been received, with the URI
+	 * template of the request as pattern, if it was created from one.
+	 * @param connector the connector to use for connecting to servers
+	 * @param strategies the {@code ExchangeStrategies} to use
+	 * @param observer the observer to notify of completed exchanges
+	 * @return the created {@code ExchangeFunction}
+	 * @since 5.2.12
+	 */
+	public static ExchangeFunction create(
+			ClientHttpConnector connector, ExchangeStrategies strategies, RequestObserver observer) {
+
+		Assert.notNull(observer, "RequestObserver must not be null");
+		return new DefaultExchangeFunction(connector, strategies, observer);
 	}
 
 
@@ -74,14 +98,20 @@ public abstract class ExchangeFunctions {
 
 		private final ExchangeStrategies strategies;
 
+		@Nullable
+		private final RequestObserver observer;
+
 		private boolean enableLoggingRequestDetails;
 
 
-		public DefaultExchangeFunction(ClientHttpConnector connector, ExchangeStrategies strategies) {
+		public DefaultExchangeFunction(ClientHttpConnector connector, ExchangeStrategies strategies,
+				@Nullable RequestObserver observer) {
+
 			Assert.notNull(connector, "ClientHttpConnector must not be null");
 			Assert.notNull(strategies, "ExchangeStrategies must not be null");
 			this.connector = connector;
 			this.strategies = strategies;
+			this.observer = observer;
 
 			strategies.messageWriters().stream()
 					.filter(LoggingCodecSupport.class::isInstance)
@@ -100,10 +130,16 @@ public abstract class ExchangeFunctions {
 			URI url = clientRequest.url();
 			String logPrefix = clientRequest.logPrefix();
 
-			return this.connector
+			Mono<ClientHttpResponse> responseMono = this.connector
 					.connect(httpMethod, url, httpRequest -> clientRequest.writeTo(httpRequest, this.strategies))
 					.doOnRequest(n -> logRequest(clientRequest))
-					.doOnCancel(() -> logger.debug(logPrefix + "Cancel signal (to close connection)"))
+					.doOnCancel(() -> logger.debug(logPrefix + "Cancel signal (to close connection)"));
+
+			if (this.observer != null) {
+				responseMono = observe(responseMono, clientRequest, this.observer);
+			}
+
+			return responseMono
 					.map(httpResponse -> {
 						logResponse(httpResponse, logPrefix);
 						return new DefaultClientResponse(
@@ -112,6 +148,23 @@ public abstract class ExchangeFunctions {
 					});
 		}
 
+		private Mono<ClientHttpResponse> observe(
+				Mono<ClientHttpResponse> responseMono, ClientRequest request, RequestObserver observer) {
+
+			return Mono.defer(() -> {
+				RequestObservation observation =
+						new RequestObservation(observer, request.method().name(), request.url().getRawPath());
+				request.attribute(DefaultWebClient.URI_TEMPLATE_ATTRIBUTE)
+						.ifPresent(uriTemplate -> observation.setPattern(uriTemplate.toString()));
+				long startTime = observation.startPhase();
+				return responseMono
+						.doOnNext(response -> observation.phaseCompleted(
+								RequestPhase.CLIENT_EXCHANGE, startTime, response.getRawStatusCode(), null))
+						.doOnError(ex -> observation.phaseCompleted(
+								RequestPhase.CLIENT_EXCHANGE, startTime, -1, ex));
+			});
+		}
+
 		private void logRequest(ClientRequest request) {
 			LogFormatUtils.traceDebug(logger, traceOn ->
 					request.logPrefix() + "HTTP " + request.method() + " " + request.url() +
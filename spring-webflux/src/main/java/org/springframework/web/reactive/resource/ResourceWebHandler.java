@@ -76,9 +76,10 @@ import org.springframework.web.server.WebHandler;
  * and prepare URLs for resources with a version in the URL.
  *
  * <p>This handler also properly evaluates the {@code Last-Modified} header (if
- * present) so that a {@code 304} status code will be returned as appropriate,
- * avoiding unnecessary overhead for resources that are already cached by the
- * client.
+ * present), as well as the {@code ETag} of {@link HttpResource HttpResources}
+ * that provide one, so that a {@code 304} status code will be returned as
+ * appropriate, avoiding unnecessary overhead for resources that are already
+ * cached by the client.
  *
  * @author Rossen Stoyanchev
  * @author Brian Clozel
@@ -339,7 +340,9 @@ public class ResourceWebHandler implements WebHandler, InitializingBean {
 						}
 
 						// Header phase
-						if (exchange.checkNotModified(Instant.ofEpochMilli(resource.lastModified()))) {
+						String eTag = (resource instanceof HttpResource ?
+								((HttpResource) resource).getResponseHeaders().getETag() : null);
+						if (exchange.checkNotModified(eTag, Instant.ofEpochMilli(resource.lastModified()))) {
 							logger.trace(exchange.getLogPrefix() + "Resource not modified");
 							return Mono.empty();
 						}
@@ -39,6 +39,8 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
 import org.springframework.web.reactive.BindingContext;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.server.ServerWebExchange;
@@ -139,14 +141,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			try {
 				ReflectionUtils.makeAccessible(getBridgedMethod());
 				Method method = getBridgedMethod();
-				if (KotlinDetector.isKotlinReflectPresent() &&
-						KotlinDetector.isKotlinType(method.getDeclaringClass()) &&
-						CoroutinesUtils.isSuspendingFunction(method)) {
-					value = CoroutinesUtils.invokeSuspendingFunction(method, getBean(), args);
-				}
-				else {
-					value = method.invoke(getBean(), args);
-				}
+				RequestObservation observation = exchange.getAttribute(RequestObservation.OBSERVATION_ATTRIBUTE);
+				value = (observation != null ? doInvokeObserved(method, args, observation) : doInvoke(method, args));
 			}
 			catch (IllegalArgumentException ex) {
 				assertTargetBean(getBridgedMethod(), getBean(), args);
@@ -178,6 +174,34 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		});
 	}
 
+	@Nullable
+	private Object doInvokeObserved(Method method, Object[] args, RequestObservation observation) throws Exception {
+		long startTime = observation.startPhase();
+		try {
+			Object value = doInvoke(method, args);
+			observation.phaseCompleted(RequestPhase.HANDLER_INVOCATION, startTime, -1, null);
+			return value;
+		}
+		catch (InvocationTargetException ex) {
+			observation.phaseCompleted(RequestPhase.HANDLER_INVOCATION, startTime, -1, ex.getTargetException());
+			throw ex;
+		}
+		catch (Exception ex) {
+			observation.phaseCompleted(RequestPhase.HANDLER_INVOCATION, startTime, -1, ex);
+			throw ex;
+		}
+	}
+
+	@Nullable
+	private Object doInvoke(Method method, Object[] args) throws Exception {
+		if (KotlinDetector.isKotlinReflectPresent() &&
+				KotlinDetector.isKotlinType(method.getDeclaringClass()) &&
+				CoroutinesUtils.isSuspendingFunction(method)) {
+			return CoroutinesUtils.invokeSuspendingFunction(method, getBean(), args);
+		}
+		return method.invoke(getBean(), args);
+	}
+
 	private Mono<Object[]> getMethodArgumentValues(
 			ServerWebExchange exchange, BindingContext bindingContext, Object... providedArgs) {
 
@@ -186,6 +210,7 @@ public class InvocableHandlerMethod extends HandlerMethod {
 			return EMPTY_ARGS;
 		}
 
+		RequestObservation observation = exchange.getAttribute(RequestObservation.OBSERVATION_ATTRIBUTE);
 		List<Mono<Object>> argMonos = new ArrayList<>(parameters.length);
 		for (MethodParameter parameter : parameters) {
 			parameter.initParameterNameDiscovery(this.parameterNameDiscoverer);
@@ -198,12 +223,24 @@ public class InvocableHandlerMethod extends HandlerMethod {
 				return Mono.error(new IllegalStateException(
 						formatArgumentError(parameter, "No suitable resolver")));
 			}
+			long startTime = (observation != null ? observation.startPhase() : 0);
 			try {
-				argMonos.add(this.resolvers.resolveArgument(parameter, bindingContext, exchange)
+				Mono<Object> argMono = this.resolvers.resolveArgument(parameter, bindingContext, exchange)
 						.defaultIfEmpty(NO_ARG_VALUE)
-						.doOnError(ex -> logArgumentErrorIfNecessary(exchange, parameter, ex)));
+						.doOnError(ex -> logArgumentErrorIfNecessary(exchange, parameter, ex));
+				if (observation != null) {
+					argMono = argMono
+							.doOnSuccess(value -> observation.phaseCompleted(
+									RequestPhase.ARGUMENT_RESOLUTION, startTime, -1, null))
+							.doOnError(ex -> observation.phaseCompleted(
+									RequestPhase.ARGUMENT_RESOLUTION, startTime, -1, ex));
+				}
+				argMonos.add(argMono);
 			}
 			catch (Exception ex) {
+				if (observation != null) {
+					observation.phaseCompleted(RequestPhase.ARGUMENT_RESOLUTION, startTime, -1, ex);
+				}
 				logArgumentErrorIfNecessary(exchange, parameter, ex);
 				argMonos.add(Mono.error(ex));
 			}
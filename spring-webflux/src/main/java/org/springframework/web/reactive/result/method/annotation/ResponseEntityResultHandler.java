@@ -150,10 +150,11 @@ public class ResponseEntityResultHandler extends AbstractMessageWriterResultHand
 						.forEach(entry -> responseHeaders.put(entry.getKey(), entry.getValue()));
 			}
 
-			if (httpEntity.getBody() == null || returnValue instanceof HttpHeaders) {
+			if (returnValue instanceof HttpHeaders) {
 				return exchange.getResponse().setComplete();
 			}
 
+			// Check before accessing the body, which may be supplied lazily
 			String etag = entityHeaders.getETag();
 			Instant lastModified = Instant.ofEpochMilli(entityHeaders.getLastModified());
 			HttpMethod httpMethod = exchange.getRequest().getMethod();
@@ -161,7 +162,11 @@ public class ResponseEntityResultHandler extends AbstractMessageWriterResultHand
 				return exchange.getResponse().setComplete();
 			}
 
-			return writeBody(httpEntity.getBody(), bodyParameter, actualParameter, exchange);
+			Object body = httpEntity.getBody();
+			if (body == null) {
+				return exchange.getResponse().setComplete();
+			}
+			return writeBody(body, bodyParameter, actualParameter, exchange);
 		});
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.web.reactive;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,10 @@ import org.springframework.core.MethodParameter;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestObserver;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
 import org.springframework.web.testfixture.method.ResolvableMethod;
@@ -72,6 +78,33 @@ public class DispatcherHandlerTests {
 		assertThat(exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5))).isEqualTo("1");
 	}
 
+	@Test
+	public void requestObserver() {
+		HandlerMapping hm = mock(HandlerMapping.class);
+		given(hm.getHandler(any())).willReturn(Mono.just((Supplier<String>) () -> "1"));
+		List<RequestPhaseEvent> events = new ArrayList<>();
+
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerBean(HandlerMapping.class, () -> hm);
+		context.registerBean(HandlerAdapter.class, SupplierHandlerAdapter::new);
+		context.registerBean(HandlerResultHandler.class, StringHandlerResultHandler::new);
+		context.registerBean(RequestObserver.class, () -> events::add);
+		context.refresh();
+
+		DispatcherHandler dispatcherHandler = new DispatcherHandler(context);
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/path"));
+		dispatcherHandler.handle(exchange).block(Duration.ofSeconds(5));
+
+		assertThat(events).extracting(RequestPhaseEvent::getPhase).containsExactly(
+				RequestPhase.HANDLER_LOOKUP, RequestPhase.RESULT_HANDLING, RequestPhase.REQUEST);
+		RequestPhaseEvent event = events.get(2);
+		assertThat(event.getMethod()).isEqualTo("GET");
+		assertThat(event.getPath()).isEqualTo("/path");
+		assertThat(event.getException()).isNull();
+		assertThat(exchange.getAttributes()).containsKey(RequestObservation.OBSERVATION_ATTRIBUTE);
+	}
+
 
 	@SuppressWarnings("unused")
 	private void handle() {}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.cache.InMemoryHttpCacheStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CachingExchangeFilterFunction}.
+ *
+ * @author Spring Framework contributors
+ */
+public class CachingExchangeFilterFunctionTests {
+
+	private static final URI DEFAULT_URL = URI.create("https://example.com/data");
+
+
+	private final InMemoryHttpCacheStore store = new InMemoryHttpCacheStore(10);
+
+	private final CachingExchangeFilterFunction filter = new CachingExchangeFilterFunction(this.store);
+
+	private final List<ClientRequest> requests = new ArrayList<>();
+
+
+	@Test
+	public void freshResponse() {
+		ExchangeFunction exchange = exchange(
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("a").build());
+
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	public void revalidateWithETag() {
+		ExchangeFunction exchange = exchange(
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "no-cache")
+						.header(HttpHeaders.ETAG, "\"v1\"").body("a").build(),
+				ClientResponse.create(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, "\"v1\"").build());
+
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(this.requests).hasSize(2);
+		assertThat(this.requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+	}
+
+	@Test
+	public void bodyNotConsumed() {
+		ExchangeFunction exchange = exchange(
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("a").build(),
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("b").build());
+
+		this.filter.filter(ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build(), exchange).block();
+		assertThat(this.store.size()).isEqualTo(0);
+		assertThat(get(exchange)).isEqualTo("b");
+		assertThat(this.store.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void unsafeRequestEvicts() {
+		ExchangeFunction exchange = exchange(
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("a").build(),
+				ClientResponse.create(HttpStatus.OK).build(),
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("b").build());
+
+		assertThat(get(exchange)).isEqualTo("a");
+		this.filter.filter(ClientRequest.create(HttpMethod.DELETE, DEFAULT_URL).build(), exchange).block();
+		assertThat(get(exchange)).isEqualTo("b");
+	}
+
+	@Test
+	public void staleWhileRevalidate() {
+		ExchangeFunction exchange = exchange(
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=0, stale-while-revalidate=60")
+						.header(HttpHeaders.ETAG, "\"v1\"").body("a").build(),
+				ClientResponse.create(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+						.header(HttpHeaders.ETAG, "\"v2\"").body("b").build());
+
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(get(exchange)).isEqualTo("a");
+		assertThat(get(exchange)).isEqualTo("b");
+		assertThat(this.requests).hasSize(2);
+		assertThat(this.requests.get(1).headers().getIfNoneMatch()).containsExactly("\"v1\"");
+	}
+
+	private ExchangeFunction exchange(ClientResponse... responses) {
+		List<ClientResponse> remaining = new ArrayList<>(Arrays.asList(responses));
+		return request -> {
+			this.requests.add(request);
+			return Mono.just(remaining.remove(0));
+		};
+	}
+
+	private String get(ExchangeFunction exchange) {
+		return this.filter.filter(ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build(), exchange)
+				.flatMap(response -> response.bodyToMono(String.class))
+				.block();
+	}
+
+}
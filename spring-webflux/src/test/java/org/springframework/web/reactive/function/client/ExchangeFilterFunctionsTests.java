@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,19 @@
 
 package org.springframework.web.reactive.function.client;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.buffer.DataBuffer;
@@ -35,6 +42,7 @@ import org.springframework.web.reactive.function.BodyExtractors;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
@@ -216,6 +224,224 @@ public class ExchangeFilterFunctionsTests {
 
 	}
 
+	@Test
+	public void hedge() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> (count.incrementAndGet() == 1 ? Mono.never() : Mono.just(response));
+
+		ClientResponse result = ExchangeFilterFunctions.hedge(Duration.ofMillis(10))
+				.filter(request, exchange).block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(count.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void hedgeNotNeeded() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			count.incrementAndGet();
+			return Mono.just(response);
+		};
+
+		ClientResponse result = ExchangeFilterFunctions.hedge(Duration.ofSeconds(5))
+				.filter(request, exchange).block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(count.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void hedgeNonIdempotent() {
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			count.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(50)).thenReturn(response);
+		};
+
+		ClientResponse result = ExchangeFilterFunctions.hedge(Duration.ofMillis(1))
+				.filter(request, exchange).block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(count.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void retry() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			switch (count.incrementAndGet()) {
+				case 1:
+					return Mono.error(new IOException("Connection reset"));
+				case 2:
+					return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+				default:
+					return Mono.just(response);
+			}
+		};
+
+		ClientResponse result = ExchangeFilterFunctions.retry(3, Duration.ofMillis(1), Duration.ofMillis(10))
+				.filter(request, exchange).block(Duration.ofSeconds(5));
+
+		assertThat(result).isSameAs(response);
+		assertThat(count.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void retryExhausted() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			count.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+		};
+
+		ClientResponse result = ExchangeFilterFunctions.retry(2, Duration.ofMillis(1), Duration.ofMillis(10))
+				.filter(request, exchange).block(Duration.ofSeconds(5));
+
+		assertThat(result.statusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(count.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void retryNotApplicable() {
+		AtomicInteger count = new AtomicInteger();
+		ExchangeFunction exchange = r -> {
+			count.incrementAndGet();
+			return Mono.error(new IOException("Connection reset"));
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.retry(2, Duration.ofMillis(1), Duration.ofMillis(10));
+
+		StepVerifier.create(filter.filter(ClientRequest.create(HttpMethod.POST, DEFAULT_URL).build(), exchange))
+				.expectError(IOException.class)
+				.verify(Duration.ofSeconds(5));
+		assertThat(count.get()).isEqualTo(1);
+
+		count.set(0);
+		StepVerifier.create(filter.filter(ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build(),
+				r -> {
+					count.incrementAndGet();
+					return Mono.error(new IllegalArgumentException());
+				}))
+				.expectError(IllegalArgumentException.class)
+				.verify(Duration.ofSeconds(5));
+		assertThat(count.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void limitConcurrency() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+		List<MonoProcessor<ClientResponse>> exchanges = new ArrayList<>();
+		ExchangeFunction exchange = r -> {
+			MonoProcessor<ClientResponse> processor = MonoProcessor.create();
+			exchanges.add(processor);
+			return processor;
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.limitConcurrency(1, 1);
+
+		MonoProcessor<ClientResponse> first = filter.filter(request, exchange).toProcessor();
+		MonoProcessor<ClientResponse> second = filter.filter(request, exchange).toProcessor();
+		assertThat(exchanges).hasSize(1);
+
+		assertThatIllegalStateException().isThrownBy(() -> filter.filter(request, exchange).block())
+				.withMessageContaining("example.com");
+
+		ClientRequest otherHost = ClientRequest.create(HttpMethod.GET, URI.create("https://example.org")).build();
+		filter.filter(otherHost, exchange).subscribe();
+		assertThat(exchanges).hasSize(2);
+
+		exchanges.get(0).onNext(response);
+		assertThat(first.peek()).isSameAs(response);
+		assertThat(exchanges).hasSize(3);
+
+		exchanges.get(2).onNext(response);
+		assertThat(second.peek()).isSameAs(response);
+	}
+
+	@Test
+	public void limitConcurrencyCancelQueued() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		List<MonoProcessor<ClientResponse>> exchanges = new ArrayList<>();
+		ExchangeFunction exchange = r -> {
+			MonoProcessor<ClientResponse> processor = MonoProcessor.create();
+			exchanges.add(processor);
+			return processor;
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.limitConcurrency(1, 1);
+
+		filter.filter(request, exchange).subscribe();
+		filter.filter(request, exchange).subscribe().dispose();
+		filter.filter(request, exchange).subscribe();
+		assertThat(exchanges).hasSize(1);
+
+		exchanges.get(0).onNext(ClientResponse.create(HttpStatus.OK).build());
+		assertThat(exchanges).hasSize(2);
+	}
+
+	@Test
+	public void roundRobin() {
+		List<URI> urls = new ArrayList<>();
+		ExchangeFunction exchange = r -> {
+			urls.add(r.url());
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.roundRobin(Arrays.asList(
+				URI.create("http://host1:8080/api"), URI.create("http://host2:8081/")));
+
+		for (int i = 0; i < 3; i++) {
+			filter.filter(ClientRequest.create(HttpMethod.GET, URI.create("https://example.com/foo%20bar?q=1")).build(),
+					exchange).block();
+		}
+
+		assertThat(urls).containsExactly(
+				URI.create("http://host1:8080/api/foo%20bar?q=1"),
+				URI.create("http://host2:8081/foo%20bar?q=1"),
+				URI.create("http://host1:8080/api/foo%20bar?q=1"));
+	}
+
+	@Test
+	public void roundRobinWithoutBaseUris() {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.roundRobin(ArrayList::new);
+
+		StepVerifier.create(filter.filter(request, r -> Mono.empty()))
+				.expectError(IllegalStateException.class)
+				.verify();
+	}
+
+	@Test
+	public void leastOutstanding() {
+		List<String> hosts = new ArrayList<>();
+		List<MonoProcessor<ClientResponse>> exchanges = new ArrayList<>();
+		ExchangeFunction exchange = r -> {
+			hosts.add(r.url().getHost());
+			MonoProcessor<ClientResponse> processor = MonoProcessor.create();
+			exchanges.add(processor);
+			return processor;
+		};
+		ExchangeFilterFunction filter = ExchangeFilterFunctions.leastOutstanding(Arrays.asList(
+				URI.create("http://host1"), URI.create("http://host2")));
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, DEFAULT_URL).build();
+
+		filter.filter(request, exchange).subscribe();
+		filter.filter(request, exchange).subscribe();
+		exchanges.get(1).onNext(ClientResponse.create(HttpStatus.OK).build());
+		filter.filter(request, exchange).subscribe();
+		filter.filter(request, exchange).subscribe();
+
+		// host1 still has an outstanding exchange, so host2 is preferred
+		assertThat(hosts).containsExactly("host1", "host2", "host2", "host2");
+	}
+
 	private String string(DataBuffer buffer) {
 		String value = buffer.toString(UTF_8);
 		DataBufferUtils.release(buffer);
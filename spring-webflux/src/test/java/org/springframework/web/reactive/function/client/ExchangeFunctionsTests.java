@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
+import org.springframework.web.testfixture.http.client.reactive.MockClientHttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ExchangeFunctions}.
+ *
+ * @author Spring Framework contributors
+ */
+public class ExchangeFunctionsTests {
+
+	private final List<RequestPhaseEvent> events = new ArrayList<>();
+
+	private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("https://example.org/persons/1"))
+			.attribute(DefaultWebClient.URI_TEMPLATE_ATTRIBUTE, "/persons/{id}")
+			.build();
+
+
+	@Test
+	public void observeExchange() {
+		ClientHttpConnector connector = (method, uri, requestCallback) ->
+				Mono.just(new MockClientHttpResponse(HttpStatus.OK));
+		ExchangeFunction exchangeFunction =
+				ExchangeFunctions.create(connector, ExchangeStrategies.withDefaults(), this.events::add);
+
+		exchangeFunction.exchange(this.request)
+				.as(StepVerifier::create)
+				.expectNextCount(1)
+				.verifyComplete();
+
+		assertThat(this.events).hasSize(1);
+		RequestPhaseEvent event = this.events.get(0);
+		assertThat(event.getPhase()).isEqualTo(RequestPhase.CLIENT_EXCHANGE);
+		assertThat(event.getMethod()).isEqualTo("GET");
+		assertThat(event.getPath()).isEqualTo("/persons/1");
+		assertThat(event.getPattern()).isEqualTo("/persons/{id}");
+		assertThat(event.getStatusCode()).isEqualTo(200);
+		assertThat(event.getException()).isNull();
+	}
+
+	@Test
+	public void observeFailedExchange() {
+		ClientHttpConnector connector = (method, uri, requestCallback) ->
+				Mono.error(new IllegalStateException("Connection refused"));
+		ExchangeFunction exchangeFunction =
+				ExchangeFunctions.create(connector, ExchangeStrategies.withDefaults(), this.events::add);
+
+		exchangeFunction.exchange(this.request)
+				.as(StepVerifier::create)
+				.verifyError(IllegalStateException.class);
+
+		assertThat(this.events).hasSize(1);
+		RequestPhaseEvent event = this.events.get(0);
+		assertThat(event.getPhase()).isEqualTo(RequestPhase.CLIENT_EXCHANGE);
+		assertThat(event.getStatusCode()).isEqualTo(-1);
+		assertThat(event.getException()).isInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.testfixture.http.server.reactive.MockServerHttpRequest;
+import org.springframework.web.testfixture.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressingResourceResolver}.
+ *
+ * @author Spring Framework contributors
+ */
+public class CompressingResourceResolverTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private static final String CONTENT = StringUtils.collectionToDelimitedString(
+			Collections.nCopies(200, "function foo() { console.log('foo'); }"), "\n");
+
+
+	@TempDir
+	Path directory;
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+
+	@BeforeEach
+	public void setup() {
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(new CompressingResourceResolver());
+		resolvers.add(new EncodedResourceResolver());
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toString() + "/"));
+	}
+
+
+	@Test
+	public void resolveGzipped() throws IOException {
+		createFile("foo.js", CONTENT);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "gzip"));
+		Resource resolved = this.resolver.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+
+		assertThat(resolved).isInstanceOf(HttpResource.class);
+		assertThat(resolved.getFilename()).isEqualTo("foo.js");
+		assertThat(gunzip(resolved)).isEqualTo(CONTENT);
+
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getVary()).containsExactly("Accept-Encoding");
+		assertThat(headers.getETag()).startsWith("\"");
+	}
+
+	@Test
+	public void resolvePrecompressed() throws IOException {
+		createFile("foo.js", CONTENT);
+		createFile("foo.js.br", "brotli");
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "br, gzip"));
+		Resource resolved = this.resolver.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+
+		assertThat(StreamUtils.copyToString(resolved.getInputStream(), StandardCharsets.UTF_8)).isEqualTo("brotli");
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.get(HttpHeaders.CONTENT_ENCODING)).containsExactly("br");
+		assertThat(headers.getETag()).isNotNull();
+	}
+
+	@Test
+	public void resolveFromCache() throws IOException {
+		File file = createFile("foo.js", CONTENT);
+		MockServerWebExchange exchange = MockServerWebExchange.from(
+				MockServerHttpRequest.get("").header("Accept-Encoding", "gzip"));
+		Resource resolved = this.resolver.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT);
+
+		assertThat(this.resolver.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT))
+				.isSameAs(resolved);
+
+		file.setLastModified(file.lastModified() + 5000);
+		assertThat(this.resolver.resolveResource(exchange, "foo.js", this.locations).block(TIMEOUT))
+				.isNotSameAs(resolved);
+	}
+
+
+	private File createFile(String name, String content) throws IOException {
+		Path path = this.directory.resolve(name);
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		return path.toFile();
+	}
+
+	private static String gunzip(Resource resource) throws IOException {
+		try (GZIPInputStream inputStream = new GZIPInputStream(resource.getInputStream())) {
+			return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
 import org.springframework.web.reactive.BindingContext;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.server.ServerWebExchange;
@@ -152,6 +155,34 @@ public class InvocableHandlerMethodTests {
 			.withMessage("boo");
 	}
 
+	@Test
+	public void observeArgumentResolutionAndInvocation() {
+		List<RequestPhaseEvent> events = new ArrayList<>();
+		this.exchange.getAttributes().put(RequestObservation.OBSERVATION_ATTRIBUTE,
+				new RequestObservation(events::add, "GET", "/path"));
+		this.resolvers.add(stubResolver("value1"));
+		Method method = ResolvableMethod.on(TestController.class).mockCall(o -> o.singleArg(null)).method();
+		Mono<HandlerResult> mono = invoke(new TestController(), method);
+
+		assertHandlerResultValue(mono, "success:value1");
+		assertThat(events).extracting(RequestPhaseEvent::getPhase)
+				.containsExactly(RequestPhase.ARGUMENT_RESOLUTION, RequestPhase.HANDLER_INVOCATION);
+		assertThat(events).extracting(RequestPhaseEvent::getException).containsOnlyNulls();
+	}
+
+	@Test
+	public void observeInvocationTargetException() {
+		List<RequestPhaseEvent> events = new ArrayList<>();
+		this.exchange.getAttributes().put(RequestObservation.OBSERVATION_ATTRIBUTE,
+				new RequestObservation(events::add, "GET", "/path"));
+		Method method = ResolvableMethod.on(TestController.class).mockCall(TestController::exceptionMethod).method();
+		Mono<HandlerResult> mono = invoke(new TestController(), method);
+
+		assertThatIllegalStateException().isThrownBy(mono::block).withMessage("boo");
+		assertThat(events).extracting(RequestPhaseEvent::getPhase).containsExactly(RequestPhase.HANDLER_INVOCATION);
+		assertThat(events.get(0).getException()).isInstanceOf(IllegalStateException.class).hasMessage("boo");
+	}
+
 	@Test
 	public void responseStatusAnnotation() {
 		Method method = ResolvableMethod.on(TestController.class).mockCall(TestController::created).method();
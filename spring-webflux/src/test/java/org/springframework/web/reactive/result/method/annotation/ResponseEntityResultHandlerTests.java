@@ -255,6 +255,28 @@ public class ResponseEntityResultHandlerTests {
 		assertConditionalResponse(exchange, HttpStatus.NOT_MODIFIED, null, etagValue, Instant.MIN);
 	}
 
+	@Test
+	public void handleReturnValueEtagWithLazyBody() throws Exception {
+		String etagValue = "\"deadb33f8badf00d\"";
+		MockServerWebExchange exchange = MockServerWebExchange.from(get("/path").ifNoneMatch(etagValue));
+
+		ResponseEntity<String> entity = ok().eTag(etagValue).lazyBody(() -> {
+			throw new IllegalStateException("Body should not be accessed");
+		});
+		MethodParameter returnType = on(TestController.class).resolveReturnType(entity(String.class));
+		HandlerResult result = handlerResult(entity, returnType);
+		this.resultHandler.handleResult(exchange, result).block(Duration.ofSeconds(5));
+
+		assertConditionalResponse(exchange, HttpStatus.NOT_MODIFIED, null, etagValue, Instant.MIN);
+
+		exchange = MockServerWebExchange.from(get("/path").ifNoneMatch("\"other\""));
+		entity = ok().eTag(etagValue).lazyBody(() -> "body");
+		result = handlerResult(entity, returnType);
+		this.resultHandler.handleResult(exchange, result).block(Duration.ofSeconds(5));
+
+		assertConditionalResponse(exchange, HttpStatus.OK, "body", etagValue, Instant.MIN);
+	}
+
 	@Test  // SPR-14559
 	public void handleReturnValueEtagInvalidIfNoneMatch() throws Exception {
 		MockServerWebExchange exchange = MockServerWebExchange.from(get("/path").ifNoneMatch("unquoted"));
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -62,6 +62,9 @@ import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.observation.RequestObservation;
+import org.springframework.web.observation.RequestObserver;
+import org.springframework.web.observation.RequestPhase;
 import org.springframework.web.util.NestedServletException;
 import org.springframework.web.util.WebUtils;
 
@@ -347,6 +350,10 @@ public class DispatcherServlet extends FrameworkServlet {
 	@Nullable
 	private List<ViewResolver> viewResolvers;
 
+	/** RequestObserver notified of completed request phases, if any. */
+	@Nullable
+	private RequestObserver requestObserver;
+
 
 	/**
 	 * Create a new {@code DispatcherServlet} that will create its own internal web
@@ -486,6 +493,18 @@ public class DispatcherServlet extends FrameworkServlet {
 		this.cleanupAfterInclude = cleanupAfterInclude;
 	}
 
+	/**
+	 * Set a {@link RequestObserver} to notify of the completed phases of each
+	 * request processed by this servlet.
+	 * <p>By default, a unique {@code RequestObserver} bean in the
+	 * WebApplicationContext is used, if any. If there is none, no request
+	 * observation is performed.
+	 * @since 5.2.12
+	 */
+	public void setRequestObserver(@Nullable RequestObserver requestObserver) {
+		this.requestObserver = requestObserver;
+	}
+
 
 	/**
 	 * This implementation calls {@link #initStrategies}.
@@ -509,6 +528,7 @@ public class DispatcherServlet extends FrameworkServlet {
 		initRequestToViewNameTranslator(context);
 		initViewResolvers(context);
 		initFlashMapManager(context);
+		initRequestObserver(context);
 	}
 
 	/**
@@ -792,6 +812,19 @@ public class DispatcherServlet extends FrameworkServlet {
 		}
 	}
 
+	/**
+	 * Initialize the {@link RequestObserver} used by this servlet instance.
+	 * <p>If none is configured, a unique {@code RequestObserver} bean is used, if any.
+	 */
+	private void initRequestObserver(ApplicationContext context) {
+		if (this.requestObserver == null) {
+			this.requestObserver = context.getBeanProvider(RequestObserver.class).getIfUnique();
+			if (this.requestObserver != null && logger.isDebugEnabled()) {
+				logger.debug("Detected " + this.requestObserver);
+			}
+		}
+	}
+
 	/**
 	 * Return this servlet's ThemeSource, if any; else return {@code null}.
 	 * <p>Default is to return the WebApplicationContext as ThemeSource,
@@ -1004,6 +1037,10 @@ public class DispatcherServlet extends FrameworkServlet {
 
 		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
 
+		RequestObservation observation = startObservation(request);
+		long startTime = (observation != null ? observation.startPhase() : 0);
+		Throwable failure = null;
+
 		try {
 			ModelAndView mv = null;
 			Exception dispatchException = null;
@@ -1013,7 +1050,16 @@ public class DispatcherServlet extends FrameworkServlet {
 				multipartRequestParsed = (processedRequest != request);
 
 				// Determine handler for the current request.
-				mappedHandler = getHandler(processedRequest);
+				if (observation != null) {
+					long lookupStartTime = observation.startPhase();
+					mappedHandler = getHandler(processedRequest);
+					observation.setPattern((String) processedRequest.getAttribute(
+							HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+					observation.phaseCompleted(RequestPhase.HANDLER_LOOKUP, lookupStartTime, -1, null);
+				}
+				else {
+					mappedHandler = getHandler(processedRequest);
+				}
 				if (mappedHandler == null) {
 					noHandlerFound(processedRequest, response);
 					return;
@@ -1054,12 +1100,15 @@ public class DispatcherServlet extends FrameworkServlet {
 				// making them available for @ExceptionHandler methods and other scenarios.
 				dispatchException = new NestedServletException("Handler dispatch failed", err);
 			}
+			// An exception resolved to an error view or response does not fail the request
 			processDispatchResult(processedRequest, response, mappedHandler, mv, dispatchException);
 		}
 		catch (Exception ex) {
+			failure = ex;
 			triggerAfterCompletion(processedRequest, response, mappedHandler, ex);
 		}
 		catch (Throwable err) {
+			failure = err;
 			triggerAfterCompletion(processedRequest, response, mappedHandler,
 					new NestedServletException("Handler processing failed", err));
 		}
@@ -1075,10 +1124,35 @@ public class DispatcherServlet extends FrameworkServlet {
 				if (multipartRequestParsed) {
 					cleanupMultipart(processedRequest);
 				}
+				if (observation != null) {
+					observation.phaseCompleted(RequestPhase.REQUEST, startTime, response.getStatus(), failure);
+				}
 			}
 		}
 	}
 
+	/**
+	 * Create a {@link RequestObservation} for the given request and expose it
+	 * as a request attribute, if a {@link RequestObserver} is configured.
+	 * <p>Forwards and includes are reported as part of the observation of the
+	 * enclosing dispatch, while an async dispatch is observed on its own.
+	 */
+	@Nullable
+	private RequestObservation startObservation(HttpServletRequest request) {
+		if (this.requestObserver == null) {
+			return null;
+		}
+		if (request.getDispatcherType() != DispatcherType.REQUEST &&
+				request.getDispatcherType() != DispatcherType.ASYNC &&
+				request.getAttribute(RequestObservation.OBSERVATION_ATTRIBUTE) != null) {
+			return null;
+		}
+		RequestObservation observation =
+				new RequestObservation(this.requestObserver, request.getMethod(), request.getRequestURI());
+		request.setAttribute(RequestObservation.OBSERVATION_ATTRIBUTE, observation);
+		return observation;
+	}
+
 	/**
 	 * Do we need view name translation?
 	 */
@@ -1115,7 +1189,22 @@ public class DispatcherServlet extends FrameworkServlet {
 
 		// Did the handler return a view to render?
 		if (mv != null && !mv.wasCleared()) {
-			render(mv, request, response);
+			RequestObservation observation =
+					(RequestObservation) request.getAttribute(RequestObservation.OBSERVATION_ATTRIBUTE);
+			if (observation != null) {
+				long startTime = observation.startPhase();
+				try {
+					render(mv, request, response);
+					observation.phaseCompleted(RequestPhase.VIEW_RENDERING, startTime, response.getStatus(), null);
+				}
+				catch (Exception ex) {
+					observation.phaseCompleted(RequestPhase.VIEW_RENDERING, startTime, response.getStatus(), ex);
+					throw ex;
+				}
+			}
+			else {
+				render(mv, request, response);
+			}
 			if (errorView) {
 				WebUtils.clearErrorRequestAttributes(request);
 			}
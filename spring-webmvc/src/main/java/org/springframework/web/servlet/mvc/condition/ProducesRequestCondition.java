@@ -27,6 +27,7 @@ import javax.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeException;
@@ -55,6 +56,11 @@ public final class ProducesRequestCondition extends AbstractRequestCondition<Pro
 
 	private static final ProducesRequestCondition EMPTY_CONDITION = new ProducesRequestCondition();
 
+	/** Marker for a memoized non-match, see {@link #getMatchingCondition}. */
+	private static final ProducesRequestCondition NO_MATCH = new ProducesRequestCondition();
+
+	private static final int MATCHING_CONDITION_CACHE_LIMIT = 32;
+
 	private static final List<ProduceMediaTypeExpression> MEDIA_TYPE_ALL_LIST =
 			Collections.singletonList(new ProduceMediaTypeExpression(MediaType.ALL_VALUE));
 
@@ -65,6 +71,9 @@ public final class ProducesRequestCondition extends AbstractRequestCondition<Pro
 
 	private final ContentNegotiationManager contentNegotiationManager;
 
+	@Nullable
+	private volatile ConcurrentLruCache<List<MediaType>, ProducesRequestCondition> matchingConditionCache;
+
 
 	/**
 	 * Creates a new instance from "produces" expressions. If 0 expressions
@@ -210,6 +219,27 @@ public final class ProducesRequestCondition extends AbstractRequestCondition<Pro
 		catch (HttpMediaTypeException ex) {
 			return null;
 		}
+		// Keyed by an immutable copy, since the resolved list may be modified after this call
+		ProducesRequestCondition match = getMatchingConditionCache().get(
+				Collections.unmodifiableList(new ArrayList<>(acceptedMediaTypes)));
+		return (match != NO_MATCH ? match : null);
+	}
+
+	private ConcurrentLruCache<List<MediaType>, ProducesRequestCondition> getMatchingConditionCache() {
+		ConcurrentLruCache<List<MediaType>, ProducesRequestCondition> cache = this.matchingConditionCache;
+		if (cache == null) {
+			synchronized (this) {
+				cache = this.matchingConditionCache;
+				if (cache == null) {
+					cache = new ConcurrentLruCache<>(MATCHING_CONDITION_CACHE_LIMIT, this::createMatchingCondition);
+					this.matchingConditionCache = cache;
+				}
+			}
+		}
+		return cache;
+	}
+
+	private ProducesRequestCondition createMatchingCondition(List<MediaType> acceptedMediaTypes) {
 		List<ProduceMediaTypeExpression> result = getMatchingExpressions(acceptedMediaTypes);
 		if (!CollectionUtils.isEmpty(result)) {
 			return new ProducesRequestCondition(result, this);
@@ -218,7 +248,7 @@ public final class ProducesRequestCondition extends AbstractRequestCondition<Pro
 			return EMPTY_CONDITION;
 		}
 		else {
-			return null;
+			return NO_MATCH;
 		}
 	}
 
@@ -53,6 +53,7 @@ import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
@@ -95,6 +96,9 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private final Set<String> safeExtensions = new HashSet<>();
 
+	private final ConcurrentLruCache<MediaTypesKey, List<MediaType>> mediaTypesToUseCache =
+			new ConcurrentLruCache<>(256, this::getMediaTypesToUse);
+
 
 	/**
 	 * Constructor with list of converters only.
@@ -220,14 +224,8 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				throw new HttpMessageNotWritableException(
 						"No converter found for return value of type: " + valueType);
 			}
-			List<MediaType> mediaTypesToUse = new ArrayList<>();
-			for (MediaType requestedType : acceptableTypes) {
-				for (MediaType producibleType : producibleTypes) {
-					if (requestedType.isCompatibleWith(producibleType)) {
-						mediaTypesToUse.add(getMostSpecificMediaType(requestedType, producibleType));
-					}
-				}
-			}
+			List<MediaType> mediaTypesToUse =
+					this.mediaTypesToUseCache.get(new MediaTypesKey(acceptableTypes, producibleTypes));
 			if (mediaTypesToUse.isEmpty()) {
 				if (body != null) {
 					throw new HttpMediaTypeNotAcceptableException(producibleTypes);
@@ -238,8 +236,6 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				return;
 			}
 
-			MediaType.sortBySpecificityAndQuality(mediaTypesToUse);
-
 			for (MediaType mediaType : mediaTypesToUse) {
 				if (mediaType.isConcrete()) {
 					selectedMediaType = mediaType;
@@ -386,6 +382,23 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		return this.contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request));
 	}
 
+	/**
+	 * Determine the compatible media types for the given combination of
+	 * acceptable and producible media types, sorted by specificity and quality.
+	 */
+	private List<MediaType> getMediaTypesToUse(MediaTypesKey key) {
+		List<MediaType> mediaTypesToUse = new ArrayList<>();
+		for (MediaType requestedType : key.acceptableTypes) {
+			for (MediaType producibleType : key.producibleTypes) {
+				if (requestedType.isCompatibleWith(producibleType)) {
+					mediaTypesToUse.add(getMostSpecificMediaType(requestedType, producibleType));
+				}
+			}
+		}
+		MediaType.sortBySpecificityAndQuality(mediaTypesToUse);
+		return Collections.unmodifiableList(mediaTypesToUse);
+	}
+
 	/**
 	 * Return the more specific of the acceptable and the producible media types
 	 * with the q-value of the former.
@@ -485,4 +498,43 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 				mediaType.getSubtype().endsWith("+xml"));
 	}
 
+
+	/**
+	 * Cache key for the result of content negotiation, i.e. for the media
+	 * types to use for a given combination of acceptable and producible types.
+	 */
+	private static final class MediaTypesKey {
+
+		private final List<MediaType> acceptableTypes;
+
+		private final List<MediaType> producibleTypes;
+
+		private final int hashCode;
+
+		MediaTypesKey(List<MediaType> acceptableTypes, List<MediaType> producibleTypes) {
+			// Copies, since the given lists are owned by the caller and may be modified later on
+			this.acceptableTypes = new ArrayList<>(acceptableTypes);
+			this.producibleTypes = new ArrayList<>(producibleTypes);
+			this.hashCode = 31 * this.acceptableTypes.hashCode() + this.producibleTypes.hashCode();
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MediaTypesKey)) {
+				return false;
+			}
+			MediaTypesKey otherKey = (MediaTypesKey) other;
+			return (this.acceptableTypes.equals(otherKey.acceptableTypes) &&
+					this.producibleTypes.equals(otherKey.producibleTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
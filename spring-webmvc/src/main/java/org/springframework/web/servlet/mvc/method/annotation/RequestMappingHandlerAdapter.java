@@ -18,6 +18,7 @@ package org.springframework.web.servlet.mvc.method.annotation;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -190,6 +191,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache = new LinkedHashMap<>();
 
+	private final Map<HandlerMethod, InvocationPlan> invocationPlanCache = new ConcurrentHashMap<>(256);
+
 
 	public RequestMappingHandlerAdapter() {
 		this.messageConverters = new ArrayList<>(4);
@@ -837,18 +840,18 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 		ServletWebRequest webRequest = new ServletWebRequest(request, response);
 		try {
-			WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
-			ModelFactory modelFactory = getModelFactory(handlerMethod, binderFactory);
-
-			ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
-			if (this.argumentResolvers != null) {
-				invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
+			ModelFactory modelFactory;
+			ServletInvocableHandlerMethod invocableMethod;
+			InvocationPlan plan = getInvocationPlan(handlerMethod);
+			if (plan != null) {
+				modelFactory = plan.modelFactory;
+				invocableMethod = plan.invocableMethod;
 			}
-			if (this.returnValueHandlers != null) {
-				invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
+			else {
+				WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
+				modelFactory = getModelFactory(handlerMethod, binderFactory);
+				invocableMethod = initInvocableHandlerMethod(handlerMethod, binderFactory);
 			}
-			invocableMethod.setDataBinderFactory(binderFactory);
-			invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
 
 			ModelAndViewContainer mavContainer = new ModelAndViewContainer();
 			mavContainer.addAllAttributes(RequestContextUtils.getInputFlashMap(request));
@@ -887,8 +890,75 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 	}
 
+	/**
+	 * Return the cached {@link InvocationPlan} for the given handler method,
+	 * or {@code null} if the handler method needs to be prepared per request.
+	 */
+	@Nullable
+	private InvocationPlan getInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		HandlerMethod key = handlerMethod.getResolvedFromHandlerMethod();
+		if (key == null) {
+			key = handlerMethod;
+		}
+		InvocationPlan plan = this.invocationPlanCache.get(key);
+		if (plan == null) {
+			plan = createInvocationPlan(handlerMethod);
+			this.invocationPlanCache.put(key, plan);
+		}
+		return (plan.isApplicableTo(handlerMethod) ? plan : null);
+	}
+
+	/**
+	 * Prepare the objects for invoking the given handler method once, if they
+	 * do not depend on {@code @InitBinder} or {@code @ModelAttribute} methods
+	 * declared locally or in {@code @ControllerAdvice} beans.
+	 */
+	private InvocationPlan createInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		Class<?> handlerType = handlerMethod.getBeanType();
+		if (!this.initBinderCache.computeIfAbsent(handlerType,
+				type -> MethodIntrospector.selectMethods(type, INIT_BINDER_METHODS)).isEmpty() ||
+				!this.modelAttributeCache.computeIfAbsent(handlerType,
+						type -> MethodIntrospector.selectMethods(type, MODEL_ATTRIBUTE_METHODS)).isEmpty()) {
+			return InvocationPlan.NONE;
+		}
+		for (ControllerAdviceBean adviceBean : this.initBinderAdviceCache.keySet()) {
+			if (adviceBean.isApplicableToBeanType(handlerType)) {
+				return InvocationPlan.NONE;
+			}
+		}
+		for (ControllerAdviceBean adviceBean : this.modelAttributeAdviceCache.keySet()) {
+			if (adviceBean.isApplicableToBeanType(handlerType)) {
+				return InvocationPlan.NONE;
+			}
+		}
+		WebDataBinderFactory binderFactory = createDataBinderFactory(Collections.emptyList());
+		ModelFactory modelFactory = new ModelFactory(
+				Collections.emptyList(), binderFactory, getSessionAttributesHandler(handlerMethod));
+		ServletInvocableHandlerMethod invocableMethod = initInvocableHandlerMethod(handlerMethod, binderFactory);
+		return new InvocationPlan(handlerMethod.getBean(), modelFactory, invocableMethod);
+	}
+
+	private ServletInvocableHandlerMethod initInvocableHandlerMethod(
+			HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
+
+		ServletInvocableHandlerMethod invocableMethod = createInvocableHandlerMethod(handlerMethod);
+		if (this.argumentResolvers != null) {
+			invocableMethod.setHandlerMethodArgumentResolvers(this.argumentResolvers);
+		}
+		if (this.returnValueHandlers != null) {
+			invocableMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
+		}
+		invocableMethod.setDataBinderFactory(binderFactory);
+		invocableMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+		return invocableMethod;
+	}
+
 	/**
 	 * Create a {@link ServletInvocableHandlerMethod} from the given {@link HandlerMethod} definition.
+	 * <p>As of 5.2.12, the returned instance is reused across requests for
+	 * handler methods of a controller bean instance without applicable
+	 * {@code @InitBinder} and {@code @ModelAttribute} methods, and must
+	 * therefore not hold any request-specific state.
 	 * @param handlerMethod the {@link HandlerMethod} definition
 	 * @return the corresponding {@link ServletInvocableHandlerMethod} (or custom subclass thereof)
 	 * @since 4.2
@@ -1003,4 +1073,38 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return mav;
 	}
 
+
+	/**
+	 * The objects required to invoke a handler method, prepared once and reused
+	 * across requests for the controller bean instance they were prepared for.
+	 */
+	private static final class InvocationPlan {
+
+		static final InvocationPlan NONE = new InvocationPlan();
+
+		@Nullable
+		private final Object bean;
+
+		private final ModelFactory modelFactory;
+
+		private final ServletInvocableHandlerMethod invocableMethod;
+
+		@SuppressWarnings("ConstantConditions")
+		private InvocationPlan() {
+			this.bean = null;
+			this.modelFactory = null;
+			this.invocableMethod = null;
+		}
+
+		InvocationPlan(Object bean, ModelFactory modelFactory, ServletInvocableHandlerMethod invocableMethod) {
+			this.bean = bean;
+			this.modelFactory = modelFactory;
+			this.invocableMethod = invocableMethod;
+		}
+
+		boolean isApplicableTo(HandlerMethod handlerMethod) {
+			return (this.bean != null && this.bean == handlerMethod.getBean());
+		}
+	}
+
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Resolver that delegates to the chain, and if a resource is found, serves it
+ * from an in-memory copy, gzip compressed on first access if the request
+ * accepts it and the resource has a {@link #setCompressibleMediaTypes
+ * compressible media type}.
+ *
+ * <p>Copies are kept per resource and content coding in a store bounded by
+ * {@link #setMaxCacheSize total size}, least recently used first out, and
+ * are replaced once the last-modified time of the resource changes. Each copy
+ * carries a strong {@code ETag} computed once from its content, and range
+ * requests are served from the same bytes.
+ *
+ * <p>Resources already encoded by an {@link EncodedResourceResolver} further
+ * down the chain, e.g. precompressed brotli variants, are kept as they are.
+ * This resolver must therefore be ordered ahead of the
+ * {@link EncodedResourceResolver}, and for the same reason ahead of a
+ * {@link VersionResourceResolver} with a content-based version strategy.
+ *
+ * @author Spring Framework contributors
+ * @since 5.2.12
+ */
+public class CompressingResourceResolver extends AbstractResourceResolver {
+
+	/**
+	 * The default compressible media types.
+	 */
+	public static final List<MediaType> DEFAULT_COMPRESSIBLE_MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+			MediaType.parseMediaType("text/*"),
+			MediaType.parseMediaType("application/javascript"),
+			MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_XML,
+			MediaType.parseMediaType("application/*+json"),
+			MediaType.parseMediaType("application/*+xml"),
+			MediaType.parseMediaType("image/svg+xml")));
+
+	private static final String GZIP = "gzip";
+
+
+	private final Map<String, CompressedResource> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final List<MediaType> compressibleMediaTypes = new ArrayList<>(DEFAULT_COMPRESSIBLE_MEDIA_TYPES);
+
+	private int minCompressionSize = 1024;
+
+	private int maxResourceSize = 1024 * 1024;
+
+	private long maxCacheSize = 16 * 1024 * 1024;
+
+	private long cacheSize;
+
+
+	/**
+	 * Configure the media types of resources to compress.
+	 * <p>By default this is set to {@link #DEFAULT_COMPRESSIBLE_MEDIA_TYPES}.
+	 * @param mediaTypes the media types to compress, possibly with wildcards
+	 */
+	public void setCompressibleMediaTypes(List<MediaType> mediaTypes) {
+		Assert.notNull(mediaTypes, "MediaTypes must not be null");
+		this.compressibleMediaTypes.clear();
+		this.compressibleMediaTypes.addAll(mediaTypes);
+	}
+
+	/**
+	 * Return a read-only list with the media types of resources to compress.
+	 */
+	public List<MediaType> getCompressibleMediaTypes() {
+		return Collections.unmodifiableList(this.compressibleMediaTypes);
+	}
+
+	/**
+	 * Set the minimum size of a resource to compress, in bytes. Smaller
+	 * resources are kept uncompressed, as are resources that do not get
+	 * smaller when compressed.
+	 * <p>By default this is set to 1KB.
+	 */
+	public void setMinCompressionSize(int minCompressionSize) {
+		this.minCompressionSize = minCompressionSize;
+	}
+
+	/**
+	 * Set the maximum size of a resource to keep in memory, in bytes. Larger
+	 * resources are served as resolved by the chain.
+	 * <p>By default this is set to 1MB.
+	 */
+	public void setMaxResourceSize(int maxResourceSize) {
+		this.maxResourceSize = maxResourceSize;
+	}
+
+	/**
+	 * Set the maximum total size of resources kept in memory, in bytes.
+	 * <p>By default this is set to 16MB.
+	 */
+	public void setMaxCacheSize(long maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+
+	@Override
+	protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null || request == null) {
+			return resource;
+		}
+
+		String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		boolean acceptsGzip = (acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP));
+		try {
+			return getCompressedResource(resource, acceptsGzip);
+		}
+		catch (IOException ex) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Failed to keep [" + resource.getFilename() + "] in memory", ex);
+			}
+			return resource;
+		}
+	}
+
+	private Resource getCompressedResource(Resource resource, boolean acceptsGzip) throws IOException {
+		if (resource instanceof CompressedResource) {
+			return resource;
+		}
+		long length = resource.contentLength();
+		if (length > this.maxResourceSize) {
+			return resource;
+		}
+
+		HttpHeaders headers = (resource instanceof HttpResource ?
+				((HttpResource) resource).getResponseHeaders() : new HttpHeaders());
+		boolean encoded = headers.containsKey(HttpHeaders.CONTENT_ENCODING);
+		boolean compressible = (!encoded && isCompressible(resource));
+		boolean compress = (compressible && acceptsGzip && length >= this.minCompressionSize);
+
+		String key = resource.getDescription() + (compress ? "+" + GZIP : "");
+		long lastModified = resource.lastModified();
+		CompressedResource compressed;
+		synchronized (this.cache) {
+			compressed = this.cache.get(key);
+		}
+		if (compressed != null && compressed.lastModified() == lastModified) {
+			return compressed;
+		}
+
+		byte[] content;
+		try (InputStream inputStream = resource.getInputStream()) {
+			content = StreamUtils.copyToByteArray(inputStream);
+		}
+		if (compress) {
+			byte[] gzipped = gzip(content);
+			if (gzipped.length < content.length) {
+				content = gzipped;
+				headers.add(HttpHeaders.CONTENT_ENCODING, GZIP);
+			}
+		}
+		if (compressible && !headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		compressed = new CompressedResource(resource, content, lastModified, headers);
+		put(key, compressed);
+		return compressed;
+	}
+
+	private boolean isCompressible(Resource resource) {
+		MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(null);
+		if (mediaType == null) {
+			return false;
+		}
+		for (MediaType compressibleMediaType : this.compressibleMediaTypes) {
+			if (compressibleMediaType.includes(mediaType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void put(String key, CompressedResource resource) {
+		synchronized (this.cache) {
+			CompressedResource previous = this.cache.put(key, resource);
+			if (previous != null) {
+				this.cacheSize -= previous.contentLength();
+			}
+			this.cacheSize += resource.contentLength();
+			Iterator<CompressedResource> iterator = this.cache.values().iterator();
+			while (this.cacheSize > this.maxCacheSize && iterator.hasNext()) {
+				this.cacheSize -= iterator.next().contentLength();
+				iterator.remove();
+			}
+		}
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	protected String resolveUrlPathInternal(String resourceUrlPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+
+		return chain.resolveUrlPath(resourceUrlPath, locations);
+	}
+
+
+	/**
+	 * An in-memory {@link HttpResource}, possibly compressed, with a strong
+	 * {@code ETag} computed from its content.
+	 */
+	static final class CompressedResource extends AbstractResource implements HttpResource {
+
+		private final Resource original;
+
+		private final byte[] content;
+
+		private final long lastModified;
+
+		private final HttpHeaders headers;
+
+		CompressedResource(Resource original, byte[] content, long lastModified, HttpHeaders headers) {
+			this.original = original;
+			this.content = content;
+			this.lastModified = lastModified;
+			this.headers = headers;
+			this.headers.setETag("\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+		}
+
+
+		@Override
+		public InputStream getInputStream() {
+			return new ByteArrayInputStream(this.content);
+		}
+
+		@Override
+		public boolean exists() {
+			return true;
+		}
+
+		@Override
+		public long contentLength() {
+			return this.content.length;
+		}
+
+		@Override
+		public long lastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public Resource createRelative(String relativePath) throws IOException {
+			return this.original.createRelative(relativePath);
+		}
+
+		@Override
+		@Nullable
+		public String getFilename() {
+			return this.original.getFilename();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.original.getDescription();
+		}
+
+		@Override
+		public HttpHeaders getResponseHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			headers.addAll(this.headers);
+			return headers;
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -40,6 +41,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.EmbeddedValueResolverAware;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
@@ -85,7 +87,8 @@ import org.springframework.web.util.UrlPathHelper;
  * for resources with a version in the URL.
  *
  * <p>This handler also properly evaluates the {@code Last-Modified} header
- * (if present) so that a {@code 304} status code will be returned as appropriate,
+ * (if present), as well as the {@code ETag} of {@link HttpResource HttpResources}
+ * that provide one, so that a {@code 304} status code will be returned as appropriate,
  * avoiding unnecessary overhead for resources that are already cached by the client.
  *
  * @author Keith Donald
@@ -103,6 +106,14 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 
 	private static final String URL_RESOURCE_CHARSET_PREFIX = "[charset=";
 
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
 
 	private final List<String> locationValues = new ArrayList<>(4);
 
@@ -140,6 +151,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 	@Nullable
 	private StringValueResolver embeddedValueResolver;
 
+	private boolean useSendfile = false;
+
 
 	public ResourceHttpRequestHandler() {
 		super(HttpMethod.GET.name(), HttpMethod.HEAD.name());
@@ -341,6 +354,32 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		return this.urlPathHelper;
 	}
 
+	/**
+	 * Whether to let the Servlet container transfer file-based resources
+	 * through its native sendfile support, where available. This is currently
+	 * supported by Tomcat's NIO and NIO2 connectors, as indicated by the
+	 * "org.apache.tomcat.sendfile.support" request attribute; the file is
+	 * then written by the container after this handler returns, without
+	 * copying its contents through the Servlet output stream. This applies to
+	 * full responses and to single byte range requests; a request for multiple
+	 * ranges is still written as a multipart response by this handler.
+	 * <p>By default this is set to "false". Note that filters which need to
+	 * access the response body, e.g. {@code ShallowEtagHeaderFilter}, won't
+	 * see the file contents if this is switched on.
+	 * @since 5.2.12
+	 */
+	public void setUseSendfile(boolean useSendfile) {
+		this.useSendfile = useSendfile;
+	}
+
+	/**
+	 * Whether file-based resources are written through the container's sendfile support.
+	 * @since 5.2.12
+	 */
+	public boolean isUseSendfile() {
+		return this.useSendfile;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -498,7 +537,8 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		checkRequest(request);
 
 		// Header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		String eTag = (resource instanceof HttpResource ? ((HttpResource) resource).getResponseHeaders().getETag() : null);
+		if (new ServletWebRequest(request, response).checkNotModified(eTag, resource.lastModified())) {
 			logger.trace("Resource not modified");
 			return;
 		}
@@ -513,6 +553,10 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		// Content phase
 		ServletServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
 		if (request.getHeader(HttpHeaders.RANGE) == null) {
+			if (this.useSendfile && supportsSendfile(request, resource)) {
+				writeWithSendfile(request, resource, 0, resource.contentLength());
+				return;
+			}
 			Assert.state(this.resourceHttpMessageConverter != null, "Not initialized");
 			this.resourceHttpMessageConverter.write(resource, mediaType, outputMessage);
 		}
@@ -521,9 +565,20 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 			ServletServerHttpRequest inputMessage = new ServletServerHttpRequest(request);
 			try {
 				List<HttpRange> httpRanges = inputMessage.getHeaders().getRange();
+				List<ResourceRegion> regions = HttpRange.toResourceRegions(httpRanges, resource);
 				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-				this.resourceRegionHttpMessageConverter.write(
-						HttpRange.toResourceRegions(httpRanges, resource), mediaType, outputMessage);
+				if (this.useSendfile && regions.size() == 1 && supportsSendfile(request, resource)) {
+					// Multipart byteranges need boundaries between the regions: single range only
+					ResourceRegion region = regions.get(0);
+					long length = resource.contentLength();
+					long start = region.getPosition();
+					long end = Math.min(start + region.getCount(), length);
+					response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + (end - 1) + '/' + length);
+					response.setContentLengthLong(end - start);
+					writeWithSendfile(request, resource, start, end);
+					return;
+				}
+				this.resourceRegionHttpMessageConverter.write(regions, mediaType, outputMessage);
 			}
 			catch (IllegalArgumentException ex) {
 				response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + resource.contentLength());
@@ -532,6 +587,33 @@ public class ResourceHttpRequestHandler extends WebContentGenerator
 		}
 	}
 
+	/**
+	 * Whether the request supports the container's sendfile support,
+	 * and the given resource is a file that can be handed over to it.
+	 */
+	private boolean supportsSendfile(HttpServletRequest request, Resource resource) {
+		return (HttpMethod.GET.matches(request.getMethod()) &&
+				Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE)) && resource.isFile());
+	}
+
+	/**
+	 * Hand the given range of the resource over to the container's sendfile
+	 * support, which writes it after this handler returns.
+	 * @param start the position of the first byte to write
+	 * @param end the position after the last byte to write
+	 */
+	private void writeWithSendfile(HttpServletRequest request, Resource resource, long start, long end)
+			throws IOException {
+
+		File file = resource.getFile();
+		request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getCanonicalPath());
+		request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+		request.setAttribute(SENDFILE_END_ATTRIBUTE, end);
+		if (logger.isTraceEnabled()) {
+			logger.trace("Resource to be written through sendfile, bytes " + start + "-" + (end - 1));
+		}
+	}
+
 	@Nullable
 	protected Resource getResource(HttpServletRequest request) throws IOException {
 		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
@@ -17,6 +17,8 @@
 package org.springframework.web.servlet;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 import javax.servlet.Servlet;
@@ -48,6 +50,9 @@ import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.observation.RequestObserver;
+import org.springframework.web.observation.RequestPhase;
+import org.springframework.web.observation.RequestPhaseEvent;
 import org.springframework.web.servlet.handler.SimpleMappingExceptionResolver;
 import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.servlet.mvc.Controller;
@@ -700,6 +705,50 @@ public class DispatcherServletTests {
 				complexDispatcherServlet.service(request, response));
 	}
 
+	@Test
+	public void requestObserver() throws Exception {
+		List<RequestPhaseEvent> events = new ArrayList<>();
+		StaticWebApplicationContext wac = new StaticWebApplicationContext();
+		wac.setServletContext(getServletContext());
+		wac.registerBean("/ok", Controller.class, () -> (request, response) -> {
+			response.getWriter().write("ok");
+			return null;
+		});
+		wac.registerBean("/resolved", Controller.class, () -> (request, response) -> {
+			throw new IllegalStateException("resolved");
+		});
+		wac.registerBean("/unresolved", Controller.class, () -> (request, response) -> {
+			throw new IllegalArgumentException("unresolved");
+		});
+		wac.registerBean(HandlerExceptionResolver.class, () -> (request, response, handler, ex) ->
+				(ex instanceof IllegalStateException ? new ModelAndView() : null));
+		wac.registerBean(RequestObserver.class, () -> events::add);
+		wac.refresh();
+		DispatcherServlet servlet = new DispatcherServlet(wac);
+		servlet.init(servletConfig);
+
+		servlet.service(new MockHttpServletRequest(getServletContext(), "GET", "/ok"), new MockHttpServletResponse());
+		assertThat(events).extracting(RequestPhaseEvent::getPhase)
+				.containsExactly(RequestPhase.HANDLER_LOOKUP, RequestPhase.REQUEST);
+		assertThat(events.get(1).getMethod()).isEqualTo("GET");
+		assertThat(events.get(1).getPath()).isEqualTo("/ok");
+		assertThat(events.get(1).getStatusCode()).isEqualTo(200);
+		assertThat(events.get(1).getException()).isNull();
+
+		events.clear();
+		servlet.service(new MockHttpServletRequest(getServletContext(), "GET", "/resolved"), new MockHttpServletResponse());
+		assertThat(events).extracting(RequestPhaseEvent::getPhase)
+				.containsExactly(RequestPhase.HANDLER_LOOKUP, RequestPhase.REQUEST);
+		assertThat(events.get(1).getException()).isNull();
+
+		events.clear();
+		assertThatExceptionOfType(ServletException.class).isThrownBy(() -> servlet.service(
+				new MockHttpServletRequest(getServletContext(), "GET", "/unresolved"), new MockHttpServletResponse()));
+		assertThat(events).extracting(RequestPhaseEvent::getPhase)
+				.containsExactly(RequestPhase.HANDLER_LOOKUP, RequestPhase.REQUEST);
+		assertThat(events.get(1).getException()).isInstanceOf(IllegalArgumentException.class);
+	}
+
 	@Test
 	public void dispatcherServletRefresh() throws ServletException {
 		MockServletContext servletContext = new MockServletContext("org/springframework/web/context");
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,11 @@
 
 package org.springframework.web.servlet.mvc.condition;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -115,6 +117,18 @@ public class ProducesRequestConditionTests {
 		assertThat(condition.getMatchingCondition(request)).as("No impact from other parameters in request").isNotNull();
 	}
 
+	@Test
+	public void matchWithModifiedAcceptedMediaTypes() {
+		List<MediaType> acceptedMediaTypes = new ArrayList<>(Collections.singletonList(MediaType.TEXT_PLAIN));
+		ContentNegotiationManager manager = new ContentNegotiationManager(request -> acceptedMediaTypes);
+		ProducesRequestCondition condition = new ProducesRequestCondition(new String[] {"text/plain"}, null, manager);
+
+		assertThat(condition.getMatchingCondition(new MockHttpServletRequest())).isNotNull();
+
+		acceptedMediaTypes.set(0, MediaType.APPLICATION_XML);
+		assertThat(condition.getMatchingCondition(new MockHttpServletRequest())).isNull();
+	}
+
 	@Test
 	public void matchParseError() {
 		ProducesRequestCondition condition = new ProducesRequestCondition("text/plain");
@@ -432,6 +432,20 @@ public class HttpEntityMethodProcessorMockTests {
 		assertConditionalResponse(HttpStatus.NOT_MODIFIED, null, etagValue, -1);
 	}
 
+	@Test
+	public void handleEtagWithHttp304AndLazyBody() throws Exception {
+		String etagValue = "\"deadb33f8badf00d\"";
+		servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, etagValue);
+		ResponseEntity<String> returnValue = ResponseEntity.ok().eTag(etagValue).lazyBody(() -> {
+			throw new IllegalStateException("Body should not be accessed");
+		});
+
+		initStringMessageConversion(TEXT_PLAIN);
+		processor.handleReturnValue(returnValue, returnTypeResponseEntity, mavContainer, webRequest);
+
+		assertConditionalResponse(HttpStatus.NOT_MODIFIED, null, etagValue, -1);
+	}
+
 	@Test
 	public void handleEtagWithHttp304AndEtagFilterHasNoImpact() throws Exception {
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -272,6 +272,33 @@ public class RequestMappingHandlerAdapterTests {
 		assertThat(this.response.getContentAsString()).isEqualTo("{\"status\":400,\"message\":\"body\"}");
 	}
 
+	@Test
+	public void invocableHandlerMethodReused() throws Exception {
+		List<HandlerMethod> created = new ArrayList<>();
+		RequestMappingHandlerAdapter adapter = new RequestMappingHandlerAdapter() {
+			@Override
+			protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+				created.add(handlerMethod);
+				return super.createInvocableHandlerMethod(handlerMethod);
+			}
+		};
+		adapter.setApplicationContext(this.webAppContext);
+		adapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new RedirectAttributeController(), "handle", Model.class);
+		ModelAndView mav = adapter.handle(this.request, this.response, handlerMethod);
+		assertThat(mav.getViewName()).isEqualTo("redirect:/path");
+		mav = adapter.handle(new MockHttpServletRequest(), new MockHttpServletResponse(), handlerMethod);
+		assertThat(mav.getViewName()).isEqualTo("redirect:/path");
+		assertThat(created).hasSize(1);
+
+		// Not reused with @ModelAttribute methods
+		handlerMethod = handlerMethod(new SimpleController(), "handle");
+		adapter.handle(new MockHttpServletRequest(), new MockHttpServletResponse(), handlerMethod);
+		adapter.handle(new MockHttpServletRequest(), new MockHttpServletResponse(), handlerMethod);
+		assertThat(created).hasSize(3);
+	}
+
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
 		return new InvocableHandlerMethod(handler, method);
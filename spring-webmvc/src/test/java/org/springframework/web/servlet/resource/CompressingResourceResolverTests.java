@@ -0,0 +1,190 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.testfixture.servlet.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link CompressingResourceResolver}.
+ *
+ * @author Spring Framework contributors
+ */
+public class CompressingResourceResolverTests {
+
+	private static final String CONTENT = StringUtils.collectionToDelimitedString(
+			Collections.nCopies(200, "function foo() { console.log('foo'); }"), "\n");
+
+
+	@TempDir
+	Path directory;
+
+	private CompressingResourceResolver compressingResolver;
+
+	private ResourceResolverChain resolver;
+
+	private List<Resource> locations;
+
+
+	@BeforeEach
+	public void setup() {
+		this.compressingResolver = new CompressingResourceResolver();
+
+		List<ResourceResolver> resolvers = new ArrayList<>();
+		resolvers.add(this.compressingResolver);
+		resolvers.add(new EncodedResourceResolver());
+		resolvers.add(new PathResourceResolver());
+		this.resolver = new DefaultResourceResolverChain(resolvers);
+
+		this.locations = Collections.singletonList(new FileSystemResource(this.directory.toString() + "/"));
+	}
+
+
+	@Test
+	public void resolveGzipped() throws IOException {
+		createFile("foo.js", CONTENT);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		Resource resolved = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertThat(resolved).isInstanceOf(HttpResource.class);
+		assertThat(resolved.getFilename()).isEqualTo("foo.js");
+		assertThat(resolved.contentLength()).isLessThan(CONTENT.length());
+		assertThat(gunzip(resolved)).isEqualTo(CONTENT);
+
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(headers.getVary()).containsExactly("Accept-Encoding");
+		assertThat(headers.getETag()).startsWith("\"").doesNotStartWith("W/");
+	}
+
+	@Test
+	public void resolveUncompressed() throws IOException {
+		createFile("foo.js", CONTENT);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Resource resolved = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertThat(resolved).isInstanceOf(HttpResource.class);
+		assertThat(StreamUtils.copyToString(resolved.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.getVary()).containsExactly("Accept-Encoding");
+		assertThat(headers.getETag()).isNotNull();
+	}
+
+	@Test
+	public void resolveNotCompressible() throws IOException {
+		createFile("foo.png", CONTENT);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource resolved = this.resolver.resolveResource(request, "foo.png", this.locations);
+
+		assertThat(resolved.contentLength()).isEqualTo(CONTENT.length());
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+		assertThat(headers.containsKey(HttpHeaders.VARY)).isFalse();
+	}
+
+	@Test
+	public void resolvePrecompressed() throws IOException {
+		createFile("foo.js", CONTENT);
+		createFile("foo.js.br", "brotli");
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "br, gzip");
+		Resource resolved = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertThat(StreamUtils.copyToString(resolved.getInputStream(), StandardCharsets.UTF_8)).isEqualTo("brotli");
+		HttpHeaders headers = ((HttpResource) resolved).getResponseHeaders();
+		assertThat(headers.get(HttpHeaders.CONTENT_ENCODING)).containsExactly("br");
+		assertThat(headers.getVary()).containsExactly("Accept-Encoding");
+		assertThat(headers.getETag()).isNotNull();
+	}
+
+	@Test
+	public void resolveFromCache() throws IOException {
+		File file = createFile("foo.js", CONTENT);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", "gzip");
+		Resource resolved = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertThat(this.resolver.resolveResource(request, "foo.js", this.locations)).isSameAs(resolved);
+		assertThat(this.resolver.resolveResource(new MockHttpServletRequest(), "foo.js", this.locations))
+				.isNotSameAs(resolved);
+
+		file.setLastModified(file.lastModified() + 5000);
+		Resource modified = this.resolver.resolveResource(request, "foo.js", this.locations);
+		assertThat(modified).isNotSameAs(resolved);
+		assertThat(modified.lastModified()).isEqualTo(file.lastModified());
+	}
+
+	@Test
+	public void resolveWithMaxCacheSize() throws IOException {
+		createFile("foo.js", CONTENT);
+		createFile("bar.js", CONTENT);
+		this.compressingResolver.setMaxCacheSize(CONTENT.length());
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Resource foo = this.resolver.resolveResource(request, "foo.js", this.locations);
+
+		assertThat(this.resolver.resolveResource(request, "foo.js", this.locations)).isSameAs(foo);
+		this.resolver.resolveResource(request, "bar.js", this.locations);
+		assertThat(this.resolver.resolveResource(request, "foo.js", this.locations)).isNotSameAs(foo);
+	}
+
+	@Test
+	public void resolveWithMaxResourceSize() throws IOException {
+		createFile("foo.js", CONTENT);
+		this.compressingResolver.setMaxResourceSize(CONTENT.length() - 1);
+		Resource resolved = this.resolver.resolveResource(new MockHttpServletRequest(), "foo.js", this.locations);
+
+		assertThat(resolved).isInstanceOf(FileSystemResource.class);
+	}
+
+
+	private File createFile(String name, String content) throws IOException {
+		Path path = this.directory.resolve(name);
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+		return path.toFile();
+	}
+
+	private static String gunzip(Resource resource) throws IOException {
+		try (GZIPInputStream inputStream = new GZIPInputStream(resource.getInputStream())) {
+			return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -120,6 +120,62 @@ public class ResourceHttpRequestHandlerTests {
 		assertThat(this.response.getHeaders("Accept-Ranges").size()).isEqualTo(1);
 	}
 
+	@Test
+	public void getResourceWithSendfile() throws Exception {
+		this.handler.setUseSendfile(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getContentType()).isEqualTo("text/css");
+		assertThat(this.response.getContentLength()).isEqualTo(17);
+		assertThat(this.response.getContentAsString()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename"))
+				.isEqualTo(new ClassPathResource("test/foo.css", getClass()).getFile().getCanonicalPath());
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(17L);
+	}
+
+	@Test
+	public void partialContentByteRangeWithSendfile() throws Exception {
+		this.handler.setUseSendfile(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.addHeader("Range", "bytes=2-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentLength()).isEqualTo(4);
+		assertThat(this.response.getHeader("Content-Range")).isEqualTo("bytes 2-5/17");
+		assertThat(this.response.getContentAsString()).isEmpty();
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+	}
+
+	@Test
+	public void partialContentMultipleByteRangesWithSendfile() throws Exception {
+		this.handler.setUseSendfile(true);
+		this.request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		this.request.addHeader("Range", "bytes=0-1, 4-5");
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getStatus()).isEqualTo(206);
+		assertThat(this.response.getContentType()).startsWith("multipart/byteranges; boundary=");
+		assertThat(this.response.getContentAsString()).contains("Content-Range: bytes 0-1/17");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+	}
+
+	@Test
+	public void getResourceWithSendfileNotSupported() throws Exception {
+		this.handler.setUseSendfile(true);
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		this.handler.handleRequest(this.request, this.response);
+
+		assertThat(this.response.getContentAsString()).isEqualTo("h1 { color:red; }");
+		assertThat(this.request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+	}
+
 	@Test
 	public void getResourceHttpOptions() throws Exception {
 		this.request.setMethod("OPTIONS");
@@ -685,6 +741,33 @@ public class ResourceHttpRequestHandlerTests {
 		assertThat(this.response.getHeaderValues("Vary")).containsExactly("Accept-Encoding");
 	}
 
+	@Test
+	public void getResourceWithCompressingResourceResolver() throws Exception {
+		ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+		handler.setResourceResolvers(Arrays.asList(new CompressingResourceResolver(), new PathResourceResolver()));
+		handler.setLocations(Collections.singletonList(new ClassPathResource("test/", getClass())));
+		handler.setServletContext(new MockServletContext());
+		handler.afterPropertiesSet();
+
+		this.request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		handler.handleRequest(this.request, this.response);
+
+		String eTag = this.response.getHeader("ETag");
+		assertThat(eTag).startsWith("\"");
+		assertThat(this.response.getHeaderValues("ETag")).hasSize(1);
+		assertThat(this.response.getHeaderValues("Vary")).containsExactly("Accept-Encoding");
+		assertThat(this.response.getContentAsString()).isEqualTo("h1 { color:red; }");
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "");
+		request.addHeader("If-None-Match", eTag);
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "foo.css");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+
+		assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+		assertThat(response.getContentAsString()).isEmpty();
+	}
+
 	@Test // gh-25976
 	public void partialContentWithHttpHead() throws Exception {
 		this.request.setMethod("HEAD");